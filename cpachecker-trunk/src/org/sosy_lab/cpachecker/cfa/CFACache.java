@@ -0,0 +1,311 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.CharMatcher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+
+/**
+ * A file that stores a single fully post-processed CFA together with a key that identifies the
+ * input program and all options that influence CFA creation. If the key matches, the CFA can be
+ * loaded from the file instead of parsing the program again.
+ *
+ * <p>The file consists of a small header (magic number, format version, key) followed by the
+ * Java serialization of the {@link ImmutableCFA}. There is no dedicated binary encoding of the CFA
+ * with its own string, node, edge, and AST tables; the serialization shares identical objects
+ * (e.g., types, declarations, and file names), but still stores class descriptors and field names.
+ * Only classes from CPAchecker and from the few libraries whose objects are part of a CFA may be
+ * deserialized, all other classes in the file are rejected.
+ */
+final class CFACache {
+
+  private static final int MAGIC = 0x43464143; // "CFAC"
+  private static final int FORMAT_VERSION = 1;
+
+  /** Prefixes of all options that may influence the CFA (or the information attached to it). */
+  private static final ImmutableList<String> RELEVANT_OPTIONS =
+      ImmutableList.of(
+          "cfa.",
+          "parser.",
+          "preprocessor.",
+          "language",
+          "liveVar.",
+          "dependenceGraph.",
+          "dependencegraph.",
+          "analysis.entryFunction",
+          "analysis.functionPointer",
+          "analysis.interprocedural",
+          "analysis.machineModel",
+          "analysis.matchAssignedFunctionPointers",
+          "analysis.summaryEdges",
+          "analysis.useGlobalVars",
+          "analysis.useLoopStructure");
+
+  /** Prefixes of the names of all classes that may be deserialized from a cache file. */
+  private static final ImmutableList<String> ALLOWED_CLASSES =
+      ImmutableList.of(
+          "org.sosy_lab.cpachecker.",
+          "org.sosy_lab.common.",
+          "com.google.common.collect.",
+          "com.google.common.base.",
+          "java.util.",
+          "java.lang.",
+          "java.math.");
+
+  /** Prefixes of the names of classes that are rejected although they are in ALLOWED_CLASSES. */
+  private static final ImmutableList<String> FORBIDDEN_CLASSES =
+      ImmutableList.of(
+          "java.lang.reflect.", "java.lang.invoke.", "java.lang.Runtime", "java.lang.Process");
+
+  private final Path file;
+  private final LogManager logger;
+
+  CFACache(Path pFile, LogManager pLogger) {
+    file = pFile;
+    logger = pLogger;
+  }
+
+  /**
+   * Compute the key for the given program.
+   *
+   * @param pConfig The configuration of CFA creation, only relevant options are considered.
+   * @param pSourceFiles The names of the source files.
+   * @param pSourceContents The contents of the source files (after preprocessing, if enabled), in
+   *     the same order as the file names.
+   */
+  static HashCode computeKey(
+      Configuration pConfig, List<String> pSourceFiles, List<String> pSourceContents) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(CPAchecker.getCPAcheckerVersion(), UTF_8);
+
+    String[] configLines = pConfig.asPropertiesString().split("\n");
+    Arrays.sort(configLines);
+    for (String line : configLines) {
+      String option = line.trim();
+      if (RELEVANT_OPTIONS.stream().anyMatch(option::startsWith)) {
+        hasher.putInt(option.length()).putString(option, UTF_8);
+      }
+    }
+
+    for (int i = 0; i < pSourceFiles.size(); i++) {
+      String name = pSourceFiles.get(i);
+      String content = pSourceContents.get(i);
+      hasher.putInt(name.length()).putString(name, UTF_8);
+      hasher.putInt(content.length()).putString(content, UTF_8);
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Load the CFA from the cache file if the file exists and was written for the given key.
+   *
+   * @return The cached CFA, or null if the cache cannot be used.
+   */
+  @Nullable CFA load(HashCode pKey) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      byte[] expectedKey = pKey.asBytes();
+      if (buffer.remaining() < 3 * Integer.BYTES + expectedKey.length
+          || buffer.getInt() != MAGIC
+          || buffer.getInt() != FORMAT_VERSION
+          || buffer.getInt() != expectedKey.length) {
+        logger.log(Level.INFO, "Ignoring CFA cache file", file, "with unknown format.");
+        return null;
+      }
+      byte[] key = new byte[expectedKey.length];
+      buffer.get(key);
+      if (!HashCode.fromBytes(key).equals(pKey)) {
+        logger.log(Level.FINE, "CFA cache file", file, "belongs to a different program.");
+        return null;
+      }
+
+      try (ObjectInputStream in =
+          new RestrictedObjectInputStream(new ByteBufferInputStream(buffer))) {
+        return (CFA) in.readObject();
+      }
+
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // includes InvalidClassException for forbidden classes
+      logger.logUserException(Level.WARNING, e, "Could not read CFA from cache file");
+      return null;
+    }
+  }
+
+  /** Write the CFA to the cache file, replacing any previous content. */
+  void store(HashCode pKey, CFA pCfa) {
+    Path tmpFile = null;
+    try {
+      Path dir = file.toAbsolutePath().getParent();
+      Files.createDirectories(dir);
+      tmpFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile));
+          DataOutputStream header = new DataOutputStream(out)) {
+        byte[] key = pKey.asBytes();
+        header.writeInt(MAGIC);
+        header.writeInt(FORMAT_VERSION);
+        header.writeInt(key.length);
+        header.write(key);
+
+        ObjectOutputStream oos = new ObjectOutputStream(header);
+        oos.writeObject(pCfa);
+        oos.flush();
+      }
+      // Never let concurrent readers see a partially written file.
+      try {
+        Files.move(
+            tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        // Readers check the key and the format of the file, and a partially written file
+        // fails to deserialize, so they would only miss the cache.
+        logger.log(
+            Level.FINE, "File system does not support atomic moves, replacing", file, "directly.");
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmpFile = null;
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write CFA to cache file");
+    } finally {
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException e) {
+          logger.logDebugException(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Check whether a class with the given name (as returned by {@link Class#getName()}) may be
+   * deserialized from a cache file.
+   */
+  @VisibleForTesting
+  static boolean isAllowedClass(String pClassName) {
+    String name = CharMatcher.is('[').trimLeadingFrom(pClassName);
+    if (name.length() == 1) {
+      return pClassName.startsWith("["); // array of primitive type
+    }
+    if (name.length() != pClassName.length()) {
+      // array of objects, name has the form "Lpackage.Class;"
+      if (!name.startsWith("L") || !name.endsWith(";")) {
+        return false;
+      }
+      name = name.substring(1, name.length() - 1);
+    }
+    return ALLOWED_CLASSES.stream().anyMatch(name::startsWith)
+        && FORBIDDEN_CLASSES.stream().noneMatch(name::startsWith);
+  }
+
+  /**
+   * An {@link ObjectInputStream} that only resolves classes listed in {@link #ALLOWED_CLASSES} (and
+   * arrays of them and of primitive types) and no proxy classes.
+   */
+  private static final class RestrictedObjectInputStream extends ObjectInputStream {
+
+    private RestrictedObjectInputStream(InputStream pIn) throws IOException {
+      super(pIn);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass pDesc)
+        throws IOException, ClassNotFoundException {
+      String name = pDesc.getName();
+      if (!isAllowedClass(name)) {
+        throw new InvalidClassException(name, "class is not allowed in CFA cache files");
+      }
+      return super.resolveClass(pDesc);
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] pInterfaces) throws IOException {
+      throw new InvalidClassException("proxy classes are not allowed in CFA cache files");
+    }
+  }
+
+  /** An {@link InputStream} that reads the remaining content of a {@link ByteBuffer}. */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer pBuffer) {
+      buffer = pBuffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] pBytes, int pOffset, int pLength) {
+      if (pLength == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int length = Math.min(pLength, buffer.remaining());
+      buffer.get(pBytes, pOffset, length);
+      return length;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.common.io.TempFile.DeleteOnCloseFile;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFACacheTest {
+
+  private static final ImmutableList<String> PROGRAM =
+      ImmutableList.of(
+          "struct s { int a; long b[3]; };",
+          "struct s global = { 1, { 2, 3, 4 } };",
+          "int f(int p) {",
+          "  switch (p) { case 0: return global.a; default: return p * 2; }",
+          "}",
+          "int main() {",
+          "  int i, x = 0;",
+          "  for (i = 0; i < 3; i++) { x += f(i) + (int) global.b[i]; }",
+          "  if (x < 0) { ERROR: return 1; }",
+          "  return 0;",
+          "}");
+
+  /** Describe all functions, nodes, and edges of a CFA. */
+  private static List<String> describe(CFA pCfa) {
+    List<String> result = new ArrayList<>();
+    result.add(pCfa.getMachineModel().toString());
+    result.add(pCfa.getLanguage().toString());
+    result.add(pCfa.getMainFunction().getFunctionName());
+    result.add(Boolean.toString(pCfa.getLoopStructure().isPresent()));
+    result.add(Boolean.toString(pCfa.getVarClassification().isPresent()));
+    result.addAll(pCfa.getAllFunctionNames());
+    for (CFANode node : pCfa.getAllNodes()) {
+      result.add(node.getNodeNumber() + " " + node.getFunctionName() + " " + node.isLoopStart());
+      for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+        result.add(
+            edge.getPredecessor().getNodeNumber()
+                + " -> "
+                + edge.getSuccessor().getNodeNumber()
+                + " "
+                + edge.getEdgeType()
+                + " "
+                + edge.getFileLocation()
+                + " "
+                + edge.getCode());
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Configuration config = TestDataTools.configurationForTest().build();
+    CFA cfa = TestDataTools.makeCFA(config, PROGRAM.toArray(new String[0]));
+    HashCode key =
+        CFACache.computeKey(
+            config, ImmutableList.of("test.c"), ImmutableList.of(Joiner.on('\n').join(PROGRAM)));
+
+    try (DeleteOnCloseFile file =
+        TempFile.builder().prefix("cfa").suffix(".cache").createDeleteOnClose()) {
+      CFACache cache = new CFACache(file.toPath(), LogManager.createTestLogManager());
+      cache.store(key, cfa);
+
+      CFA loaded = cache.load(key);
+      assertThat(loaded).isNotNull();
+      assertThat(describe(loaded)).containsExactlyElementsIn(describe(cfa)).inOrder();
+
+      // nodes created later must not reuse numbers of the loaded nodes
+      int maxNodeNumber = 0;
+      for (CFANode node : loaded.getAllNodes()) {
+        maxNodeNumber = Math.max(maxNodeNumber, node.getNodeNumber());
+      }
+      assertThat(new CFANode("main").getNodeNumber()).isGreaterThan(maxNodeNumber);
+
+      HashCode otherKey =
+          CFACache.computeKey(
+              config, ImmutableList.of("other.c"), ImmutableList.of(Joiner.on('\n').join(PROGRAM)));
+      assertThat(cache.load(otherKey)).isNull();
+    }
+  }
+
+  @Test
+  public void testAllowedClasses() {
+    assertThat(CFACache.isAllowedClass(ImmutableCFA.class.getName())).isTrue();
+    assertThat(CFACache.isAllowedClass(ImmutableList.class.getName())).isTrue();
+    assertThat(CFACache.isAllowedClass(String.class.getName())).isTrue();
+    assertThat(CFACache.isAllowedClass(int[].class.getName())).isTrue();
+    assertThat(CFACache.isAllowedClass(CFANode[][].class.getName())).isTrue();
+
+    assertThat(CFACache.isAllowedClass(java.io.File.class.getName())).isFalse();
+    assertThat(CFACache.isAllowedClass(java.io.File[].class.getName())).isFalse();
+    assertThat(CFACache.isAllowedClass(java.lang.reflect.Proxy.class.getName())).isFalse();
+    assertThat(CFACache.isAllowedClass("org.apache.commons.collections.functors.InvokerTransformer"))
+        .isFalse();
+  }
+}
@@ -23,8 +23,11 @@
  */
 package org.sosy_lab.cpachecker.cfa;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
 import com.google.common.io.MoreFiles;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -36,12 +39,14 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
 import javax.annotation.Nullable;
@@ -54,6 +59,7 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
@@ -108,6 +114,7 @@ import org.sosy_lab.cpachecker.util.LoopStructure;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.dependencegraph.DGBuilder;
 import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassificationBuilder;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassificationBuilder.VariableClassificationStatistics;
@@ -195,6 +202,19 @@ public class CFACreator {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path serializeCfaFile = Paths.get("cfa.ser.gz");
 
+  @Option(
+    name = "cfa.cacheFile",
+    description =
+        "File for caching the CFA between runs. If the file contains the CFA of the same"
+            + " (pre-processed) program created with the same CFA-related options,"
+            + " the CFA is loaded from it instead of parsing the program,"
+            + " otherwise the file is overwritten with the newly created CFA."
+            + " Relative paths are resolved in the output directory."
+            + " Note that without pre-processing, changes in included files are not detected."
+  )
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable Path cacheFile = null;
+
   @Option(
     secure = true,
     name = "cfa.pixelGraphicFile",
@@ -268,6 +288,7 @@ private boolean classifyNodes = false;
 
   private final LogManager logger;
   private final Parser parser;
+  private final @Nullable CParserWithPreprocessor preprocessingParser;
   private final ShutdownNotifier shutdownNotifier;
 
   private static class CFACreatorStatistics implements Statistics {
@@ -275,12 +296,15 @@ private boolean classifyNodes = false;
     private final Timer parserInstantiationTime = new Timer();
     private final Timer totalTime = new Timer();
     private Timer parsingTime;
+    private @Nullable TimeSpan accumulatedParsingTime;
     private Timer conversionTime;
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
     private final Timer variableClassificationTime = new Timer();
     private final Timer dependenceGraphConstructionTime = new Timer();
     private final Timer exportTime = new Timer();
+    private final Timer cacheTime = new Timer();
+    private boolean loadedFromCache = false;
     private @Nullable VariableClassificationStatistics varClassificationStats;
     private Statistics dependenceGraphStats;
 
@@ -293,7 +317,22 @@ private boolean classifyNodes = false;
     public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
       out.println("  Time for loading parser:    " + parserInstantiationTime);
       out.println("  Time for CFA construction:  " + totalTime);
+      if (cacheTime.getNumberOfIntervals() > 0) {
+        out.println(
+            "    Time for CFA cache:       "
+                + cacheTime
+                + (loadedFromCache ? " (CFA loaded from cache)" : ""));
+      }
       out.println("    Time for parsing file(s): " + parsingTime);
+      if (accumulatedParsingTime != null && parsingTime.getSumTime().asNanos() > 0) {
+        out.println(
+            "      Sum over all files:     "
+                + accumulatedParsingTime.formatAs(TimeUnit.SECONDS)
+                + " (speedup "
+                + StatisticsUtils.div(
+                    accumulatedParsingTime.asNanos(), parsingTime.getSumTime().asNanos())
+                + ")");
+      }
       out.println("    Time for AST to CFA:      " + conversionTime);
       out.println("    Time for CFA sanity check:" + checkTime);
       out.println("    Time for post-processing: " + processingTime);
@@ -336,6 +375,7 @@ private boolean classifyNodes = false;
 
     stats.parserInstantiationTime.start();
 
+    CParserWithPreprocessor cPreprocessingParser = null;
     switch (language) {
     case JAVA:
       parser = Parsers.getJavaParser(logger, config);
@@ -349,8 +389,9 @@ private boolean classifyNodes = false;
               config, logger, outerParser, readLineDirectives || usePreprocessor);
 
       if (usePreprocessor) {
-        CPreprocessor preprocessor = new CPreprocessor(config, logger);
-        outerParser = new CParserWithPreprocessor(outerParser, preprocessor);
+        cPreprocessingParser =
+            new CParserWithPreprocessor(outerParser, new CPreprocessor(config, logger));
+        outerParser = cPreprocessingParser;
       }
 
       parser = outerParser;
@@ -364,6 +405,7 @@ private boolean classifyNodes = false;
     default:
       throw new AssertionError();
     }
+    preprocessingParser = cPreprocessingParser;
 
     stats.parsingTime = parser.getParseTime();
     stats.conversionTime = parser.getCFAConstructionTime();
@@ -413,6 +455,25 @@ private boolean classifyNodes = false;
 
     stats.totalTime.start();
     try {
+      CFACache cache = null;
+      HashCode cacheKey = null;
+      if (cacheFile != null && language == Language.C) {
+        stats.cacheTime.start();
+        try {
+          cache = new CFACache(cacheFile, logger);
+          cacheKey = computeCacheKey(sourceFiles);
+          CFA cachedCfa = cache.load(cacheKey);
+          if (cachedCfa != null) {
+            logger.log(Level.FINE, "Loaded CFA from cache file", cacheFile);
+            stats.loadedFromCache = true;
+            exportCFAAsyncIfNecessary(cachedCfa);
+            return cachedCfa;
+          }
+        } finally {
+          stats.cacheTime.stop();
+        }
+      }
+
       // FIRST, parse file(s) and create CFAs for each function
       logger.log(Level.FINE, "Starting parsing of file(s)");
 
@@ -433,13 +494,46 @@ private boolean classifyNodes = false;
         throw new AssertionError();
       }
 
-      return createCFA(c, mainFunction);
+      CFA cfa = createCFA(c, mainFunction);
+
+      if (cache != null) {
+        if (cfa.getLiveVariables().isPresent()) {
+          // LiveVariables cannot be serialized
+          logger.log(Level.INFO, "Not writing CFA cache file because live variables are present.");
+        } else {
+          stats.cacheTime.start();
+          try {
+            cache.store(cacheKey, cfa);
+          } finally {
+            stats.cacheTime.stop();
+          }
+        }
+      }
+      return cfa;
 
     } finally {
       stats.totalTime.stop();
     }
   }
 
+  /**
+   * Compute the key for the {@link CFACache} from the (pre-processed) contents of the source files
+   * and the configuration. The pre-processed contents are kept by the parser, such that the
+   * pre-processor does not need to run again if the CFA is not in the cache.
+   */
+  private HashCode computeCacheKey(List<String> pSourceFiles)
+      throws IOException, CParserException, InterruptedException {
+    List<String> contents = new ArrayList<>(pSourceFiles.size());
+    for (String sourceFile : pSourceFiles) {
+      if (preprocessingParser != null) {
+        contents.add(preprocessingParser.preprocess(sourceFile));
+      } else {
+        contents.add(new String(Files.readAllBytes(Paths.get(sourceFile)), UTF_8));
+      }
+    }
+    return CFACache.computeKey(config, pSourceFiles, contents);
+  }
+
   private CFA createCFA(ParseResult pParseResult, FunctionEntryNode pMainFunction) throws InvalidConfigurationException, InterruptedException, ParserException {
 
     FunctionEntryNode mainFunction = pMainFunction;
@@ -560,12 +654,7 @@ private boolean classifyNodes = false;
     assert CFACheck.check(mainFunction, null);
     stats.checkTime.stop();
 
-    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
-        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
-        || ((serializeCfaFile != null) && serializeCfa)
-        || (exportCfaPixelFile != null)) {
-      exportCFAAsync(immutableCFA);
-    }
+    exportCFAAsyncIfNecessary(immutableCFA);
 
     logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
 
@@ -616,6 +705,7 @@ private boolean classifyNodes = false;
       }
 
       parseResult = ((CParser) parser).parseFile(sourceFiles);
+      stats.accumulatedParsingTime = parser.getAccumulatedParseTime();
     }
 
     if (parseResult.isEmpty()) {
@@ -946,6 +1036,15 @@ v.addInitializer(initializer);
     }
   }
 
+  private void exportCFAAsyncIfNecessary(final CFA cfa) {
+    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
+        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
+        || ((serializeCfaFile != null) && serializeCfa)
+        || (exportCfaPixelFile != null)) {
+      exportCFAAsync(cfa);
+    }
+  }
+
   private void exportCFAAsync(final CFA cfa) {
     // Execute asynchronously, this may take several seconds for large programs on slow disks.
     // This is safe because we don't modify the CFA from this point on.
@@ -47,6 +47,7 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
 import org.sosy_lab.cpachecker.cfa.parser.Scope;
@@ -214,6 +215,11 @@ public class CParserWithLocationMapper implements CParser {
     return realParser.getParseTime();
   }
 
+  @Override
+  public TimeSpan getAccumulatedParseTime() {
+    return realParser.getAccumulatedParseTime();
+  }
+
   @Override
   public Timer getCFAConstructionTime() {
     return realParser.getCFAConstructionTime();
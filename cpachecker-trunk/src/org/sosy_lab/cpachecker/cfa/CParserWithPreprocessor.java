@@ -25,7 +25,10 @@ package org.sosy_lab.cpachecker.cfa;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
 import org.sosy_lab.cpachecker.cfa.parser.Scope;
@@ -41,18 +44,40 @@ class CParserWithPreprocessor implements CParser {
   private final CParser realParser;
   private final CPreprocessor preprocessor;
 
+  /** Results of {@link #preprocess(String)} that were not yet used for parsing. */
+  private final Map<String, String> preprocessedFiles = new HashMap<>();
+
   public CParserWithPreprocessor(CParser pRealParser, CPreprocessor pPreprocessor) {
     realParser = pRealParser;
     preprocessor = pPreprocessor;
   }
 
-  @Override
-  public ParseResult parseFile(String pFilename)
-      throws ParserException, IOException, InterruptedException {
+  /**
+   * Run the preprocessor on a file and keep the result, such that parsing the same file afterwards
+   * does not run the preprocessor again.
+   */
+  String preprocess(String pFilename) throws CParserException, InterruptedException {
     String programCode = preprocessor.preprocess(pFilename);
+    preprocessedFiles.put(pFilename, programCode);
+    return programCode;
+  }
+
+  private String getPreprocessedCode(String pFilename)
+      throws CParserException, InterruptedException {
+    String programCode = preprocessedFiles.remove(pFilename);
+    if (programCode == null) {
+      programCode = preprocessor.preprocess(pFilename);
+    }
     if (programCode.isEmpty()) {
       throw new CParserException("Preprocessor returned empty program");
     }
+    return programCode;
+  }
+
+  @Override
+  public ParseResult parseFile(String pFilename)
+      throws ParserException, IOException, InterruptedException {
+    String programCode = getPreprocessedCode(pFilename);
     return realParser.parseString(pFilename, programCode);
   }
 
@@ -69,6 +94,11 @@ class CParserWithPreprocessor implements CParser {
     return realParser.getParseTime();
   }
 
+  @Override
+  public TimeSpan getAccumulatedParseTime() {
+    return realParser.getAccumulatedParseTime();
+  }
+
   @Override
   public Timer getCFAConstructionTime() {
     return realParser.getCFAConstructionTime();
@@ -80,11 +110,7 @@ class CParserWithPreprocessor implements CParser {
 
     List<FileContentToParse> programs = new ArrayList<>(pFilenames.size());
     for (String f : pFilenames) {
-      String programCode = preprocessor.preprocess(f);
-      if (programCode.isEmpty()) {
-        throw new CParserException("Preprocessor returned empty program");
-      }
-      programs.add(new FileContentToParse(f, programCode));
+      programs.add(new FileContentToParse(f, getPreprocessedCode(f)));
     }
     return realParser.parseString(programs, new CSourceOriginMapping());
   }
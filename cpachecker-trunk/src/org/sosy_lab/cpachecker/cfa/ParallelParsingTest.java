@@ -0,0 +1,141 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CParser.FileContentToParse;
+import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.exceptions.CParserException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/** Tests that parsing several files in parallel produces the same CFA as sequential parsing. */
+public class ParallelParsingTest {
+
+  private static final ImmutableList<FileContentToParse> PROGRAM =
+      ImmutableList.of(
+          new FileContentToParse(
+              "main.c",
+              "extern int counter;\n"
+                  + "int get(int);\n"
+                  + "static int local = 1;\n"
+                  + "int main() {\n"
+                  + "  int x = get(local);\n"
+                  + "  while (x < 10) { x++; counter += x; }\n"
+                  + "  if (counter < 0) { ERROR: return 1; }\n"
+                  + "  return 0;\n"
+                  + "}\n"),
+          new FileContentToParse(
+              "lib.c",
+              "int counter = 0;\n"
+                  + "static int local = 2;\n"
+                  + "int get(int p) {\n"
+                  + "  switch (p) { case 0: return local; default: return p + local; }\n"
+                  + "}\n"),
+          new FileContentToParse(
+              "other.c",
+              "struct s { int a; char b[4]; };\n"
+                  + "static struct s data = { 1, \"abc\" };\n"
+                  + "int read(void) {\n"
+                  + "  int i, sum = 0;\n"
+                  + "  for (i = 0; i < 4; i++) { sum += data.b[i] ? data.a : 0; }\n"
+                  + "  return sum;\n"
+                  + "}\n"),
+          new FileContentToParse(
+              "last.c",
+              "extern int counter;\n"
+                  + "void reset(void) { counter = 0; }\n"));
+
+  private static ParseResult parse(int pThreads)
+      throws InvalidConfigurationException, CParserException {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("cfa.parserThreads", Integer.toString(pThreads))
+            .build();
+    CParser parser =
+        CParser.Factory.getParser(
+            LogManager.createTestLogManager(),
+            CParser.Factory.getOptions(config),
+            MachineModel.LINUX32);
+    return parser.parseString(PROGRAM, new CSourceOriginMapping());
+  }
+
+  /**
+   * Describe all global declarations, functions, nodes, and edges of a parse result. Node numbers
+   * are given relative to the smallest node number, because they are unique across all CFAs.
+   */
+  private static List<String> describe(ParseResult pResult) {
+    int firstNode = Integer.MAX_VALUE;
+    for (CFANode node : pResult.getCFANodes().values()) {
+      firstNode = Math.min(firstNode, node.getNodeNumber());
+    }
+
+    List<String> result = new ArrayList<>();
+    for (Pair<ADeclaration, String> declaration : pResult.getGlobalDeclarations()) {
+      result.add(declaration.getFirst().toASTString() + " " + declaration.getSecond());
+    }
+    result.addAll(pResult.getFunctions().keySet());
+    for (String function : pResult.getCFANodes().keySet()) {
+      for (CFANode node : pResult.getCFANodes().get(function)) {
+        for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+          result.add(
+              function
+                  + ": "
+                  + (edge.getPredecessor().getNodeNumber() - firstNode)
+                  + " -> "
+                  + (edge.getSuccessor().getNodeNumber() - firstNode)
+                  + " "
+                  + edge.getEdgeType()
+                  + " "
+                  + edge.getFileLocation()
+                  + " "
+                  + edge.getCode());
+        }
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testSameCfa() throws Exception {
+    List<String> sequential = describe(parse(1));
+    assertThat(sequential).isNotEmpty();
+
+    for (int threads : new int[] {2, PROGRAM.size(), 0}) {
+      assertThat(describe(parse(threads))).containsExactlyElementsIn(sequential).inOrder();
+    }
+  }
+}
@@ -24,6 +24,8 @@
 package org.sosy_lab.cpachecker.cfa;
 
 import java.io.IOException;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.exceptions.ParserException;
 
@@ -62,6 +64,15 @@ public interface Parser {
    */
   Timer getParseTime();
 
+  /**
+   * Return the sum of the times needed for parsing each single file, if the files were parsed in
+   * parallel (this is larger than the time measured by {@link #getParseTime()}).
+   * Optional method: may return null.
+   */
+  default @Nullable TimeSpan getAccumulatedParseTime() {
+    return null;
+  }
+
   /**
    * Return a timer that measured the time need for CFA construction.
    * Optional method: may return null.
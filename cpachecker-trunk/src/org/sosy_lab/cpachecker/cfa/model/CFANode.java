@@ -26,18 +26,18 @@ package org.sosy_lab.cpachecker.cfa.model;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
-import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CFANode implements Comparable<CFANode>, Serializable {
 
   private static final long serialVersionUID = 5168350921309486536L;
 
-  private static final UniqueIdGenerator idGenerator = new UniqueIdGenerator();
+  private static final AtomicInteger nextNodeNumber = new AtomicInteger();
 
   private final int nodeNumber;
 
@@ -63,7 +63,7 @@ public class CFANode implements Comparable<CFANode>, Serializable {
     assert !pFunctionName.isEmpty();
 
     functionName = pFunctionName;
-    nodeNumber = idGenerator.getFreshId();
+    nodeNumber = nextNodeNumber.getAndIncrement();
   }
 
   public int getNodeNumber() {
@@ -257,5 +257,8 @@ public class CFANode implements Comparable<CFANode>, Serializable {
     // leaving and entering edges have to be updated explicitly after reading a node
     leavingEdges = new ArrayList<>(1);
     enteringEdges = new ArrayList<>(1);
+
+    // nodes created after deserialization must not reuse the numbers of the deserialized nodes
+    nextNodeNumber.accumulateAndGet(nodeNumber + 1, Math::max);
   }
 }
@@ -32,6 +32,7 @@ import java.util.logging.Level;
 import java.util.regex.Pattern;
 import org.sosy_lab.common.Classes;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -77,6 +78,16 @@ public class Parsers {
     @Option(secure = true, description = "simplify simple const expressions like 1+2")
     private boolean simplifyConstExpressions = true;
 
+    @Option(
+      secure = true,
+      description =
+          "Number of threads for parsing several input files in parallel"
+              + " (0 for the number of available processors, 1 for sequential parsing)."
+              + " The CFA is built sequentially in any case."
+    )
+    @IntegerOption(min = 0)
+    private int parserThreads = 1;
+
     public boolean initializeAllVariables() {
       return initializeAllVariables;
     }
@@ -92,6 +103,10 @@ public class Parsers {
     public boolean simplifyConstExpressions() {
       return simplifyConstExpressions;
     }
+
+    public int getParserThreads() {
+      return parserThreads;
+    }
   }
 
   private Parsers() { }
@@ -28,10 +28,13 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.io.MoreFiles;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -43,6 +46,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
 import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
@@ -52,6 +61,7 @@ import org.eclipse.cdt.core.dom.ast.IASTStatement;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 import org.eclipse.cdt.core.dom.ast.gnu.c.GCCLanguage;
 import org.eclipse.cdt.core.dom.parser.c.ANSICParserExtensionConfiguration;
+import org.eclipse.cdt.core.dom.parser.c.GCCParserExtensionConfiguration;
 import org.eclipse.cdt.core.dom.parser.c.ICParserExtensionConfiguration;
 import org.eclipse.cdt.core.index.IIndexFileLocation;
 import org.eclipse.cdt.core.model.ILanguage;
@@ -66,6 +76,7 @@ import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider;
 import org.eclipse.core.runtime.CoreException;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
@@ -94,6 +105,11 @@ class EclipseCParser implements CParser {
   private final Timer parseTimer = new Timer();
   private final Timer cfaTimer = new Timer();
 
+  /** sum of the parsing times of all single files (in nanoseconds), may be updated in parallel */
+  private final LongAdder accumulatedParseTime = new LongAdder();
+
+  private boolean parsedInParallel = false;
+
   public EclipseCParser(LogManager pLogger, EclipseCParserOptions pOptions, MachineModel pMachine) {
 
     this.logger = pLogger;
@@ -112,6 +128,21 @@ class EclipseCParser implements CParser {
     }
   }
 
+  /**
+   * Create a new instance of the language for the configured dialect, for parsers that run in
+   * parallel to the parser that uses {@link #language}.
+   */
+  private ILanguage createLanguage() {
+    switch (options.getDialect()) {
+    case C99:
+      return new CLanguage(new ANSICParserExtensionConfiguration());
+    case GNUC:
+      return new CLanguage(GCCParserExtensionConfiguration.getInstance());
+    default:
+      throw new IllegalArgumentException("Unknown C dialect");
+    }
+  }
+
   /**
    * Convert paths like "file.c" to "./file.c",
    * and return all other patchs unchanged.
@@ -158,21 +189,91 @@ class EclipseCParser implements CParser {
     ParseContext parseContext =
         new ParseContext(createNiceFileNameFunction(fileNameMapping.keySet()), sourceOriginMapping);
 
-    List<IASTTranslationUnit> astUnits = new ArrayList<>(pInput.size());
-
-    for (FileToParse f : pInput) {
-      final String fileName = fixPath(f.getFileName());
+    final int numberOfThreads = Math.min(getNumberOfParserThreads(), pInput.size());
+    final List<IASTTranslationUnit> astUnits;
+    if (numberOfThreads > 1) {
+      astUnits = parseInParallel(pInput, parseContext, pWrapperFunction, numberOfThreads);
+    } else {
+      astUnits = new ArrayList<>(pInput.size());
+      for (FileToParse f : pInput) {
+        final String fileName = fixPath(f.getFileName());
 
-      try {
-        astUnits.add(parse(pWrapperFunction.wrap(fileName, f), parseContext));
-      } catch (IOException e) {
-        throw new CParserException("IO failed!", e);
+        try {
+          astUnits.add(parse(pWrapperFunction.wrap(fileName, f), parseContext));
+        } catch (IOException e) {
+          throw new CParserException("IO failed!", e);
+        }
       }
     }
 
+    // The CFA is built sequentially in the order of the input files,
+    // such that the result (e.g., the numbering of CFA nodes) is independent of the parsing order.
     return buildCFA(astUnits, parseContext, scope);
   }
 
+  private int getNumberOfParserThreads() {
+    int threads = options.getParserThreads();
+    return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Parse all files in parallel, with one parser per file. Each parser has its own language, log
+   * service, and file-content provider, nothing from the CDT parser is shared between threads. The
+   * result is in the order of the input files, and if parsing fails for several files, the
+   * exception for the first of them is thrown (like in sequential parsing).
+   */
+  private List<IASTTranslationUnit> parseInParallel(
+      List<? extends FileToParse> pInput,
+      ParseContext pParseContext,
+      FileParseWrapper pWrapperFunction,
+      int pNumberOfThreads)
+      throws CParserException {
+
+    parsedInParallel = true;
+    ExecutorService pool =
+        Executors.newFixedThreadPool(
+            pNumberOfThreads,
+            new ThreadFactoryBuilder().setNameFormat("parser-%d").setDaemon(true).build());
+    parseTimer.start();
+    try {
+      List<Future<IASTTranslationUnit>> results = new ArrayList<>(pInput.size());
+      for (FileToParse f : pInput) {
+        results.add(pool.submit(() -> parseUntimed(f, pParseContext, pWrapperFunction)));
+      }
+
+      List<IASTTranslationUnit> astUnits = new ArrayList<>(pInput.size());
+      for (Future<IASTTranslationUnit> result : results) {
+        try {
+          astUnits.add(Uninterruptibles.getUninterruptibly(result));
+        } catch (ExecutionException e) {
+          Throwables.throwIfInstanceOf(e.getCause(), CParserException.class);
+          Throwables.throwIfUnchecked(e.getCause());
+          throw new CParserException(e.getCause());
+        }
+      }
+      return astUnits;
+
+    } finally {
+      pool.shutdownNow();
+      parseTimer.stop();
+    }
+  }
+
+  private IASTTranslationUnit parseUntimed(
+      FileToParse pFile, ParseContext pParseContext, FileParseWrapper pWrapperFunction)
+      throws CParserException {
+    try {
+      return parseUntimed(
+          pWrapperFunction.wrap(fixPath(pFile.getFileName()), pFile),
+          pParseContext,
+          createLanguage(),
+          ParserFactory.createDefaultLogService(),
+          new FileContentProvider());
+    } catch (IOException e) {
+      throw new CParserException("IO failed!", e);
+    }
+  }
+
   @Override
   public ParseResult parseFile(List<String> pFilenames) throws CParserException, IOException {
 
@@ -308,7 +409,28 @@ class EclipseCParser implements CParser {
       throws CParserException {
     parseTimer.start();
     try {
-      IASTTranslationUnit result = getASTTranslationUnit(codeReader);
+      return parseUntimed(
+          codeReader, parseContext, language, parserLog, FileContentProvider.instance);
+    } finally {
+      parseTimer.stop();
+    }
+  }
+
+  /**
+   * Parse a file with the given parser components. This method is thread-safe if no other thread
+   * uses the same components.
+   */
+  private IASTTranslationUnit parseUntimed(
+      FileContent codeReader,
+      ParseContext parseContext,
+      ILanguage pLanguage,
+      IParserLogService pParserLog,
+      InternalFileContentProvider pFileContentProvider)
+      throws CParserException {
+    long start = System.nanoTime();
+    try {
+      IASTTranslationUnit result =
+          getASTTranslationUnit(codeReader, pLanguage, pParserLog, pFileContentProvider);
 
       // Separate handling of include problems
       // so that we can give a better error message.
@@ -334,19 +456,23 @@ class EclipseCParser implements CParser {
     } catch (CFAGenerationRuntimeException | CoreException e) {
       throw new CParserException(e);
     } finally {
-      parseTimer.stop();
+      accumulatedParseTime.add(System.nanoTime() - start);
     }
   }
 
-  private IASTTranslationUnit getASTTranslationUnit(FileContent pCode)
+  private static IASTTranslationUnit getASTTranslationUnit(
+      FileContent pCode,
+      ILanguage pLanguage,
+      IParserLogService pParserLog,
+      InternalFileContentProvider pFileContentProvider)
       throws CFAGenerationRuntimeException, CoreException {
 
-    return language.getASTTranslationUnit(pCode,
-                                          StubScannerInfo.instance,
-                                          FileContentProvider.instance,
-                                          null,
-                                          PARSER_OPTIONS,
-                                          parserLog);
+    return pLanguage.getASTTranslationUnit(pCode,
+                                           StubScannerInfo.instance,
+                                           pFileContentProvider,
+                                           null,
+                                           PARSER_OPTIONS,
+                                           pParserLog);
   }
 
   /**
@@ -446,6 +572,14 @@ class EclipseCParser implements CParser {
     return parseTimer;
   }
 
+  @Override
+  public @Nullable TimeSpan getAccumulatedParseTime() {
+    if (!parsedInParallel) {
+      return null;
+    }
+    return TimeSpan.ofNanos(accumulatedParseTime.sum());
+  }
+
   @Override
   public Timer getCFAConstructionTime() {
     return cfaTimer;
@@ -49,6 +49,7 @@ import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCovering;
+import org.sosy_lab.cpachecker.core.interfaces.IndexedStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
@@ -57,7 +58,10 @@ import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.SummarizingStopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ConcurrentPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.PartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.PseudoPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
@@ -69,6 +73,7 @@ import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 public class CPAAlgorithm implements Algorithm, StatisticsProvider {
@@ -92,9 +97,13 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private int   countMerge        = 0;
     private int   countStop         = 0;
     private int   countBreak        = 0;
+    private int   countCoverageIndexQueries = 0;
+    private long  countAvoidedCoverageChecks = 0;
 
     private Map<String, AbstractStatValue> reachedSetStatistics = new HashMap<>();
 
+    private @Nullable CoverageCandidateFilter coverageFilter = null;
+
     @Override
     public String getName() {
       return "CPA algorithm";
@@ -120,6 +129,22 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       out.println("Number of times merged:          " + countMerge);
       out.println("Number of times stopped:         " + countStop);
       out.println("Number of times breaked:         " + countBreak);
+      if (countCoverageIndexQueries > 0) {
+        out.println("Number of coverage index queries: " + countCoverageIndexQueries);
+        out.println("  coverage checks avoided:       " + countAvoidedCoverageChecks);
+      }
+      if (coverageFilter != null && coverageFilter.getConsideredCandidates() > 0) {
+        out.println(
+            "Number of coverage candidates:   " + coverageFilter.getConsideredCandidates());
+        out.println(
+            "  discarded by summaries:        "
+                + coverageFilter.getDiscardedCandidates()
+                + " ("
+                + StatisticsUtils.toPercent(
+                    coverageFilter.getDiscardedCandidates(),
+                    coverageFilter.getConsideredCandidates())
+                + ")");
+      }
       out.println();
       out.println("Total time for CPA algorithm:     " + totalTimer + " (Max: " + totalTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ")");
       out.println("  Time for choose from waitlist:  " + chooseTimer);
@@ -152,6 +177,34 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         + " Useful for incomplete analysis with no counterexample checking.")
     private boolean reportFalseAsUnknown = false;
 
+    @Option(
+      secure = true,
+      name = "parallelExploration.threads",
+      description =
+          "Number of threads for exploring the state space in parallel. Parallel exploration is"
+              + " only used if this is greater than 1, a concurrent reached set is used"
+              + " (e.g., CONCURRENT_LOCATIONMAPPED), and all operators of the CPA are thread-safe."
+              + " Otherwise the state space is explored sequentially."
+    )
+    private int parallelExplorationThreads = 1;
+
+    @Option(
+      secure = true,
+      description =
+          "Use summaries of abstract states (if provided by the stop operator) to skip coverage"
+              + " checks against reached states that can not cover a new state."
+    )
+    private boolean filterCoverageCandidates = false;
+
+    @Option(
+      secure = true,
+      description =
+          "Index the partitions of the reached set (if supported by the reached set and the stop"
+              + " operator) such that coverage checks only consider the reached states that may"
+              + " cover a new state."
+    )
+    private boolean useCoverageIndex = false;
+
     private final ForcedCovering forcedCovering;
 
     private final ConfigurableProgramAnalysis cpa;
@@ -172,11 +225,33 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         forcedCovering = null;
       }
 
+      if (parallelExplorationThreads > 1) {
+        if (forcedCovering != null) {
+          throw new InvalidConfigurationException(
+              "Parallel exploration is not supported together with forced covering.");
+        }
+        if (!(cpa instanceof ThreadSafeConfigurableProgramAnalysis
+            && ((ThreadSafeConfigurableProgramAnalysis) cpa).hasThreadSafeOperators())) {
+          logger.log(
+              Level.WARNING,
+              "Parallel exploration is not possible because not all CPAs are thread-safe,"
+                  + " exploring the state space sequentially.");
+          parallelExplorationThreads = 1;
+        }
+      }
     }
 
     @Override
     public CPAAlgorithm newInstance() {
-      return new CPAAlgorithm(cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown);
+      return new CPAAlgorithm(
+          cpa,
+          logger,
+          shutdownNotifier,
+          forcedCovering,
+          reportFalseAsUnknown,
+          parallelExplorationThreads,
+          filterCoverageCandidates,
+          useCoverageIndex);
     }
   }
 
@@ -202,10 +277,19 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
   private final AlgorithmStatus status;
 
+  private final @Nullable CoverageCandidateFilter coverageFilter;
+
+  private final boolean useCoverageIndex;
+
+  private final @Nullable ParallelExploration parallelExploration;
+
   private CPAAlgorithm(ConfigurableProgramAnalysis cpa, LogManager logger,
       ShutdownNotifier pShutdownNotifier,
       ForcedCovering pForcedCovering,
-      boolean pIsImprecise) {
+      boolean pIsImprecise,
+      int pParallelExplorationThreads,
+      boolean pFilterCoverageCandidates,
+      boolean pUseCoverageIndex) {
 
     transferRelation = cpa.getTransferRelation();
     mergeOperator = cpa.getMergeOperator();
@@ -215,6 +299,29 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     this.shutdownNotifier = pShutdownNotifier;
     this.forcedCovering = pForcedCovering;
     status = AlgorithmStatus.SOUND_AND_PRECISE.withPrecise(!pIsImprecise);
+
+    if (pFilterCoverageCandidates && stopOperator instanceof SummarizingStopOperator) {
+      coverageFilter = new CoverageCandidateFilter((SummarizingStopOperator) stopOperator);
+      stats.coverageFilter = coverageFilter;
+    } else {
+      coverageFilter = null;
+    }
+    useCoverageIndex = pUseCoverageIndex && stopOperator instanceof IndexedStopOperator;
+
+    if (pParallelExplorationThreads > 1) {
+      parallelExploration =
+          new ParallelExploration(
+              pParallelExplorationThreads,
+              cpa,
+              mergeOperator,
+              stopOperator,
+              logger,
+              shutdownNotifier,
+              coverageFilter,
+              status);
+    } else {
+      parallelExploration = null;
+    }
   }
 
   @Override
@@ -269,6 +376,21 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
   }
 
   private AlgorithmStatus run0(final ReachedSet reachedSet) throws CPAException, InterruptedException {
+    if (parallelExploration != null) {
+      if (reachedSet instanceof ConcurrentPartitionedReachedSet) {
+        return parallelExploration.run((ConcurrentPartitionedReachedSet) reachedSet);
+      }
+      logger.log(
+          Level.FINE,
+          "Reached set does not support parallel exploration, exploring the state space"
+              + " sequentially.");
+    }
+
+    if (useCoverageIndex && reachedSet instanceof PartitionedReachedSet) {
+      ((PartitionedReachedSet) reachedSet)
+          .enableCoverageIndex((IndexedStopOperator) stopOperator);
+    }
+
     while (reachedSet.hasWaitingState()) {
       shutdownNotifier.shutdownIfNecessary();
 
@@ -374,7 +496,11 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         stats.stopTimer.start();
         boolean stop;
         try {
-          stop = stopOperator.stop(successor, reachedSet.getReached(successor), successorPrecision);
+          stop =
+              stopOperator.stop(
+                  successor,
+                  getCoverageCandidates(successor, reachedSet.getReached(successor), reachedSet),
+                  successorPrecision);
         } finally {
           stats.stopTimer.stop();
         }
@@ -451,7 +577,11 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       stats.stopTimer.start();
       boolean stop;
       try {
-        stop = stopOperator.stop(successor, reached, successorPrecision);
+        stop =
+            stopOperator.stop(
+                successor,
+                getCoverageCandidates(successor, reached, reachedSet),
+                successorPrecision);
       } finally {
         stats.stopTimer.stop();
       }
@@ -472,11 +602,33 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     return false;
   }
 
+  private Collection<AbstractState> getCoverageCandidates(
+      AbstractState pState, Collection<AbstractState> pReached, ReachedSet pReachedSet) {
+    if (useCoverageIndex && pReachedSet instanceof PartitionedReachedSet) {
+      Collection<AbstractState> candidates =
+          ((PartitionedReachedSet) pReachedSet).getCoverageCandidates(pState);
+      if (candidates != null) {
+        // count on the level of the reached states, wrapped indices may map
+        // one indexed state to several reached states
+        stats.countCoverageIndexQueries++;
+        stats.countAvoidedCoverageChecks += pReached.size() - candidates.size();
+        pReached = candidates;
+      }
+    }
+    if (coverageFilter == null) {
+      return pReached;
+    }
+    return coverageFilter.filter(pState, pReached);
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     if (forcedCovering instanceof StatisticsProvider) {
       ((StatisticsProvider)forcedCovering).collectStatistics(pStatsCollection);
     }
     pStatsCollection.add(stats);
+    if (parallelExploration != null) {
+      pStatsCollection.add(parallelExploration.getStatistics());
+    }
   }
 }
@@ -0,0 +1,91 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageSummarizable;
+import org.sosy_lab.cpachecker.core.interfaces.SummarizingStopOperator;
+
+/**
+ * Filters the states of a partition of the reached set before they are given to the stop operator,
+ * such that states that can not cover a new state according to the summaries of a {@link
+ * SummarizingStopOperator} are not checked at all.
+ *
+ * <p>The summaries of reached states are computed only once. They are cached with weak references
+ * to the states, such that the cache shrinks when states are removed from the reached set. This
+ * class is thread-safe.
+ */
+final class CoverageCandidateFilter {
+
+  private final SummarizingStopOperator stopOperator;
+  private final LoadingCache<AbstractState, Long> summaries;
+
+  private final LongAdder consideredCandidates = new LongAdder();
+  private final LongAdder discardedCandidates = new LongAdder();
+
+  CoverageCandidateFilter(SummarizingStopOperator pStopOperator) {
+    stopOperator = pStopOperator;
+    summaries =
+        CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(state -> stopOperator.getCoverageSummary(state)));
+  }
+
+  /**
+   * Return those states of pReached (in the same order) that might cover pState according to
+   * their summaries.
+   */
+  Collection<AbstractState> filter(AbstractState pState, Collection<AbstractState> pReached) {
+    long summary = stopOperator.getCoverageSummary(pState);
+    if (summary == -1L || pReached.isEmpty()) {
+      // all bits set, every reached state is a candidate
+      return pReached;
+    }
+
+    List<AbstractState> candidates = new ArrayList<>();
+    for (AbstractState reachedState : pReached) {
+      if (CoverageSummarizable.mayBeLessOrEqual(summary, summaries.getUnchecked(reachedState))) {
+        candidates.add(reachedState);
+      }
+    }
+    consideredCandidates.add(pReached.size());
+    discardedCandidates.add(pReached.size() - candidates.size());
+    return candidates;
+  }
+
+  long getConsideredCandidates() {
+    return consideredCandidates.sum();
+  }
+
+  long getDiscardedCandidates() {
+    return discardedCandidates.sum();
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.sosy_lab.cpachecker.util.test.TestDataTools.makeRandomValueAnalysisState;
+import static org.sosy_lab.cpachecker.util.test.TestDataTools.makeValueAnalysisState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.defaults.DelegateAbstractDomain;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+
+public class CoverageCandidateFilterTest {
+
+  private StopSepOperator stop;
+  private CoverageCandidateFilter filter;
+
+  @Before
+  public void setUp() {
+    stop = new StopSepOperator(DelegateAbstractDomain.<ValueAnalysisState>getInstance());
+    filter = new CoverageCandidateFilter(stop);
+  }
+
+  @Test
+  public void testKeepsCoveringStates() {
+    ValueAnalysisState empty = makeValueAnalysisState();
+    ValueAnalysisState x0 = makeValueAnalysisState(1);
+    ValueAnalysisState x0x1 = makeValueAnalysisState(1, 2);
+    ValueAnalysisState other = makeValueAnalysisState(3, 2);
+    List<AbstractState> reached = new ArrayList<>();
+    reached.add(other);
+    reached.add(x0x1);
+    reached.add(empty);
+    reached.add(x0);
+
+    assertThat(filter.filter(makeValueAnalysisState(1, 2, 5), reached))
+        .containsExactly(x0x1, empty, x0)
+        .inOrder();
+    assertThat(filter.filter(makeValueAnalysisState(1), reached)).containsAllOf(empty, x0);
+  }
+
+  @Test
+  public void testAgainstUnfilteredStop() throws Exception {
+    Random random = new Random(0);
+    List<AbstractState> reached = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      reached.add(makeRandomValueAnalysisState(random));
+    }
+
+    for (int i = 0; i < 500; i++) {
+      ValueAnalysisState query = makeRandomValueAnalysisState(random);
+      Collection<AbstractState> candidates = filter.filter(query, reached);
+      for (AbstractState reachedState : reached) {
+        if (query.isLessOrEqual((ValueAnalysisState) reachedState)) {
+          assertThat(candidates).contains(reachedState);
+        }
+      }
+      assertThat(stop.stop(query, candidates, SingletonPrecision.getInstance()))
+          .isEqualTo(stop.stop(query, reached, SingletonPrecision.getInstance()));
+    }
+    assertThat(filter.getDiscardedCandidates()).isAtMost(filter.getConsideredCandidates());
+  }
+}
@@ -0,0 +1,427 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.base.Functions;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.algorithm.Algorithm.AlgorithmStatus;
+import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ConcurrentPartitionedReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+
+/**
+ * Parallel variant of the main loop of {@link CPAAlgorithm}.
+ *
+ * <p>Several worker threads explore the state space at the same time. Each worker has its own
+ * waitlist in a {@link ConcurrentPartitionedReachedSet} and steals states from other workers if
+ * its own waitlist is empty. Merge and stop for a successor are executed while holding the lock of
+ * the successor's partition, such that they are atomic with respect to other workers adding states
+ * to the same location. Each worker uses its own transfer relation and precision adjustment, the
+ * merge and stop operator are shared.
+ *
+ * <p>This is only sound if all operators of the CPA are thread-safe, cf. {@link
+ * org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis}.
+ */
+final class ParallelExploration {
+
+  private final class ParallelExplorationStatistics implements Statistics {
+
+    private final ThreadSafeTimerContainer transferTime =
+        new ThreadSafeTimerContainer("Time for transfer relation");
+    private final ThreadSafeTimerContainer precisionTime =
+        new ThreadSafeTimerContainer("Time for precision adjustment");
+    private final ThreadSafeTimerContainer mergeAndStopTime =
+        new ThreadSafeTimerContainer("Time for merge and stop operator");
+    private final ThreadSafeTimerContainer lockWaitTime =
+        new ThreadSafeTimerContainer("Time for waiting on partition locks");
+
+    private final StatCounter iterations = new StatCounter("Number of iterations");
+    private final StatCounter stolenStates = new StatCounter("Number of states stolen");
+    private final LongAdder successors = new LongAdder();
+    private final StatCounter merges = new StatCounter("Number of times merged");
+    private final StatCounter stops = new StatCounter("Number of times stopped");
+
+    @Override
+    public String getName() {
+      return "Parallel exploration (" + numberOfThreads + " threads)";
+    }
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsUtils.write(pOut, 0, 50, iterations);
+      StatisticsUtils.write(pOut, 0, 50, stolenStates);
+      StatisticsUtils.write(pOut, 0, 50, "Number of computed successors", successors);
+      StatisticsUtils.write(pOut, 0, 50, merges);
+      StatisticsUtils.write(pOut, 0, 50, stops);
+      StatisticsUtils.write(pOut, 0, 50, transferTime);
+      StatisticsUtils.write(pOut, 0, 50, precisionTime);
+      StatisticsUtils.write(pOut, 0, 50, mergeAndStopTime);
+      StatisticsUtils.write(pOut, 1, 50, lockWaitTime);
+    }
+  }
+
+  /** How long an idle worker sleeps before looking for new states again. */
+  private static final long IDLE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final int numberOfThreads;
+  private final ConfigurableProgramAnalysis cpa;
+  private final MergeOperator mergeOperator;
+  private final StopOperator stopOperator;
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final @Nullable CoverageCandidateFilter coverageFilter;
+  private final AlgorithmStatus status;
+
+  private final ParallelExplorationStatistics stats = new ParallelExplorationStatistics();
+
+  ParallelExploration(
+      int pNumberOfThreads,
+      ConfigurableProgramAnalysis pCpa,
+      MergeOperator pMergeOperator,
+      StopOperator pStopOperator,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      @Nullable CoverageCandidateFilter pCoverageFilter,
+      AlgorithmStatus pStatus) {
+    numberOfThreads = pNumberOfThreads;
+    cpa = pCpa;
+    mergeOperator = pMergeOperator;
+    stopOperator = pStopOperator;
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    coverageFilter = pCoverageFilter;
+    status = pStatus;
+  }
+
+  Statistics getStatistics() {
+    return stats;
+  }
+
+  AlgorithmStatus run(final ConcurrentPartitionedReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+
+    // counts the workers that currently hold a state or are about to take one
+    final AtomicInteger busyWorkers = new AtomicInteger(0);
+    final AtomicBoolean terminate = new AtomicBoolean(false);
+    final AtomicReference<Throwable> error = new AtomicReference<>(null);
+
+    ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads);
+    List<Future<?>> workers = new ArrayList<>(numberOfThreads);
+    try {
+      for (int i = 0; i < numberOfThreads; i++) {
+        Worker worker = new Worker(i, reachedSet, busyWorkers, terminate, error);
+        workers.add(pool.submit(worker));
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (ExecutionException e) {
+      // workers catch all their exceptions, so this should not happen
+      error.compareAndSet(null, e.getCause());
+    } finally {
+      terminate.set(true);
+      pool.shutdownNow();
+      pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    Throwable t = error.get();
+    if (t != null) {
+      if (t instanceof CPAException) {
+        throw (CPAException) t;
+      } else if (t instanceof InterruptedException) {
+        throw (InterruptedException) t;
+      } else if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      } else if (t instanceof Error) {
+        throw (Error) t;
+      } else {
+        throw new CPAException("Unexpected exception during parallel exploration", t);
+      }
+    }
+    return status;
+  }
+
+  private Collection<AbstractState> getCoverageCandidates(
+      AbstractState pState, Collection<AbstractState> pReached) {
+    if (coverageFilter == null) {
+      return pReached;
+    }
+    return coverageFilter.filter(pState, pReached);
+  }
+
+  private final class Worker implements Runnable {
+
+    private final int id;
+    private final ConcurrentPartitionedReachedSet reachedSet;
+    private final AtomicInteger busyWorkers;
+    private final AtomicBoolean terminate;
+    private final AtomicReference<Throwable> error;
+
+    // transfer relations and precision adjustments may store intermediate results in fields
+    private final TransferRelation transferRelation = cpa.getTransferRelation();
+    private final PrecisionAdjustment precisionAdjustment = cpa.getPrecisionAdjustment();
+
+    private final TimerWrapper transferTimer = stats.transferTime.getNewTimer();
+    private final TimerWrapper precisionTimer = stats.precisionTime.getNewTimer();
+    private final TimerWrapper mergeAndStopTimer = stats.mergeAndStopTime.getNewTimer();
+    private final TimerWrapper lockWaitTimer = stats.lockWaitTime.getNewTimer();
+
+    private Worker(
+        int pId,
+        ConcurrentPartitionedReachedSet pReachedSet,
+        AtomicInteger pBusyWorkers,
+        AtomicBoolean pTerminate,
+        AtomicReference<Throwable> pError) {
+      id = pId;
+      reachedSet = pReachedSet;
+      busyWorkers = pBusyWorkers;
+      terminate = pTerminate;
+      error = pError;
+    }
+
+    @Override
+    public void run() {
+      reachedSet.bindCurrentThreadToWaitlist(id);
+      try {
+        while (!terminate.get()) {
+          shutdownNotifier.shutdownIfNecessary();
+
+          // The counter is increased before polling, so that another worker that observes zero
+          // busy workers and an empty waitlist can be sure that the exploration is finished.
+          busyWorkers.incrementAndGet();
+          try {
+            AbstractState state = reachedSet.pollFromOwnWaitlist();
+            if (state == null) {
+              state = reachedSet.stealFromWaitlist();
+              if (state != null) {
+                stats.stolenStates.inc();
+              }
+            }
+            if (state != null) {
+              handleStateAndCatch(state);
+              continue;
+            }
+          } finally {
+            busyWorkers.decrementAndGet();
+          }
+
+          if (busyWorkers.get() == 0 && !reachedSet.hasWaitingState()) {
+            return;
+          }
+          LockSupport.parkNanos(IDLE_WAIT_NANOS);
+        }
+      } catch (Throwable t) {
+        error.compareAndSet(null, t);
+        terminate.set(true);
+      } finally {
+        reachedSet.unbindCurrentThread();
+      }
+    }
+
+    private void handleStateAndCatch(AbstractState state) throws Exception {
+      // Another worker might have merged the state away after it was taken from the waitlist.
+      // Merges into a partition happen only while holding its lock, so check there.
+      final Precision precision;
+      Lock lock = reachedSet.getPartitionLock(state);
+      lockWaitTimer.start();
+      lock.lock();
+      lockWaitTimer.stop();
+      try {
+        precision = reachedSet.contains(state) ? reachedSet.getPrecision(state) : null;
+      } finally {
+        lock.unlock();
+      }
+      if (precision == null) {
+        return;
+      }
+      stats.iterations.inc();
+      try {
+        if (handleState(state, precision)) {
+          // Prec operator requested break
+          terminate.set(true);
+        }
+      } catch (Exception e) {
+        // re-add the old state to the waitlist, there might be unhandled successors left
+        // that otherwise would be forgotten (which would be unsound)
+        if (reachedSet.contains(state)) {
+          reachedSet.reAddToWaitlist(state);
+        }
+        throw e;
+      }
+    }
+
+    /**
+     * Handle one state from the waitlist, cf. the sequential implementation in {@link
+     * CPAAlgorithm}.
+     *
+     * @return true if analysis should terminate, false if analysis should continue
+     */
+    private boolean handleState(final AbstractState state, final Precision precision)
+        throws CPAException, InterruptedException {
+      logger.log(Level.ALL, "Current state is", state, "with precision", precision);
+
+      transferTimer.start();
+      Collection<? extends AbstractState> successors;
+      try {
+        successors = transferRelation.getAbstractSuccessors(state, precision);
+      } finally {
+        transferTimer.stop();
+      }
+      stats.successors.add(successors.size());
+
+      for (Iterator<? extends AbstractState> it = successors.iterator(); it.hasNext(); ) {
+        AbstractState successor = it.next();
+        shutdownNotifier.shutdownIfNecessary();
+
+        precisionTimer.start();
+        PrecisionAdjustmentResult precAdjustmentResult;
+        try {
+          Optional<PrecisionAdjustmentResult> precAdjustmentOptional =
+              precisionAdjustment.prec(
+                  successor, precision, reachedSet, Functions.<AbstractState>identity(), successor);
+          if (!precAdjustmentOptional.isPresent()) {
+            continue;
+          }
+          precAdjustmentResult = precAdjustmentOptional.get();
+        } finally {
+          precisionTimer.stop();
+        }
+
+        successor = precAdjustmentResult.abstractState();
+        Precision successorPrecision = precAdjustmentResult.precision();
+        Action action = precAdjustmentResult.action();
+
+        Lock lock = reachedSet.getPartitionLock(successor);
+        lockWaitTimer.start();
+        lock.lock();
+        lockWaitTimer.stop();
+        mergeAndStopTimer.start();
+        try {
+          if (action == Action.BREAK) {
+            boolean stop =
+                stopOperator.stop(
+                    successor,
+                    getCoverageCandidates(successor, reachedSet.getReached(successor)),
+                    successorPrecision);
+            if (AbstractStates.isTargetState(successor) && stop) {
+              // don't signal BREAK for covered states
+              stats.stops.inc();
+              continue;
+            }
+
+            logger.log(Level.FINER, "Break signalled, parallel exploration will stop.");
+            reachedSet.add(successor, successorPrecision);
+            if (it.hasNext()) {
+              // re-add the old state to the waitlist, there are unhandled
+              // successors left that otherwise would be forgotten
+              reachedSet.reAddToWaitlist(state);
+            }
+            return true;
+          }
+          assert action == Action.CONTINUE : "Enum Action has unhandled values!";
+
+          mergeAndStop(successor, successorPrecision);
+        } finally {
+          mergeAndStopTimer.stop();
+          lock.unlock();
+        }
+      }
+
+      return false;
+    }
+
+    /** Merge and stop for one successor, the caller has to hold the lock of its partition. */
+    private void mergeAndStop(AbstractState successor, Precision successorPrecision)
+        throws CPAException, InterruptedException {
+      Collection<AbstractState> reached = reachedSet.getReached(successor);
+
+      if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
+        List<AbstractState> toRemove = new ArrayList<>();
+        List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
+        try {
+          for (AbstractState reachedState : reached) {
+            shutdownNotifier.shutdownIfNecessary();
+            AbstractState mergedState =
+                mergeOperator.merge(successor, reachedState, successorPrecision);
+
+            if (!mergedState.equals(reachedState)) {
+              stats.merges.inc();
+              toRemove.add(reachedState);
+              toAdd.add(Pair.of(mergedState, successorPrecision));
+            }
+          }
+        } finally {
+          reachedSet.removeAll(toRemove);
+          reachedSet.addAll(toAdd);
+        }
+      }
+
+      if (stopOperator.stop(
+          successor, getCoverageCandidates(successor, reached), successorPrecision)) {
+        logger.log(Level.FINER, "Successor is covered or unreachable, not adding to waitlist");
+        stats.stops.inc();
+      } else {
+        reachedSet.add(successor, successorPrecision);
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.collect.FluentIterable.from;
+import static com.google.common.truth.Truth.assert_;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.common.io.TempFile.DeleteOnCloseFile;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.sosy_lab.cpachecker.util.test.TestResults;
+
+public class ParallelExplorationTest {
+
+  private static final ImmutableList<String> SAFE_PROGRAM =
+      ImmutableList.of(
+          "extern int __VERIFIER_nondet_int();",
+          "int global;",
+          "",
+          "int f(int x) {",
+          "  if (__VERIFIER_nondet_int()) {",
+          "    global = x;",
+          "  } else {",
+          "    global = x + 1;",
+          "  }",
+          "  return global;",
+          "}",
+          "",
+          "void main() {",
+          "  int i;",
+          "  int sum = 0;",
+          "  for (i = 0; i < 6; i++) {",
+          "    if (__VERIFIER_nondet_int()) {",
+          "      sum = sum + f(i);",
+          "    }",
+          "  }",
+          "  if (i != 6) {",
+          "ERROR:",
+          "    return;",
+          "  }",
+          "}");
+
+  private static final ImmutableList<String> UNSAFE_PROGRAM =
+      ImmutableList.of(
+          "extern int __VERIFIER_nondet_int();",
+          "",
+          "void main() {",
+          "  int a = 0;",
+          "  int b = 0;",
+          "  if (__VERIFIER_nondet_int()) {",
+          "    a = 1;",
+          "  }",
+          "  if (__VERIFIER_nondet_int()) {",
+          "    b = 1;",
+          "  }",
+          "  if (a == 1 && b == 1) {",
+          "ERROR:",
+          "    return;",
+          "  }",
+          "}");
+
+  private static TestResults run(List<String> pProgram, int pThreads) throws Exception {
+    try (DeleteOnCloseFile programFile =
+        TempFile.builder().prefix("test").suffix(".c").createDeleteOnClose()) {
+      Files.write(programFile.toPath(), pProgram);
+
+      Configuration config =
+          TestDataTools.configurationForTest()
+              .setOption("cpa", "cpa.arg.ARGCPA")
+              .setOption("ARGCPA.cpa", "cpa.composite.CompositeCPA")
+              .setOption(
+                  "CompositeCPA.cpas",
+                  "cpa.location.LocationCPA, cpa.callstack.CallstackCPA, cpa.value.ValueAnalysisCPA")
+              .setOption("specification", "config/specification/default.spc")
+              .setOption("analysis.reachedSet", "CONCURRENT_LOCATIONMAPPED")
+              .setOption("cpa.parallelExploration.threads", Integer.toString(pThreads))
+              .build();
+
+      return CPATestRunner.run(config, programFile.toPath().toString());
+    }
+  }
+
+  /**
+   * Check that every state of the first reached set is covered by a state of the second reached
+   * set at the same location with the same call stack.
+   */
+  private static void assertCoveredBy(Iterable<AbstractState> pReached, List<ARGState> pOther) {
+    for (ARGState state : from(pReached).filter(ARGState.class)) {
+      boolean covered =
+          from(pOther)
+              .anyMatch(
+                  other ->
+                      AbstractStates.extractLocation(state)
+                              .equals(AbstractStates.extractLocation(other))
+                          && AbstractStates.extractStateByType(state, CallstackState.class)
+                              .sameStateInProofChecking(
+                                  AbstractStates.extractStateByType(other, CallstackState.class))
+                          && AbstractStates.extractStateByType(state, ValueAnalysisState.class)
+                              .isLessOrEqual(
+                                  AbstractStates.extractStateByType(
+                                      other, ValueAnalysisState.class)));
+      assert_().withMessage("state %s is not covered", state).that(covered).isTrue();
+    }
+  }
+
+  private static void assertSameStateSpace(List<String> pProgram, Result pExpected)
+      throws Exception {
+    TestResults sequential = run(pProgram, 1);
+    TestResults parallel = run(pProgram, 4);
+
+    sequential.assertIs(pExpected);
+    parallel.assertIs(pExpected);
+    if (pExpected == Result.TRUE) {
+      // for a violated property the exploration stops at an arbitrary target state
+      Iterable<AbstractState> sequentialReached = sequential.getCheckerResult().getReached();
+      Iterable<AbstractState> parallelReached = parallel.getCheckerResult().getReached();
+      assertCoveredBy(sequentialReached, from(parallelReached).filter(ARGState.class).toList());
+      assertCoveredBy(parallelReached, from(sequentialReached).filter(ARGState.class).toList());
+    }
+  }
+
+  @Test
+  public void testSafeProgram() throws Exception {
+    assertSameStateSpace(SAFE_PROGRAM, Result.TRUE);
+  }
+
+  @Test
+  public void testUnsafeProgram() throws Exception {
+    assertSameStateSpace(UNSAFE_PROGRAM, Result.FALSE);
+  }
+
+  @Test
+  public void testParallelExplorationIsUsed() throws Exception {
+    TestResults parallel = run(SAFE_PROGRAM, 4);
+    assert_()
+        .withMessage("parallel exploration fell back to sequential exploration")
+        .that(parallel.getLog())
+        .doesNotContain("exploring the state space sequentially");
+  }
+}
@@ -67,6 +67,7 @@ import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.CPABuilder;
@@ -163,6 +164,34 @@ abstract class AbstractBMCAlgorithm
   )
   private boolean usePropertyDirection = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Check the induction step case for k in a separate thread while the base case for k is"
+            + " checked, and the step case for k + 1 speculatively afterwards. Candidates proven"
+            + " inductive by these checks do not need to be checked again after the base case."
+            + " Uses a second step-case analysis with its own solver."
+            + " Not used as long as bmc.usePropertyDirection is active."
+  )
+  private boolean parallelInduction = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Keep the formulas of the base-case checks of the current bound asserted on the prover,"
+            + " each guarded by an activation literal, such that the solver can reuse what it"
+            + " learned about the unrolled program for the other candidates of this bound."
+            + " The formulas are removed when the bound is increased."
+            + " Requires a solver that supports checks under assumptions."
+  )
+  private boolean incrementalBMC = false;
+
+  /** Number of activation literals created so far, used for naming them. */
+  private int activationLiterals = 0;
+
+  /** Number of guarded base-case formulas of the current bound on the prover of the run. */
+  private int guardedFormulas = 0;
+
   protected final BMCStatistics stats;
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
@@ -170,6 +199,11 @@ abstract class AbstractBMCAlgorithm
   private final @Nullable ConfigurableProgramAnalysis stepCaseCPA;
   private final @Nullable Algorithm stepCaseAlgorithm;
 
+  /** Statistics of the step case that is checked in parallel to the base case. */
+  private final @Nullable BMCStatistics parallelStepCaseStats;
+
+  private final Configuration config;
+
   protected final InvariantGenerator invariantGenerator;
   private final InvariantGeneratorHeadStart invariantGeneratorHeadStart;
 
@@ -220,6 +254,7 @@ abstract class AbstractBMCAlgorithm
     reachedSetFactory = pReachedSetFactory;
     cfa = pCFA;
     specification = checkNotNull(pSpecification);
+    config = pConfig;
 
     shutdownNotifier = pShutdownManager.getNotifier();
     targetLocationProvider = new CachingTargetLocationProvider(shutdownNotifier, logger, cfa);
@@ -238,12 +273,21 @@ abstract class AbstractBMCAlgorithm
       stepCaseCPA = builder.buildCPAs(cfa, pSpecification, new AggregatedReachedSets());
       stepCaseAlgorithm =
           CPAAlgorithm.create(stepCaseCPA, stepCaseLogger, pConfig, pShutdownManager.getNotifier());
+      if (parallelInduction && usePropertyDirection) {
+        logger.log(
+            Level.WARNING,
+            "The induction step case is not checked in parallel as long as generalized"
+                + " counterexamples to induction are used as candidate invariants.");
+      }
     } else {
       stepCaseCPA = null;
       stepCaseAlgorithm = null;
+      parallelInduction = false;
       invariantGenerationStrategy = InvariantGeneratorFactory.DO_NOTHING;
       invariantGeneratorHeadStartStrategy = InvariantGeneratorHeadStartFactories.NONE;
     }
+    parallelStepCaseStats =
+        parallelInduction ? new BMCStatistics("Parallel induction step case") : null;
 
     ShutdownManager invariantGeneratorShutdownManager = pShutdownManager;
     boolean addInvariantsByInduction = invariantGenerationStrategy == InvariantGeneratorFactory.INDUCTION;
@@ -340,11 +384,31 @@ abstract class AbstractBMCAlgorithm
 
     AlgorithmStatus status;
 
+    // the parallel step case gets its own shutdown manager, such that its prover can be
+    // interrupted when its result is not needed anymore
+    final ShutdownManager parallelStepCaseShutdownManager =
+        parallelInduction ? ShutdownManager.createWithParent(shutdownNotifier) : null;
+
+    // the parallel step case is closed first and waits for its checks to stop,
+    // only then the provers are closed
     try (ProverEnvironmentWithFallback prover =
             new ProverEnvironmentWithFallback(solver, ProverOptions.GENERATE_MODELS);
         @SuppressWarnings("resource")
-            KInductionProver kInductionProver = createInductionProver()) {
+            KInductionProver kInductionProver = createInductionProver();
+        @SuppressWarnings("resource")
+            KInductionProver parallelInductionProver =
+                createParallelInductionProver(parallelStepCaseShutdownManager);
+        ParallelStepCase parallelStepCase =
+            parallelInductionProver == null
+                ? null
+                : new ParallelStepCase(
+                    (assumptions, k, candidate, checkedKeys) ->
+                        parallelInductionProver
+                            .check(assumptions, k, candidate, checkedKeys)
+                            .isSuccessful(),
+                    parallelStepCaseShutdownManager)) {
       invariantGeneratorHeadStart.waitForInvariantGenerator();
+      guardedFormulas = 0;
 
       do {
         shutdownNotifier.shutdownIfNecessary();
@@ -363,6 +427,13 @@ abstract class AbstractBMCAlgorithm
         }
         shutdownNotifier.shutdownIfNecessary();
 
+        // the guarded formulas of the previous bound are not checked again
+        popGuardedFormulas(prover);
+
+        if (parallelStepCase != null && status.isSound() && !usePropertyDirection) {
+          startParallelStepCase(parallelStepCase, reachedSet, candidateGenerator);
+        }
+
         if (invariantGenerator.isProgramSafe()) {
           TargetLocationCandidateInvariant.INSTANCE.assumeTruth(reachedSet);
           return AlgorithmStatus.SOUND_AND_PRECISE;
@@ -411,8 +482,19 @@ abstract class AbstractBMCAlgorithm
                 ctiBlockingClauses.clear();
               }
             }
+            Set<CandidateInvariant> knownInductive = Collections.emptySet();
+            if (parallelStepCase != null) {
+              knownInductive =
+                  parallelStepCase.getInductive(
+                      CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations());
+            }
             sound =
-                checkStepCase(reachedSet, candidateGenerator, kInductionProver, ctiBlockingClauses);
+                checkStepCase(
+                    reachedSet,
+                    candidateGenerator,
+                    kInductionProver,
+                    ctiBlockingClauses,
+                    knownInductive);
           }
           if (invariantGenerator.isProgramSafe()
               || (sound && !candidateGenerator.produceMoreCandidates())) {
@@ -431,11 +513,39 @@ abstract class AbstractBMCAlgorithm
     return AlgorithmStatus.UNSOUND_AND_PRECISE;
   }
 
+  /**
+   * Starts checking the step case for the current k for all applicable candidates in parallel to
+   * the base case. Only the invariants confirmed so far are assumed, and nothing is confirmed by
+   * this check, because the base case of the candidates is not known yet.
+   */
+  private void startParallelStepCase(
+      final ParallelStepCase pParallelStepCase,
+      final ReachedSet pReachedSet,
+      final CandidateGenerator pCandidateGenerator) {
+    final int k = CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations();
+    final Set<Object> checkedKeys = getCheckedKeys(pReachedSet);
+    pParallelStepCase.start(
+        k,
+        from(pCandidateGenerator)
+            .filter(getCandidateApplicabilityPredicate(pReachedSet, checkedKeys))
+            .toList(),
+        ImmutableList.copyOf(confirmedCandidates),
+        checkedKeys);
+  }
+
+  /**
+   * Checks the step case for the candidates.
+   *
+   * @param pKnownInductive candidates that are already known to be inductive for the current k with
+   *     a subset of the currently confirmed candidates as assumptions. They are confirmed without
+   *     checking them again.
+   */
   private boolean checkStepCase(
       final ReachedSet reachedSet,
       final CandidateGenerator candidateGenerator,
       KInductionProver kInductionProver,
-      Set<Obligation> pCtiBlockingClauses)
+      Set<Obligation> pCtiBlockingClauses,
+      Set<CandidateInvariant> pKnownInductive)
       throws InterruptedException, CPAException, SolverException {
 
     final int k = CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations();
@@ -469,6 +579,20 @@ abstract class AbstractBMCAlgorithm
                   abstractionStrategy, AbstractionBasedLifting.RefinementLAFStrategies.EAGER)
               : StandardLiftings.NO_LIFTING;
 
+      if (pKnownInductive.contains(candidate)) {
+        // the candidate passed the base case, and the induction was checked in parallel to it
+        Iterables.addAll(
+            confirmedCandidates,
+            CandidateInvariantCombination.getConjunctiveParts(candidate));
+        candidateGenerator.confirmCandidates(
+            CandidateInvariantCombination.getConjunctiveParts(candidate));
+        if (candidate == TargetLocationCandidateInvariant.INSTANCE) {
+          sound = true;
+          break;
+        }
+        continue;
+      }
+
       InductionResult<CandidateInvariant> inductionResult =
           kInductionProver.check(
               Iterables.concat(confirmedCandidates, Collections.singleton(candidate)),
@@ -596,9 +720,23 @@ abstract class AbstractBMCAlgorithm
       throws CPATransferException, InterruptedException, SolverException {
     BooleanFormula program = bfmgr.not(pCandidateInvariant.getAssertion(pReachedSet, fmgr, pmgr));
     logger.log(Level.INFO, "Starting satisfiability check...");
+    Timer satCheckForBound = getSatCheckTimerForCurrentBound();
     stats.satCheck.start();
-    pProver.push(program);
-    boolean safe = pProver.isUnsat();
+    satCheckForBound.start();
+    final boolean safe;
+    BooleanFormula activationLiteral = null;
+    if (incrementalBMC) {
+      // the guarded formula stays on the prover stack until the bound is increased,
+      // but is only considered while its activation literal is assumed
+      activationLiteral = bfmgr.makeVariable("__bmc_activation_" + activationLiterals++);
+      pProver.push(bfmgr.implication(activationLiteral, program));
+      guardedFormulas++;
+      safe = pProver.isUnsatWithAssumptions(Collections.singleton(activationLiteral));
+    } else {
+      pProver.push(program);
+      safe = pProver.isUnsat();
+    }
+    satCheckForBound.stop();
     stats.satCheck.stop();
     // Leave program formula on solver stack until error path is created
 
@@ -607,15 +745,44 @@ abstract class AbstractBMCAlgorithm
       if (safe) {
         pCandidateInvariant.assumeTruth(reachedSet);
       } else if (pCandidateInvariant == TargetLocationCandidateInvariant.INSTANCE) {
-        analyzeCounterexample(program, reachedSet, pProver);
+        if (activationLiteral != null) {
+          // error-path creation expects the formula to be asserted unconditionally
+          pProver.push(program);
+          analyzeCounterexample(program, reachedSet, pProver);
+          pProver.pop();
+        } else {
+          analyzeCounterexample(program, reachedSet, pProver);
+        }
       }
     }
 
-    pProver.pop();
+    if (activationLiteral == null) {
+      pProver.pop();
+    }
 
     return safe;
   }
 
+  /**
+   * Removes the guarded formulas of the base-case checks from the prover. All other formulas are
+   * popped by the method that pushed them, so the guarded formulas are on top of the stack.
+   */
+  private void popGuardedFormulas(ProverEnvironmentWithFallback pProver) {
+    while (guardedFormulas > 0) {
+      pProver.pop();
+      guardedFormulas--;
+    }
+  }
+
+  /** Returns the timer for the satisfiability checks of the current loop-iteration bound. */
+  private Timer getSatCheckTimerForCurrentBound() {
+    LoopIterationBounding loopIterationBounding =
+        CPAs.retrieveCPA(cpa, LoopIterationBounding.class);
+    int bound =
+        loopIterationBounding == null ? 0 : loopIterationBounding.getMaxLoopIterations();
+    return stats.getSatCheckTimer(bound);
+  }
+
   private boolean refineCtiBlockingClauses(
       ReachedSet pReachedSet,
       ProverEnvironmentWithFallback pProver,
@@ -774,6 +941,9 @@ abstract class AbstractBMCAlgorithm
       ((StatisticsProvider)algorithm).collectStatistics(pStatsCollection);
     }
     pStatsCollection.add(stats);
+    if (parallelStepCaseStats != null) {
+      pStatsCollection.add(parallelStepCaseStats);
+    }
     if (invariantGenerator instanceof StatisticsProvider) {
       ((StatisticsProvider)invariantGenerator).collectStatistics(pStatsCollection);
     }
@@ -795,6 +965,44 @@ abstract class AbstractBMCAlgorithm
         : null;
   }
 
+  /**
+   * Creates the induction prover for the step case that is checked in parallel to the base case.
+   * It uses its own step-case analysis, because the bound of the step-case analysis is adjusted by
+   * the prover, and its own solver, because the solver of the base case is not thread-safe.
+   *
+   * @param pShutdownManager the shutdown manager used to interrupt the prover, or {@code null} if
+   *     the step case is not checked in parallel.
+   */
+  private @Nullable KInductionProver createParallelInductionProver(
+      @Nullable ShutdownManager pShutdownManager) throws CPAException {
+    if (pShutdownManager == null) {
+      return null;
+    }
+    ShutdownNotifier notifier = pShutdownManager.getNotifier();
+    LogManager parallelStepCaseLogger = logger.withComponentName("ParallelInductionStepCase");
+    try {
+      ConfigurableProgramAnalysis parallelStepCaseCPA =
+          new CPABuilder(config, parallelStepCaseLogger, notifier, reachedSetFactory)
+              .buildCPAs(cfa, specification, new AggregatedReachedSets());
+      Algorithm parallelStepCaseAlgorithm =
+          CPAAlgorithm.create(parallelStepCaseCPA, parallelStepCaseLogger, config, notifier);
+      return new KInductionProver(
+          cfa,
+          parallelStepCaseLogger,
+          parallelStepCaseAlgorithm,
+          parallelStepCaseCPA,
+          invariantGenerator,
+          parallelStepCaseStats,
+          reachedSetFactory,
+          notifier,
+          getLoopHeads(),
+          false);
+    } catch (InvalidConfigurationException e) {
+      throw new CPAException(
+          "Cannot create the analysis for the parallel induction step case: " + e.getMessage(), e);
+    }
+  }
+
   /**
    * Gets the potential target locations.
    *
@@ -24,6 +24,9 @@
 package org.sosy_lab.cpachecker.core.algorithm.bmc;
 
 import java.io.PrintStream;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
@@ -39,6 +42,23 @@ public class BMCStatistics implements Statistics {
   final Timer inductionPreparation = new Timer();
   final Timer inductionCheck = new Timer();
 
+  /** Time for the sat checks of the base case, per loop-iteration bound. */
+  private final Map<Integer, Timer> satCheckPerBound = new TreeMap<>();
+
+  private final String name;
+
+  public BMCStatistics() {
+    this("BMC algorithm");
+  }
+
+  BMCStatistics(String pName) {
+    name = pName;
+  }
+
+  Timer getSatCheckTimer(int pBound) {
+    return satCheckPerBound.computeIfAbsent(pBound, k -> new Timer());
+  }
+
   @Override
   public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
     if (bmcPreparation.getNumberOfIntervals() > 0) {
@@ -47,6 +67,11 @@ public class BMCStatistics implements Statistics {
     if (satCheck.getNumberOfIntervals() > 0) {
       out.println("Time for final sat check:            " + satCheck);
     }
+    if (satCheckPerBound.size() > 1) {
+      for (Entry<Integer, Timer> entry : satCheckPerBound.entrySet()) {
+        out.println("  Time for sat check with k = " + entry.getKey() + ": " + entry.getValue());
+      }
+    }
     if (errorPathCreation.getNumberOfIntervals() > 0) {
       out.println("Time for error path creation:        " + errorPathCreation);
     }
@@ -61,6 +86,6 @@ public class BMCStatistics implements Statistics {
 
   @Override
   public String getName() {
-    return "BMC algorithm";
+    return name;
   }
 }
\ No newline at end of file
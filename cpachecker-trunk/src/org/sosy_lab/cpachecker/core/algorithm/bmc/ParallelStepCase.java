@@ -0,0 +1,243 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Checks the induction step case in a separate thread while the base case is checked.
+ *
+ * <p>When the step case for a bound k is started, the step case for k + 1 is also checked
+ * speculatively afterwards, such that its result may already be available when the base case
+ * reaches k + 1. The checks of a bound only assume the invariants confirmed before the bound was
+ * started, so they only confirm that a candidate is inductive for this bound, but not that it
+ * holds.
+ *
+ * <p>The checks use their own prover, which is interrupted by the given shutdown manager when this
+ * object is closed. Checks that are not needed anymore are stopped after their current candidate.
+ */
+final class ParallelStepCase implements AutoCloseable {
+
+  /** Checks whether a candidate is inductive for a bound under the given assumptions. */
+  @FunctionalInterface
+  interface InductionCheck {
+    boolean isInductive(
+        Iterable<CandidateInvariant> pAssumptions,
+        int pK,
+        CandidateInvariant pCandidate,
+        Set<Object> pCheckedKeys)
+        throws CPAException, InterruptedException, SolverException;
+  }
+
+  /** The checks of one or more consecutive bounds that run in one task. */
+  private static final class Checks {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final ImmutableList<Integer> bounds;
+    private @Nullable Future<?> task = null;
+
+    private Checks(ImmutableList<Integer> pBounds) {
+      bounds = pBounds;
+    }
+  }
+
+  private final InductionCheck inductionCheck;
+  private final ShutdownManager shutdownManager;
+  private final ExecutorService executor;
+
+  /** The results of the started bounds, which may still be computed. */
+  private final Map<Integer, CompletableFuture<Set<CandidateInvariant>>> results = new HashMap<>();
+
+  private final List<Checks> runningChecks = new ArrayList<>();
+
+  /**
+   * @param pInductionCheck the check of a single candidate. It is called by a separate thread, so
+   *     it must not share a prover with the base case.
+   * @param pShutdownManager the shutdown manager of the prover used by pInductionCheck. Its shutdown
+   *     is requested when this object is closed.
+   */
+  ParallelStepCase(InductionCheck pInductionCheck, ShutdownManager pShutdownManager) {
+    inductionCheck = pInductionCheck;
+    shutdownManager = pShutdownManager;
+    executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("bmc-step-case-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Starts the step case for the bound k, unless it was already started speculatively, and the
+   * step case for k + 1 speculatively. Checks of bounds smaller than k are stopped after their
+   * current candidate.
+   *
+   * @param pK the current bound
+   * @param pCandidates the candidates to check
+   * @param pAssumptions the confirmed invariants to assume
+   * @param pCheckedKeys the keys of the loop-iteration reporting states that were checked by BMC
+   */
+  void start(
+      int pK,
+      List<CandidateInvariant> pCandidates,
+      List<CandidateInvariant> pAssumptions,
+      Set<Object> pCheckedKeys) {
+
+    Iterator<Checks> running = runningChecks.iterator();
+    while (running.hasNext()) {
+      Checks checks = running.next();
+      if (checks.task.isDone()) {
+        running.remove();
+      } else if (checks.bounds.stream().allMatch(bound -> bound < pK)) {
+        // still running until its current candidate is checked, close() has to wait for it
+        checks.cancelled.set(true);
+      }
+    }
+    results.keySet().removeIf(bound -> bound < pK);
+
+    ImmutableList.Builder<Integer> newBounds = ImmutableList.builder();
+    for (int bound = pK; bound <= pK + 1; bound++) {
+      if (!results.containsKey(bound)) {
+        newBounds.add(bound);
+        results.put(bound, new CompletableFuture<>());
+      }
+    }
+    Checks checks = new Checks(newBounds.build());
+    if (checks.bounds.isEmpty()) {
+      return;
+    }
+
+    final List<CandidateInvariant> candidates = ImmutableList.copyOf(pCandidates);
+    final List<CandidateInvariant> assumptions = ImmutableList.copyOf(pAssumptions);
+    final Set<Object> checkedKeys = ImmutableSet.copyOf(pCheckedKeys);
+    final List<CompletableFuture<Set<CandidateInvariant>>> boundResults = new ArrayList<>();
+    for (int bound : checks.bounds) {
+      boundResults.add(results.get(bound));
+    }
+
+    checks.task =
+        executor.submit(
+            () -> {
+              for (int i = 0; i < checks.bounds.size(); i++) {
+                CompletableFuture<Set<CandidateInvariant>> result = boundResults.get(i);
+                try {
+                  result.complete(
+                      checkBound(
+                          checks.bounds.get(i), candidates, assumptions, checkedKeys, checks));
+                } catch (Throwable e) {
+                  // report every failure, otherwise getInductive() would wait forever
+                  for (CompletableFuture<Set<CandidateInvariant>> r :
+                      boundResults.subList(i, boundResults.size())) {
+                    r.completeExceptionally(e);
+                  }
+                  return;
+                }
+              }
+            });
+    runningChecks.add(checks);
+  }
+
+  /**
+   * Returns the candidates that were found inductive for the given bound. Waits until the step case
+   * for this bound has finished. If it was not started, no candidate is known to be inductive.
+   */
+  Set<CandidateInvariant> getInductive(int pK)
+      throws InterruptedException, CPAException, SolverException {
+    CompletableFuture<Set<CandidateInvariant>> result = results.get(pK);
+    if (result == null) {
+      return ImmutableSet.of();
+    }
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), CPAException.class, SolverException.class);
+      Throwables.propagateIfPossible(e.getCause(), InterruptedException.class);
+      throw new UnexpectedCheckedException("induction step case", e.getCause());
+    }
+  }
+
+  private Set<CandidateInvariant> checkBound(
+      int pK,
+      List<CandidateInvariant> pCandidates,
+      List<CandidateInvariant> pAssumptions,
+      Set<Object> pCheckedKeys,
+      Checks pChecks)
+      throws CPAException, InterruptedException, SolverException {
+    Set<CandidateInvariant> inductive = new HashSet<>();
+    for (CandidateInvariant candidate : pCandidates) {
+      if (pChecks.cancelled.get()) {
+        // the candidates found so far are still inductive
+        break;
+      }
+      if (inductionCheck.isInductive(
+          ImmutableList.<CandidateInvariant>builder().addAll(pAssumptions).add(candidate).build(),
+          pK,
+          candidate,
+          pCheckedKeys)) {
+        inductive.add(candidate);
+      }
+    }
+    return inductive;
+  }
+
+  /**
+   * Stops all checks, interrupts the prover and waits until the checks have stopped, such that the
+   * prover can be closed afterwards.
+   */
+  @Override
+  public void close() {
+    for (Checks checks : runningChecks) {
+      checks.cancelled.set(true);
+    }
+    shutdownManager.requestShutdown("Parallel induction step case is not needed anymore");
+    executor.shutdown();
+    for (Checks checks : runningChecks) {
+      try {
+        Uninterruptibles.getUninterruptibly(checks.task);
+      } catch (ExecutionException e) {
+        // exceptions are reported through the results
+      }
+    }
+    runningChecks.clear();
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class ParallelStepCaseTest {
+
+  private final CandidateInvariant inductive = Mockito.mock(CandidateInvariant.class);
+  private final CandidateInvariant notInductive = Mockito.mock(CandidateInvariant.class);
+  private final ImmutableList<CandidateInvariant> candidates =
+      ImmutableList.of(inductive, notInductive);
+
+  /** The bounds and candidates that were checked, in the order of the checks. */
+  private final List<Pair<Integer, CandidateInvariant>> checked =
+      Collections.synchronizedList(new ArrayList<>());
+
+  private ShutdownManager shutdownManager;
+
+  @Before
+  public void setUp() {
+    shutdownManager = ShutdownManager.create();
+  }
+
+  private ParallelStepCase createStepCase(CountDownLatch pBlockChecks) {
+    return new ParallelStepCase(
+        (assumptions, k, candidate, checkedKeys) -> {
+          // a blocked check behaves like a prover that only stops when it is interrupted
+          while (!pBlockChecks.await(10, TimeUnit.MILLISECONDS)) {
+            shutdownManager.getNotifier().shutdownIfNecessary();
+          }
+          checked.add(Pair.of(k, candidate));
+          assertThat(assumptions).contains(candidate);
+          return candidate == inductive;
+        },
+        shutdownManager);
+  }
+
+  @Test(timeout = 10000)
+  public void testInductiveCandidates() throws Exception {
+    try (ParallelStepCase stepCase = createStepCase(new CountDownLatch(0))) {
+      stepCase.start(1, candidates, ImmutableList.of(), ImmutableSet.of());
+      assertThat(stepCase.getInductive(1)).containsExactly(inductive);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testNotStarted() throws Exception {
+    try (ParallelStepCase stepCase = createStepCase(new CountDownLatch(0))) {
+      assertThat(stepCase.getInductive(1)).isEmpty();
+      stepCase.start(1, candidates, ImmutableList.of(), ImmutableSet.of());
+      assertThat(stepCase.getInductive(3)).isEmpty();
+    }
+    assertThat(checked).isNotEmpty();
+  }
+
+  @Test(timeout = 10000)
+  public void testSpeculativeBound() throws Exception {
+    try (ParallelStepCase stepCase = createStepCase(new CountDownLatch(0))) {
+      stepCase.start(1, candidates, ImmutableList.of(), ImmutableSet.of());
+      assertThat(stepCase.getInductive(1)).containsExactly(inductive);
+      assertThat(stepCase.getInductive(2)).containsExactly(inductive);
+
+      // the speculative result for k = 2 is reused, only k = 3 is checked additionally
+      stepCase.start(2, candidates, ImmutableList.of(), ImmutableSet.of());
+      assertThat(stepCase.getInductive(2)).containsExactly(inductive);
+      assertThat(stepCase.getInductive(3)).containsExactly(inductive);
+    }
+    assertThat(checked)
+        .containsExactly(
+            Pair.of(1, inductive),
+            Pair.of(1, notInductive),
+            Pair.of(2, inductive),
+            Pair.of(2, notInductive),
+            Pair.of(3, inductive),
+            Pair.of(3, notInductive))
+        .inOrder();
+  }
+
+  @Test(timeout = 10000)
+  public void testCloseInterruptsChecks() throws Exception {
+    ParallelStepCase stepCase = createStepCase(new CountDownLatch(1));
+    stepCase.start(1, candidates, ImmutableList.of(), ImmutableSet.of());
+    stepCase.start(2, candidates, ImmutableList.of(), ImmutableSet.of());
+
+    // the blocked checks only stop because the shutdown is requested
+    stepCase.close();
+    assertThat(shutdownManager.getNotifier().shouldShutdown()).isTrue();
+    assertThat(checked).isEmpty();
+  }
+
+  @Test(timeout = 10000)
+  public void testExceptionIsPropagated() throws Exception {
+    CPAException failure = new CPAException("failure");
+    try (ParallelStepCase stepCase =
+        new ParallelStepCase(
+            (assumptions, k, candidate, checkedKeys) -> {
+              throw failure;
+            },
+            shutdownManager)) {
+      stepCase.start(1, candidates, ImmutableList.of(), ImmutableSet.of());
+      for (int k = 1; k <= 2; k++) {
+        try {
+          stepCase.getInductive(k);
+          Assert.fail();
+        } catch (CPAException e) {
+          assertThat(e).isSameAs(failure);
+        }
+      }
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testCheckedKeysArePassed() throws Exception {
+    Set<Object> keys = ImmutableSet.of("key");
+    List<Set<Object>> passedKeys = Collections.synchronizedList(new ArrayList<>());
+    try (ParallelStepCase stepCase =
+        new ParallelStepCase(
+            (assumptions, k, candidate, checkedKeys) -> {
+              passedKeys.add(checkedKeys);
+              return true;
+            },
+            shutdownManager)) {
+      stepCase.start(1, candidates, ImmutableList.of(), keys);
+      assertThat(stepCase.getInductive(2)).containsExactlyElementsIn(candidates);
+    }
+    assertThat(passedKeys).hasSize(4);
+    assertThat(ImmutableSet.copyOf(passedKeys)).containsExactly(keys);
+  }
+}
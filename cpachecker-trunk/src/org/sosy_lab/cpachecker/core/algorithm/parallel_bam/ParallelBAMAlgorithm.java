@@ -35,8 +35,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -129,7 +127,8 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
         new ConcurrentHashMap<>();
     final int numberOfCores = getNumberOfCores();
     oneTimeLogger.logfOnce(Level.INFO, "creating pool for %d threads", numberOfCores);
-    final ExecutorService pool = Executors.newFixedThreadPool(numberOfCores);
+    final ReachedSetExecutorScheduler pool = new ReachedSetExecutorScheduler(numberOfCores);
+    stats.numberOfThreads = numberOfCores;
     final AtomicReference<Throwable> error = new AtomicReference<>(null);
     final AtomicBoolean terminateAnalysis = new AtomicBoolean(false);
 
@@ -172,6 +171,8 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
         isSound = false;
         pool.shutdownNow();
       }
+      stats.scheduledJobs = pool.getNumberOfJobs();
+      stats.stolenJobs = pool.getStealCount();
     }
 
     collectExceptions(reachedSetMapping, error, mainReachedSet);
@@ -281,6 +282,9 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
     final StatHist histActiveThreads = new StatHist("Active threads");
     final StatHist executionCounter = new StatHist("RSE execution counter");
     private final StatCounter unfinishedRSEcounter = new StatCounter("unfinished reached-sets");
+    private int numberOfThreads = 0;
+    private long scheduledJobs = 0;
+    private long stolenJobs = 0;
 
     final StatisticsSeries<Integer> runningRSESeries =
         (runningRSESeriesFile == null) ? new NoopStatisticsSeries<>() : new StatisticsSeries<>();
@@ -295,6 +299,18 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
       StatisticsUtils.write(pOut, 0, 50, threadTime);
       StatisticsUtils.write(pOut, 1, 50, addingStatesTime);
       StatisticsUtils.write(pOut, 1, 50, terminationCheckTime);
+      StatisticsUtils.write(pOut, 0, 50, "number of threads", numberOfThreads);
+      StatisticsUtils.write(pOut, 0, 50, "number of scheduled jobs", scheduledJobs);
+      StatisticsUtils.write(pOut, 1, 50, "jobs stolen by other threads", stolenJobs);
+      long availableThreadTime = wallTime.getConsumedTime().asMillis() * numberOfThreads;
+      if (availableThreadTime > 0) {
+        StatisticsUtils.write(
+            pOut,
+            0,
+            50,
+            "thread utilization",
+            StatisticsUtils.toPercent(threadTime.getSumTime().asMillis(), availableThreadTime));
+      }
 
       if (runningRSESeriesFile != null) {
         try {
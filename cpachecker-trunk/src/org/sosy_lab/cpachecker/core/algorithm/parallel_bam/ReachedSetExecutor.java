@@ -34,19 +34,22 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.graph.Traverser;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -99,7 +102,14 @@ class ReachedSetExecutor {
   /** important central data structure, shared over all threads, need to be synchronized. */
   private final ConcurrentMap<ReachedSet, ReachedSetExecutor> reachedSetMapping;
 
-  private final ExecutorService pool;
+  private final ReachedSetExecutorScheduler pool;
+
+  /**
+   * The priority for scheduling this RSE, i.e., the length of the longest known chain of RSEs that
+   * (transitively) wait for this RSE. Scheduling the RSEs on the longest chain first reduces the
+   * time until the main reached-set is finished (critical-path scheduling).
+   */
+  private final AtomicInteger priority = new AtomicInteger(0);
 
   private final BAMCPAWithBreakOnMissingBlock bamcpa;
   private final AlgorithmFactory algorithmFactory;
@@ -130,6 +140,12 @@ class ReachedSetExecutor {
   private final Multimap<ReachedSetExecutor, AbstractState> dependingFrom =
       LinkedHashMultimap.create();
 
+  /**
+   * All {@link ReachedSetExecutor}s that the current one waits for or has waited for, used to
+   * propagate the priority along the chain of dependencies.
+   */
+  private final Set<ReachedSetExecutor> subRses = ConcurrentHashMap.newKeySet();
+
   /** This future contains the list of tasks to be executed with this RSE. */
   private CompletableFuture<Void> waitingTask;
 
@@ -139,7 +155,7 @@ class ReachedSetExecutor {
       Block pBlock,
       ReachedSet pMainReachedSet,
       ConcurrentMap<ReachedSet, ReachedSetExecutor> pReachedSetMapping,
-      ExecutorService pPool,
+      ReachedSetExecutorScheduler pPool,
       AlgorithmFactory pAlgorithmFactory,
       ShutdownNotifier pShutdownNotifier,
       ParallelBAMStatistics pStats,
@@ -183,7 +199,10 @@ class ReachedSetExecutor {
   }
 
   synchronized void addNewTask(Runnable r) {
-    waitingTask = waitingTask.thenRunAsync(r, pool).exceptionally(new ExceptionHandler(this));
+    waitingTask =
+        waitingTask
+            .thenRunAsync(r, pool.withPriority(priority.get()))
+            .exceptionally(new ExceptionHandler(this));
   }
 
   /** use only for debugging and exception handling */
@@ -400,6 +419,7 @@ class ReachedSetExecutor {
       MissingBlockAbstractionState pBsme, final ReachedSetExecutor subRse) {
     logger.logf(level, "%s :: %s -> %s", this, this, subRse);
     dependsOn.add(pBsme.getState());
+    subRses.add(subRse);
     synchronized (subRse.dependingFrom) {
       subRse.dependingFrom.put(this, pBsme.getState());
     }
@@ -450,6 +470,7 @@ class ReachedSetExecutor {
 
     // register dependencies to wait for results and to get results, asynchronous
     addDependencies(pBsme, subRse);
+    subRse.raisePriority(priority.get() + 1);
 
     // register callback to get results of terminated analysis
     registerJob(subRse, subRse.asRunnable());
@@ -465,6 +486,27 @@ class ReachedSetExecutor {
     }
   }
 
+  /**
+   * Raise the priority of the current RSE to at least the given value, and the priorities of all
+   * RSEs that it (transitively) waits for such that each of them stays above its parents. Jobs that
+   * are already scheduled keep their old priority.
+   */
+  private void raisePriority(int pPriority) {
+    Deque<Pair<ReachedSetExecutor, Integer>> waitlist = new ArrayDeque<>();
+    waitlist.push(Pair.of(this, pPriority));
+    while (!waitlist.isEmpty()) {
+      Pair<ReachedSetExecutor, Integer> current = waitlist.pop();
+      ReachedSetExecutor rse = current.getFirst();
+      int newPriority = current.getSecond();
+      // the dependencies are acyclic (recursion is rejected), so this terminates
+      if (rse.priority.getAndAccumulate(newPriority, Math::max) < newPriority) {
+        for (ReachedSetExecutor subRse : rse.subRses) {
+          waitlist.push(Pair.of(subRse, newPriority + 1));
+        }
+      }
+    }
+  }
+
   /** We need to traverse the RSEs whether there is a cyclic dependency. */
   private boolean hasRecursion(CFANode pEntryLocation) {
     // TODO do we need a lock? we need to avoid crossover RSE-creation during traversal.
@@ -0,0 +1,271 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nullable;
+
+/**
+ * A work-stealing scheduler for the jobs of {@link ReachedSetExecutor}s.
+ *
+ * <p>Each worker thread has its own queue of jobs, ordered by priority (highest first) and then by
+ * submission (FIFO). A job that is submitted by a worker thread is added to the queue of this
+ * worker, other jobs are distributed over the queues round-robin. A worker always runs the best
+ * job of its own queue, and only if its queue is empty, it steals the best job of the other
+ * queues. A job never blocks while waiting for another job (an RSE that waits for a block summary
+ * just terminates and is re-scheduled when the summary is available), thus the worker threads only
+ * idle if there is no ready job at all.
+ */
+class ReachedSetExecutorScheduler extends AbstractExecutorService {
+
+  private final Worker[] workers;
+  private final ThreadLocal<Worker> currentWorker = new ThreadLocal<>();
+
+  /** One permit per queued job, and one per worker after shutdown to let the workers exit. */
+  private final Semaphore permits = new Semaphore(0);
+
+  private final AtomicInteger queuedJobs = new AtomicInteger(0);
+  private final AtomicInteger nextQueue = new AtomicInteger(0);
+  private final AtomicLong jobCounter = new AtomicLong(0);
+  private final AtomicLong stealCounter = new AtomicLong(0);
+
+  /** Jobs are submitted under the read lock, shutting down needs the write lock. */
+  private final ReadWriteLock shutdownLock = new ReentrantReadWriteLock();
+
+  private volatile boolean shutdown = false;
+  private final CountDownLatch terminated;
+
+  ReachedSetExecutorScheduler(int pNumberOfThreads) {
+    checkArgument(pNumberOfThreads > 0, "at least one thread is needed");
+    ThreadFactory threadFactory =
+        new ThreadFactoryBuilder().setNameFormat("parallel-bam-%d").setDaemon(true).build();
+    workers = new Worker[pNumberOfThreads];
+    terminated = new CountDownLatch(pNumberOfThreads);
+    for (int i = 0; i < pNumberOfThreads; i++) {
+      workers[i] = new Worker(threadFactory);
+    }
+    for (Worker worker : workers) {
+      worker.thread.start();
+    }
+  }
+
+  /** Return an executor that schedules all its jobs with the given priority. */
+  Executor withPriority(int pPriority) {
+    return r -> execute(r, pPriority);
+  }
+
+  @Override
+  public void execute(Runnable pJob) {
+    execute(pJob, 0);
+  }
+
+  private void execute(Runnable pJob, int pPriority) {
+    PrioritizedJob job = new PrioritizedJob(pJob, pPriority, jobCounter.getAndIncrement());
+    Worker worker = currentWorker.get();
+    if (worker == null) {
+      worker = workers[Math.floorMod(nextQueue.getAndIncrement(), workers.length)];
+    }
+
+    shutdownLock.readLock().lock();
+    try {
+      if (shutdown) {
+        throw new RejectedExecutionException("scheduler is shut down");
+      }
+      queuedJobs.incrementAndGet();
+      worker.queue.add(job);
+    } finally {
+      shutdownLock.readLock().unlock();
+    }
+    permits.release();
+  }
+
+  /**
+   * Take the best job of the worker's own queue, or steal the best job of another queue. Return
+   * null if the scheduler is shut down and no jobs are left.
+   */
+  private @Nullable PrioritizedJob takeJob(Worker pWorker) {
+    while (true) {
+      PrioritizedJob job = pWorker.queue.pollFirst();
+      if (job == null) {
+        job = steal(pWorker);
+      }
+      if (job != null) {
+        queuedJobs.decrementAndGet();
+        return job;
+      }
+      if (shutdown && queuedJobs.get() == 0) {
+        return null;
+      }
+      // the job for our permit is just being taken by another worker that holds a later permit
+      Thread.yield();
+    }
+  }
+
+  private @Nullable PrioritizedJob steal(Worker pThief) {
+    Worker victim = null;
+    PrioritizedJob best = null;
+    for (Worker worker : workers) {
+      if (worker != pThief) {
+        Iterator<PrioritizedJob> it = worker.queue.iterator();
+        if (it.hasNext()) {
+          PrioritizedJob first = it.next();
+          if (best == null || first.compareTo(best) < 0) {
+            best = first;
+            victim = worker;
+          }
+        }
+      }
+    }
+    if (best != null && victim.queue.remove(best)) {
+      stealCounter.incrementAndGet();
+      return best;
+    }
+    return null;
+  }
+
+  /** Number of scheduled jobs. */
+  long getNumberOfJobs() {
+    return jobCounter.get();
+  }
+
+  /** Number of jobs that a worker thread took from the queue of another worker thread. */
+  long getStealCount() {
+    return stealCounter.get();
+  }
+
+  @Override
+  public void shutdown() {
+    shutdownLock.writeLock().lock();
+    try {
+      if (shutdown) {
+        return;
+      }
+      shutdown = true;
+    } finally {
+      shutdownLock.writeLock().unlock();
+    }
+    permits.release(workers.length);
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown();
+    List<Runnable> remaining = new ArrayList<>();
+    for (Worker worker : workers) {
+      PrioritizedJob job;
+      while ((job = worker.queue.pollFirst()) != null) {
+        queuedJobs.decrementAndGet();
+        remaining.add(job.job);
+      }
+      worker.thread.interrupt();
+    }
+    return remaining;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long pTimeout, TimeUnit pUnit) throws InterruptedException {
+    return terminated.await(pTimeout, pUnit);
+  }
+
+  private final class Worker implements Runnable {
+
+    private final ConcurrentSkipListSet<PrioritizedJob> queue = new ConcurrentSkipListSet<>();
+    private final Thread thread;
+
+    private Worker(ThreadFactory pThreadFactory) {
+      thread = pThreadFactory.newThread(this);
+    }
+
+    @Override
+    public void run() {
+      currentWorker.set(this);
+      try {
+        while (true) {
+          permits.acquire();
+          PrioritizedJob job = takeJob(this);
+          if (job == null) {
+            return;
+          }
+          try {
+            job.job.run();
+          } catch (RuntimeException | Error e) {
+            // a failing job must not stop the worker
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+          }
+        }
+      } catch (InterruptedException e) {
+        // shutdownNow() was called
+      } finally {
+        terminated.countDown();
+      }
+    }
+  }
+
+  private static final class PrioritizedJob implements Comparable<PrioritizedJob> {
+
+    private final Runnable job;
+    private final int priority;
+    private final long id;
+
+    private PrioritizedJob(Runnable pJob, int pPriority, long pId) {
+      job = pJob;
+      priority = pPriority;
+      id = pId;
+    }
+
+    @Override
+    public int compareTo(PrioritizedJob pOther) {
+      // higher priority first, then older jobs first
+      int result = Integer.compare(pOther.priority, priority);
+      return result != 0 ? result : Long.compare(id, pOther.id);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.parallel_bam;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReachedSetExecutorSchedulerTest {
+
+  private ReachedSetExecutorScheduler scheduler;
+
+  @After
+  public void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testPriorityOrder() throws Exception {
+    scheduler = new ReachedSetExecutorScheduler(1);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> order = new CopyOnWriteArrayList<>();
+
+    // occupy the only worker until all other jobs are queued
+    scheduler.execute(
+        () -> {
+          blocked.countDown();
+          awaitUninterruptibly(release);
+        });
+    blocked.await();
+    scheduler.withPriority(1).execute(() -> order.add("1a"));
+    scheduler.withPriority(3).execute(() -> order.add("3"));
+    scheduler.withPriority(1).execute(() -> order.add("1b"));
+    scheduler.withPriority(2).execute(() -> order.add("2"));
+    scheduler.execute(() -> order.add("0"));
+    release.countDown();
+
+    scheduler.shutdown();
+    assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(order).containsExactly("3", "2", "1a", "1b", "0").inOrder();
+  }
+
+  @Test(timeout = 10000)
+  public void testIdleWorkerStealsJob() throws Exception {
+    scheduler = new ReachedSetExecutorScheduler(2);
+    CountDownLatch stolenJobRan = new CountDownLatch(1);
+
+    // the job is queued at the worker that submits it, which then blocks,
+    // so only the other worker can run it
+    scheduler.execute(
+        () -> {
+          scheduler.execute(stolenJobRan::countDown);
+          awaitUninterruptibly(stolenJobRan);
+        });
+    stolenJobRan.await();
+
+    scheduler.shutdown();
+    assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(scheduler.getStealCount()).isAtLeast(1L);
+    assertThat(scheduler.getNumberOfJobs()).isEqualTo(2);
+  }
+
+  @Test(timeout = 10000)
+  public void testShutdownRunsQueuedJobsAndRejectsNewOnes() throws Exception {
+    scheduler = new ReachedSetExecutorScheduler(3);
+    CountDownLatch done = new CountDownLatch(100);
+    for (int i = 0; i < 100; i++) {
+      scheduler.withPriority(i % 7).execute(done::countDown);
+    }
+    scheduler.shutdown();
+    try {
+      scheduler.execute(() -> {});
+      Assert.fail();
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+
+    assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(done.getCount()).isEqualTo(0);
+    assertThat(scheduler.isTerminated()).isTrue();
+  }
+
+  @Test(timeout = 10000)
+  public void testShutdownNowReturnsQueuedJobs() throws Exception {
+    scheduler = new ReachedSetExecutorScheduler(1);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    scheduler.execute(
+        () -> {
+          blocked.countDown();
+          awaitUninterruptibly(release);
+        });
+    blocked.await();
+    Runnable queued = () -> {};
+    scheduler.execute(queued);
+
+    assertThat(scheduler.shutdownNow()).containsExactly(queued);
+    release.countDown();
+    assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+  }
+}
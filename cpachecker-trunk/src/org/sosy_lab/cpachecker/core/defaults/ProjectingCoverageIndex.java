@@ -0,0 +1,82 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.defaults;
+
+import static com.google.common.collect.FluentIterable.from;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndex;
+
+/**
+ * Coverage index for wrapper states that delegates to an index over a wrapped or component state.
+ * This is sound if the wrapper state can only be covered if the projected state is covered.
+ *
+ * <p>Several wrapper states may share the same projected state, thus the projected states are
+ * mapped back to all wrapper states (compared by identity) that were added for them.
+ */
+public class ProjectingCoverageIndex implements CoverageIndex {
+
+  private final CoverageIndex delegate;
+  private final Function<AbstractState, AbstractState> projection;
+  private final Map<AbstractState, List<AbstractState>> originals = new IdentityHashMap<>();
+
+  public ProjectingCoverageIndex(
+      CoverageIndex pDelegate, Function<AbstractState, AbstractState> pProjection) {
+    delegate = pDelegate;
+    projection = pProjection;
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    AbstractState projected = projection.apply(pState);
+    List<AbstractState> states = originals.computeIfAbsent(projected, k -> new ArrayList<>(1));
+    if (states.isEmpty()) {
+      delegate.add(projected);
+    }
+    states.add(pState);
+  }
+
+  @Override
+  public void remove(AbstractState pState) {
+    AbstractState projected = projection.apply(pState);
+    List<AbstractState> states = originals.get(projected);
+    if (states != null && states.removeIf(s -> s == pState) && states.isEmpty()) {
+      originals.remove(projected);
+      delegate.remove(projected);
+    }
+  }
+
+  @Override
+  public Collection<AbstractState> getCoverageCandidates(AbstractState pState) {
+    return from(delegate.getCoverageCandidates(projection.apply(pState)))
+        .transformAndConcat(originals::get)
+        .toList();
+  }
+}
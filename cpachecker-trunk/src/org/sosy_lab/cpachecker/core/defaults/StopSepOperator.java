@@ -27,14 +27,15 @@ import java.util.Collection;
 
 import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageSummarizable;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
-import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.SummarizingStopOperator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 /**
  * Standard stop-sep operator
  */
-public class StopSepOperator implements StopOperator {
+public class StopSepOperator implements SummarizingStopOperator {
 
   private final AbstractDomain domain;
 
@@ -57,4 +58,12 @@ public class StopSepOperator implements StopOperator {
     }
     return false;
   }
+
+  @Override
+  public long getCoverageSummary(AbstractState pState) {
+    if (pState instanceof CoverageSummarizable) {
+      return ((CoverageSummarizable) pState).getCoverageSummary();
+    }
+    return 0;
+  }
 }
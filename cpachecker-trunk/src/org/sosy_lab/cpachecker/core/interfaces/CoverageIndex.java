@@ -0,0 +1,49 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+import java.util.Collection;
+
+/**
+ * Index over the states of one partition of the reached set, which allows to find the states that
+ * might cover a given state without checking all states of the partition.
+ *
+ * <p>Instances are created by an {@link IndexedStopOperator} and maintained by the reached set.
+ */
+public interface CoverageIndex {
+
+  /** Add a state to the index. */
+  void add(AbstractState pState);
+
+  /** Remove a state from the index, if it is contained. */
+  void remove(AbstractState pState);
+
+  /**
+   * Return all states of the index that might cover the given state according to the stop
+   * operator that created this index. The returned collection may contain states that do not cover
+   * the given state, but it has to contain all states that do. The order of the returned states is
+   * not specified.
+   */
+  Collection<AbstractState> getCoverageCandidates(AbstractState pState);
+}
@@ -0,0 +1,47 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * Interface for abstract states that provide a cheap summary of their information, which can be
+ * used to reject coverage checks without calling {@link AbstractDomain#isLessOrEqual}.
+ *
+ * <p>The summary is a bit mask of 64 bits. If a state s is less or equal than a state r with
+ * respect to the abstract domain of the CPA, then all bits that are set in the summary of r also
+ * need to be set in the summary of s. The summary of a state must not change as long as the state
+ * is in the reached set.
+ */
+public interface CoverageSummarizable {
+
+  /** Returns a summary of this state, see {@link CoverageSummarizable} for the requirements. */
+  long getCoverageSummary();
+
+  /**
+   * Check whether a state with summary pSummary might be less or equal than a state with summary
+   * pReachedSummary. If this method returns false, the state is definitely not less or equal.
+   */
+  static boolean mayBeLessOrEqual(long pSummary, long pReachedSummary) {
+    return (pReachedSummary & ~pSummary) == 0;
+  }
+}
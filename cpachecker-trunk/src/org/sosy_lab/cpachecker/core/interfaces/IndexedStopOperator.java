@@ -0,0 +1,41 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stop operator that can create an index for the states of a partition of the reached set (cf.
+ * {@link CoverageIndex}).
+ *
+ * <p>The result of {@link #stop(AbstractState, java.util.Collection, Precision)} must not change
+ * if the collection of reached states is restricted to the coverage candidates of an index that was
+ * created by this operator.
+ */
+public interface IndexedStopOperator extends StopOperator {
+
+  /** Create a new empty index, or return null if this operator cannot provide an index. */
+  @Nullable
+  CoverageIndex createCoverageIndex();
+}
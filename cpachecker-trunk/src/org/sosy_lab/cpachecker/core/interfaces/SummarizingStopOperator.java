@@ -0,0 +1,42 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * Stop operator that can compute summaries of abstract states, which allow to discard states from
+ * the reached set as coverage candidates without calling the stop operator for them (cf. {@link
+ * CoverageSummarizable}).
+ *
+ * <p>The result of {@link #stop(AbstractState, java.util.Collection, Precision)} must not change
+ * if states r with {@code !CoverageSummarizable.mayBeLessOrEqual(getCoverageSummary(s),
+ * getCoverageSummary(r))} are removed from the collection of reached states.
+ */
+public interface SummarizingStopOperator extends StopOperator {
+
+  /**
+   * Return the summary of a state for coverage checks with this operator. A summary of 0 contains
+   * no information and never allows to discard a candidate.
+   */
+  long getCoverageSummary(AbstractState pState);
+}
@@ -0,0 +1,48 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * Interface for CPAs whose operators (transfer relation, merge and stop operator, and precision
+ * adjustment) can be called concurrently from several threads, for example by the parallel
+ * exploration of {@link org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm}.
+ *
+ * <p>Implementing this interface is an explicit opt-in. Each thread requests its own transfer
+ * relation and precision adjustment, so these may store intermediate results in fields as long as
+ * the instances returned by different calls do not share mutable state. Merge and stop operator
+ * are shared between all threads. CPAs that use a shared solver instance are not thread-safe and
+ * must not declare this.
+ */
+public interface ThreadSafeConfigurableProgramAnalysis extends ConfigurableProgramAnalysis {
+
+  /**
+   * Check whether all operators of this CPA can be used concurrently.
+   *
+   * <p>Wrapper CPAs should override this method and return true only if all wrapped CPAs are
+   * thread-safe.
+   */
+  default boolean hasThreadSafeOperators() {
+    return true;
+  }
+}
@@ -0,0 +1,558 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.FluentIterable.from;
+import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Striped;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Property;
+import org.sosy_lab.cpachecker.core.interfaces.Targetable;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.Pair;
+
+/**
+ * Thread-safe implementation of ReachedSet that partitions the set by keys that depend on the
+ * abstract state, like {@link PartitionedReachedSet}. By default, this implementation needs
+ * abstract states which implement {@link Partitionable} and uses the return value of {@link
+ * Partitionable#getPartitionKey()} as the key.
+ *
+ * <p>The states of each partition are guarded by a lock that is shared with only a few other
+ * partitions (lock striping), such that threads working on different partitions (e.g., different
+ * CFA locations) rarely block each other. There is no global lock for inserting or querying
+ * states. Clients that need to perform several operations on one partition atomically (e.g., merge
+ * and stop for a new successor) can acquire the lock with {@link #getPartitionLock(AbstractState)}.
+ *
+ * <p>Instead of one waitlist, this reached set has one waitlist per worker thread, each created
+ * with the given {@link WaitlistFactory}. A thread can bind itself to a waitlist with {@link
+ * #bindCurrentThreadToWaitlist(int)}. New states are added to the waitlist of the current thread
+ * (or to the first waitlist for unbound threads), and if the own waitlist is empty, a thread can
+ * steal states from the waitlists of other threads.
+ *
+ * <p>All collections returned by this class are views that are safe to iterate while other threads
+ * modify the reached set, but iteration is only weakly consistent. The method {@link #clear()} must
+ * not be called concurrently with other operations.
+ */
+public class ConcurrentPartitionedReachedSet implements ReachedSet {
+
+  static final int DEFAULT_NUMBER_OF_STRIPES = 64;
+
+  /** The precision of a state together with a sequence number for the insertion order. */
+  private static final class ReachedEntry {
+    private final long id;
+    private final Precision precision;
+
+    private ReachedEntry(long pId, Precision pPrecision) {
+      id = pId;
+      precision = pPrecision;
+    }
+  }
+
+  private final AtomicLong nextId = new AtomicLong();
+  private final ConcurrentMap<AbstractState, ReachedEntry> reached = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<Long, AbstractState> insertionOrder =
+      new ConcurrentSkipListMap<>();
+  private final Set<AbstractState> unmodifiableReached = new ReachedView();
+
+  /** States per partition, each set is guarded by the lock of its partition. */
+  private final ConcurrentMap<Object, Set<AbstractState>> partitionedReached =
+      new ConcurrentHashMap<>();
+  private final Striped<Lock> partitionLocks;
+
+  /** The waitlists of all workers, each waitlist is guarded by its own monitor. */
+  private final WaitlistFactory waitlistFactory;
+  private final List<Waitlist> waitlists = new CopyOnWriteArrayList<>();
+  /** Maps each waiting state to the waitlist containing it. Only modified with the monitor held. */
+  private final ConcurrentMap<AbstractState, Waitlist> waitingStates = new ConcurrentHashMap<>();
+  private final ThreadLocal<Integer> boundWaitlist = ThreadLocal.withInitial(() -> 0);
+
+  private final AtomicReference<AbstractState> firstState = new AtomicReference<>();
+  private volatile @Nullable AbstractState lastState = null;
+
+  public ConcurrentPartitionedReachedSet(WaitlistFactory pWaitlistFactory) {
+    this(pWaitlistFactory, DEFAULT_NUMBER_OF_STRIPES);
+  }
+
+  public ConcurrentPartitionedReachedSet(WaitlistFactory pWaitlistFactory, int pNumberOfStripes) {
+    checkArgument(pNumberOfStripes > 0, "number of lock stripes must be positive");
+    waitlistFactory = checkNotNull(pWaitlistFactory);
+    partitionLocks = Striped.lock(pNumberOfStripes);
+    waitlists.add(waitlistFactory.createWaitlistInstance());
+  }
+
+  protected Object getPartitionKey(AbstractState pState) {
+    assert pState instanceof Partitionable
+        : "Partitionable states necessary for ConcurrentPartitionedReachedSet";
+    return ((Partitionable) pState).getPartitionKey();
+  }
+
+  /**
+   * Get the lock that guards the partition of the given state. Holding this lock guarantees that no
+   * other thread adds or removes states of this partition. The lock is reentrant, so all methods of
+   * this class can be called while holding it.
+   */
+  public Lock getPartitionLock(AbstractState pState) {
+    return partitionLocks.get(getPartitionKey(pState));
+  }
+
+  /**
+   * Bind the current thread to the waitlist with the given index, which is created if necessary.
+   * Afterwards, all states added by this thread are put into this waitlist, and {@link
+   * #pollFromOwnWaitlist()} takes states from it.
+   */
+  public void bindCurrentThreadToWaitlist(int pIndex) {
+    checkArgument(pIndex >= 0);
+    synchronized (waitlists) {
+      while (waitlists.size() <= pIndex) {
+        waitlists.add(waitlistFactory.createWaitlistInstance());
+      }
+    }
+    boundWaitlist.set(pIndex);
+  }
+
+  /** Reset the binding of the current thread to the default waitlist. */
+  public void unbindCurrentThread() {
+    boundWaitlist.remove();
+  }
+
+  private Waitlist getOwnWaitlist() {
+    return waitlists.get(boundWaitlist.get());
+  }
+
+  @Override
+  public void add(AbstractState pState, Precision pPrecision) throws IllegalArgumentException {
+    checkNotNull(pState);
+    checkNotNull(pPrecision);
+
+    Lock lock = getPartitionLock(pState);
+    lock.lock();
+    try {
+      ReachedEntry entry = new ReachedEntry(nextId.getAndIncrement(), pPrecision);
+      ReachedEntry previous = reached.putIfAbsent(pState, entry);
+
+      if (previous == null) {
+        firstState.compareAndSet(null, pState);
+        insertionOrder.put(entry.id, pState);
+        partitionedReached
+            .computeIfAbsent(getPartitionKey(pState), k -> new LinkedHashSet<>())
+            .add(pState);
+        addToWaitlist(pState, getOwnWaitlist());
+        lastState = pState;
+
+      } else if (!pPrecision.equals(previous.precision)) {
+        // the state was already in the reached set, cf. DefaultReachedSet#add
+        throw new IllegalArgumentException(
+            "State added to reached set which is already contained, but with a different precision");
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void addToWaitlist(AbstractState pState, Waitlist pWaitlist) {
+    synchronized (pWaitlist) {
+      if (waitingStates.putIfAbsent(pState, pWaitlist) == null) {
+        pWaitlist.add(pState);
+      }
+    }
+  }
+
+  @Override
+  public void addAll(Iterable<Pair<AbstractState, Precision>> pToAdd) {
+    for (Pair<AbstractState, Precision> pair : pToAdd) {
+      add(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  @Override
+  public void reAddToWaitlist(AbstractState pState) {
+    checkNotNull(pState);
+    checkArgument(reached.containsKey(pState), "State has to be in the reached set");
+    addToWaitlist(pState, getOwnWaitlist());
+  }
+
+  @Override
+  public void updatePrecision(AbstractState pState, Precision pNewPrecision) {
+    checkNotNull(pState);
+    checkNotNull(pNewPrecision);
+
+    ReachedEntry oldEntry = reached.get(pState);
+    checkArgument(
+        oldEntry != null
+            && reached.replace(pState, oldEntry, new ReachedEntry(oldEntry.id, pNewPrecision)),
+        "State needs to be in the reached set in order to change the precision.");
+  }
+
+  @Override
+  public void remove(AbstractState pState) {
+    checkNotNull(pState);
+
+    Lock lock = getPartitionLock(pState);
+    lock.lock();
+    try {
+      ReachedEntry entry = reached.remove(pState);
+      if (entry == null) {
+        return;
+      }
+      insertionOrder.remove(entry.id);
+      Set<AbstractState> partition = partitionedReached.get(getPartitionKey(pState));
+      if (partition != null) {
+        partition.remove(pState);
+      }
+      removeOnlyFromWaitlist(pState);
+      // the first state is kept, clients need it after the initial state was removed
+      if (pState.equals(lastState)) {
+        lastState = null;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void removeAll(Iterable<? extends AbstractState> pToRemove) {
+    for (AbstractState state : pToRemove) {
+      remove(state);
+    }
+  }
+
+  @Override
+  public void removeOnlyFromWaitlist(AbstractState pState) {
+    checkNotNull(pState);
+    Waitlist waitlist = waitingStates.get(pState);
+    if (waitlist != null) {
+      synchronized (waitlist) {
+        if (waitingStates.remove(pState, waitlist)) {
+          waitlist.remove(pState);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (Waitlist waitlist : waitlists) {
+      synchronized (waitlist) {
+        waitlist.clear();
+      }
+    }
+    waitingStates.clear();
+    reached.clear();
+    insertionOrder.clear();
+    partitionedReached.clear();
+    firstState.set(null);
+    lastState = null;
+  }
+
+  @Override
+  public Set<AbstractState> asCollection() {
+    return unmodifiableReached;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return unmodifiableReached.iterator();
+  }
+
+  @Override
+  public Collection<Precision> getPrecisions() {
+    return new AbstractCollection<Precision>() {
+
+      @Override
+      public Iterator<Precision> iterator() {
+        return from(insertionOrder.values())
+            .transform(reached::get)
+            .filter(entry -> entry != null)
+            .transform(entry -> entry.precision)
+            .iterator();
+      }
+
+      @Override
+      public int size() {
+        return reached.size();
+      }
+    };
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState pState) {
+    return getReachedForKey(getPartitionKey(pState));
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(CFANode pLocation) {
+    return asCollection();
+  }
+
+  /**
+   * Return a view on the states of a partition. Each access to the view acquires the lock of the
+   * partition, iteration happens on a snapshot of the partition.
+   */
+  protected Collection<AbstractState> getReachedForKey(Object pKey) {
+    return new AbstractCollection<AbstractState>() {
+
+      @Override
+      public Iterator<AbstractState> iterator() {
+        return withPartition(pKey, partition -> ImmutableList.copyOf(partition)).iterator();
+      }
+
+      @Override
+      public int size() {
+        return withPartition(pKey, Set::size);
+      }
+
+      @Override
+      public boolean contains(Object pObj) {
+        return withPartition(pKey, partition -> partition.contains(pObj));
+      }
+    };
+  }
+
+  private <T> T withPartition(Object pKey, Function<Set<AbstractState>, T> pAction) {
+    Lock lock = partitionLocks.get(pKey);
+    lock.lock();
+    try {
+      Set<AbstractState> partition = partitionedReached.get(pKey);
+      return pAction.apply(partition == null ? ImmutableSet.<AbstractState>of() : partition);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getNumberOfPartitions() {
+    return (int) partitionedReached.values().stream().filter(p -> !p.isEmpty()).count();
+  }
+
+  /** Return the keys of all partitions that currently contain states (weakly consistent). */
+  protected Set<?> getKeySet() {
+    return Collections.unmodifiableSet(
+        Maps.filterValues(partitionedReached, partition -> !partition.isEmpty()).keySet());
+  }
+
+  /**
+   * Return the first state that was added since this reached set was created or cleared. In
+   * contrast to the last state, this state is kept even if it is removed from the reached set.
+   */
+  @Override
+  public AbstractState getFirstState() {
+    AbstractState first = firstState.get();
+    Preconditions.checkState(first != null);
+    return first;
+  }
+
+  @Override
+  public @Nullable AbstractState getLastState() {
+    return lastState;
+  }
+
+  @Override
+  public boolean hasWaitingState() {
+    return !waitingStates.isEmpty();
+  }
+
+  @Override
+  public Collection<AbstractState> getWaitlist() {
+    return new AbstractCollection<AbstractState>() {
+
+      @Override
+      public Iterator<AbstractState> iterator() {
+        return ImmutableList.copyOf(waitingStates.keySet()).iterator();
+      }
+
+      @Override
+      public boolean contains(Object pObj) {
+        return waitingStates.containsKey(pObj);
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return waitingStates.isEmpty();
+      }
+
+      @Override
+      public int size() {
+        return waitingStates.size();
+      }
+    };
+  }
+
+  /**
+   * Take the next state from the waitlist of the current thread, or steal one from another thread if
+   * the own waitlist is empty.
+   *
+   * @throws NoSuchElementException if all waitlists are empty
+   */
+  @Override
+  public AbstractState popFromWaitlist() {
+    AbstractState state = pollFromOwnWaitlist();
+    if (state == null) {
+      state = stealFromWaitlist();
+    }
+    if (state == null) {
+      throw new NoSuchElementException("waitlist is empty");
+    }
+    return state;
+  }
+
+  /** Take the next state from the waitlist of the current thread, or return null if it is empty. */
+  public @Nullable AbstractState pollFromOwnWaitlist() {
+    return pollFrom(getOwnWaitlist());
+  }
+
+  /**
+   * Take a state from the waitlist of another thread, or return null if all other waitlists are
+   * empty.
+   */
+  public @Nullable AbstractState stealFromWaitlist() {
+    int own = boundWaitlist.get();
+    int size = waitlists.size();
+    for (int i = 1; i < size; i++) {
+      AbstractState state = pollFrom(waitlists.get((own + i) % size));
+      if (state != null) {
+        return state;
+      }
+    }
+    return null;
+  }
+
+  private @Nullable AbstractState pollFrom(Waitlist pWaitlist) {
+    synchronized (pWaitlist) {
+      if (pWaitlist.isEmpty()) {
+        return null;
+      }
+      AbstractState state = pWaitlist.pop();
+      waitingStates.remove(state, pWaitlist);
+      return state;
+    }
+  }
+
+  @Override
+  public Precision getPrecision(AbstractState pState) {
+    checkNotNull(pState);
+    ReachedEntry entry = reached.get(pState);
+    checkArgument(entry != null, "State not in reached set:\n%s", pState);
+    return entry.precision;
+  }
+
+  /**
+   * Return the precision of a state, or null if the state is not (or no longer) in the reached set.
+   */
+  public @Nullable Precision getPrecisionIfPresent(AbstractState pState) {
+    ReachedEntry entry = reached.get(checkNotNull(pState));
+    return entry == null ? null : entry.precision;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+    for (AbstractState state : insertionOrder.values()) {
+      ReachedEntry entry = reached.get(state);
+      if (entry != null) {
+        pAction.accept(state, entry.precision);
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return reached.containsKey(checkNotNull(pState));
+  }
+
+  @Override
+  public int size() {
+    return reached.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return reached.isEmpty();
+  }
+
+  @Override
+  public boolean hasViolatedProperties() {
+    return from(unmodifiableReached).anyMatch(IS_TARGET_STATE);
+  }
+
+  @Override
+  public Collection<Property> getViolatedProperties() {
+    return from(unmodifiableReached)
+        .filter(IS_TARGET_STATE)
+        .filter(Targetable.class)
+        .transformAndConcat(Targetable::getViolatedProperties)
+        .toSet();
+  }
+
+  @Override
+  public String toString() {
+    return insertionOrder.values().toString();
+  }
+
+  /** Weakly consistent view on all reached states in insertion order. */
+  private final class ReachedView extends AbstractSet<AbstractState> {
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      return from(insertionOrder.values()).filter(reached::containsKey).iterator();
+    }
+
+    @Override
+    public boolean contains(Object pObj) {
+      return reached.containsKey(pObj);
+    }
+
+    @Override
+    public int size() {
+      return reached.size();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class ConcurrentPartitionedReachedSetTest {
+
+  private static final class TestState implements AbstractState, Partitionable {
+
+    private final int partition;
+
+    private TestState(int pPartition) {
+      partition = pPartition;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return partition;
+    }
+  }
+
+  private ConcurrentPartitionedReachedSet reached;
+
+  @Before
+  public void setUp() {
+    reached = new ConcurrentPartitionedReachedSet(TraversalMethod.BFS);
+  }
+
+  private void add(AbstractState pState) {
+    reached.add(pState, SingletonPrecision.getInstance());
+  }
+
+  @Test
+  public void testRemove() {
+    TestState first = new TestState(0);
+    TestState second = new TestState(0);
+    TestState other = new TestState(1);
+    add(first);
+    add(second);
+    add(other);
+
+    reached.remove(second);
+
+    assertThat(reached.contains(second)).isFalse();
+    assertThat(reached.size()).isEqualTo(2);
+    assertThat(reached.asCollection()).containsExactly(first, other).inOrder();
+    assertThat(reached.getReached(first)).containsExactly(first);
+    assertThat(reached.getWaitlist()).containsExactly(first, other);
+  }
+
+  @Test
+  public void testFirstStateIsKeptAfterRemoval() {
+    TestState first = new TestState(0);
+    TestState second = new TestState(1);
+    add(first);
+    add(second);
+
+    reached.remove(first);
+    assertThat(reached.contains(first)).isFalse();
+    assertThat(reached.getFirstState()).isSameAs(first);
+
+    reached.remove(second);
+    assertThat(reached.isEmpty()).isTrue();
+    assertThat(reached.getFirstState()).isSameAs(first);
+
+    // a state added later does not become the first state
+    add(second);
+    assertThat(reached.getFirstState()).isSameAs(first);
+  }
+
+  @Test
+  public void testFirstStateAfterClear() {
+    add(new TestState(0));
+    reached.clear();
+    try {
+      reached.getFirstState();
+      Assert.fail("reached set without states should have no first state");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    TestState newFirst = new TestState(1);
+    add(newFirst);
+    assertThat(reached.getFirstState()).isSameAs(newFirst);
+  }
+}
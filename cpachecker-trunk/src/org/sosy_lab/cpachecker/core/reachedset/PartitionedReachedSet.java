@@ -25,10 +25,15 @@ package org.sosy_lab.cpachecker.core.reachedset;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndex;
+import org.sosy_lab.cpachecker.core.interfaces.IndexedStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
@@ -50,11 +55,17 @@ import com.google.common.collect.Multimap;
  * for merging and coverage checks), it will return a subset of the set of all
  * reached states. This subset contains exactly those states, whose partition
  * key is equal to the key of the state given as a parameter.
+ *
+ * Optionally, each partition can additionally be indexed by a {@link CoverageIndex}
+ * (cf. {@link #enableCoverageIndex(IndexedStopOperator)}).
  */
 public class PartitionedReachedSet extends DefaultReachedSet {
 
   private final Multimap<Object, AbstractState> partitionedReached = LinkedHashMultimap.create(100, 1);
 
+  private @Nullable IndexedStopOperator coverageIndexFactory = null;
+  private final Map<Object, CoverageIndex> coverageIndices = new HashMap<>();
+
   public PartitionedReachedSet(WaitlistFactory waitlistFactory) {
     super(waitlistFactory);
   }
@@ -63,14 +74,24 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   public void add(AbstractState pState, Precision pPrecision) {
     super.add(pState, pPrecision);
 
-    partitionedReached.put(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    if (partitionedReached.put(key, pState) && coverageIndexFactory != null) {
+      getCoverageIndex(key).add(pState);
+    }
   }
 
   @Override
   public void remove(AbstractState pState) {
     super.remove(pState);
 
-    partitionedReached.remove(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    if (partitionedReached.remove(key, pState) && coverageIndexFactory != null) {
+      CoverageIndex index = coverageIndices.get(key);
+      index.remove(pState);
+      if (!partitionedReached.containsKey(key)) {
+        coverageIndices.remove(key);
+      }
+    }
   }
 
   @Override
@@ -78,6 +99,45 @@ public class PartitionedReachedSet extends DefaultReachedSet {
     super.clear();
 
     partitionedReached.clear();
+    coverageIndices.clear();
+  }
+
+  /**
+   * Index all partitions (now and in the future) with coverage indices created by the given stop
+   * operator. If the operator does not provide indices, any existing indices are dropped.
+   *
+   * @return whether the partitions are indexed now
+   */
+  public boolean enableCoverageIndex(IndexedStopOperator pStopOperator) {
+    if (pStopOperator == coverageIndexFactory) {
+      return true;
+    }
+    coverageIndices.clear();
+    coverageIndexFactory = pStopOperator.createCoverageIndex() != null ? pStopOperator : null;
+    if (coverageIndexFactory == null) {
+      return false;
+    }
+    for (Map.Entry<Object, AbstractState> entry : partitionedReached.entries()) {
+      getCoverageIndex(entry.getKey()).add(entry.getValue());
+    }
+    return true;
+  }
+
+  /**
+   * Return those states of the partition of the given state that may cover the given state
+   * according to the coverage index of the partition, or null if no index is enabled.
+   * The returned collection is unordered and not a view.
+   */
+  public @Nullable Collection<AbstractState> getCoverageCandidates(AbstractState pState) {
+    if (coverageIndexFactory == null) {
+      return null;
+    }
+    CoverageIndex index = coverageIndices.get(getPartitionKey(pState));
+    return index == null ? Collections.emptyList() : index.getCoverageCandidates(pState);
+  }
+
+  private CoverageIndex getCoverageIndex(Object pKey) {
+    return coverageIndices.computeIfAbsent(pKey, k -> coverageIndexFactory.createCoverageIndex());
   }
 
   @Override
@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.core.reachedset;
 
+import com.google.common.collect.ImmutableList;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -40,6 +41,8 @@ import org.sosy_lab.cpachecker.core.waitlist.ExplicitSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopIterationSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.LoopstackSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.PostorderSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.PriorityQueueWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.PriorityQueueWaitlist.PriorityComponent;
 import org.sosy_lab.cpachecker.core.waitlist.ReversePostorderSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.ThreadingSortedWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
@@ -51,7 +54,13 @@ import org.sosy_lab.cpachecker.cpa.usage.UsageReachedSet;
 public class ReachedSetFactory {
 
   private static enum ReachedSetType {
-    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, USAGE
+    NORMAL,
+    LOCATIONMAPPED,
+    PARTITIONED,
+    PSEUDOPARTITIONED,
+    USAGE,
+    CONCURRENT_PARTITIONED,
+    CONCURRENT_LOCATIONMAPPED
   }
 
   @Option(
@@ -170,6 +179,18 @@ public class ReachedSetFactory {
   )
   private boolean useBlocks = false;
 
+  @Option(
+    secure = true,
+    name = "traversal.usePriorityQueue",
+    description =
+        "Use a single priority queue instead of nested sorted waitlists for the orders selected "
+            + "with useReversePostorder, usePostorder, useLoopstack, useReverseLoopstack, "
+            + "useCallstack, and weightedBranches (which then handles states with fewer branches "
+            + "first instead of a random selection). States with equal priority are handled in "
+            + "the order given by 'analysis.traversal.order' (only DFS or BFS)."
+  )
+  private boolean usePriorityQueue = false;
+
   @Option(
     secure = true,
     name = "reachedSet",
@@ -181,9 +202,23 @@ public class ReachedSetFactory {
             + "\nPARTITIONED: partitioning depending on CPAs (e.g Location, Callstack etc.)"
             + "\nPSEUDOPARTITIONED: based on PARTITIONED, uses additional info about the states' lattice "
             + "(maybe faster for some special analyses which use merge_sep and stop_sep"
+            + "\nCONCURRENT_PARTITIONED: like PARTITIONED, but thread-safe with one lock per "
+            + "group of partitions and one waitlist per thread"
+            + "\nCONCURRENT_LOCATIONMAPPED: like LOCATIONMAPPED, but thread-safe and with one "
+            + "waitlist per thread (cf. cpa.parallelExploration.threads)"
   )
   private ReachedSetType reachedSet = ReachedSetType.PARTITIONED;
 
+  @Option(
+    secure = true,
+    name = "concurrentReachedSet.lockStripes",
+    description =
+        "number of locks that guard the partitions of a concurrent reached set; "
+            + "more locks reduce contention between threads working on different partitions"
+  )
+  private int concurrentReachedSetLockStripes =
+      ConcurrentPartitionedReachedSet.DEFAULT_NUMBER_OF_STRIPES;
+
   private final Configuration config;
   private @Nullable BlockConfiguration blockConfig;
   private final LogManager logger;
@@ -192,8 +227,33 @@ public class ReachedSetFactory {
       throws InvalidConfigurationException {
     pConfig.inject(this);
     this.config = pConfig;
+
+    if (concurrentReachedSetLockStripes <= 0) {
+      throw new InvalidConfigurationException(
+          "Option analysis.concurrentReachedSet.lockStripes needs to be positive.");
+    }
     this.logger = pLogger;
 
+    if (usePriorityQueue) {
+      if (traversalMethod != Waitlist.TraversalMethod.DFS
+          && traversalMethod != Waitlist.TraversalMethod.BFS) {
+        throw new InvalidConfigurationException(
+            "Option analysis.traversal.usePriorityQueue needs DFS or BFS as traversal order.");
+      }
+      if (useWeightedDepthOrder
+          || useAutomatonInformation
+          || useLoopIterationCount
+          || useReverseLoopIterationCount) {
+        throw new InvalidConfigurationException(
+            "Option analysis.traversal.usePriorityQueue cannot be combined with "
+                + "weightedDepth, useAutomatonInformation, and loop-iteration orders.");
+      }
+      if ((useLoopstack && useReverseLoopstack) || (useReversePostorder && usePostorder)) {
+        throw new InvalidConfigurationException(
+            "Option analysis.traversal.usePriorityQueue cannot be used with contradicting orders.");
+      }
+    }
+
     if (useBlocks) {
       blockConfig = new BlockConfiguration(pConfig);
     } else {
@@ -202,6 +262,49 @@ public class ReachedSetFactory {
   }
 
   public ReachedSet create() {
+    WaitlistFactory waitlistFactory =
+        usePriorityQueue ? createPriorityQueueWaitlistFactory() : createSortedWaitlistFactory();
+
+    if (useExplicitInformation) {
+      waitlistFactory = ExplicitSortedWaitlist.factory(waitlistFactory);
+    }
+    if (byAutomatonVariable != null) {
+      waitlistFactory = AutomatonVariableWaitlist.factory(waitlistFactory, byAutomatonVariable);
+    }
+    if (useNumberOfThreads) {
+      waitlistFactory = ThreadingSortedWaitlist.factory(waitlistFactory);
+    }
+    if (useBlocks) {
+      waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
+    }
+
+    switch (reachedSet) {
+    case PARTITIONED:
+      return new PartitionedReachedSet(waitlistFactory);
+
+    case PSEUDOPARTITIONED:
+      return new PseudoPartitionedReachedSet(waitlistFactory);
+
+    case LOCATIONMAPPED:
+      return new LocationMappedReachedSet(waitlistFactory);
+
+    case USAGE:
+      return new UsageReachedSet(waitlistFactory, config, logger);
+
+    case CONCURRENT_PARTITIONED:
+      return new ConcurrentPartitionedReachedSet(waitlistFactory, concurrentReachedSetLockStripes);
+
+    case CONCURRENT_LOCATIONMAPPED:
+      return new ConcurrentLocationMappedReachedSet(
+          waitlistFactory, concurrentReachedSetLockStripes);
+
+    case NORMAL:
+    default:
+      return new DefaultReachedSet(waitlistFactory);
+    }
+  }
+
+  private WaitlistFactory createSortedWaitlistFactory() {
     WaitlistFactory waitlistFactory = traversalMethod;
 
     if (useWeightedDepthOrder) {
@@ -237,35 +340,31 @@ public class ReachedSetFactory {
     if (useCallstack) {
       waitlistFactory = CallstackSortedWaitlist.factory(waitlistFactory);
     }
-    if (useExplicitInformation) {
-      waitlistFactory = ExplicitSortedWaitlist.factory(waitlistFactory);
+    return waitlistFactory;
+  }
+
+  /** Combines the sorting criteria of the nested waitlists into one priority queue. */
+  private WaitlistFactory createPriorityQueueWaitlistFactory() {
+    // most significant first, i.e., in the reverse order of nesting the sorted waitlists
+    ImmutableList.Builder<PriorityComponent> components = ImmutableList.builder();
+    if (useCallstack) {
+      components.add(PriorityComponent.CALLSTACK);
     }
-    if (byAutomatonVariable != null) {
-      waitlistFactory = AutomatonVariableWaitlist.factory(waitlistFactory, byAutomatonVariable);
+    if (useLoopstack) {
+      components.add(PriorityComponent.LOOPSTACK);
     }
-    if (useNumberOfThreads) {
-      waitlistFactory = ThreadingSortedWaitlist.factory(waitlistFactory);
+    if (useReverseLoopstack) {
+      components.add(PriorityComponent.REVERSE_LOOPSTACK);
     }
-    if (useBlocks) {
-      waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
+    if (usePostorder) {
+      components.add(PriorityComponent.POSTORDER);
     }
-
-    switch (reachedSet) {
-    case PARTITIONED:
-      return new PartitionedReachedSet(waitlistFactory);
-
-    case PSEUDOPARTITIONED:
-      return new PseudoPartitionedReachedSet(waitlistFactory);
-
-    case LOCATIONMAPPED:
-      return new LocationMappedReachedSet(waitlistFactory);
-
-    case USAGE:
-      return new UsageReachedSet(waitlistFactory, config, logger);
-
-    case NORMAL:
-    default:
-      return new DefaultReachedSet(waitlistFactory);
+    if (useReversePostorder) {
+      components.add(PriorityComponent.REVERSE_POSTORDER);
+    }
+    if (useWeightedBranchOrder) {
+      components.add(PriorityComponent.BRANCHES);
     }
+    return PriorityQueueWaitlist.factory(components.build(), traversalMethod);
   }
 }
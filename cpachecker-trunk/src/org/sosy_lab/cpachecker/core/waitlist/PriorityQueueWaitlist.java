@@ -0,0 +1,333 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.conditions.path.AssumeEdgesInPathConditionState;
+import org.sosy_lab.cpachecker.cpa.loopbound.LoopBoundState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Waitlist implementation that sorts the abstract states by a priority that is composed of several
+ * {@link PriorityComponent}s, like a stack of {@link AbstractSortedWaitlist}s would do. In
+ * contrast to the latter, the components are encoded into a single primitive long value and the
+ * states are stored in a flat, array-based binary heap, such that add, pop, and remove need time
+ * O(log n) independently of the number of components.
+ *
+ * States with the same priority are handled in DFS or BFS order.
+ *
+ * The iterators created by this class are unmodifiable and do not follow any specific order.
+ */
+public class PriorityQueueWaitlist implements Waitlist {
+
+  /**
+   * The criteria that can be used for sorting the states. Each criterion is encoded as an unsigned
+   * bit field of fixed width, values that do not fit are clamped.
+   */
+  public enum PriorityComponent {
+    /** States with a bigger callstack first (like {@link CallstackSortedWaitlist}). */
+    CALLSTACK(12, true) {
+      @Override
+      int getValue(AbstractState pState) {
+        CallstackState callstackState =
+            AbstractStates.extractStateByType(pState, CallstackState.class);
+        return (callstackState != null) ? callstackState.getDepth() : 0;
+      }
+    },
+
+    /** States with a deeper loopstack first (like {@link LoopstackSortedWaitlist}). */
+    LOOPSTACK(10, true) {
+      @Override
+      int getValue(AbstractState pState) {
+        return getLoopstackDepth(pState);
+      }
+    },
+
+    /** States with a more shallow loopstack first (like {@link LoopstackSortedWaitlist}). */
+    REVERSE_LOOPSTACK(10, false) {
+      @Override
+      int getValue(AbstractState pState) {
+        return getLoopstackDepth(pState);
+      }
+    },
+
+    /** States with a larger reverse-postorder id first (like {@link ReversePostorderSortedWaitlist}). */
+    REVERSE_POSTORDER(24, true) {
+      @Override
+      int getValue(AbstractState pState) {
+        return getReversePostorderId(pState);
+      }
+    },
+
+    /** States with a smaller reverse-postorder id first (like {@link PostorderSortedWaitlist}). */
+    POSTORDER(24, false) {
+      @Override
+      int getValue(AbstractState pState) {
+        return getReversePostorderId(pState);
+      }
+    },
+
+    /** States with fewer assume edges on their path first (needs AssumeEdgesInPathConditionCPA). */
+    BRANCHES(16, false) {
+      @Override
+      int getValue(AbstractState pState) {
+        AssumeEdgesInPathConditionState assumeState =
+            AbstractStates.extractStateByType(pState, AssumeEdgesInPathConditionState.class);
+        return (assumeState != null) ? assumeState.getPathLength() : 0;
+      }
+    };
+
+    private final int width;
+    private final boolean largestFirst;
+
+    private PriorityComponent(int pWidth, boolean pLargestFirst) {
+      width = pWidth;
+      largestFirst = pLargestFirst;
+    }
+
+    abstract int getValue(AbstractState pState);
+
+    int getWidth() {
+      return width;
+    }
+
+    private long encode(AbstractState pState) {
+      long max = (1L << width) - 1;
+      long value = Math.max(0, Math.min(getValue(pState), max));
+      return largestFirst ? value : max - value;
+    }
+
+    private static int getLoopstackDepth(AbstractState pState) {
+      LoopBoundState loopstackState =
+          AbstractStates.extractStateByType(pState, LoopBoundState.class);
+      return (loopstackState != null) ? loopstackState.getDepth() : 0;
+    }
+
+    private static int getReversePostorderId(AbstractState pState) {
+      CFANode location = AbstractStates.extractLocation(pState);
+      assert location != null;
+      return location.getReversePostorderId();
+    }
+  }
+
+  /** Maximal sum of the widths of all components, such that priorities are never negative. */
+  static final int MAX_PRIORITY_WIDTH = Long.SIZE - 1;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final ImmutableList<PriorityComponent> components;
+  private final boolean lifo;
+
+  // binary max-heap over (priorities[i], order[i]), i < size
+  private AbstractState[] states = new AbstractState[INITIAL_CAPACITY];
+  private long[] priorities = new long[INITIAL_CAPACITY];
+  private long[] order = new long[INITIAL_CAPACITY];
+  private int size = 0;
+
+  // position of each state in the heap
+  private final Map<AbstractState, Integer> positions = new HashMap<>();
+
+  private long insertions = 0;
+
+  /**
+   * Constructor that needs the components of the priority (most significant first) and the
+   * strategy that is used for states with the same priority (either DFS or BFS).
+   */
+  protected PriorityQueueWaitlist(
+      List<PriorityComponent> pComponents, TraversalMethod pSecondaryStrategy) {
+    checkArgument(
+        pSecondaryStrategy == TraversalMethod.BFS || pSecondaryStrategy == TraversalMethod.DFS);
+    checkArgument(getWidth(pComponents) <= MAX_PRIORITY_WIDTH, "Too many priority components");
+    components = ImmutableList.copyOf(pComponents);
+    lifo = pSecondaryStrategy == TraversalMethod.DFS;
+  }
+
+  /** Returns the number of bits that are needed for encoding the given priority components. */
+  static int getWidth(List<PriorityComponent> pComponents) {
+    return pComponents.stream().mapToInt(PriorityComponent::getWidth).sum();
+  }
+
+  private long getPriority(AbstractState pState) {
+    long priority = 0;
+    for (PriorityComponent component : components) {
+      priority = (priority << component.width) | component.encode(pState);
+    }
+    return priority;
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    checkNotNull(pState);
+    assert !positions.containsKey(pState) : "State is already in waitlist: " + pState;
+    if (size == states.length) {
+      int newCapacity = states.length * 2;
+      states = Arrays.copyOf(states, newCapacity);
+      priorities = Arrays.copyOf(priorities, newCapacity);
+      order = Arrays.copyOf(order, newCapacity);
+    }
+
+    insertions++;
+    int pos = size++;
+    states[pos] = pState;
+    priorities[pos] = getPriority(pState);
+    order[pos] = lifo ? insertions : -insertions;
+    siftUp(pos);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(states, 0, size, null);
+    size = 0;
+    positions.clear();
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return positions.containsKey(pState);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return Iterators.unmodifiableIterator(Iterators.limit(Iterators.forArray(states), size));
+  }
+
+  @Override
+  public AbstractState pop() {
+    if (size == 0) {
+      throw new NoSuchElementException("pop() on empty waitlist");
+    }
+    AbstractState result = states[0];
+    removeAt(0);
+    return result;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    Integer pos = positions.get(pState);
+    if (pos == null) {
+      return false;
+    }
+    removeAt(pos);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private void removeAt(int pPos) {
+    positions.remove(states[pPos]);
+    int last = --size;
+    if (pPos != last) {
+      move(last, pPos);
+      states[last] = null;
+      if (!siftUp(pPos)) {
+        siftDown(pPos);
+      }
+    } else {
+      states[last] = null;
+    }
+  }
+
+  /** Whether the element at position i should be popped before the element at position j. */
+  private boolean isBefore(int i, int j) {
+    return priorities[i] > priorities[j] || (priorities[i] == priorities[j] && order[i] > order[j]);
+  }
+
+  /** Move an element upwards until the heap is valid, returns whether it was moved. */
+  private boolean siftUp(int pPos) {
+    int pos = pPos;
+    while (pos > 0) {
+      int parent = (pos - 1) >>> 1;
+      if (!isBefore(pos, parent)) {
+        break;
+      }
+      swap(pos, parent);
+      pos = parent;
+    }
+    positions.put(states[pos], pos);
+    return pos != pPos;
+  }
+
+  private void siftDown(int pPos) {
+    int pos = pPos;
+    while (true) {
+      int child = 2 * pos + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && isBefore(child + 1, child)) {
+        child++;
+      }
+      if (!isBefore(child, pos)) {
+        break;
+      }
+      swap(pos, child);
+      pos = child;
+    }
+    positions.put(states[pos], pos);
+  }
+
+  private void swap(int i, int j) {
+    AbstractState state = states[i];
+    long priority = priorities[i];
+    long ord = order[i];
+    move(j, i);
+    states[j] = state;
+    priorities[j] = priority;
+    order[j] = ord;
+    positions.put(states[i], i);
+  }
+
+  private void move(int pFrom, int pTo) {
+    states[pTo] = states[pFrom];
+    priorities[pTo] = priorities[pFrom];
+    order[pTo] = order[pFrom];
+  }
+
+  public static WaitlistFactory factory(
+      final List<PriorityComponent> pComponents, final TraversalMethod pSecondaryStrategy) {
+    final ImmutableList<PriorityComponent> components = ImmutableList.copyOf(pComponents);
+    return () -> new PriorityQueueWaitlist(components, pSecondaryStrategy);
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.PriorityQueueWaitlist.PriorityComponent;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeState;
+import org.sosy_lab.cpachecker.cpa.conditions.path.AssumeEdgesInPathConditionState;
+
+public class PriorityQueueWaitlistTest {
+
+  /** Without priority components the order has to be exactly that of the simple waitlist. */
+  private static void checkSameOrderAsSimpleWaitlist(TraversalMethod pTraversal) {
+    Waitlist expected = pTraversal.createWaitlistInstance();
+    Waitlist actual = new PriorityQueueWaitlist(ImmutableList.of(), pTraversal);
+    List<AbstractState> added = new ArrayList<>();
+    Random random = new Random(0);
+
+    for (int i = 0; i < 2000; i++) {
+      int action = random.nextInt(4);
+      if (action <= 1 || expected.isEmpty()) {
+        AbstractState state = mock(AbstractState.class);
+        added.add(state);
+        expected.add(state);
+        actual.add(state);
+      } else if (action == 2) {
+        assertThat(actual.pop()).isSameAs(expected.pop());
+      } else {
+        AbstractState state = added.get(random.nextInt(added.size()));
+        assertThat(actual.remove(state)).isEqualTo(expected.remove(state));
+      }
+      assertThat(actual.size()).isEqualTo(expected.size());
+      assertThat(actual).containsExactlyElementsIn(expected);
+    }
+
+    while (!expected.isEmpty()) {
+      assertThat(actual.pop()).isSameAs(expected.pop());
+    }
+    assertThat(actual.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testDFS() {
+    checkSameOrderAsSimpleWaitlist(TraversalMethod.DFS);
+  }
+
+  @Test
+  public void testBFS() {
+    checkSameOrderAsSimpleWaitlist(TraversalMethod.BFS);
+  }
+
+  @Test
+  public void testPopEmpty() {
+    Waitlist waitlist = new PriorityQueueWaitlist(ImmutableList.of(), TraversalMethod.DFS);
+    waitlist.add(mock(AbstractState.class));
+    waitlist.pop();
+    try {
+      waitlist.pop();
+      fail("pop() on empty waitlist should fail");
+    } catch (NoSuchElementException e) {
+      // expected
+    }
+    assertThat(waitlist.size()).isEqualTo(0);
+    assertThat(waitlist.isEmpty()).isTrue();
+  }
+
+  private static final ImmutableList<PriorityComponent> CALLSTACK_AND_BRANCHES =
+      ImmutableList.of(PriorityComponent.CALLSTACK, PriorityComponent.BRANCHES);
+
+  /** Create a state with the given callstack depth and number of assume edges on its path. */
+  private static AbstractState state(int pDepth, int pBranches) {
+    CallstackState callstack = mock(CallstackState.class);
+    when(callstack.getDepth()).thenReturn(pDepth);
+    AssumeEdgesInPathConditionState assumeEdges = mock(AssumeEdgesInPathConditionState.class);
+    when(assumeEdges.getPathLength()).thenReturn(pBranches);
+    return new CompositeState(ImmutableList.of(callstack, assumeEdges));
+  }
+
+  private static void addAll(Waitlist pWaitlist, AbstractState... pStates) {
+    for (AbstractState state : pStates) {
+      pWaitlist.add(state);
+    }
+  }
+
+  private static List<AbstractState> popAll(Waitlist pWaitlist) {
+    List<AbstractState> result = new ArrayList<>();
+    while (!pWaitlist.isEmpty()) {
+      result.add(pWaitlist.pop());
+    }
+    return result;
+  }
+
+  @Test
+  public void testTiesDFS() {
+    Waitlist waitlist = new PriorityQueueWaitlist(CALLSTACK_AND_BRANCHES, TraversalMethod.DFS);
+    AbstractState a = state(1, 2);
+    AbstractState b = state(1, 2);
+    AbstractState c = state(1, 2);
+    addAll(waitlist, a, b, c);
+
+    assertThat(popAll(waitlist)).containsExactly(c, b, a).inOrder();
+  }
+
+  @Test
+  public void testTiesBFS() {
+    Waitlist waitlist = new PriorityQueueWaitlist(CALLSTACK_AND_BRANCHES, TraversalMethod.BFS);
+    AbstractState a = state(1, 2);
+    AbstractState b = state(1, 2);
+    AbstractState c = state(1, 2);
+    addAll(waitlist, a, b, c);
+
+    assertThat(popAll(waitlist)).containsExactly(a, b, c).inOrder();
+  }
+
+  @Test
+  public void testMixedPrioritiesDFS() {
+    Waitlist waitlist = new PriorityQueueWaitlist(CALLSTACK_AND_BRANCHES, TraversalMethod.DFS);
+    AbstractState a = state(1, 5);
+    AbstractState b = state(2, 9);
+    AbstractState c = state(2, 1);
+    AbstractState d = state(1, 1);
+    AbstractState e = state(2, 1);
+    addAll(waitlist, a, b, c, d, e);
+
+    // deeper callstack first, then fewer branches, then last added
+    assertThat(popAll(waitlist)).containsExactly(e, c, b, d, a).inOrder();
+  }
+
+  @Test
+  public void testMixedPrioritiesBFS() {
+    Waitlist waitlist = new PriorityQueueWaitlist(CALLSTACK_AND_BRANCHES, TraversalMethod.BFS);
+    AbstractState a = state(1, 5);
+    AbstractState b = state(2, 9);
+    AbstractState c = state(2, 1);
+    AbstractState d = state(1, 1);
+    AbstractState e = state(2, 1);
+    addAll(waitlist, a, b, c, d, e);
+
+    // deeper callstack first, then fewer branches, then first added
+    assertThat(popAll(waitlist)).containsExactly(c, e, b, d, a).inOrder();
+  }
+
+  @Test
+  public void testMixedPrioritiesWithRemove() {
+    Waitlist waitlist = new PriorityQueueWaitlist(CALLSTACK_AND_BRANCHES, TraversalMethod.DFS);
+    AbstractState a = state(1, 5);
+    AbstractState b = state(2, 9);
+    AbstractState c = state(2, 1);
+    AbstractState d = state(1, 1);
+    addAll(waitlist, a, b, c, d);
+
+    assertThat(waitlist.pop()).isSameAs(c);
+    assertThat(waitlist.remove(d)).isTrue();
+    AbstractState e = state(3, 20);
+    AbstractState f = state(1, 5);
+    addAll(waitlist, e, f);
+
+    assertThat(popAll(waitlist)).containsExactly(e, b, f, a).inOrder();
+  }
+
+  /** Compare with a reference that always searches the whole list for the next state. */
+  private static void checkOrderOfComponents(TraversalMethod pTraversal) {
+    Waitlist actual = new PriorityQueueWaitlist(CALLSTACK_AND_BRANCHES, pTraversal);
+    List<AbstractState> expected = new ArrayList<>();
+    List<AbstractState> added = new ArrayList<>();
+    Random random = new Random(0);
+
+    // added later is better for DFS, worse for BFS
+    Comparator<AbstractState> insertionOrder = Comparator.comparingInt(added::indexOf);
+    Comparator<AbstractState> order =
+        Comparator.<AbstractState>comparingInt(PriorityComponent.CALLSTACK::getValue)
+            .thenComparing(
+                Comparator.<AbstractState>comparingInt(PriorityComponent.BRANCHES::getValue)
+                    .reversed())
+            .thenComparing(
+                pTraversal == TraversalMethod.DFS ? insertionOrder : insertionOrder.reversed());
+
+    for (int i = 0; i < 1000; i++) {
+      int action = random.nextInt(4);
+      if (action <= 1 || expected.isEmpty()) {
+        AbstractState state = state(random.nextInt(4), random.nextInt(4));
+        added.add(state);
+        expected.add(state);
+        actual.add(state);
+      } else if (action == 2) {
+        AbstractState next = expected.stream().max(order).get();
+        expected.remove(next);
+        assertThat(actual.pop()).isSameAs(next);
+      } else {
+        AbstractState state = added.get(random.nextInt(added.size()));
+        assertThat(actual.remove(state)).isEqualTo(expected.remove(state));
+      }
+      assertThat(actual.size()).isEqualTo(expected.size());
+    }
+  }
+
+  @Test
+  public void testOrderOfComponentsDFS() {
+    checkOrderOfComponents(TraversalMethod.DFS);
+  }
+
+  @Test
+  public void testOrderOfComponentsBFS() {
+    checkOrderOfComponents(TraversalMethod.BFS);
+  }
+}
@@ -57,6 +57,7 @@ import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.interfaces.Reducer;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -64,7 +65,7 @@ import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 @Options
 public class ARGCPA extends AbstractSingleWrapperCPA implements
-    ConfigurableProgramAnalysisWithBAM, ProofChecker {
+    ConfigurableProgramAnalysisWithBAM, ProofChecker, ThreadSafeConfigurableProgramAnalysis {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ARGCPA.class);
@@ -166,6 +167,20 @@ public class ARGCPA extends AbstractSingleWrapperCPA implements
     return new ARGState(getWrappedCpa().getInitialState(pNode, pPartition), null);
   }
 
+  /**
+   * The ARG operators only modify the children of the state that is currently expanded and the
+   * coverage relation inside one partition of the reached set. Merging modifies the parents of
+   * states in other partitions, thus only an ARG without merge can be built concurrently.
+   */
+  @Override
+  public boolean hasThreadSafeOperators() {
+    ConfigurableProgramAnalysis cpa = getWrappedCpa();
+    return merge == MergeSepOperator.getInstance()
+        && !inCPAEnabledAnalysis
+        && cpa instanceof ThreadSafeConfigurableProgramAnalysis
+        && ((ThreadSafeConfigurableProgramAnalysis) cpa).hasThreadSafeOperators();
+  }
+
   protected LogManager getLogger() {
     return logger;
   }
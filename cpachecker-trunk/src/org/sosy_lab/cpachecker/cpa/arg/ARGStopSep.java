@@ -28,13 +28,18 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.logging.Level;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.defaults.ProjectingCoverageIndex;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndex;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.IndexedStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.SummarizingStopOperator;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
-public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
+public class ARGStopSep
+    implements SummarizingStopOperator, IndexedStopOperator, ForcedCoveringStopOperator {
 
   private final boolean keepCoveredStatesInReached;
   private final boolean inCPAEnabledAnalysis;
@@ -155,6 +160,35 @@ public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
     return stop;
   }
 
+  /**
+   * A reached state can only cover a new state if the wrapped stop operator says so, thus we can
+   * re-use the summaries of the wrapped stop operator.
+   */
+  @Override
+  public long getCoverageSummary(AbstractState pState) {
+    if (wrappedStop instanceof SummarizingStopOperator) {
+      return ((SummarizingStopOperator) wrappedStop)
+          .getCoverageSummary(((ARGState) pState).getWrappedState());
+    }
+    return 0;
+  }
+
+  /**
+   * A reached state can only cover a new state if the wrapped stop operator says so (this holds
+   * also for the state the new state was merged into), thus we can re-use the index of the wrapped
+   * stop operator.
+   */
+  @Override
+  public CoverageIndex createCoverageIndex() {
+    if (wrappedStop instanceof IndexedStopOperator) {
+      CoverageIndex index = ((IndexedStopOperator) wrappedStop).createCoverageIndex();
+      if (index != null) {
+        return new ProjectingCoverageIndex(index, s -> ((ARGState) s).getWrappedState());
+      }
+    }
+    return null;
+  }
+
   @Override
   public boolean isForcedCoveringPossible(AbstractState pElement, AbstractState pReachedState, Precision pPrecision) throws CPAException, InterruptedException {
     if (!(wrappedStop instanceof ForcedCoveringStopOperator)) {
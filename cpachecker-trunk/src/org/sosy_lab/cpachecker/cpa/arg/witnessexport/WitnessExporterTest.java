@@ -26,36 +26,56 @@ package org.sosy_lab.cpachecker.cpa.arg.witnessexport;
 import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.io.ByteStreams;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import javax.xml.parsers.DocumentBuilderFactory;
 import org.junit.Assert;
 import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.ConfigurationBuilder;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.CProgramScope;
+import org.sosy_lab.cpachecker.cfa.parser.Scope;
+import org.sosy_lab.cpachecker.cpa.automaton.Automaton;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser;
+import org.sosy_lab.cpachecker.util.SpecificationProperty.PropertyType;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
 import org.sosy_lab.cpachecker.util.test.CPATestRunner;
 import org.sosy_lab.cpachecker.util.test.TestDataTools;
 import org.sosy_lab.cpachecker.util.test.TestResults;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.NodeList;
 
 public class WitnessExporterTest {
 
@@ -112,6 +132,21 @@ public class WitnessExporterTest {
     WitnessType witnessType =
         generateWitness(fullPath, pGenerationConfig, pSpecification, pOverrideOptions, witnessPath);
 
+    assertStreamingParserAgrees(fullPath, pOverrideOptions, witnessPath.getWitnessFile(witnessType));
+
+    // the parallel invariant generation of k-induction does not always produce the same witness
+    if (pGenerationConfig == WitnessGenerationConfig.PREDICATE_ANALYSIS) {
+      TempCompressedFilePath streamedWitnessPath =
+          new TempCompressedFilePath("witness-streamed", ".graphml");
+      Map<String, String> overrideOptions = Maps.newHashMap(pOverrideOptions);
+      overrideOptions.put("cpa.arg.witness.streamingExport", "true");
+      generateWitness(
+          fullPath, pGenerationConfig, pSpecification, overrideOptions, streamedWitnessPath);
+      Assert.assertEquals(
+          readWitnessGraph(witnessPath.getWitnessFile(witnessType)),
+          readWitnessGraph(streamedWitnessPath.getWitnessFile(witnessType)));
+    }
+
     validateWitness(fullPath, pSpecification, pOverrideOptions, witnessPath, witnessType);
   }
 
@@ -183,6 +218,83 @@ public class WitnessExporterTest {
     throw new AssertionError("Unreachable code.");
   }
 
+  /**
+   * Check that the streaming parser for witnesses creates the same automata as the DOM-based
+   * parser.
+   */
+  private static void assertStreamingParserAgrees(
+      String pFilePath, Map<String, String> pOverrideOptions, Path pWitnessPath)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest().setOptions(pOverrideOptions).build();
+    LogManager logger = LogManager.createTestLogManager();
+    CFA cfa =
+        new CFACreator(config, logger, ShutdownNotifier.createDummy())
+            .parseFileAndCreateCFA(ImmutableList.of(pFilePath));
+    Scope scope = new CProgramScope(cfa, logger);
+
+    List<String> domAutomata = parseWitness(config, false, logger, cfa, scope, pWitnessPath);
+    List<String> streamedAutomata = parseWitness(config, true, logger, cfa, scope, pWitnessPath);
+    Assert.assertFalse(domAutomata.isEmpty());
+    Assert.assertEquals(domAutomata, streamedAutomata);
+  }
+
+  /**
+   * Returns the elements of the graph of a witness in document order, each with its attributes and
+   * text. The key definitions are not included, because the streaming export declares all keys, and
+   * neither is the creation time of the witness.
+   */
+  private static List<String> readWitnessGraph(Path pWitnessPath) throws Exception {
+    Document document;
+    try (InputStream fileInput = Files.newInputStream(pWitnessPath);
+        InputStream input =
+            pWitnessPath.toString().endsWith(".gz")
+                ? new GZIPInputStream(fileInput)
+                : fileInput) {
+      document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input);
+    }
+
+    List<String> elements = new ArrayList<>();
+    NodeList graphElements =
+        ((Element) document.getElementsByTagName("graph").item(0)).getElementsByTagName("*");
+    for (int i = 0; i < graphElements.getLength(); i++) {
+      Element element = (Element) graphElements.item(i);
+      if (element.getAttribute("key").equals(KeyDef.CREATIONTIME.id)) {
+        continue;
+      }
+      StringBuilder description = new StringBuilder(element.getTagName());
+      NamedNodeMap attributes = element.getAttributes();
+      for (int j = 0; j < attributes.getLength(); j++) {
+        description.append(' ').append(attributes.item(j));
+      }
+      if (element.getTagName().equals("data")) {
+        description.append(": ").append(element.getTextContent());
+      }
+      elements.add(description.toString());
+    }
+    return elements;
+  }
+
+  private static List<String> parseWitness(
+      Configuration pConfig,
+      boolean pStreaming,
+      LogManager pLogger,
+      CFA pCfa,
+      Scope pScope,
+      Path pWitnessPath)
+      throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .copyFrom(pConfig)
+            .setOption("witness.streamingParser", Boolean.toString(pStreaming))
+            .build();
+    return new AutomatonGraphmlParser(config, pLogger, pCfa, pScope)
+        .parseAutomatonFile(pWitnessPath, ImmutableSet.of(PropertyType.REACHABILITY))
+        .stream()
+        .map(Automaton::toString)
+        .collect(Collectors.toList());
+  }
+
   private static void validateWitness(
       String pFilePath,
       String pSpecification,
@@ -268,6 +380,13 @@ public class WitnessExporterTest {
       uncompressedFilePath.toFile().deleteOnExit();
     }
 
+    /** Returns the file to which a witness of the given type is written. */
+    Path getWitnessFile(WitnessType pWitnessType) {
+      return pWitnessType == WitnessType.VIOLATION_WITNESS
+          ? compressedFilePath
+          : uncompressedFilePath;
+    }
+
     @Override
     public String toString() {
       return compressedFilePath.toString();
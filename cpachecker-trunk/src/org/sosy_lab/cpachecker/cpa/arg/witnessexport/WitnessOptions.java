@@ -87,6 +87,16 @@ class WitnessOptions {
   )
   private boolean exportNodeLabel = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Verification witness: Write the witness directly to the output file"
+            + " instead of building the complete GraphML document in memory first?"
+            + " The nodes and edges of the witness are still collected and merged in memory,"
+            + " so the memory needed is still proportional to the size of the witness."
+  )
+  private boolean streamingExport = false;
+
   boolean exportFunctionCallsAndReturns() {
     return exportFunctionCallsAndReturns;
   }
@@ -130,4 +140,8 @@ class WitnessOptions {
   boolean exportNodeLabel() {
     return exportNodeLabel;
   }
+
+  boolean streamingExport() {
+    return streamingExport;
+  }
 }
@@ -37,6 +37,7 @@ import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
@@ -127,6 +128,7 @@ import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.AssumeCase;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlStreamWriter;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
@@ -1054,13 +1056,6 @@ class WitnessWriter implements EdgeAppender {
       }
     }
 
-    final GraphMlBuilder doc;
-    try {
-      doc = new GraphMlBuilder(graphType, defaultSourcefileName, cfa, verificationTaskMetaData);
-    } catch (ParserConfigurationException e) {
-      throw new IOException(e);
-    }
-
     final String entryStateNodeId = pGraphBuilder.getId(pRootState);
 
     // Collect node flags in advance
@@ -1092,7 +1087,6 @@ class WitnessWriter implements EdgeAppender {
         isRelevantEdge,
         valueMap,
         additionalInfo,
-        doc,
         collectPathEdges(pRootState, ARGState::getChildren, pIsRelevantState, isRelevantEdge),
         this);
 
@@ -1114,8 +1108,22 @@ class WitnessWriter implements EdgeAppender {
     mergeRedundantSinkEdges();
 
     // Write elements
-    writeElementsOfGraphToDoc(doc, entryStateNodeId);
-    doc.appendTo(pTarget);
+    if (witnessOptions.streamingExport()) {
+      GraphMlStreamWriter writer =
+          new GraphMlStreamWriter(
+              pTarget, graphType, defaultSourcefileName, cfa, verificationTaskMetaData);
+      writeElementsOfGraphToStream(writer, entryStateNodeId);
+      writer.finish();
+    } else {
+      final GraphMlBuilder doc;
+      try {
+        doc = new GraphMlBuilder(graphType, defaultSourcefileName, cfa, verificationTaskMetaData);
+      } catch (ParserConfigurationException e) {
+        throw new IOException(e);
+      }
+      writeElementsOfGraphToDoc(doc, entryStateNodeId);
+      doc.appendTo(pTarget);
+    }
   }
 
   /**
@@ -1235,12 +1243,14 @@ class WitnessWriter implements EdgeAppender {
     }
   }
 
-  private void writeElementsOfGraphToDoc(GraphMlBuilder doc, String entryStateNodeId) {
+  private void writeElementsOfGraphToDoc(GraphMlBuilder doc, String entryStateNodeId)
+      throws IOException {
     Map<String, Element> nodes = Maps.newHashMap();
     Deque<String> waitlist = Queues.newArrayDeque();
     waitlist.push(entryStateNodeId);
     Element entryNode = createNewNode(doc, entryStateNodeId);
-    addInvariantsData(doc, entryNode, entryStateNodeId);
+    addInvariantsData(
+        (key, value) -> doc.addDataElementChild(entryNode, key, value), entryStateNodeId);
     nodes.put(entryStateNodeId, entryNode);
     while (!waitlist.isEmpty()) {
       String source = waitlist.pop();
@@ -1249,18 +1259,95 @@ class WitnessWriter implements EdgeAppender {
 
         Element targetNode = nodes.get(edge.getTarget());
         if (targetNode == null) {
-          targetNode = createNewNode(doc, edge.getTarget());
+          Element newNode = createNewNode(doc, edge.getTarget());
           if (!ExpressionTrees.getFalse()
-              .equals(addInvariantsData(doc, targetNode, edge.getTarget()))) {
+              .equals(
+                  addInvariantsData(
+                      (key, value) -> doc.addDataElementChild(newNode, key, value),
+                      edge.getTarget()))) {
             waitlist.push(edge.getTarget());
           }
-          nodes.put(edge.getTarget(), targetNode);
+          nodes.put(edge.getTarget(), newNode);
+          targetNode = newNode;
         }
         createNewEdge(doc, edge, targetNode);
       }
     }
   }
 
+  /**
+   * Writes the same nodes and edges in the same order as {@link #writeElementsOfGraphToDoc}, but
+   * directly to the output. Because a node cannot be extended after it was written, the edges that
+   * will be written are determined first, and the node data of the written entering edges of a
+   * node is written together with the node itself.
+   */
+  private void writeElementsOfGraphToStream(GraphMlStreamWriter pWriter, String entryStateNodeId)
+      throws IOException {
+    List<Edge> edges = collectEdgesToWrite(entryStateNodeId);
+    ImmutableListMultimap<String, Edge> writtenEnteringEdges =
+        Multimaps.index(edges, Edge::getTarget);
+
+    Set<String> nodes = new HashSet<>();
+    writeNewNode(pWriter, entryStateNodeId, writtenEnteringEdges.get(entryStateNodeId));
+    nodes.add(entryStateNodeId);
+    for (Edge edge : edges) {
+      if (nodes.add(edge.getTarget())) {
+        writeNewNode(pWriter, edge.getTarget(), writtenEnteringEdges.get(edge.getTarget()));
+      }
+      pWriter.startEdge(edge.getSource(), edge.getTarget());
+      for (Map.Entry<KeyDef, String> entry : edge.getLabel().getMapping().entrySet()) {
+        if (entry.getKey().keyFor.equals(ElementType.EDGE)) {
+          pWriter.addData(entry.getKey(), entry.getValue());
+        }
+      }
+      pWriter.endElement();
+    }
+  }
+
+  /**
+   * Returns the edges in the order in which {@link #writeElementsOfGraphToDoc} writes them: only
+   * edges reachable from the entry node are written, and the leaving edges of nodes with a false
+   * invariant are omitted.
+   */
+  private List<Edge> collectEdgesToWrite(String entryStateNodeId) {
+    List<Edge> result = new ArrayList<>();
+    Set<String> nodes = new HashSet<>();
+    Deque<String> waitlist = Queues.newArrayDeque();
+    waitlist.push(entryStateNodeId);
+    nodes.add(entryStateNodeId);
+    while (!waitlist.isEmpty()) {
+      String source = waitlist.pop();
+      for (Edge edge : leavingEdges.get(source)) {
+        // the invariant of the entry node is written before any edge is handled
+        if (!edge.getTarget().equals(entryStateNodeId)) {
+          setLoopHeadInvariantIfApplicable(edge.getTarget());
+        }
+        if (nodes.add(edge.getTarget())
+            && !ExpressionTrees.getFalse().equals(getExportedInvariant(edge.getTarget()))) {
+          waitlist.push(edge.getTarget());
+        }
+        result.add(edge);
+      }
+    }
+    return result;
+  }
+
+  private void writeNewNode(
+      GraphMlStreamWriter pWriter, String pNodeId, Iterable<Edge> pWrittenEnteringEdges)
+      throws IOException {
+    pWriter.startNode(pNodeId, NodeType.ONPATH);
+    addNodeData(pWriter::addData, pNodeId);
+    addInvariantsData(pWriter::addData, pNodeId);
+    for (Edge enteringEdge : pWrittenEnteringEdges) {
+      for (Map.Entry<KeyDef, String> entry : enteringEdge.getLabel().getMapping().entrySet()) {
+        if (entry.getKey().keyFor.equals(ElementType.NODE)) {
+          pWriter.addData(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    pWriter.endElement();
+  }
+
   private void setLoopHeadInvariantIfApplicable(String pTarget) {
     if (!ExpressionTrees.getTrue().equals(getStateInvariant(pTarget))) {
       return;
@@ -1296,17 +1383,21 @@ class WitnessWriter implements EdgeAppender {
     }
   }
 
-  private ExpressionTree<Object> addInvariantsData(
-      GraphMlBuilder pDoc, Element pNode, String pStateId) {
+  private ExpressionTree<Object> getExportedInvariant(String pStateId) {
     if (!invariantExportStates.contains(pStateId)) {
       return ExpressionTrees.getTrue();
     }
-    ExpressionTree<Object> tree = getStateInvariant(pStateId);
+    return getStateInvariant(pStateId);
+  }
+
+  private ExpressionTree<Object> addInvariantsData(NodeDataSink pNode, String pStateId)
+      throws IOException {
+    ExpressionTree<Object> tree = getExportedInvariant(pStateId);
     if (!tree.equals(ExpressionTrees.getTrue())) {
-      pDoc.addDataElementChild(pNode, KeyDef.INVARIANT, tree.toString());
+      pNode.addData(KeyDef.INVARIANT, tree.toString());
       String scope = stateScopes.get(pStateId);
       if (scope != null && !scope.isEmpty() && !tree.equals(ExpressionTrees.getFalse())) {
-        pDoc.addDataElementChild(pNode, KeyDef.INVARIANTSCOPE, scope);
+        pNode.addData(KeyDef.INVARIANTSCOPE, scope);
       }
     }
     return tree;
@@ -1597,27 +1688,36 @@ class WitnessWriter implements EdgeAppender {
     return edge;
   }
 
-  private Element createNewNode(GraphMlBuilder pDoc, String pEntryStateNodeId) {
+  private Element createNewNode(GraphMlBuilder pDoc, String pEntryStateNodeId)
+      throws IOException {
     Element result = pDoc.createNodeElement(pEntryStateNodeId, NodeType.ONPATH);
+    addNodeData((key, value) -> pDoc.addDataElementChild(result, key, value), pEntryStateNodeId);
+    return result;
+  }
 
+  private void addNodeData(NodeDataSink pNode, String pEntryStateNodeId) throws IOException {
     if (witnessOptions.exportNodeLabel()) {
       // add a printable label that for example is shown in yEd
-      pDoc.addDataElementChild(result, KeyDef.LABEL, pEntryStateNodeId);
+      pNode.addData(KeyDef.LABEL, pEntryStateNodeId);
     }
 
     for (NodeFlag f : nodeFlags.get(pEntryStateNodeId)) {
-      pDoc.addDataElementChild(result, f.key, "true");
+      pNode.addData(f.key, "true");
     }
     for (Property violation : violatedProperties.get(pEntryStateNodeId)) {
-      pDoc.addDataElementChild(result, KeyDef.VIOLATEDPROPERTY, violation.toString());
+      pNode.addData(KeyDef.VIOLATEDPROPERTY, violation.toString());
     }
 
     if(stateQuasiInvariants.containsKey(pEntryStateNodeId)) {
       ExpressionTree<Object> tree = getQuasiInvariant(pEntryStateNodeId);
-        pDoc.addDataElementChild(result, KeyDef.INVARIANT, tree.toString());
+        pNode.addData(KeyDef.INVARIANT, tree.toString());
     }
+  }
 
-    return result;
+  /** Receives the data elements of a GraphML node. */
+  @FunctionalInterface
+  private interface NodeDataSink {
+    void addData(KeyDef pKey, String pValue) throws IOException;
   }
 
   private Collection<NodeFlag> extractNodeFlags(ARGState pState) {
@@ -84,6 +84,16 @@ interface AutomatonBoolExpr extends AutomatonExpression {
   @Override
   abstract ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) throws CPATransferException;
 
+  /**
+   * Returns whether the value of this expression depends only on the CFA edge (and the CFA around
+   * it), but not on automaton variables, transition variables or the states of other CPAs. Such
+   * expressions can be decided once per edge (cf. {@link AutomatonInternalState}), transition
+   * variables bound by them are recomputed when the transition is actually matched.
+   */
+  default boolean dependsOnlyOnEdge() {
+    return false;
+  }
+
   static enum MatchProgramExit implements AutomatonBoolExpr {
 
     INSTANCE;
@@ -97,6 +107,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "PROGRAM-EXIT";
@@ -150,6 +165,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return AutomatonBoolExpr.CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "PROGRAM-ENTRY";
@@ -172,6 +192,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return AutomatonBoolExpr.CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "LOOP-START";
@@ -197,6 +222,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return AutomatonBoolExpr.CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "SUCCESSOR IN " + acceptedNodes;
@@ -287,6 +317,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return epsilonMatchVisitor.evaluation;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return expr.dependsOnlyOnEdge();
+    }
+
     @Override
     public String toString() {
       if (!continueAtBranching) {
@@ -340,6 +375,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH FUNCTION CALL STATEMENT \"" + functionName + "\"";
@@ -371,6 +411,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH FUNCTION CALL \"" + functionName + "\"";
@@ -434,6 +479,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return Objects.hash(matchAssumeCase, matchFunctionCall);
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH FP-CALL(" + matchFunctionCall.functionName + ") BRANCHING CASE " + matchAssumeCase.matchPositiveCase;
@@ -475,6 +525,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH FUNCTION EXIT \"" + functionName + "\"";
@@ -508,6 +563,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH LABEL \"" + label + "\"";
@@ -543,6 +603,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH LABEL [" + pattern + "]";
@@ -580,6 +645,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH {" + patternAST + "}";
@@ -604,6 +674,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH [" + pattern + "]";
@@ -628,6 +703,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH \"" + pattern + "\"";
@@ -646,6 +726,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH ASSERT";
@@ -661,6 +746,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return pArgs.getCfaEdge() instanceof AssumeEdge ? CONST_TRUE : CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH ASSUME EDGE";
@@ -688,6 +778,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH ASSUME CASE " + matchPositiveCase;
@@ -725,6 +820,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return result;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return operandExpression.dependsOnlyOnEdge();
+    }
+
     @Override
     public String toString() {
       return String.format("MATCH FORALL SUCCESSOR EDGES (%s)", operandExpression);
@@ -804,6 +904,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return edges;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return operandExpression.dependsOnlyOnEdge();
+    }
+
     @Override
     public String toString() {
       return String.format("MATCH EXISTS SUCCESSOR EDGE (%s)", operandExpression);
@@ -826,6 +931,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return AutomatonGraphmlCommon.handleAsEpsilonEdge(pArgs.getCfaEdge()) ? CONST_FALSE : CONST_TRUE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH PATH RELEVANT EDGE";
@@ -844,6 +954,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       return AutomatonGraphmlCommon.isSplitDeclaration(edge) ? CONST_TRUE : CONST_FALSE;
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH SPLIT DECLARATION";
@@ -875,6 +990,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
           .anyMatch(matchDescriptor);
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH " + matchDescriptor;
@@ -1203,6 +1323,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return a.dependsOnlyOnEdge() && b.dependsOnlyOnEdge();
+    }
+
     @Override
     public String toString() {
       return "(" + a + " || " + b + ")";
@@ -1263,6 +1388,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return a.dependsOnlyOnEdge() && b.dependsOnlyOnEdge();
+    }
+
     @Override
     public String toString() {
       return "(" + a + " && " + b + ")";
@@ -1302,6 +1432,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return a.dependsOnlyOnEdge();
+    }
+
     @Override
     public String toString() {
       return "!" + a;
@@ -1343,6 +1478,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return a.dependsOnlyOnEdge() && b.dependsOnlyOnEdge();
+    }
+
     @Override
     public String toString() {
       return a + " == " + b;
@@ -1380,6 +1520,11 @@ interface AutomatonBoolExpr extends AutomatonExpression {
       }
     }
 
+    @Override
+    public boolean dependsOnlyOnEdge() {
+      return a.dependsOnlyOnEdge() && b.dependsOnlyOnEdge();
+    }
+
     @Override
     public String toString() {
       return a + " != " + b;
@@ -30,7 +30,10 @@ import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -71,6 +74,10 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -78,6 +85,7 @@ import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
@@ -163,6 +171,14 @@ public class AutomatonGraphmlParser {
   )
   private boolean strictChecking = true;
 
+  @Option(
+    secure = true,
+    description =
+        "Read the witness with a streaming (StAX) XML parser instead of building a DOM tree first."
+            + " This needs considerably less memory for large witnesses."
+  )
+  private boolean streamingParser = false;
+
   @Option(secure=true, description="File for exporting the witness automaton in DOT format.")
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path automatonDumpFile = null;
@@ -838,10 +854,10 @@ public class AutomatonGraphmlParser {
     WitnessType graphType = getWitnessType(docDat.getGraph());
 
     // Extract the information on the automaton ----
-    Node nameAttribute = docDat.getGraph().getAttributes().getNamedItem("name");
+    String nameAttribute = docDat.getGraph().getAttribute("name");
     String automatonName = WITNESS_AUTOMATON_NAME;
     if (nameAttribute != null) {
-      automatonName += "_" + nameAttribute.getTextContent();
+      automatonName += "_" + nameAttribute;
     }
 
     Map<String, GraphMLState> states = Maps.newHashMap();
@@ -849,7 +865,7 @@ public class AutomatonGraphmlParser {
     Multimap<GraphMLState, GraphMLTransition> leavingTransitions = HashMultimap.create();
     NumericIdProvider numericIdProvider = NumericIdProvider.create();
     Set<GraphMLState> entryStates = Sets.newHashSet();
-    for (Node transition : docDat.getTransitions()) {
+    for (GraphMLElement transition : docDat.getTransitions()) {
       collectEdgeData(
           docDat,
           states,
@@ -902,22 +918,43 @@ public class AutomatonGraphmlParser {
 
   private GraphMLDocumentData parseXML(InputStream pInputStream)
       throws WitnessParseException, IOException {
+    // witnesses repeat the same source code, line numbers, and assumptions many times
+    Interner<String> interner = Interners.newStrongInterner();
+    Timer parseTime = new Timer();
+    parseTime.start();
+
+    GraphMLDocumentData docDat;
+    if (streamingParser) {
+      docDat = GraphMLDocumentData.fromStream(pInputStream, interner);
+    } else {
+      // Parse the XML document ----
+      DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
 
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    return new GraphMLDocumentData(doc);
+      Document doc;
+      try {
+        DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
+        doc = docBuilder.parse(pInputStream);
+      } catch (ParserConfigurationException | SAXException e) {
+        throw new WitnessParseException(e);
+      }
+      docDat = GraphMLDocumentData.fromDocument(doc, interner);
+    }
+
+    parseTime.stop();
+    logger.log(
+        Level.FINE,
+        "Read witness with",
+        docDat.idToNodeMap.size(),
+        "states and",
+        docDat.getTransitions().size(),
+        "transitions using the",
+        streamingParser ? "streaming" : "DOM",
+        "parser in",
+        parseTime);
+    return docDat;
   }
 
-  private void checkFields(Node graphNode) throws IOException, WitnessParseException {
+  private void checkFields(GraphMLElement graphNode) throws IOException, WitnessParseException {
 
     checkHashSum(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.PROGRAMHASH));
     checkArchitecture(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.ARCHITECTURE));
@@ -953,7 +990,7 @@ public class AutomatonGraphmlParser {
     return functionExitMatcher;
   }
 
-  private static boolean entersLoopHead(Node pTransition) throws WitnessParseException {
+  private static boolean entersLoopHead(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> loopHeadFlags =
         GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENTERLOOPHEAD);
     if (!loopHeadFlags.isEmpty()) {
@@ -1000,7 +1037,7 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which line numbers to assume.
    * @return a predicate to match file locations based on the line numbers specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(Node pTransition)
+  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(GraphMLElement pTransition)
       throws WitnessParseException {
     Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
     checkParsable(
@@ -1054,7 +1091,7 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which character offset to assume.
    * @return a predicate to match file locations based on the offsets specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(Node pTransition) throws WitnessParseException {
+  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
@@ -1108,7 +1145,7 @@ public class AutomatonGraphmlParser {
    * @return an automaton-transition condition for specific branches of an assumption corresponding
    *     to the control case specified by the given transition.
    */
-  private static AutomatonBoolExpr getAssumeCaseMatcher(Node pTransition) throws WitnessParseException {
+  private static AutomatonBoolExpr getAssumeCaseMatcher(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> assumeCaseTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.CONTROLCASE);
 
     if (assumeCaseTags.size() > 0) {
@@ -1139,7 +1176,7 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> getThread(
-      Node pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
     return parseThreadId(pTransition, pNumericIdProvider, KeyDef.THREADID, "At most one threadId tag must be provided for each transition.");
   }
 
@@ -1155,7 +1192,7 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> parseThreadId(
-      Node pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
       throws WitnessParseException {
     Set<String> threadIdTags = GraphMLDocumentData.getDataOnNode(pTransition, pKey);
 
@@ -1201,7 +1238,7 @@ public class AutomatonGraphmlParser {
       Multimap<GraphMLState, GraphMLTransition> pLeavingEdges,
       Multimap<GraphMLState, GraphMLTransition> pEnteringEdges,
       NumericIdProvider pNumericThreadIdProvider,
-      Node pTransition)
+      GraphMLElement pTransition)
       throws WitnessParseException {
     String sourceStateId =
         GraphMLDocumentData.getAttributeValue(
@@ -1249,14 +1286,14 @@ public class AutomatonGraphmlParser {
     pLeavingEdges.put(source, transition);
     pEnteringEdges.put(target, transition);
 
-    Element sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
+    GraphMLElement sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
     if (sourceStateNode == null) {
       throw new WitnessParseException(
           String.format(
               "Source %s of transition %s does not exist.",
               sourceStateId, transitionToString(pTransition)));
     }
-    Element targetStateNode = pDocDat.getNodeWithId(targetStateId);
+    GraphMLElement targetStateNode = pDocDat.getNodeWithId(targetStateId);
     if (targetStateNode == null) {
       throw new WitnessParseException(
           String.format(
@@ -1292,14 +1329,14 @@ public class AutomatonGraphmlParser {
       GraphMLDocumentData pDocDat,
       Map<String, GraphMLState> pStates,
       String pStateId,
-      Optional<Node> pReference)
+      Optional<GraphMLElement> pReference)
       throws WitnessParseException {
     GraphMLState result = pStates.get(pStateId);
     if (result != null) {
       return result;
     }
 
-    Element stateNode = pDocDat.getNodeWithId(pStateId);
+    GraphMLElement stateNode = pDocDat.getNodeWithId(pStateId);
     if (stateNode == null) {
       final String message;
       if (pReference.isPresent()) {
@@ -1328,7 +1365,7 @@ public class AutomatonGraphmlParser {
     return result;
   }
 
-  private static Optional<String> parseSingleDataValue(Node pEdge,
+  private static Optional<String> parseSingleDataValue(GraphMLElement pEdge,
       KeyDef pKey,
       String pErrorMessage) throws WitnessParseException {
     Set<String> values =
@@ -1344,7 +1381,7 @@ public class AutomatonGraphmlParser {
    * @param pAutomaton the GraphML graph node representing the witness automaton.
    * @return the witness-automaton type of an automaton represented as a GraphML graph.
    */
-  private WitnessType getWitnessType(Node pAutomaton) throws WitnessParseException {
+  private WitnessType getWitnessType(GraphMLElement pAutomaton) throws WitnessParseException {
     Set<String> witnessTypeText =
         GraphMLDocumentData.getDataOnNode(pAutomaton, KeyDef.WITNESS_TYPE);
     final WitnessType witnessType;
@@ -1368,26 +1405,23 @@ public class AutomatonGraphmlParser {
     return witnessType;
   }
 
-  private static String transitionToString(Node pTransition) {
+  private static String transitionToString(GraphMLElement pTransition) {
     if (pTransition == null) {
       return "null";
     }
-    NamedNodeMap attributes = pTransition.getAttributes();
-    if (attributes != null) {
-      Node id = attributes.getNamedItem("id");
-      if (id != null) {
-        return id.getNodeValue();
-      }
+    String id = pTransition.getAttribute("id");
+    if (id != null) {
+      return id;
     }
     return pTransition.toString();
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey)
       throws WitnessParseException {
     checkRequiredField(pGraphNode, pKey, false);
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
       throws WitnessParseException {
     Iterable<String> data = GraphMLDocumentData.getDataOnNode(pGraphNode, pKey);
     if (Iterables.isEmpty(data)) {
@@ -1633,48 +1667,189 @@ public class AutomatonGraphmlParser {
 
   }
 
+  /**
+   * A graph, node, or edge of a GraphML document, reduced to its attributes and the values of its
+   * data children, which are grouped by their key.
+   */
+  private static final class GraphMLElement {
+
+    private final String tag;
+
+    private final ImmutableMap<String, String> attributes;
+
+    private final ImmutableListMultimap<String, String> data;
+
+    private GraphMLElement(
+        String pTag,
+        ImmutableMap<String, String> pAttributes,
+        ImmutableListMultimap<String, String> pData) {
+      tag = pTag;
+      attributes = pAttributes;
+      data = pData;
+    }
+
+    private static GraphMLElement fromDom(Element pElement, Interner<String> pInterner)
+        throws WitnessParseException {
+      ImmutableMap.Builder<String, String> attributes = ImmutableMap.builder();
+      NamedNodeMap domAttributes = pElement.getAttributes();
+      for (int i = 0; i < domAttributes.getLength(); i++) {
+        Node attribute = domAttributes.item(i);
+        attributes.put(attribute.getNodeName(), pInterner.intern(attribute.getNodeValue()));
+      }
+
+      ImmutableListMultimap.Builder<String, String> data = ImmutableListMultimap.builder();
+      for (Node child : asIterable(pElement.getChildNodes())) {
+        if (child.getNodeType() == Node.ELEMENT_NODE
+            && child.getNodeName().equals(GraphMLTag.DATA.toString())) {
+          Node key = child.getAttributes().getNamedItem("key");
+          checkParsable(key != null, "Every data element must have a key attribute!");
+          data.put(pInterner.intern(key.getTextContent()), pInterner.intern(child.getTextContent()));
+        }
+      }
+      return new GraphMLElement(pElement.getTagName(), attributes.build(), data.build());
+    }
+
+    private @Nullable String getAttribute(String pName) {
+      return attributes.get(pName);
+    }
+
+    @Override
+    public String toString() {
+      return "<" + tag + " " + attributes + ">";
+    }
+  }
+
   private static class GraphMLDocumentData {
 
-    private final Node graph;
+    private final GraphMLElement graph;
+
+    private final ImmutableMap<String, GraphMLElement> idToNodeMap;
 
-    private final ImmutableMap<String, Element> idToNodeMap;
+    private final List<GraphMLElement> transitions;
 
-    private final Iterable<Node> transitions;
+    private GraphMLDocumentData(
+        GraphMLElement pGraph,
+        ImmutableMap<String, GraphMLElement> pIdToNodeMap,
+        List<GraphMLElement> pTransitions) {
+      graph = pGraph;
+      idToNodeMap = pIdToNodeMap;
+      transitions = pTransitions;
+    }
 
-    public GraphMLDocumentData(Document pDocument) throws WitnessParseException {
+    private static GraphMLDocumentData fromDocument(
+        Document pDocument, Interner<String> pInterner) throws WitnessParseException {
 
       NodeList graphs = pDocument.getElementsByTagName(GraphMLTag.GRAPH.toString());
       checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-      graph = Objects.requireNonNull(graphs.item(0));
+      GraphMLElement graph =
+          GraphMLElement.fromDom((Element) Objects.requireNonNull(graphs.item(0)), pInterner);
 
-      ImmutableMap.Builder<String, Element> idToNodeMapBuilder = ImmutableMap.builder();
+      ImmutableMap.Builder<String, GraphMLElement> idToNodeMapBuilder = ImmutableMap.builder();
       NodeList nodes = pDocument.getElementsByTagName(GraphMLTag.NODE.toString());
       for (Node stateNode : asIterable(nodes)) {
-        String stateId = getAttributeValue(stateNode, "id", "Every state needs an ID!");
-        idToNodeMapBuilder.put(stateId, (Element) stateNode);
+        GraphMLElement state = GraphMLElement.fromDom((Element) stateNode, pInterner);
+        String stateId = getAttributeValue(state, "id", "Every state needs an ID!");
+        idToNodeMapBuilder.put(stateId, state);
+      }
+
+      List<GraphMLElement> transitions = new ArrayList<>();
+      NodeList edges = pDocument.getElementsByTagName(GraphMLTag.EDGE.toString());
+      for (Node transition : asIterable(edges)) {
+        transitions.add(GraphMLElement.fromDom((Element) transition, pInterner));
+      }
+
+      return new GraphMLDocumentData(graph, idToNodeMapBuilder.build(), transitions);
+    }
+
+    /**
+     * Reads the document with a StAX parser, such that only the graph, node, and edge elements
+     * currently open are held in memory in addition to the result.
+     */
+    private static GraphMLDocumentData fromStream(
+        InputStream pInputStream, Interner<String> pInterner) throws WitnessParseException {
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+      GraphMLElement graph = null;
+      ImmutableMap.Builder<String, GraphMLElement> idToNodeMapBuilder = ImmutableMap.builder();
+      List<GraphMLElement> transitions = new ArrayList<>();
+
+      // builders for the attributes and data of the currently open elements
+      Deque<String> openTags = new ArrayDeque<>();
+      Deque<ImmutableMap<String, String>> openAttributes = new ArrayDeque<>();
+      Deque<ImmutableListMultimap.Builder<String, String>> openData = new ArrayDeque<>();
+
+      try {
+        XMLStreamReader reader = factory.createXMLStreamReader(pInputStream);
+        try {
+          while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+              String tag = reader.getLocalName();
+              if (tag.equals(GraphMLTag.DATA.toString())) {
+                String key = reader.getAttributeValue(null, "key");
+                checkParsable(key != null, "Every data element must have a key attribute!");
+                String value = reader.getElementText();
+                if (!openData.isEmpty()) {
+                  openData.peek().put(pInterner.intern(key), pInterner.intern(value));
+                }
+              } else if (isGraphElement(tag)) {
+                checkParsable(
+                    !tag.equals(GraphMLTag.GRAPH.toString()) || graph == null,
+                    TOO_MANY_GRAPHS_ERROR_MESSAGE);
+                ImmutableMap.Builder<String, String> attributes = ImmutableMap.builder();
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                  attributes.put(
+                      reader.getAttributeLocalName(i), pInterner.intern(reader.getAttributeValue(i)));
+                }
+                openTags.push(tag);
+                openAttributes.push(attributes.build());
+                openData.push(ImmutableListMultimap.builder());
+              }
+
+            } else if (event == XMLStreamConstants.END_ELEMENT
+                && isGraphElement(reader.getLocalName())) {
+              GraphMLElement element =
+                  new GraphMLElement(openTags.pop(), openAttributes.pop(), openData.pop().build());
+              if (element.tag.equals(GraphMLTag.NODE.toString())) {
+                String stateId = getAttributeValue(element, "id", "Every state needs an ID!");
+                idToNodeMapBuilder.put(stateId, element);
+              } else if (element.tag.equals(GraphMLTag.EDGE.toString())) {
+                transitions.add(element);
+              } else {
+                graph = element;
+              }
+            }
+          }
+        } finally {
+          reader.close();
+        }
+      } catch (XMLStreamException e) {
+        throw new WitnessParseException(e);
       }
-      idToNodeMap = idToNodeMapBuilder.build();
 
-      transitions = asIterable(pDocument.getElementsByTagName(GraphMLTag.EDGE.toString()));
+      checkParsable(graph != null, TOO_MANY_GRAPHS_ERROR_MESSAGE);
+      return new GraphMLDocumentData(graph, idToNodeMapBuilder.build(), transitions);
     }
 
-    public Node getGraph() {
+    private static boolean isGraphElement(String pTag) {
+      return pTag.equals(GraphMLTag.GRAPH.toString())
+          || pTag.equals(GraphMLTag.NODE.toString())
+          || pTag.equals(GraphMLTag.EDGE.toString());
+    }
+
+    public GraphMLElement getGraph() {
       return graph;
     }
 
-    public Iterable<Node> getTransitions() {
+    public List<GraphMLElement> getTransitions() {
       return transitions;
     }
 
-    public EnumSet<NodeFlag> getNodeFlags(Element pStateNode) {
+    public EnumSet<NodeFlag> getNodeFlags(GraphMLElement pStateNode) {
       EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
 
-      NodeList dataChilds = pStateNode.getElementsByTagName(GraphMLTag.DATA.toString());
-
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String key = attribute.getTextContent();
+      for (String key : pStateNode.data.keySet()) {
         NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
         if (flag != null) {
           result.add(flag);
@@ -1684,64 +1859,34 @@ public class AutomatonGraphmlParser {
       return result;
     }
 
-    private static String getAttributeValue(Node of, String attributeName, String exceptionMessage)
+    private static String getAttributeValue(
+        GraphMLElement of, String attributeName, String exceptionMessage)
         throws WitnessParseException {
-      Node attribute = of.getAttributes().getNamedItem(attributeName);
+      String attribute = of.getAttribute(attributeName);
       if (attribute == null) {
         throw new WitnessParseException(exceptionMessage);
       }
-      return attribute.getTextContent();
+      return attribute;
     }
 
-    private @Nullable Element getNodeWithId(String nodeId) {
-      Element result = idToNodeMap.get(nodeId);
-      if (result == null
-          || !result.getTagName().equals(GraphMLTag.NODE.toString())) {
+    private @Nullable GraphMLElement getNodeWithId(String nodeId) {
+      GraphMLElement result = idToNodeMap.get(nodeId);
+      if (result == null || !result.tag.equals(GraphMLTag.NODE.toString())) {
         return null;
       }
       return result;
     }
 
-    private static Set<String> getDataOnNode(Node node, final KeyDef dataKey) {
+    private static Set<String> getDataOnNode(GraphMLElement node, final KeyDef dataKey) {
       Preconditions.checkNotNull(node);
-      Preconditions.checkArgument(node.getNodeType() == Node.ELEMENT_NODE);
 
-      Element nodeElement = (Element) node;
-      Set<Node> dataNodes = findKeyedDataNode(nodeElement, dataKey);
-
-      Set<String> result = Sets.newHashSet();
-      for (Node n: dataNodes) {
-        result.add(n.getTextContent());
+      List<String> values = node.data.get(dataKey.id);
+      // Backwards-compatibility: type/graph-type
+      if (values.isEmpty() && dataKey.equals(KeyDef.WITNESS_TYPE)) {
+        values = node.data.get("type");
+        values = values.isEmpty() ? values : values.subList(0, 1);
       }
-
-      return result;
-    }
-
-    private static Set<Node> findKeyedDataNode(Element of, final KeyDef dataKey) {
-      Set<Node> result = Sets.newHashSet();
-      Set<Node> alternative = null;
-      NodeList dataChilds = of.getElementsByTagName(GraphMLTag.DATA.toString());
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String nodeKey = attribute.getTextContent();
-        if (nodeKey.equals(dataKey.id)) {
-          result.add(dataChild);
-          alternative = null;
-        }
-        // Backwards-compatibility: type/graph-type
-        if (alternative == null
-            && result.isEmpty()
-            && dataKey.equals(KeyDef.WITNESS_TYPE)
-            && nodeKey.equals("type")) {
-          alternative = Sets.newHashSet();
-          alternative.add(dataChild);
-        }
-      }
-      if (result.isEmpty() && alternative != null) {
-        return alternative;
-      }
-      return result;
+      return Sets.newHashSet(values);
     }
 
   }
@@ -1808,7 +1953,8 @@ public class AutomatonGraphmlParser {
     // (The one) root node of the graph ----
     NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
     checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-    Node graphNode = graphs.item(0);
+    GraphMLElement graphNode =
+        GraphMLElement.fromDom((Element) graphs.item(0), Interners.newStrongInterner());
 
     checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
 
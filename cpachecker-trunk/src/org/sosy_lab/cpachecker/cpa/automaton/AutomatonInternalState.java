@@ -23,11 +23,18 @@
  */
 package org.sosy_lab.cpachecker.cpa.automaton;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.sosy_lab.common.UniqueIdGenerator;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.And;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.Or;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonExpression.ResultValue;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonExpression.StringExpression;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 /** Represents a State in the automaton.
  */
@@ -86,6 +93,15 @@ public class AutomatonInternalState {
 
   private final boolean isCycleStart;
 
+  /**
+   * Dispatch table from CFA edges to the outgoing transitions that may match them, i.e., without
+   * those transitions whose trigger is already false because of the edge alone. The table is
+   * filled lazily for the edges that are actually encountered and is null if no trigger can be
+   * decided by the edge. Edges are compared by identity, because different edges (e.g., the two
+   * branches of an empty if) may be equal.
+   */
+  private final Map<CFAEdge, List<AutomatonTransition>> transitionsByEdge;
+
   public AutomatonInternalState(
       String pName,
       List<AutomatonTransition> pTransitions,
@@ -97,6 +113,10 @@ public class AutomatonInternalState {
     this.mIsTarget = pIsTarget;
     this.mAllTransitions = pAllTransitions;
     this.isCycleStart = pIsCycleStart;
+    this.transitionsByEdge =
+        pTransitions.stream().anyMatch(t -> isDecidedByEdge(t.getTrigger()))
+            ? new MapMaker().weakKeys().makeMap()
+            : null;
   }
 
   public AutomatonInternalState(
@@ -164,6 +184,69 @@ public class AutomatonInternalState {
     return transitions;
   }
 
+  /**
+   * Returns the outgoing transitions of this state in their original order, except for those
+   * whose trigger cannot match the edge of the given arguments regardless of automaton variables
+   * and the states of other CPAs. The remaining transitions still have to be matched.
+   */
+  List<AutomatonTransition> getTransitionsFor(AutomatonExpressionArguments pArgs) {
+    if (transitionsByEdge == null) {
+      return transitions;
+    }
+    return transitionsByEdge.computeIfAbsent(
+        pArgs.getCfaEdge(), edge -> computeTransitionsFor(pArgs));
+  }
+
+  private List<AutomatonTransition> computeTransitionsFor(AutomatonExpressionArguments pArgs) {
+    ImmutableList.Builder<AutomatonTransition> candidates = ImmutableList.builder();
+    boolean skipped = false;
+    for (AutomatonTransition t : transitions) {
+      if (isFalseForEdge(t.getTrigger(), pArgs)) {
+        skipped = true;
+      } else {
+        candidates.add(t);
+      }
+    }
+    pArgs.clearTransitionVariables();
+    return skipped ? candidates.build() : transitions;
+  }
+
+  private static boolean isDecidedByEdge(AutomatonBoolExpr pExpr) {
+    if (pExpr.dependsOnlyOnEdge()) {
+      return true;
+    } else if (pExpr instanceof And) {
+      return isDecidedByEdge(((And) pExpr).getA()) || isDecidedByEdge(((And) pExpr).getB());
+    } else if (pExpr instanceof Or) {
+      return isDecidedByEdge(((Or) pExpr).getA()) && isDecidedByEdge(((Or) pExpr).getB());
+    }
+    return false;
+  }
+
+  /**
+   * Checks whether the expression evaluates to false for the edge of the given arguments,
+   * independently of everything else. A conjunction is false if one of its operands is, even if
+   * the other one would have to be evaluated at runtime.
+   */
+  private static boolean isFalseForEdge(AutomatonBoolExpr pExpr, AutomatonExpressionArguments pArgs) {
+    if (pExpr.dependsOnlyOnEdge()) {
+      ResultValue<Boolean> result;
+      try {
+        result = pExpr.eval(pArgs);
+      } catch (CPATransferException e) {
+        // keep the transition, the exception will be raised when it is matched
+        return false;
+      }
+      return !result.canNotEvaluate() && Boolean.FALSE.equals(result.getValue());
+    } else if (pExpr instanceof And) {
+      return isFalseForEdge(((And) pExpr).getA(), pArgs)
+          || isFalseForEdge(((And) pExpr).getB(), pArgs);
+    } else if (pExpr instanceof Or) {
+      return isFalseForEdge(((Or) pExpr).getA(), pArgs)
+          && isFalseForEdge(((Or) pExpr).getB(), pArgs);
+    }
+    return false;
+  }
+
   @Override
   public String toString() {
     return this.name;
@@ -30,6 +30,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.CharSource;
 import com.google.common.io.CharStreams;
 import com.google.common.io.MoreFiles;
@@ -52,10 +53,17 @@ import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CParser;
 import org.sosy_lab.cpachecker.cfa.CParser.ParserOptions;
 import org.sosy_lab.cpachecker.cfa.CProgramScope;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 import org.sosy_lab.cpachecker.cfa.ast.c.CAstNode;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonASTComparator.ASTMatcher;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.And;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.CPAQuery;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchCFAEdgeExact;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 /**
@@ -281,6 +289,32 @@ public class AutomatonInternalTest {
     assert_().about(astMatcher).that("$? = $1($?);").doesNotMatch("f();");
   }
 
+  @Test
+  public void testTransitionsForEdge() {
+    CFAEdge edge =
+        new BlankEdge(
+            "x = 1;", FileLocation.DUMMY, new CFANode("main"), new CFANode("main"), "x = 1;");
+    AutomatonTransition matching = transitionTo(new MatchCFAEdgeExact("x = 1;"));
+    AutomatonTransition notMatching = transitionTo(new MatchCFAEdgeExact("y = 1;"));
+    AutomatonTransition notMatchingConjunction =
+        transitionTo(new And(new CPAQuery("cpa", "query"), new MatchCFAEdgeExact("y = 1;")));
+    AutomatonTransition query = transitionTo(new CPAQuery("cpa", "query"));
+    AutomatonInternalState state =
+        new AutomatonInternalState(
+            "q", ImmutableList.of(matching, notMatching, notMatchingConjunction, query));
+
+    AutomatonExpressionArguments args =
+        new AutomatonExpressionArguments(null, null, null, edge, logger);
+    List<AutomatonTransition> transitions = state.getTransitionsFor(args);
+    assertThat(transitions).containsExactly(matching, query).inOrder();
+    assertThat(state.getTransitionsFor(args)).isSameAs(transitions);
+  }
+
+  private static AutomatonTransition transitionTo(AutomatonBoolExpr pTrigger) {
+    return new AutomatonTransition(
+        pTrigger, ImmutableList.of(), ImmutableList.of(), AutomatonInternalState.BOTTOM);
+  }
+
   private final Subject.Factory<ASTMatcherSubject, String> astMatcher =
       new Subject.Factory<ASTMatcherSubject, String>() {
         @Override
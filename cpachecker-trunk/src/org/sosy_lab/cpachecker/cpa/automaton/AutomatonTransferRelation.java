@@ -149,15 +149,21 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     Collection<AutomatonState> lSuccessors = Sets.newLinkedHashSetWithExpectedSize(2);
     AutomatonExpressionArguments exprArgs = new AutomatonExpressionArguments(state, state.getVars(), otherElements, edge, logger);
     boolean edgeMatched = false;
-    int failedMatches = 0;
     boolean nonDetState = state.getInternalState().isNonDetState();
 
+    // transitions that cannot match this edge at all are filtered out upfront,
+    // they are counted as failed matches
+    matchTime.start();
+    List<AutomatonTransition> transitions = state.getInternalState().getTransitionsFor(exprArgs);
+    matchTime.stop();
+    int failedMatches = state.getInternalState().getTransitions().size() - transitions.size();
+
     // these transitions cannot be evaluated until last, because they might have sideeffects on other CPAs (dont want to execute them twice)
     // the transitionVariables have to be cached (produced during the match operation)
     // the list holds a Transition and the TransitionVariables generated during its match
     List<Pair<AutomatonTransition, Map<Integer, String>>> transitionsToBeTaken = new ArrayList<>(2);
 
-    for (AutomatonTransition t : state.getInternalState().getTransitions()) {
+    for (AutomatonTransition t : transitions) {
       exprArgs.clearTransitionVariables();
 
       matchTime.start();
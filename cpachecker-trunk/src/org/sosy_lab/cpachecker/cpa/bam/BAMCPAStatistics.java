@@ -28,6 +28,8 @@ import java.util.ArrayList;
 import java.util.List;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheConcurrent;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatistics;
 
 /**
@@ -61,6 +63,14 @@ class BAMCPAStatistics extends AbstractStatistics {
     put(out, 0, cpa.reducerStatistics.reducePrecisionTime);
     put(out, 0, cpa.reducerStatistics.expandPrecisionTime);
 
+    BAMCache cache = cpa.getData().getCache();
+    if (cache instanceof BAMCacheConcurrent) {
+      BAMCacheConcurrent concurrentCache = (BAMCacheConcurrent) cache;
+      put(out, 0, concurrentCache.getLockAcquisitions());
+      put(out, 1, concurrentCache.getContendedLockAcquisitions());
+      put(out, 1, concurrentCache.getLockWaitTime());
+    }
+
     for (BAMBasedRefiner refiner : refiners) {
       // TODO We print these statistics also for use-cases of BAM-refiners, that never use timers. Can we ignore them?
       out.println("\n" + refiner.getClass().getSimpleName() + ":");
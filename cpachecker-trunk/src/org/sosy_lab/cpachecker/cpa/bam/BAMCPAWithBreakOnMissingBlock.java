@@ -26,6 +26,8 @@ package org.sosy_lab.cpachecker.cpa.bam;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.core.Specification;
@@ -36,6 +38,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheConcurrent;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheSynchronized;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
@@ -43,12 +46,21 @@ import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerSynchronized;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
+@Options(prefix = "cpa.bam")
 public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(BAMCPAWithBreakOnMissingBlock.class);
   }
 
+  @Option(
+    secure = true,
+    description =
+        "use a concurrent cache with striped locks instead of a globally synchronized cache "
+            + "for the parallel BAM analysis"
+  )
+  private boolean useConcurrentCache = false;
+
   private final BAMCache cache;
   private final BAMDataManager data;
 
@@ -63,7 +75,13 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
       throws InvalidConfigurationException, CPAException {
     super(pCpa, pConfig, pLogger, pShutdownNotifier, pSpecification, pCfa);
 
-    cache = new BAMCacheSynchronized(new BAMCacheImpl(pConfig, getReducer(), pLogger));
+    pConfig.inject(this, BAMCPAWithBreakOnMissingBlock.class);
+
+    if (useConcurrentCache) {
+      cache = new BAMCacheConcurrent(pConfig, getReducer(), pLogger);
+    } else {
+      cache = new BAMCacheSynchronized(new BAMCacheImpl(pConfig, getReducer(), pLogger));
+    }
     data =
         new BAMDataManagerSynchronized(new BAMDataManagerImpl(cache, reachedsetFactory, pLogger));
   }
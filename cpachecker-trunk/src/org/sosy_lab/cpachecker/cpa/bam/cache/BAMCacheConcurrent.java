@@ -0,0 +1,379 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.util.concurrent.Striped;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatHist;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+
+/**
+ * A cache for BAM that can be accessed by several threads in parallel (e.g., from the
+ * ParallelBAMAlgorithm) without a global lock.
+ *
+ * <p>The cache keys are computed before any lock is taken. Reached-sets are stored in a concurrent
+ * map, and the result-states and block-ARGs of a key are updated together under a lock that is
+ * selected by the key from a fixed number of stripes. Lookups only read from the concurrent maps
+ * and never take a lock. Hits and misses are counted per thread and only summed up for the
+ * statistics.
+ *
+ * <p>The analysis of cache misses (option cpa.bam.gatherCacheMissStatistics) is not supported.
+ */
+@Options(prefix = "cpa.bam")
+public class BAMCacheConcurrent implements BAMCache {
+
+  @Option(
+    secure = true,
+    description =
+        "number of locks for the concurrent BAM cache, "
+            + "result-states of keys with different locks can be updated in parallel"
+  )
+  private int cacheLockStripes = 64;
+
+  private final Map<CacheKey, ReachedSet> preciseReachedCache = new ConcurrentHashMap<>();
+  private final Map<CacheKey, Collection<AbstractState>> returnCache = new ConcurrentHashMap<>();
+  private final Map<CacheKey, ARGState> blockARGCache = new ConcurrentHashMap<>();
+
+  private final Striped<Lock> locks;
+
+  /** the last analyzed block is tracked per thread, because each thread analyzes its own block. */
+  private final ThreadLocal<CacheKey> lastAnalyzedBlockCache = new ThreadLocal<>();
+
+  private final Queue<AccessCounters> allCounters = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<AccessCounters> counters =
+      ThreadLocal.withInitial(
+          () -> {
+            AccessCounters threadCounters = new AccessCounters();
+            allCounters.add(threadCounters);
+            return threadCounters;
+          });
+
+  private final ThreadSafeTimerContainer hashingTime =
+      new ThreadSafeTimerContainer("Time for computing cache keys");
+  private final ThreadLocal<TimerWrapper> hashingTimer =
+      ThreadLocal.withInitial(hashingTime::getNewTimer);
+
+  private final StatCounter lockAcquisitions =
+      new StatCounter("Number of lock acquisitions in BAM cache");
+  private final StatCounter contendedLockAcquisitions =
+      new StatCounter("Number of contended lock acquisitions in BAM cache");
+  private final ThreadSafeTimerContainer lockWaitTime =
+      new ThreadSafeTimerContainer("Time waiting for locks of BAM cache");
+  private final ThreadLocal<TimerWrapper> lockWaitTimer =
+      ThreadLocal.withInitial(lockWaitTime::getNewTimer);
+
+  private final Reducer reducer;
+  private final LogManager logger;
+
+  public BAMCacheConcurrent(Configuration pConfig, Reducer pReducer, LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this, BAMCacheConcurrent.class);
+    if (Boolean.parseBoolean(pConfig.getProperty("cpa.bam.gatherCacheMissStatistics"))) {
+      throw new InvalidConfigurationException(
+          "Option cpa.bam.gatherCacheMissStatistics is not supported by the concurrent BAM cache");
+    }
+    if (cacheLockStripes <= 0) {
+      throw new InvalidConfigurationException(
+          "Option cpa.bam.cacheLockStripes must be positive, but is " + cacheLockStripes);
+    }
+    locks = Striped.lock(cacheLockStripes);
+    reducer = pReducer;
+    logger = pLogger;
+  }
+
+  private CacheKey getKey(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    TimerWrapper timer = hashingTimer.get();
+    timer.start();
+    try {
+      return new CacheKey(
+          reducer.getHashCodeForState(pStateKey, pPrecisionKey),
+          pContext,
+          pStateKey,
+          pPrecisionKey);
+    } finally {
+      timer.stop();
+    }
+  }
+
+  private Lock lock(CacheKey pKey) {
+    Lock lock = locks.get(pKey);
+    if (!lock.tryLock()) {
+      contendedLockAcquisitions.inc();
+      TimerWrapper timer = lockWaitTimer.get();
+      timer.start();
+      lock.lock();
+      timer.stop();
+    }
+    lockAcquisitions.inc();
+    return lock;
+  }
+
+  @Override
+  public void put(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext, ReachedSet pItem) {
+    CacheKey key = getKey(pStateKey, pPrecisionKey, pContext);
+    preciseReachedCache.put(key, pItem);
+  }
+
+  @Override
+  public void put(
+      AbstractState pStateKey,
+      Precision pPrecisionKey,
+      Block pContext,
+      Collection<AbstractState> pItem,
+      @Nullable ARGState pRootOfBlock) {
+    CacheKey key = getKey(pStateKey, pPrecisionKey, pContext);
+    assert preciseReachedCache.get(key) != null : "key not found in cache: " + key;
+    assert BAMCacheImpl.allStatesContainedInReachedSet(pItem, preciseReachedCache.get(key))
+        : "output-states must be in reached-set";
+    Lock lock = lock(key);
+    try {
+      returnCache.put(key, pItem);
+      if (pRootOfBlock == null) {
+        blockARGCache.remove(key);
+      } else {
+        blockARGCache.put(key, pRootOfBlock);
+      }
+    } finally {
+      lock.unlock();
+    }
+    lastAnalyzedBlockCache.set(key);
+  }
+
+  @Override
+  public void remove(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    CacheKey key = getKey(pStateKey, pPrecisionKey, pContext);
+    Lock lock = lock(key);
+    try {
+      blockARGCache.remove(key);
+      returnCache.remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Pair<ReachedSet, Collection<AbstractState>> get(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    CacheKey key = getKey(pStateKey, pPrecisionKey, pContext);
+    AccessCounters threadCounters = counters.get();
+
+    ReachedSet reached = preciseReachedCache.get(key);
+    if (reached == null) {
+      lastAnalyzedBlockCache.remove();
+      threadCounters.cacheMisses++;
+      logger.log(Level.FINEST, "CACHE_ACCESS: entry not available");
+      return Pair.of(null, null);
+    }
+
+    Collection<AbstractState> returnStates = returnCache.get(key);
+    lastAnalyzedBlockCache.set(key);
+    logger.log(Level.FINEST, "CACHE_ACCESS: precise entry");
+
+    if (returnStates != null) {
+      assert BAMCacheImpl.allStatesContainedInReachedSet(returnStates, reached)
+          : "output-states must be in reached-set";
+      threadCounters.fullCacheHits++;
+    } else {
+      threadCounters.partialCacheHits++;
+    }
+    return Pair.of(reached, returnStates);
+  }
+
+  @Override
+  public ARGState getLastAnalyzedBlock() {
+    CacheKey key = lastAnalyzedBlockCache.get();
+    return key == null ? null : blockARGCache.get(key);
+  }
+
+  @Override
+  public boolean containsPreciseKey(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    return preciseReachedCache.containsKey(getKey(pStateKey, pPrecisionKey, pContext));
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    return Collections.unmodifiableCollection(preciseReachedCache.values());
+  }
+
+  @Override
+  public void clear() {
+    preciseReachedCache.clear();
+    returnCache.clear();
+    blockARGCache.clear();
+    lastAnalyzedBlockCache.remove();
+  }
+
+  public StatCounter getLockAcquisitions() {
+    return lockAcquisitions;
+  }
+
+  public StatCounter getContendedLockAcquisitions() {
+    return contendedLockAcquisitions;
+  }
+
+  public ThreadSafeTimerContainer getLockWaitTime() {
+    return lockWaitTime;
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    long cacheMisses = 0;
+    long partialCacheHits = 0;
+    long fullCacheHits = 0;
+    for (AccessCounters threadCounters : allCounters) {
+      cacheMisses += threadCounters.cacheMisses;
+      partialCacheHits += threadCounters.partialCacheHits;
+      fullCacheHits += threadCounters.fullCacheHits;
+    }
+    long sumCalls = cacheMisses + partialCacheHits + fullCacheHits;
+
+    StatHist argStats =
+        new StatHist("") {
+          @Override
+          public String toString() {
+            // overriding, because printing all sizes is not that interesting
+            return String.format(
+                "%.0f (#=%d, avg=%.2f, dev=%.2f, min=%d, max=%d)",
+                getSum(), getUpdateCount(), getAvg(), getStdDeviation(), getMin(), getMax());
+          }
+        };
+    for (UnmodifiableReachedSet subreached : getAllCachedReachedStates()) {
+      argStats.insertValue(subreached.size());
+    }
+
+    out.println("Total size of all ARGs:                              " + argStats);
+    out.println("Total number of recursive CPA calls:                 " + sumCalls);
+    out.println(
+        "  Number of cache misses:                            "
+            + cacheMisses
+            + " ("
+            + toPercent(cacheMisses, sumCalls)
+            + " of all calls)");
+    out.println(
+        "  Number of partial cache hits:                      "
+            + partialCacheHits
+            + " ("
+            + toPercent(partialCacheHits, sumCalls)
+            + " of all calls)");
+    out.println(
+        "  Number of full cache hits:                         "
+            + fullCacheHits
+            + " ("
+            + toPercent(fullCacheHits, sumCalls)
+            + " of all calls)");
+    out.println("Number of threads accessing the cache:               " + allCounters.size());
+    out.println(
+        "Time for computing cache keys:                       "
+            + hashingTime
+            + " (Calls: "
+            + hashingTime.getNumberOfIntervals()
+            + ")");
+  }
+
+  @Override
+  public String getName() {
+    return "BAMCache";
+  }
+
+  /** Counters that are only written by a single thread, read for the statistics. */
+  private static class AccessCounters {
+    private long cacheMisses = 0;
+    private long partialCacheHits = 0;
+    private long fullCacheHits = 0;
+  }
+
+  /** A key of the cache, its hash code is computed once when the key is created. */
+  private static final class CacheKey {
+
+    private final Object wrappedHash;
+    private final Block context;
+    private final AbstractState stateKey;
+    private final Precision precisionKey;
+    private final int hash;
+
+    private CacheKey(
+        Object pWrappedHash, Block pContext, AbstractState pStateKey, Precision pPrecisionKey) {
+      wrappedHash = pWrappedHash;
+      context = checkNotNull(pContext);
+      stateKey = pStateKey;
+      precisionKey = pPrecisionKey;
+      hash = wrappedHash.hashCode() * 17 + context.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) pObj;
+      return hash == other.hash
+          && context.equals(other.context)
+          && wrappedHash.equals(other.wrappedHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheKey [hash=" + hash + ", wrappedHash=" + wrappedHash + ", context=" + context
+          + ", stateKey=" + stateKey + ", precisionKey=" + precisionKey + "]";
+    }
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class BAMCacheConcurrentTest {
+
+  private static final int THREADS = 8;
+  private static final int KEYS = 50;
+  private static final int ROUNDS = 200;
+
+  private final Precision precision = Mockito.mock(Precision.class);
+  private final List<AbstractState> stateKeys = new ArrayList<>();
+  private final List<ReachedSet> reachedSets = new ArrayList<>();
+  private final List<Collection<AbstractState>> resultStates = new ArrayList<>();
+  private final List<ARGState> blockRoots = new ArrayList<>();
+
+  private Block block;
+  private BAMCacheConcurrent cache;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    CFANode node = new CFANode("test");
+    block =
+        new Block(
+            ImmutableSet.of(), ImmutableSet.of(node), ImmutableSet.of(), ImmutableSet.of(node));
+
+    // the state itself is its hash, such that different states are different keys
+    Reducer reducer = Mockito.mock(Reducer.class);
+    Mockito.when(reducer.getHashCodeForState(any(), any()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    for (int i = 0; i < KEYS; i++) {
+      stateKeys.add(Mockito.mock(AbstractState.class));
+      Collection<AbstractState> results = ImmutableList.of(Mockito.mock(AbstractState.class));
+      ReachedSet reached = Mockito.mock(ReachedSet.class);
+      Mockito.when(reached.asCollection()).thenReturn(results);
+      reachedSets.add(reached);
+      resultStates.add(results);
+      blockRoots.add(Mockito.mock(ARGState.class));
+    }
+
+    cache =
+        new BAMCacheConcurrent(
+            Configuration.builder().setOption("cpa.bam.cacheLockStripes", "4").build(),
+            reducer,
+            LogManager.createTestLogManager());
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testPutAndGet() {
+    AbstractState key = stateKeys.get(0);
+    assertThat(cache.get(key, precision, block).getFirst()).isNull();
+    assertThat(cache.containsPreciseKey(key, precision, block)).isFalse();
+
+    cache.put(key, precision, block, reachedSets.get(0));
+    Pair<ReachedSet, Collection<AbstractState>> partialHit = cache.get(key, precision, block);
+    assertThat(partialHit.getFirst()).isSameAs(reachedSets.get(0));
+    assertThat(partialHit.getSecond()).isNull();
+
+    cache.put(key, precision, block, resultStates.get(0), blockRoots.get(0));
+    Pair<ReachedSet, Collection<AbstractState>> fullHit = cache.get(key, precision, block);
+    assertThat(fullHit.getFirst()).isSameAs(reachedSets.get(0));
+    assertThat(fullHit.getSecond()).isSameAs(resultStates.get(0));
+    assertThat(cache.getLastAnalyzedBlock()).isSameAs(blockRoots.get(0));
+
+    cache.remove(key, precision, block);
+    assertThat(cache.get(key, precision, block).getSecond()).isNull();
+    assertThat(cache.getLastAnalyzedBlock()).isNull();
+  }
+
+  @Test
+  public void testConcurrentPutAndGet() throws Exception {
+    CyclicBarrier start = new CyclicBarrier(THREADS);
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      final int thread = t;
+      results.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int round = 0; round < ROUNDS; round++) {
+                  // neighboring threads share most of their keys
+                  int i = (thread * 3 + round) % KEYS;
+                  AbstractState key = stateKeys.get(i);
+                  cache.put(key, precision, block, reachedSets.get(i));
+                  cache.put(key, precision, block, resultStates.get(i), blockRoots.get(i));
+
+                  Pair<ReachedSet, Collection<AbstractState>> entry =
+                      cache.get(key, precision, block);
+                  assertThat(entry.getFirst()).isSameAs(reachedSets.get(i));
+                  assertThat(entry.getSecond()).isSameAs(resultStates.get(i));
+                  assertThat(cache.getLastAnalyzedBlock()).isSameAs(blockRoots.get(i));
+                }
+                return null;
+              }));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+
+    assertThat(cache.getAllCachedReachedStates()).containsExactlyElementsIn(reachedSets);
+    for (int i = 0; i < KEYS; i++) {
+      Pair<ReachedSet, Collection<AbstractState>> entry =
+          cache.get(stateKeys.get(i), precision, block);
+      assertThat(entry.getFirst()).isSameAs(reachedSets.get(i));
+      assertThat(entry.getSecond()).isSameAs(resultStates.get(i));
+    }
+    // one lock for each put of result-states, lookups do not lock
+    assertThat(cache.getLockAcquisitions().getValue()).isEqualTo((long) THREADS * ROUNDS);
+  }
+
+  @Test
+  public void testLastAnalyzedBlockIsPerThread() throws Exception {
+    cache.put(stateKeys.get(0), precision, block, reachedSets.get(0));
+    cache.put(stateKeys.get(0), precision, block, resultStates.get(0), blockRoots.get(0));
+
+    Future<ARGState> otherThread =
+        executor.submit(
+            () -> {
+              cache.put(stateKeys.get(1), precision, block, reachedSets.get(1));
+              cache.put(stateKeys.get(1), precision, block, resultStates.get(1), blockRoots.get(1));
+              return cache.getLastAnalyzedBlock();
+            });
+
+    assertThat(otherThread.get()).isSameAs(blockRoots.get(1));
+    assertThat(cache.getLastAnalyzedBlock()).isSameAs(blockRoots.get(0));
+  }
+
+  @Test
+  public void testCacheMissStatisticsAreRejected() {
+    try {
+      new BAMCacheConcurrent(
+          Configuration.builder().setOption("cpa.bam.gatherCacheMissStatistics", "true").build(),
+          Mockito.mock(Reducer.class),
+          LogManager.createTestLogManager());
+      Assert.fail();
+    } catch (InvalidConfigurationException e) {
+      // expected
+    }
+  }
+}
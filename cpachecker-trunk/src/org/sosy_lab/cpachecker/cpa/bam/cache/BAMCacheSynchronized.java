@@ -37,7 +37,6 @@ import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 
 /** A wrapper for a fully synchronized cache access. */
-// TODO we should use more fine-grained locking implementation
 public class BAMCacheSynchronized implements BAMCache {
 
   private final BAMCache cache;
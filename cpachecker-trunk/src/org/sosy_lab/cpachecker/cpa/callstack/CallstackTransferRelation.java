@@ -166,8 +166,11 @@ public class CallstackTransferRelation extends SingleEdgeTransferRelation {
         if (hasRecursion(e, calledFunction)) {
           if (skipRecursiveFunctionCall(e, (FunctionCallEdge)pEdge)) {
             // skip recursion, don't enter function
-            logger.logOnce(Level.WARNING, "Skipping recursive function call from",
-                pred.getFunctionName(), "to", calledFunction);
+            synchronized (logger) {
+              // the set of already logged messages is not thread-safe
+              logger.logOnce(Level.WARNING, "Skipping recursive function call from",
+                  pred.getFunctionName(), "to", calledFunction);
+            }
             return Collections.emptySet();
           } else {
             // recursion is unsupported
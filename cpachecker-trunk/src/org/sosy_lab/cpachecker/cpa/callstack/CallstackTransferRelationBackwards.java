@@ -112,9 +112,12 @@ public class CallstackTransferRelationBackwards extends CallstackTransferRelatio
       CFANode correspondingCallNode = edge.getSummaryEdge().getPredecessor();
         if (hasRecursion(e, nextAnalysisFunction)) {
           if (skipRecursion) {
-            logger.logOnce(
-                Level.WARNING, "Skipping recursive function call from",
-                prevAnalysisFunction, "to", nextAnalysisFunction);
+            synchronized (logger) {
+              // the set of already logged messages is not thread-safe
+              logger.logOnce(
+                  Level.WARNING, "Skipping recursive function call from",
+                  prevAnalysisFunction, "to", nextAnalysisFunction);
+            }
 
             return Collections.emptySet();
           } else {
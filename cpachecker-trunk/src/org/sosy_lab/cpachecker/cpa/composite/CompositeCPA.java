@@ -53,6 +53,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperCPA;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
@@ -61,7 +62,9 @@ import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
-public class CompositeCPA implements StatisticsProvider, WrapperCPA, ConfigurableProgramAnalysisWithBAM, ProofChecker {
+public class CompositeCPA
+    implements StatisticsProvider, WrapperCPA, ConfigurableProgramAnalysisWithBAM, ProofChecker,
+        ThreadSafeConfigurableProgramAnalysis {
 
   @Options(prefix="cpa.composite")
   private static class CompositeOptions {
@@ -314,6 +317,15 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
     return cpas;
   }
 
+  @Override
+  public boolean hasThreadSafeOperators() {
+    return from(cpas)
+        .allMatch(
+            cpa ->
+                cpa instanceof ThreadSafeConfigurableProgramAnalysis
+                    && ((ThreadSafeConfigurableProgramAnalysis) cpa).hasThreadSafeOperators());
+  }
+
   @Override
   public boolean areAbstractSuccessors(AbstractState pElement, CFAEdge pCfaEdge, Collection<? extends AbstractState> pSuccessors) throws CPATransferException, InterruptedException {
     return getTransferRelation().areAbstractSuccessors(pElement, pCfaEdge, pSuccessors, cpas);
@@ -29,15 +29,20 @@ import com.google.common.collect.ImmutableList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import org.sosy_lab.cpachecker.core.defaults.ProjectingCoverageIndex;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndex;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.IndexedStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.SummarizingStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
-class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator {
+class CompositeStopOperator
+    implements SummarizingStopOperator, IndexedStopOperator, ForcedCoveringStopOperator {
 
   private final ImmutableList<StopOperator> stopOperators;
 
@@ -79,6 +84,46 @@ class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator
     return true;
   }
 
+  /**
+   * The summary of a composite state combines the summaries of all components whose stop operator
+   * provides summaries. The component summaries are rotated by different distances such that equal
+   * summaries of different components do not always share the same bits.
+   */
+  @Override
+  public long getCoverageSummary(AbstractState pState) {
+    List<AbstractState> states = ((CompositeState) pState).getWrappedStates();
+    long summary = 0;
+    for (int idx = 0; idx < states.size(); idx++) {
+      StopOperator stopOp = stopOperators.get(idx);
+      if (stopOp instanceof SummarizingStopOperator) {
+        long componentSummary =
+            ((SummarizingStopOperator) stopOp).getCoverageSummary(states.get(idx));
+        summary |= Long.rotateLeft(componentSummary, 17 * idx);
+      }
+    }
+    return summary;
+  }
+
+  /**
+   * A reached state can only cover a new state if all component stop operators say so, thus it is
+   * sufficient to index the states by the first component that provides an index.
+   */
+  @Override
+  public CoverageIndex createCoverageIndex() {
+    for (int idx = 0; idx < stopOperators.size(); idx++) {
+      StopOperator stopOp = stopOperators.get(idx);
+      if (stopOp instanceof IndexedStopOperator) {
+        CoverageIndex index = ((IndexedStopOperator) stopOp).createCoverageIndex();
+        if (index != null) {
+          final int componentIndex = idx;
+          return new ProjectingCoverageIndex(
+              index, s -> ((CompositeState) s).getWrappedStates().get(componentIndex));
+        }
+      }
+    }
+    return null;
+  }
+
   boolean isCoveredBy(AbstractState pElement, AbstractState pOtherElement, List<ConfigurableProgramAnalysis> cpas) throws CPAException, InterruptedException {
     CompositeState compositeState = (CompositeState)pElement;
     CompositeState compositeOtherElement = (CompositeState)pOtherElement;
@@ -53,7 +53,7 @@ public class AssumeEdgesInPathConditionState
     return PreventingHeuristic.ASSUMEEDGESINPATH.getFormula(pMgr, assumeEdgesInPath);
   }
 
-  int getPathLength() {
+  public int getPathLength() {
     return assumeEdgesInPath;
   }
 
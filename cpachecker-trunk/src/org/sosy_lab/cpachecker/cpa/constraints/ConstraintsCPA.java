@@ -78,7 +78,7 @@ public class ConstraintsCPA
   private AbstractDomain abstractDomain;
   private MergeOperator mergeOperator;
   private StopOperator stopOperator;
-  private TransferRelation transferRelation;
+  private ConstraintsTransferRelation transferRelation;
   private ConstraintsPrecisionAdjustment precisionAdjustment;
   private ConstraintsPrecision precision;
 
@@ -190,10 +190,16 @@ public class ConstraintsCPA
     if (mergeOperator instanceof Statistics) {
       statsCollection.add((Statistics) mergeOperator);
     }
+    if (transferRelation.getProverStack() != null) {
+      statsCollection.add(transferRelation.getProverStack());
+    }
   }
 
   @Override
   public void close() {
+    if (transferRelation.getProverStack() != null) {
+      transferRelation.getProverStack().close();
+    }
     solver.close();
   }
 }
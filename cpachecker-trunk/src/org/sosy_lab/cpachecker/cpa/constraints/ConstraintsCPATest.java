@@ -0,0 +1,147 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Tests that symbolic execution gives the same verdicts with and without the incremental
+ * satisfiability checks of {@link ConstraintsTransferRelation}.
+ */
+public class ConstraintsCPATest {
+
+  private static final String NONDET = "extern int __VERIFIER_nondet_int(void);";
+
+  @Test
+  public void testInfeasibleConstraints() throws Exception {
+    assertSameVerdicts(
+        Result.TRUE,
+        NONDET,
+        "int main() {",
+        "  int x = __VERIFIER_nondet_int();",
+        "  int y = __VERIFIER_nondet_int();",
+        "  if (x > 5) {",
+        "    if (y == x + 1) {",
+        "      if (y < 7) {",
+        "      ERROR:",
+        "        return 1;",
+        "      }",
+        "    }",
+        "  }",
+        "  return 0;",
+        "}");
+  }
+
+  @Test
+  public void testFeasibleConstraints() throws Exception {
+    assertSameVerdicts(
+        Result.FALSE,
+        NONDET,
+        "int main() {",
+        "  int x = __VERIFIER_nondet_int();",
+        "  int y = __VERIFIER_nondet_int();",
+        "  if (x > 5) {",
+        "    if (y == x + 1) {",
+        "      if (y < 8) {",
+        "      ERROR:",
+        "        return 1;",
+        "      }",
+        "    }",
+        "  }",
+        "  return 0;",
+        "}");
+  }
+
+  @Test
+  public void testDefiniteAssignments() throws Exception {
+    // the constraints on x and y are shared by many paths with different suffixes
+    assertSameVerdicts(
+        Result.TRUE,
+        NONDET,
+        "int main() {",
+        "  int x = __VERIFIER_nondet_int();",
+        "  int y = __VERIFIER_nondet_int();",
+        "  int z = __VERIFIER_nondet_int();",
+        "  if (x != 3) {",
+        "    return 0;",
+        "  }",
+        "  if (y == x * 2) {",
+        "    if (z > y) {",
+        "      if (z < 7) {",
+        "        if (z != 7 - x + 3) {",
+        "        ERROR:",
+        "          return 1;",
+        "        }",
+        "      }",
+        "    } else if (y != 6) {",
+        "      goto ERROR;",
+        "    }",
+        "  }",
+        "  return 0;",
+        "}");
+  }
+
+  private void assertSameVerdicts(Result pExpected, String... pProgram) throws Exception {
+    Path program = TempFile.builder().prefix("constraints").suffix(".c").create();
+    try {
+      Files.write(program, ImmutableList.copyOf(pProgram), StandardCharsets.US_ASCII);
+
+      Result nonIncremental = run(program, false, 100000);
+      Result incremental = run(program, true, 100000);
+      // a cache that can only hold a single formula evicts on every check
+      Result smallCache = run(program, true, 1);
+
+      assertThat(nonIncremental).isEqualTo(pExpected);
+      assertThat(incremental).isEqualTo(nonIncremental);
+      assertThat(smallCache).isEqualTo(nonIncremental);
+
+    } finally {
+      Files.deleteIfExists(program);
+    }
+  }
+
+  private static Result run(Path pProgram, boolean pIncremental, int pCacheSize)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile("config/symbolicExecution.properties")
+            .setOption("specification", "config/specification/default.spc")
+            .setOption("cpa.constraints.incrementalSatChecks", Boolean.toString(pIncremental))
+            .setOption("cpa.constraints.incrementalSatCacheSize", Integer.toString(pCacheSize))
+            .build();
+    return CPATestRunner.run(config, pProgram.toString()).getCheckerResult().getResult();
+  }
+}
@@ -27,6 +27,7 @@ import com.google.common.collect.Iterables;
 
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -62,6 +63,7 @@ import org.sosy_lab.cpachecker.cpa.constraints.constraint.ConstraintFactory;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.ConstraintTrivialityChecker;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.IdentifierAssignment;
 import org.sosy_lab.cpachecker.cpa.constraints.domain.ConstraintsState;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.ProverStack;
 import org.sosy_lab.cpachecker.cpa.constraints.util.StateSimplifier;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
@@ -80,6 +82,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import javax.annotation.Nullable;
+
 /**
  * Transfer relation for Symbolic Execution Analysis.
  */
@@ -93,6 +97,24 @@ public class ConstraintsTransferRelation
       description = "When to check the satisfiability of constraints")
   private CheckStrategy checkStrategy = CheckStrategy.AT_ASSUME;
 
+  @Option(
+    secure = true,
+    description =
+        "Use one prover environment for the satisfiability checks of all states, such that only"
+            + " the constraints that differ from the previously checked state are pushed or"
+            + " popped, and cache the results of these checks"
+  )
+  private boolean incrementalSatChecks = false;
+
+  @Option(
+    secure = true,
+    description =
+        "maximum total size of the cached satisfiable and of the cached unsatisfiable results of"
+            + " the incremental satisfiability checks each, measured as the number of formulas and"
+            + " assigned identifiers in the cached results"
+  )
+  @IntegerOption(min = 0)
+  private int incrementalSatCacheSize = 100000;
 
   private final LogManagerWithoutDuplicates logger;
 
@@ -102,6 +124,7 @@ public class ConstraintsTransferRelation
   private FormulaManagerView formulaManager;
   private CtoFormulaConverter converter;
   private StateSimplifier simplifier;
+  private final @Nullable ProverStack proverStack;
 
   public ConstraintsTransferRelation(
       final Solver pSolver,
@@ -119,6 +142,8 @@ public class ConstraintsTransferRelation
 
     solver = pSolver;
     formulaManager = solver.getFormulaManager();
+    proverStack =
+        incrementalSatChecks ? new ProverStack(solver, incrementalSatCacheSize) : null;
     initializeCToFormulaConverter(pLogger, pConfig, pShutdownNotifier);
   }
 
@@ -210,7 +235,7 @@ public class ConstraintsTransferRelation
 
     final IdentifierAssignment definiteAssignment = pOldState.getDefiniteAssignment();
     FormulaCreator formulaCreator = getFormulaCreator(pFunctionName);
-    newState.initialize(solver, formulaManager, formulaCreator);
+    newState.initialize(solver, formulaManager, formulaCreator, proverStack);
 
     if (oNewConstraint.isPresent()) {
       final Constraint newConstraint = oNewConstraint.get();
@@ -238,6 +263,12 @@ public class ConstraintsTransferRelation
     return pOldState;
   }
 
+  /** Returns the prover stack shared by all states, or <code>null</code> if none is used. */
+  @Nullable
+  ProverStack getProverStack() {
+    return proverStack;
+  }
+
   private FormulaCreator getFormulaCreator(String pFunctionName) {
     return new FormulaCreatorUsingCConverter(formulaManager, getConverter(), pFunctionName);
   }
@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.cpa.constraints.domain;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Joiner;
+import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.cpa.constraints.FormulaCreator;
@@ -79,6 +80,7 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
 
   private Solver solver;
   private ProverEnvironment prover;
+  private @Nullable ProverStack proverStack;
   private FormulaCreator formulaCreator;
   private FormulaManagerView formulaManager;
   private SymbolicIdentifierLocator locator;
@@ -121,6 +123,7 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     constraintFormulas = new HashMap<>(pState.constraintFormulas);
     solver = pState.solver;
     prover = pState.prover;
+    proverStack = pState.proverStack;
     formulaCreator = pState.formulaCreator;
     formulaManager = pState.formulaManager;
     locator = pState.locator;
@@ -262,9 +265,23 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
    * @param pFormulaCreator the formula creator to use for creating <code>Formula</code>s
    */
   public void initialize(Solver pSolver, FormulaManagerView pFormulaManager, FormulaCreator pFormulaCreator) {
+    initialize(pSolver, pFormulaManager, pFormulaCreator, null);
+  }
+
+  /**
+   * Initializes this state like {@link #initialize(Solver, FormulaManagerView, FormulaCreator)}.
+   * If a {@link ProverStack} is given, SAT checks reuse its prover environment instead of creating
+   * a new one for each check.
+   */
+  public void initialize(
+      Solver pSolver,
+      FormulaManagerView pFormulaManager,
+      FormulaCreator pFormulaCreator,
+      @Nullable ProverStack pProverStack) {
     solver = pSolver;
     formulaManager = pFormulaManager;
     formulaCreator = pFormulaCreator;
+    proverStack = pProverStack;
   }
 
   /**
@@ -274,6 +291,9 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
    * @return <code>true</code> if this state is unsatisfiable, <code>false</code> otherwise
    */
   public boolean isUnsat() throws SolverException, InterruptedException, UnrecognizedCCodeException {
+    if (proverStack != null && !constraints.isEmpty()) {
+      return isUnsatIncrementally();
+    }
     boolean unsat = false;
 
     try {
@@ -301,6 +321,56 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     return unsat;
   }
 
+  private boolean isUnsatIncrementally()
+      throws SolverException, InterruptedException, UnrecognizedCCodeException {
+    createMissingConstraintFormulas();
+    List<BooleanFormula> formulas = new ArrayList<>(constraints.size());
+    for (Constraint c : constraints) {
+      formulas.add(constraintFormulas.get(c));
+    }
+    Set<BooleanFormula> formulaSet = new HashSet<>(formulas);
+
+    if (proverStack.isKnownUnsat(formulaSet)) {
+      definiteAssignment = null;
+      return true;
+    }
+    IdentifierAssignment knownDefinites =
+        proverStack.getKnownDefiniteAssignment(formulaSet, definiteAssignment);
+    if (knownDefinites != null) {
+      IdentifierAssignment oldDefinites = definiteAssignment;
+      definiteAssignment = knownDefinites;
+      updateOldFormulasDefinitesAppearIn(oldDefinites, definiteAssignment);
+      return false;
+    }
+
+    proverStack.getCheckTime().start();
+    boolean completed = false;
+    try {
+      // the prover is shared, so it must not be closed after the check
+      prover = proverStack.assertExactly(formulas);
+      boolean unsat = prover.isUnsat();
+
+      if (unsat) {
+        proverStack.cacheUnsat(formulaSet);
+        definiteAssignment = null;
+      } else {
+        IdentifierAssignment oldDefinites = new IdentifierAssignment(definiteAssignment);
+        resolveDefiniteAssignments();
+        proverStack.cacheSat(formulaSet, oldDefinites, definiteAssignment);
+      }
+      completed = true;
+      return unsat;
+
+    } finally {
+      if (!completed) {
+        // levels pushed during the check may not have been popped again
+        proverStack.reset();
+      }
+      prover = null;
+      proverStack.getCheckTime().stop();
+    }
+  }
+
   private void closeProver() {
     if (prover != null) {
       prover.close();
@@ -0,0 +1,214 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.constraints.constraint.IdentifierAssignment;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+
+/**
+ * Prover environment that is shared by the satisfiability checks of all {@link ConstraintsState}s
+ * of an analysis.
+ *
+ * <p>The formula of each constraint is pushed on its own level of the prover stack. Because
+ * successor states usually only add constraints to the constraints of their parent, a check only
+ * pops the formulas that are not shared with the previously checked state and pushes the formulas
+ * that are new. The results of checks are cached per set of formulas and known definite
+ * assignment. The caches are bounded by the total size of their entries (the number of formulas
+ * and of assigned identifiers), such that few large sets of formulas cannot occupy more memory
+ * than many small ones.
+ *
+ * <p>If a check is aborted, e.g., by a {@link org.sosy_lab.java_smt.api.SolverException} or an
+ * {@link InterruptedException}, the levels of the prover may not match the formulas known to be on
+ * the stack anymore. The check then has to call {@link #reset()}, which discards the prover
+ * environment. The next check creates a new one.
+ */
+public class ProverStack implements Statistics, AutoCloseable {
+
+  private final Solver solver;
+  private @Nullable ProverEnvironment prover = null;
+
+  /** The formulas currently on the prover stack, one formula per level. */
+  private final List<BooleanFormula> stack = new ArrayList<>();
+
+  /** Definite assignments after the check of satisfiable formula sets. */
+  private final Cache<Pair<Set<BooleanFormula>, IdentifierAssignment>, IdentifierAssignment>
+      satCache;
+
+  private final Cache<Set<BooleanFormula>, Boolean> unsatCache;
+
+  // Statistics
+  private int checks = 0;
+  private int cacheHits = 0;
+  private int pushedFormulas = 0;
+  private int poppedFormulas = 0;
+  private int resets = 0;
+  private final Timer checkTime = new Timer();
+
+  /**
+   * @param pSolver the solver to create the prover environment with
+   * @param pMaxCacheSize the maximum total size of the cached satisfiable and of the cached
+   *     unsatisfiable results each, measured as the number of formulas and assigned identifiers
+   *     (plus one per entry)
+   */
+  public ProverStack(Solver pSolver, int pMaxCacheSize) {
+    checkArgument(pMaxCacheSize >= 0, "negative cache size %s", pMaxCacheSize);
+    solver = pSolver;
+    satCache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(pMaxCacheSize)
+            .<Pair<Set<BooleanFormula>, IdentifierAssignment>, IdentifierAssignment>weigher(
+                (key, value) -> 1 + key.getFirst().size() + key.getSecond().size() + value.size())
+            .build();
+    unsatCache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(pMaxCacheSize)
+            .<Set<BooleanFormula>, Boolean>weigher((key, value) -> 1 + key.size())
+            .build();
+  }
+
+  /**
+   * Returns the prover environment with exactly the given formulas asserted, in the given order.
+   * Formulas that the caller pushes on top of them have to be popped again before the next call.
+   */
+  ProverEnvironment assertExactly(List<BooleanFormula> pFormulas) throws InterruptedException {
+    if (prover == null) {
+      prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+    }
+
+    int shared = 0;
+    while (shared < stack.size()
+        && shared < pFormulas.size()
+        && stack.get(shared).equals(pFormulas.get(shared))) {
+      shared++;
+    }
+
+    while (stack.size() > shared) {
+      prover.pop();
+      stack.remove(stack.size() - 1);
+      poppedFormulas++;
+    }
+    for (BooleanFormula formula : pFormulas.subList(shared, pFormulas.size())) {
+      prover.push(formula);
+      stack.add(formula);
+      pushedFormulas++;
+    }
+    return prover;
+  }
+
+  /** Returns whether the given formulas are known to be unsatisfiable. */
+  boolean isKnownUnsat(Set<BooleanFormula> pFormulas) {
+    checks++;
+    if (unsatCache.getIfPresent(pFormulas) != null) {
+      cacheHits++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the definite assignment computed for the given satisfiable formulas and previous
+   * definite assignment, or <code>null</code> if none is known.
+   */
+  @Nullable
+  IdentifierAssignment getKnownDefiniteAssignment(
+      Set<BooleanFormula> pFormulas, IdentifierAssignment pPreviousAssignment) {
+    IdentifierAssignment result = satCache.getIfPresent(Pair.of(pFormulas, pPreviousAssignment));
+    if (result != null) {
+      cacheHits++;
+      return new IdentifierAssignment(result);
+    }
+    return null;
+  }
+
+  void cacheUnsat(Set<BooleanFormula> pFormulas) {
+    unsatCache.put(ImmutableSet.copyOf(pFormulas), Boolean.TRUE);
+  }
+
+  void cacheSat(
+      Set<BooleanFormula> pFormulas,
+      IdentifierAssignment pPreviousAssignment,
+      IdentifierAssignment pDefiniteAssignment) {
+    satCache.put(
+        Pair.of(ImmutableSet.copyOf(pFormulas), new IdentifierAssignment(pPreviousAssignment)),
+        new IdentifierAssignment(pDefiniteAssignment));
+  }
+
+  Timer getCheckTime() {
+    return checkTime;
+  }
+
+  /**
+   * Discards the prover environment and the formulas on its stack, such that the next check starts
+   * with a new prover environment. Has to be called if a check was aborted and the stack may be out
+   * of sync with the prover. The cached results stay valid.
+   */
+  void reset() {
+    resets++;
+    close();
+  }
+
+  @Override
+  public void close() {
+    if (prover != null) {
+      prover.close();
+      prover = null;
+    }
+    stack.clear();
+  }
+
+  @Override
+  public void printStatistics(
+      final PrintStream pOut, final Result pResult, final UnmodifiableReachedSet pReached) {
+    pOut.println("Number of satisfiability checks of constraints: " + checks);
+    pOut.println("Number of cached satisfiability results used: " + cacheHits);
+    pOut.println("Number of formulas pushed on prover stack: " + pushedFormulas);
+    pOut.println("Number of formulas popped from prover stack: " + poppedFormulas);
+    pOut.println("Number of prover stack resets after aborted checks: " + resets);
+    pOut.println("Time for satisfiability checks of constraints: " + checkTime);
+  }
+
+  @Nullable
+  @Override
+  public String getName() {
+    return ProverStack.class.getSimpleName();
+  }
+}
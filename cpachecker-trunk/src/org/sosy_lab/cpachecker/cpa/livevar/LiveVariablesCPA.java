@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.livevar;
 
 import com.google.common.base.Equivalence.Wrapper;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -41,6 +42,7 @@ import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.util.dataflow.NodeBitSets;
 
 @Options
 public class LiveVariablesCPA extends AbstractCPA {
@@ -91,4 +93,17 @@ public class LiveVariablesCPA extends AbstractCPA {
     return ((LiveVariablesTransferRelation) getTransferRelation()).getLiveVariables();
   }
 
+  /**
+   * Returns the liveVariables that are currently computed as bit sets over the positions in {@link
+   * #getDeclarations()}. Calling this method makes only sense if the analysis was completed
+   */
+  public NodeBitSets getLiveVariableBits() {
+    return ((LiveVariablesTransferRelation) getTransferRelation()).getLiveVariableBits();
+  }
+
+  /** Returns all declarations of the CFA, sorted by their qualified name. */
+  public ImmutableList<Wrapper<ASimpleDeclaration>> getDeclarations() {
+    return ((LiveVariablesTransferRelation) getTransferRelation()).getDeclarations();
+  }
+
 }
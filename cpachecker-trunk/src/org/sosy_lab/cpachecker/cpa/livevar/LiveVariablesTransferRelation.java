@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.livevar;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static org.sosy_lab.cpachecker.util.LiveVariables.LIVE_DECL_EQUIVALENCE;
 
 import com.google.common.base.Equivalence.Wrapper;
@@ -32,7 +33,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Ordering;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -45,6 +48,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
@@ -88,10 +92,14 @@ import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
 import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
 import org.sosy_lab.cpachecker.core.defaults.ForwardingTransferRelation;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.sosy_lab.cpachecker.util.LiveVariables;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflow;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflow.Direction;
+import org.sosy_lab.cpachecker.util.dataflow.NodeBitSets;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
 
 /**
@@ -103,6 +111,12 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
 
   private final Map<CFANode, BitSet> liveVariables = new HashMap<>();
 
+  /**
+   * Whether the successors are recorded in {@link #liveVariables}. This is not necessary if the
+   * dataflow analysis stores the result itself.
+   */
+  private boolean recordLiveVariables = true;
+
   @Option(secure=true, description="With this option the handling of global variables"
       + " during the analysis can be fine-tuned. For example while doing a function-wise"
       + " analysis it is important to assume that all global variables are live. In contrast"
@@ -171,10 +185,6 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
       }
     }
 
-    for (CFANode node : pCFA.getAllNodes()) {
-      liveVariables.put(node, new BitSet(noVars));
-    }
-
     addressedOrGlobalVars = (BitSet) addressedVars.clone();
     addressedOrGlobalVars.or(globalVars);
   }
@@ -196,7 +206,9 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
             LiveVariables.LIVE_DECL_EQUIVALENCE.wrap(returnVarName.get());
 
         int wrappedVarPos = declarationListPos.get(wrappedVar);
-        liveVariables.get(pNode).set(wrappedVarPos);
+        if (recordLiveVariables) {
+          getLiveVariablesOf(pNode).set(wrappedVarPos);
+        }
 
         BitSet out = new BitSet(noVars);
         out.set(wrappedVarPos);
@@ -243,7 +255,57 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
         }
       }
     }
-    return ImmutableList.copyOf(allDecls);
+    // sorted by name for a deterministic numbering of the declarations
+    return Ordering.natural()
+        .onResultOf(LiveVariables.FROM_EQUIV_WRAPPER_TO_STRING)
+        .immutableSortedCopy(allDecls);
+  }
+
+  /**
+   * Returns all declarations of the CFA, sorted by their qualified name. The position of a
+   * declaration in this list is the bit that represents it in the bit sets of this analysis.
+   */
+  public ImmutableList<Wrapper<ASimpleDeclaration>> getDeclarations() {
+    return allDeclarations;
+  }
+
+  /**
+   * Computes the live variables of all nodes with a backward bit-vector analysis that does not
+   * follow function calls, i.e., the same result as a complete function-wise analysis with this
+   * transfer relation, but without the overhead of a CPA algorithm.
+   *
+   * @return the live variables of each node, as positions in {@link #getDeclarations()}
+   */
+  public NodeBitSets computeFunctionWiseLiveVariables(ShutdownNotifier pShutdownNotifier)
+      throws CPATransferException, InterruptedException {
+    // the result is stored by the dataflow analysis, the per-node map stays empty
+    checkState(liveVariables.isEmpty(), "live variables were already computed by a CPA analysis");
+    recordLiveVariables = false;
+
+    BitVectorDataflow dataflow = new BitVectorDataflow(cfa.getAllNodes(), Direction.BACKWARD);
+    for (FunctionEntryNode entryNode : cfa.getAllFunctionHeads()) {
+      FunctionExitNode exitNode = entryNode.getExitNode();
+      if (cfa.getAllNodes().contains(exitNode)) {
+        dataflow.addInitialBits(exitNode, getInitialState(exitNode).getDataCopy());
+      }
+    }
+
+    Precision precision = SingletonPrecision.getInstance();
+    return dataflow.solve(
+        node ->
+            CFAUtils.allEnteringEdges(node)
+                .filter(
+                    edge -> !(edge instanceof FunctionCallEdge || edge instanceof FunctionReturnEdge)),
+        (edge, in) -> {
+          Collection<LiveVariablesState> successors =
+              getAbstractSuccessorsForEdge(
+                  LiveVariablesState.ofUnique(BitSet.valueOf(in), this), precision, edge);
+          if (successors.isEmpty()) {
+            return null;
+          }
+          return Iterables.getOnlyElement(successors).getDataCopy().toLongArray();
+        },
+        pShutdownNotifier);
   }
 
   @Override
@@ -253,10 +315,16 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
     }
 
     // live variables of multiedges were handled separately.
-    liveVariables.get(edge.getPredecessor()).or(successor.getDataCopy());
+    if (recordLiveVariables) {
+      getLiveVariablesOf(edge.getPredecessor()).or(successor.getDataCopy());
+    }
     return Collections.singleton(successor);
   }
 
+  private BitSet getLiveVariablesOf(CFANode pNode) {
+    return liveVariables.computeIfAbsent(pNode, node -> new BitSet(noVars));
+  }
+
 
   @Override
   protected  LiveVariablesState handleAssumption(
@@ -418,14 +486,24 @@ public class LiveVariablesTransferRelation extends ForwardingTransferRelation<Li
    * @return a Multimap containing the variables that are live at each location
    */
   public Multimap<CFANode, Wrapper<ASimpleDeclaration>> getLiveVariables() {
+    checkState(recordLiveVariables, "live variables are only recorded for the CPA analysis");
     ImmutableMultimap.Builder<CFANode, Wrapper<ASimpleDeclaration>> builder =
         ImmutableMultimap.builder();
     for (CFANode node : cfa.getAllNodes()) {
-      builder.putAll(node, dataToVars(liveVariables.get(node)));
+      builder.putAll(node, dataToVars(liveVariables.getOrDefault(node, new BitSet())));
     }
     return builder.build();
   }
 
+  /**
+   * Returns the liveVariables that are currently computed as bit sets over the positions in {@link
+   * #getDeclarations()}. Calling this method makes only sense if the analysis was completed
+   */
+  public NodeBitSets getLiveVariableBits() {
+    checkState(recordLiveVariables, "live variables are only recorded for the CPA analysis");
+    return NodeBitSets.copyOf(liveVariables);
+  }
+
   Collection<Wrapper<ASimpleDeclaration>> dataToVars(BitSet data) {
     ArrayList<Wrapper<ASimpleDeclaration>> out = new ArrayList<>();
     for (int i = data.nextSetBit(0); i >= 0; i = data.nextSetBit(i + 1)) {
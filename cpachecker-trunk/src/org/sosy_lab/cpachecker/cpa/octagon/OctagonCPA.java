@@ -44,6 +44,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.octagon.JavaOctagonManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonFloatManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonIntManager;
 import org.sosy_lab.cpachecker.util.octagon.OctagonManager;
@@ -60,6 +61,11 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
           + " library will be changed between floats and ints.")
   private String octagonLibrary = "INT";
 
+  @Option(secure=true, name="octagonImplementation", toUppercase=true, values={"NATIVE", "JAVA"},
+      description="whether the octagon library written in C or the implementation"
+          + " in Java should be used. The latter does not need native libraries.")
+  private String octagonImplementation = "NATIVE";
+
   @Option(secure=true, name="initialPrecisionType", toUppercase=true, values={"STATIC_FULL", "REFINEABLE_EMPTY"},
       description="this option determines which initial precision should be used")
   private String precisionType = "STATIC_FULL";
@@ -85,7 +91,9 @@ public final class OctagonCPA implements ConfigurableProgramAnalysis {
     logger = log;
     OctagonDomain octagonDomain = new OctagonDomain(logger);
 
-    if (octagonLibrary.equals("FLOAT")) {
+    if (octagonImplementation.equals("JAVA")) {
+      octagonManager = new JavaOctagonManager(!octagonLibrary.equals("FLOAT"));
+    } else if (octagonLibrary.equals("FLOAT")) {
       octagonManager = new OctagonFloatManager();
     } else {
       octagonManager = new OctagonIntManager();
@@ -34,6 +34,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.Charset;
@@ -69,6 +70,8 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier.TrivialInvariantSupplier;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackStateEqualsWrapper;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache.Fingerprint;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage.AbstractionNode;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
@@ -105,6 +108,8 @@ public class PredicateAbstractionManager {
     public int numSatCheckAbstractions = 0; // precision was {false}, only sat check
     public int numCallsAbstractionCached = 0; // result was cached, no computation
     public int numInductivePathFormulaCacheUsed = 0; // loop was cached, no new computation
+    public int numPersistentCacheQueries = 0; // lookups in persistent cache
+    public int numPersistentCacheHits = 0; // result was in persistent cache, no computation
 
     public int numTotalPredicates = 0;
     public int maxPredicates = 0;
@@ -113,6 +118,7 @@ public class PredicateAbstractionManager {
     public int numInductivePredicates = 0;
     public int numCartesianAbsPredicates = 0;
     public int numCartesianAbsPredicatesCached = 0;
+    public int numCartesianAbsPredicatesPersistentlyCached = 0;
     public int numBooleanAbsPredicates = 0;
     public final Timer abstractionReuseTime = new Timer();
     public final StatTimer abstractionReuseImplicationTime = new StatTimer("Time for checking reusability of abstractions");
@@ -180,6 +186,20 @@ public class PredicateAbstractionManager {
       description="split each arithmetic equality into two inequalities when extracting predicates from interpolants")
   private boolean splitItpAtoms = false;
 
+  @Option(
+    secure = true,
+    name = "abstraction.persistentCache",
+    description =
+        "File for caching results of abstraction computations across runs"
+            + " (e.g., for regression verification of slightly changed programs)."
+            + " The file is read on startup if it exists and was written with the same solver"
+            + " and abstraction options, and it is rewritten when the analysis has finished."
+            + " Relative paths are resolved in the output directory."
+            + " Requires cpa.predicate.abs.useCache."
+  )
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable Path persistentCacheFile = null;
+
   @Option(secure=true, name = "abstraction.identifyTrivialPredicates",
       description="Identify those predicates where the result is trivially known before abstraction computation and omit them.")
   private boolean identifyTrivialPredicates = false;
@@ -203,6 +223,9 @@ public class PredicateAbstractionManager {
   // 1: predicate is true
   private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
+  // cache shared with previous and later runs, contains the above information
+  private final @Nullable PersistentAbstractionCache persistentCache;
+
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
       PathFormulaManager pPfmgr,
@@ -252,6 +275,28 @@ public class PredicateAbstractionManager {
       cartesianAbstractionCache = null;
     }
 
+    if (persistentCacheFile != null) {
+      if (!useCache) {
+        throw new InvalidConfigurationException(
+            "Persistent abstraction cache cannot be used without cpa.predicate.abs.useCache");
+      }
+      HashCode configFingerprint =
+          PersistentAbstractionCache.computeConfigFingerprint(
+              pConfig,
+              ImmutableList.of("cpa.predicate.abs", "solver."),
+              abstractionType,
+              solver.getVersion());
+      persistentCache =
+          new PersistentAbstractionCache(persistentCacheFile, configFingerprint, fmgr, logger);
+      logger.log(
+          Level.FINE,
+          "Loaded",
+          persistentCache.getNumberOfLoadedEntries(),
+          "entries from persistent abstraction cache");
+    } else {
+      persistentCache = null;
+    }
+
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
   }
 
@@ -290,6 +335,22 @@ public class PredicateAbstractionManager {
         noAbstractionReuse);
   }
 
+  /**
+   * Store the results of abstraction computations in the persistent cache file for later runs
+   * (if enabled). This is called when the CPA is closed, and for the main analysis, whose CPA is
+   * not closed, when the output files are written.
+   */
+  void closePersistentCache() {
+    if (persistentCache != null) {
+      persistentCache.close();
+    }
+  }
+
+  /** Return whether a persistent cache for abstraction computations is used. */
+  boolean usesPersistentCache() {
+    return persistentCache != null;
+  }
+
   public void clear() {
     if (useCache) {
       abstractionCache.clear();
@@ -362,6 +423,8 @@ public class PredicateAbstractionManager {
 
     // caching
     Pair<BooleanFormula, ImmutableSet<BooleanFormula>> absKey = null;
+    Fingerprint formulaFingerprint = null;
+    HashCode persistentKey = null;
     if (useCache) {
       ImmutableSet<BooleanFormula> instantiatedPreds =
           Collections3.transformedImmutableSetCopy(
@@ -394,6 +457,35 @@ public class PredicateAbstractionManager {
             bfmgr.makeFalse(), bfmgr.makeFalse(),
             pathFormula, noAbstractionReuse);
       }
+
+      if (persistentCache != null) {
+        stats.numPersistentCacheQueries++;
+        formulaFingerprint = persistentCache.getFingerprint(f);
+        persistentKey = persistentCache.getAbstractionKey(formulaFingerprint, absKey.getSecond());
+
+        if (persistentCache.isUnsat(formulaFingerprint)) {
+          logger.log(Level.FINEST, "Block feasibility of abstraction", stats.numCallsAbstraction, "was cached persistently and is false.");
+          stats.numPersistentCacheHits++;
+          stats.numCallsAbstractionCached++;
+          unsatisfiabilityCache.add(f);
+          return new AbstractionFormula(fmgr, rmgr.makeFalse(),
+              bfmgr.makeFalse(), bfmgr.makeFalse(),
+              pathFormula, noAbstractionReuse);
+        }
+
+        BooleanFormula cachedAbstraction = persistentCache.getAbstraction(persistentKey);
+        if (cachedAbstraction != null) {
+          result =
+              makeAbstractionFormula(
+                  amgr.convertFormulaToRegion(cachedAbstraction), ssa, pathFormula);
+          logger.log(Level.FINEST, "Abstraction", stats.numCallsAbstraction, "was cached persistently");
+          logger.log(Level.ALL, "Abstraction result is", result.asFormula());
+          stats.numPersistentCacheHits++;
+          stats.numCallsAbstractionCached++;
+          abstractionCache.put(absKey, result);
+          return result;
+        }
+      }
     }
 
 
@@ -443,6 +535,13 @@ public class PredicateAbstractionManager {
       if (result.isFalse()) {
         unsatisfiabilityCache.add(f);
       }
+
+      if (persistentCache != null) {
+        persistentCache.putAbstraction(persistentKey, result.asFormula());
+        if (result.isFalse()) {
+          persistentCache.putUnsat(formulaFingerprint);
+        }
+      }
     }
 
     long abstractionTime = TimeSpan.sum(stats.abstractionSolveTime.getLengthOfLastInterval(),
@@ -844,6 +943,9 @@ public class PredicateAbstractionManager {
       warnedOfCartesianAbstraction = true;
     }
 
+    final Fingerprint formulaFingerprint =
+        persistentCache != null ? persistentCache.getFingerprint(f) : null;
+
     stats.abstractionEnumTime.startOuter();
     try {
       Region absbdd = rmgr.makeTrue();
@@ -854,8 +956,21 @@ public class PredicateAbstractionManager {
       while (predicateIt.hasNext()) {
         final AbstractionPredicate p = predicateIt.next();
         Pair<BooleanFormula, AbstractionPredicate> cacheKey = Pair.of(f, p);
-        if (useCache && cartesianAbstractionCache.containsKey(cacheKey)) {
-          byte predVal = cartesianAbstractionCache.get(cacheKey);
+        Byte cachedPredVal = null;
+        if (useCache) {
+          cachedPredVal = cartesianAbstractionCache.get(cacheKey);
+          if (cachedPredVal == null && persistentCache != null) {
+            cachedPredVal =
+                persistentCache.getCartesianResult(
+                    formulaFingerprint, instantiator.apply(p.getSymbolicAtom()));
+            if (cachedPredVal != null) {
+              stats.numCartesianAbsPredicatesPersistentlyCached++;
+              cartesianAbstractionCache.put(cacheKey, cachedPredVal);
+            }
+          }
+        }
+        if (cachedPredVal != null) {
+          byte predVal = cachedPredVal;
           stats.numCartesianAbsPredicatesCached++;
 
           stats.abstractionEnumTime.getCurentInnerTimer().start();
@@ -919,6 +1034,9 @@ public class PredicateAbstractionManager {
           if (useCache) {
             cartesianAbstractionCache.put(cacheKey, predVal);
           }
+          if (persistentCache != null) {
+            persistentCache.putCartesianResult(formulaFingerprint, predTrue, predVal);
+          }
         }
       }
 
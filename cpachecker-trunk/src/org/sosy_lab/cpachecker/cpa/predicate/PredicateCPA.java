@@ -159,7 +159,7 @@ public class PredicateCPA
 
     PathFormulaManager pfMgr = new PathFormulaManagerImpl(formulaManager, config, logger, shutdownNotifier, cfa, direction);
     if (useCache) {
-      pfMgr = new CachingPathFormulaManager(pfMgr);
+      pfMgr = new CachingPathFormulaManager(pfMgr, config);
     }
     pathFormulaManager = pfMgr;
 
@@ -324,6 +324,7 @@ public class PredicateCPA
 
   @Override
   public void close() {
+    predicateManager.closePersistentCache();
     solver.close();
   }
 
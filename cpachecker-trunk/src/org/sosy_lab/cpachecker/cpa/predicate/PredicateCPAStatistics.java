@@ -188,6 +188,12 @@ class PredicateCPAStatistics extends AbstractStatistics {
     return "PredicateCPA";
   }
 
+  @Override
+  public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
+    // the CPA of the main analysis is never closed, so store the persistent cache here
+    amgr.closePersistentCache();
+  }
+
   /**
    * TreeMap to sort output for the user and sets for no duplication.
    */
@@ -293,6 +299,9 @@ class PredicateCPAStatistics extends AbstractStatistics {
       out.println("  Times precision was empty:       " + valueWithPercentage(as.numSymbolicAbstractions, as.numCallsAbstraction));
       out.println("  Times precision was {false}:     " + valueWithPercentage(as.numSatCheckAbstractions, as.numCallsAbstraction));
       out.println("  Times result was cached:         " + valueWithPercentage(as.numCallsAbstractionCached, as.numCallsAbstraction));
+      if (amgr.usesPersistentCache()) {
+        out.println("  Times result was in file cache:  " + valueWithPercentage(as.numPersistentCacheHits, as.numPersistentCacheQueries));
+      }
       out.println("  Times cartesian abs was used:    " + valueWithPercentage(as.cartesianAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times boolean abs was used:      " + valueWithPercentage(as.booleanAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times result was 'false':        " + valueWithPercentage(prec.numAbstractionsFalse, prec.numAbstractions));
@@ -319,6 +328,9 @@ class PredicateCPAStatistics extends AbstractStatistics {
     out.println("Number of SMT sat checks:          " + solver.satChecks);
     out.println("  trivial:                         " + solver.trivialSatChecks);
     out.println("  cached:                          " + solver.cachedSatChecks);
+    if (solver.sharedCachedSatChecks > 0) {
+      out.println("  cached by other solvers:         " + solver.sharedCachedSatChecks);
+    }
     out.println();
     out.println("Max ABE block size:                       " + prec.maxBlockSize);
     out.println("Number of predicates discovered:          " + allDistinctPreds);
@@ -344,6 +356,9 @@ class PredicateCPAStatistics extends AbstractStatistics {
       }
       if (as.cartesianAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("Number of preds cached for cartesian abs: " + valueWithPercentage(as.numCartesianAbsPredicatesCached, as.numTotalPredicates));
+        if (amgr.usesPersistentCache()) {
+          out.println("  from file cache:                        " + valueWithPercentage(as.numCartesianAbsPredicatesPersistentlyCached, as.numCartesianAbsPredicatesCached));
+        }
         out.println("Number of preds solved by cartesian abs:  " + valueWithPercentage(as.numCartesianAbsPredicates, as.numTotalPredicates));
       }
       if (as.booleanAbstractionTime.getNumberOfIntervals() > 0) {
@@ -0,0 +1,413 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Cache for results of abstraction computations that is stored in a file and can be reused in
+ * later runs, e.g., when re-verifying a slightly changed program.
+ *
+ * <p>Formulas are identified by a fingerprint of their SMT-LIB representation, only the
+ * fingerprints and the abstraction results are stored. SSA indices are normalized before
+ * fingerprinting (cf. {@link #getFingerprint(BooleanFormula)}), because they change for all
+ * later code whenever a program is changed. The file header contains a fingerprint of the
+ * configuration (solver, abstraction options) that produced the entries, and files written with a
+ * different configuration are ignored. The file is read when the cache is created and rewritten
+ * by {@link #close()} if new entries were added.
+ */
+public final class PersistentAbstractionCache implements AutoCloseable {
+
+  private static final int MAGIC = 0x43504143; // "CPAC"
+  private static final int VERSION = 3;
+
+  private static final byte ABSTRACTION = 0;
+  private static final byte UNSAT = 1;
+  private static final byte CARTESIAN = 2;
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private final Path file;
+  private final HashCode configFingerprint;
+  private final FormulaManagerView fmgr;
+  private final LogManager logger;
+
+  private final Map<HashCode, String> abstractions = new HashMap<>();
+  private final Set<HashCode> unsatFormulas = new HashSet<>();
+  private final Map<HashCode, Byte> cartesianResults = new HashMap<>();
+
+  private final int loadedEntries;
+  private boolean modified = false;
+
+  /**
+   * Create a cache that is backed by the given file. If the file exists and was written with the
+   * same configuration fingerprint, its content is loaded, otherwise the cache is initially empty.
+   *
+   * @param pConfigFingerprint A fingerprint of all settings that influence the cached results.
+   */
+  public PersistentAbstractionCache(
+      Path pFile, HashCode pConfigFingerprint, FormulaManagerView pFmgr, LogManager pLogger) {
+    file = pFile;
+    configFingerprint = pConfigFingerprint;
+    fmgr = pFmgr;
+    logger = pLogger;
+
+    if (Files.isRegularFile(file)) {
+      try {
+        load();
+      } catch (IOException | IllegalArgumentException e) {
+        logger.logUserException(
+            Level.WARNING, e, "Could not read persistent abstraction cache, starting with empty cache");
+        abstractions.clear();
+        unsatFormulas.clear();
+        cartesianResults.clear();
+      }
+    }
+    loadedEntries = size();
+  }
+
+  /**
+   * Create the fingerprint of the configuration for a cache, from the relevant options of the
+   * configuration and other settings that influence the results.
+   */
+  public static HashCode computeConfigFingerprint(
+      Configuration pConfig, Iterable<String> pRelevantOptions, Object... pOtherSettings) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    String[] configLines = pConfig.asPropertiesString().split("\n");
+    Arrays.sort(configLines);
+    for (String line : configLines) {
+      String option = line.trim();
+      if (Iterables.any(pRelevantOptions, option::startsWith)) {
+        hasher.putInt(option.length()).putString(option, StandardCharsets.UTF_8);
+      }
+    }
+    for (Object setting : pOtherSettings) {
+      String value = String.valueOf(setting);
+      hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+    }
+    return hasher.hash();
+  }
+
+  private void load() throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IllegalArgumentException("File " + file + " has unsupported format");
+      }
+
+      byte[] hash = new byte[HASH_FUNCTION.bits() / Byte.SIZE];
+      in.readFully(hash);
+      if (!configFingerprint.equals(HashCode.fromBytes(hash))) {
+        logger.log(
+            Level.INFO,
+            "Ignoring persistent abstraction cache",
+            file,
+            "because it was created with a different configuration.");
+        return;
+      }
+
+      int type;
+      while ((type = in.read()) != -1) {
+        in.readFully(hash);
+        HashCode key = HashCode.fromBytes(hash);
+
+        switch (type) {
+          case ABSTRACTION:
+            byte[] formula = new byte[in.readInt()];
+            in.readFully(formula);
+            abstractions.put(key, new String(formula, StandardCharsets.UTF_8));
+            break;
+          case UNSAT:
+            unsatFormulas.add(key);
+            break;
+          case CARTESIAN:
+            cartesianResults.put(key, in.readByte());
+            break;
+          default:
+            throw new IllegalArgumentException("File " + file + " contains invalid entry");
+        }
+      }
+    }
+  }
+
+  /**
+   * Compute the fingerprint of a formula that identifies it across runs. The SSA index of each
+   * variable is replaced by its offset to the lowest index of this variable in the formula, such
+   * that the formulas of code that was not changed have the same fingerprint even if the SSA
+   * indices are shifted by changes in earlier code.
+   */
+  public Fingerprint getFingerprint(BooleanFormula pFormula) {
+    Map<String, Integer> baseIndices = new HashMap<>();
+    for (String name : fmgr.extractFunctionNames(pFormula)) {
+      int sep = getIndexSeparator(name);
+      if (sep != -1) {
+        baseIndices.merge(
+            name.substring(0, sep), Integer.parseInt(name.substring(sep + 1)), Math::min);
+      }
+    }
+    return new Fingerprint(hash(pFormula, baseIndices), baseIndices);
+  }
+
+  /**
+   * Hash a formula after replacing the SSA indices by their offset to the given base indices.
+   * Variables without base index are kept unchanged.
+   */
+  private HashCode hash(BooleanFormula pFormula, Map<String, Integer> pBaseIndices) {
+    Function<String, String> normalize =
+        name -> {
+          int sep = getIndexSeparator(name);
+          if (sep == -1) {
+            return name;
+          }
+          Integer base = pBaseIndices.get(name.substring(0, sep));
+          if (base == null) {
+            return name;
+          }
+          return name.substring(0, sep + 1) + (Integer.parseInt(name.substring(sep + 1)) - base);
+        };
+    BooleanFormula normalized = fmgr.renameFreeVariablesAndUFs(pFormula, normalize);
+    return HASH_FUNCTION.hashString(
+        fmgr.dumpFormula(normalized).toString(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Return the position of the '@' that separates the name of an instantiated variable from its
+   * SSA index, or -1 if the given name has no SSA index.
+   */
+  private static int getIndexSeparator(String pName) {
+    int sep = pName.lastIndexOf('@');
+    if (sep == -1 || sep == pName.length() - 1) {
+      return -1;
+    }
+    for (int i = sep + 1; i < pName.length(); i++) {
+      if (!Character.isDigit(pName.charAt(i))) {
+        return -1;
+      }
+    }
+    return sep;
+  }
+
+  /**
+   * Compute the key for an abstraction of a formula with a set of (instantiated) predicates. The
+   * key does not depend on the order of the predicates.
+   */
+  public HashCode getAbstractionKey(
+      Fingerprint pFormulaFingerprint, Collection<BooleanFormula> pPredicates) {
+    List<String> predicates = new ArrayList<>(pPredicates.size());
+    for (BooleanFormula predicate : pPredicates) {
+      predicates.add(hash(predicate, pFormulaFingerprint.baseIndices).toString());
+    }
+    Collections.sort(predicates);
+
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    hasher.putBytes(pFormulaFingerprint.hash.asBytes());
+    for (String predicate : predicates) {
+      hasher.putString(predicate, StandardCharsets.US_ASCII);
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Return the uninstantiated abstraction formula stored for the given key, or null if there is
+   * none (or it cannot be parsed).
+   */
+  public synchronized @Nullable BooleanFormula getAbstraction(HashCode pKey) {
+    String formula = abstractions.get(pKey);
+    if (formula == null) {
+      return null;
+    }
+    try {
+      return fmgr.parse(formula);
+    } catch (IllegalArgumentException e) {
+      logger.logDebugException(e, "Could not parse abstraction from persistent cache");
+      abstractions.remove(pKey);
+      modified = true;
+      return null;
+    }
+  }
+
+  public synchronized void putAbstraction(HashCode pKey, BooleanFormula pAbstraction) {
+    if (abstractions.put(pKey, fmgr.dumpFormula(pAbstraction).toString()) == null) {
+      modified = true;
+    }
+  }
+
+  public synchronized boolean isUnsat(Fingerprint pFormulaFingerprint) {
+    return unsatFormulas.contains(pFormulaFingerprint.hash);
+  }
+
+  public synchronized void putUnsat(Fingerprint pFormulaFingerprint) {
+    modified |= unsatFormulas.add(pFormulaFingerprint.hash);
+  }
+
+  /**
+   * Return the value of an (instantiated) predicate in a formula as computed by cartesian
+   * abstraction (-1: false, 0: unknown, 1: true), or null if it is not known.
+   */
+  public synchronized @Nullable Byte getCartesianResult(
+      Fingerprint pFormulaFingerprint, BooleanFormula pPredicate) {
+    return cartesianResults.get(getCartesianKey(pFormulaFingerprint, pPredicate));
+  }
+
+  public synchronized void putCartesianResult(
+      Fingerprint pFormulaFingerprint, BooleanFormula pPredicate, byte pValue) {
+    if (cartesianResults.put(getCartesianKey(pFormulaFingerprint, pPredicate), pValue) == null) {
+      modified = true;
+    }
+  }
+
+  private HashCode getCartesianKey(Fingerprint pFormulaFingerprint, BooleanFormula pPredicate) {
+    return Hashing.combineOrdered(
+        ImmutableList.of(
+            pFormulaFingerprint.hash, hash(pPredicate, pFormulaFingerprint.baseIndices)));
+  }
+
+  public synchronized int size() {
+    return abstractions.size() + unsatFormulas.size() + cartesianResults.size();
+  }
+
+  public int getNumberOfLoadedEntries() {
+    return loadedEntries;
+  }
+
+  /**
+   * Write the content of the cache to its file if it was changed. The cache can still be used
+   * afterwards and closed again.
+   */
+  @Override
+  public void close() {
+    write();
+  }
+
+  /**
+   * Write the content of the cache to its file if it was changed. The content is written to a
+   * fresh temporary file next to the target that is then moved over the target (atomically if
+   * possible), such that concurrent runs neither see partially written files nor overwrite each
+   * other's temporary files.
+   */
+  private synchronized void write() {
+    if (!modified) {
+      return;
+    }
+    Path tmpFile = null;
+    try {
+      Path dir = file.toAbsolutePath().getParent();
+      Files.createDirectories(dir);
+      tmpFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.write(configFingerprint.asBytes());
+        for (Entry<HashCode, String> entry : abstractions.entrySet()) {
+          byte[] formula = entry.getValue().getBytes(StandardCharsets.UTF_8);
+          out.writeByte(ABSTRACTION);
+          out.write(entry.getKey().asBytes());
+          out.writeInt(formula.length);
+          out.write(formula);
+        }
+        for (HashCode key : unsatFormulas) {
+          out.writeByte(UNSAT);
+          out.write(key.asBytes());
+        }
+        for (Entry<HashCode, Byte> entry : cartesianResults.entrySet()) {
+          out.writeByte(CARTESIAN);
+          out.write(entry.getKey().asBytes());
+          out.writeByte(entry.getValue());
+        }
+      }
+      try {
+        Files.move(
+            tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      tmpFile = null;
+      modified = false;
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write persistent abstraction cache");
+    } finally {
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException e) {
+          logger.logDebugException(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * The fingerprint of a formula, together with the SSA indices that were used for normalizing it
+   * and that are also used for normalizing predicates for this formula.
+   */
+  public static final class Fingerprint {
+
+    private final HashCode hash;
+    private final ImmutableMap<String, Integer> baseIndices;
+
+    private Fingerprint(HashCode pHash, Map<String, Integer> pBaseIndices) {
+      hash = pHash;
+      baseIndices = ImmutableMap.copyOf(pBaseIndices);
+    }
+
+    @Override
+    public String toString() {
+      return hash.toString();
+    }
+  }
+}
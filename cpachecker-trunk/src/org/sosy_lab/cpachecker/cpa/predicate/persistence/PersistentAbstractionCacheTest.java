@@ -0,0 +1,121 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate.persistence;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.cpa.predicate.persistence.PersistentAbstractionCache.Fingerprint;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+public class PersistentAbstractionCacheTest extends SolverViewBasedTest0 {
+
+  private static final HashCode CONFIG = HashCode.fromLong(42);
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path file;
+
+  @Before
+  public void setUp() throws Exception {
+    file = tempFolder.getRoot().toPath().resolve("abstractions.cache");
+  }
+
+  private PersistentAbstractionCache createCache(HashCode pConfig) {
+    return new PersistentAbstractionCache(file, pConfig, mgrv, logger);
+  }
+
+  /** Create the formula <code>x@i = x@(i-1) + 1</code>. */
+  private BooleanFormula increment(int i) {
+    IntegerFormula next = imgrv.makeVariable("x", i);
+    IntegerFormula prev = imgrv.makeVariable("x", i - 1);
+    return imgrv.equal(next, imgrv.add(prev, imgrv.makeNumber(1)));
+  }
+
+  private BooleanFormula positive(int i) {
+    return imgrv.greaterThan(imgrv.makeVariable("x", i), imgrv.makeNumber(0));
+  }
+
+  @Test
+  public void testRoundTripThroughFile() throws Exception {
+    BooleanFormula abstraction = imgrv.greaterThan(imgrv.makeVariable("x"), imgrv.makeNumber(0));
+    BooleanFormula unsatFormula = bmgrv.and(increment(2), bmgrv.makeFalse());
+
+    try (PersistentAbstractionCache cache = createCache(CONFIG)) {
+      Fingerprint fingerprint = cache.getFingerprint(increment(2));
+      cache.putAbstraction(
+          cache.getAbstractionKey(fingerprint, ImmutableList.of(positive(2))), abstraction);
+      cache.putUnsat(cache.getFingerprint(unsatFormula));
+      cache.putCartesianResult(fingerprint, positive(2), (byte) 1);
+    }
+    assertThat(Files.exists(file)).isTrue();
+
+    try (PersistentAbstractionCache cache = createCache(CONFIG)) {
+      assertThat(cache.getNumberOfLoadedEntries()).isEqualTo(3);
+
+      Fingerprint fingerprint = cache.getFingerprint(increment(2));
+      BooleanFormula cached =
+          cache.getAbstraction(
+              cache.getAbstractionKey(fingerprint, ImmutableList.of(positive(2))));
+      assertThat(cached).isNotNull();
+      assertThatFormula(cached).isEquivalentTo(abstraction);
+      assertThat(cache.isUnsat(cache.getFingerprint(unsatFormula))).isTrue();
+      assertThat(cache.isUnsat(fingerprint)).isFalse();
+      assertThat(cache.getCartesianResult(fingerprint, positive(2))).isEqualTo((byte) 1);
+    }
+  }
+
+  @Test
+  public void testFileOfOtherConfigurationIsIgnored() throws Exception {
+    try (PersistentAbstractionCache cache = createCache(CONFIG)) {
+      cache.putUnsat(cache.getFingerprint(increment(2)));
+    }
+
+    try (PersistentAbstractionCache cache = createCache(HashCode.fromLong(43))) {
+      assertThat(cache.getNumberOfLoadedEntries()).isEqualTo(0);
+      assertThat(cache.isUnsat(cache.getFingerprint(increment(2)))).isFalse();
+    }
+  }
+
+  @Test
+  public void testShiftedSsaIndicesHaveSameKey() throws Exception {
+    try (PersistentAbstractionCache cache = createCache(CONFIG)) {
+      cache.putCartesianResult(cache.getFingerprint(increment(2)), positive(2), (byte) 1);
+
+      // same code, but with SSA indices shifted by an earlier change of the program
+      Fingerprint shifted = cache.getFingerprint(increment(5));
+      assertThat(cache.getCartesianResult(shifted, positive(5))).isEqualTo((byte) 1);
+      assertThat(cache.getCartesianResult(shifted, positive(4))).isNull();
+    }
+  }
+}
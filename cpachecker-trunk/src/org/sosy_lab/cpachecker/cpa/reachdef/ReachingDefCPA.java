@@ -32,6 +32,7 @@ import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
 import org.sosy_lab.cpachecker.core.defaults.AbstractCPA;
@@ -63,6 +64,7 @@ import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 public class ReachingDefCPA extends AbstractCPA implements ProofCheckerCPA {
 
   private LogManager logger;
+  private final CFA cfa;
 
   @Option(secure=true, name="merge", toUppercase=true, values={"SEP", "JOIN", "IGNORECALLSTACK"},
       description="which merge operator to use for ReachingDefCPA")
@@ -76,12 +78,15 @@ public class ReachingDefCPA extends AbstractCPA implements ProofCheckerCPA {
     return AutomaticCPAFactory.forType(ReachingDefCPA.class);
   }
 
-  private ReachingDefCPA(LogManager logger, Configuration config, ShutdownNotifier shutdownNotifier) throws InvalidConfigurationException {
+  private ReachingDefCPA(
+      LogManager logger, Configuration config, ShutdownNotifier shutdownNotifier, CFA pCfa)
+      throws InvalidConfigurationException {
     super(
         DelegateAbstractDomain.getInstance(),
         new ReachingDefTransferRelation(logger, shutdownNotifier));
     config.inject(this);
     this.logger = logger;
+    cfa = pCfa;
   }
 
   @Override
@@ -116,12 +121,23 @@ public class ReachingDefCPA extends AbstractCPA implements ProofCheckerCPA {
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
     logger.log(Level.FINE, "Start extracting all declared variables in program.",
         "Distinguish between local and global variables.");
+    boolean isProgramEntry = pNode.equals(cfa.getMainFunction());
+    Set<MemoryLocation> globalVariables = null;
+    if (!isProgramEntry) {
+      // the global variables are declared at the program entry,
+      // which is usually not reachable from the given node
+      globalVariables = ReachingDefUtils.getAllVariables(cfa.getMainFunction()).getFirst();
+    }
     Pair<Set<MemoryLocation>, Map<FunctionEntryNode, Set<MemoryLocation>>> result =
         ReachingDefUtils.getAllVariables(pNode);
+    if (isProgramEntry) {
+      globalVariables = result.getFirst();
+    }
     logger.log(Level.FINE, "Extracted all declared variables.", "Create initial state.");
     ((ReachingDefTransferRelation) getTransferRelation())
         .provideLocalVariablesOfFunctions(result.getSecond());
-    ((ReachingDefTransferRelation) getTransferRelation()).setMainFunctionNode(pNode);
-    return new ReachingDefState(result.getFirst());
+    ((ReachingDefTransferRelation) getTransferRelation())
+        .setMainFunctionNode(pNode, !isProgramEntry);
+    return new ReachingDefState(globalVariables);
   }
 }
@@ -122,6 +122,14 @@ public class ReachingDefState implements AbstractState, Serializable,
     return new ReachingDefState(localVarsDef, globalReachDefs);
   }
 
+  /** Defines all global variables at the given edge. */
+  public ReachingDefState initGlobalVariables(CFANode pEntry, CFANode pExit) {
+    Map<MemoryLocation, Set<DefinitionPoint>> globalVarsDef = new HashMap<>();
+    addVariables(
+        globalVarsDef, globalReachDefs.keySet(), new ProgramDefinitionPoint(pEntry, pExit));
+    return new ReachingDefState(localReachDefs, globalVarsDef);
+  }
+
   private void addVariables(
       Map<MemoryLocation, Set<DefinitionPoint>> addTo,
       Set<MemoryLocation> variableNames,
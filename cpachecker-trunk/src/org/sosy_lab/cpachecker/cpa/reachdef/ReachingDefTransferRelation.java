@@ -80,6 +80,7 @@ public class ReachingDefTransferRelation implements TransferRelation {
   private Map<FunctionEntryNode, Set<MemoryLocation>> localVariablesPerFunction;
 
   private CFANode main;
+  private boolean defineGlobalVariablesAtStart = false;
 
   private final LogManagerWithoutDuplicates logger;
   private final ShutdownNotifier shutdownNotifier;
@@ -94,8 +95,17 @@ public class ReachingDefTransferRelation implements TransferRelation {
     localVariablesPerFunction = localVars;
   }
 
-  public void setMainFunctionNode(CFANode pMain) {
+  /**
+   * Sets the node at which the analysis starts.
+   *
+   * @param pMain the entry node of the function at which the analysis starts
+   * @param pDefineGlobalVariablesAtStart whether the global variables are defined by the first edge
+   *     of the start function, which stands for all definitions before the function is called if
+   *     the analysis does not start at the program entry
+   */
+  public void setMainFunctionNode(CFANode pMain, boolean pDefineGlobalVariablesAtStart) {
     main = pMain;
+    defineGlobalVariablesAtStart = pDefineGlobalVariablesAtStart;
   }
 
   @Override
@@ -188,6 +198,9 @@ public class ReachingDefTransferRelation implements TransferRelation {
                       getParameters((CFunctionEntryNode) pCfaEdge.getPredecessor()),
                       pCfaEdge.getPredecessor(),
                       pCfaEdge.getSuccessor());
+        if (defineGlobalVariablesAtStart) {
+          result = result.initGlobalVariables(pCfaEdge.getPredecessor(), pCfaEdge.getSuccessor());
+        }
         break;
       }
 
@@ -304,10 +304,11 @@ public class SlicingRefiner implements Refiner, StatisticsProvider {
    * @return the refinement roots in the reached set
    * @throws RefinementFailedException thrown if the given reached set does not contain target paths
    *     valid for refinement
+   * @throws CPAException thrown if the dependences needed for a slice could not be computed
    */
   @CanIgnoreReturnValue
   Set<ARGState> updatePrecision(final ReachedSet pReached)
-      throws RefinementFailedException, InterruptedException {
+      throws CPAException, InterruptedException {
     Pair<Set<ARGState>, SlicingPrecision> refinementRootsAndPrecision = getNewPrecision(pReached);
     Precision newPrec = refinementRootsAndPrecision.getSecond();
     ARGReachedSet argReached = new ARGReachedSet(pReached, argCpa, refinementCount);
@@ -317,7 +318,7 @@ public class SlicingRefiner implements Refiner, StatisticsProvider {
   }
 
   private Pair<Set<ARGState>, SlicingPrecision> getNewPrecision(final ReachedSet pReached)
-      throws RefinementFailedException, InterruptedException {
+      throws CPAException, InterruptedException {
     ARGReachedSet argReached = new ARGReachedSet(pReached, argCpa, refinementCount);
     SlicingPrecision oldPrec = extractSlicingPrecision(pReached, pReached.getFirstState());
 
@@ -371,7 +372,7 @@ public class SlicingRefiner implements Refiner, StatisticsProvider {
   }
 
   private void updatePrecisionAndRemoveSubtree(final ReachedSet pReached)
-      throws RefinementFailedException, InterruptedException {
+      throws CPAException, InterruptedException {
     ARGReachedSet argReached = new ARGReachedSet(pReached, argCpa, refinementCount);
     Set<ARGState> refinementRoots = updatePrecision(pReached);
     for (ARGState r : refinementRoots) {
@@ -382,7 +383,8 @@ public class SlicingRefiner implements Refiner, StatisticsProvider {
   }
 
   /** Returns the program slice for the given {@link ARGState} as slicing criterion. */
-  Collection<CFAEdge> getSlice(final CFAEdge pCriterion) throws InterruptedException {
+  Collection<CFAEdge> getSlice(final CFAEdge pCriterion)
+      throws CPAException, InterruptedException {
     try {
       slicingTime.start();
       return depGraph.getReachable(pCriterion, TraversalDirection.BACKWARD);
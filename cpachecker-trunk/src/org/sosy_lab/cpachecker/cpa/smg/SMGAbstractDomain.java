@@ -0,0 +1,54 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg;
+
+import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+
+/**
+ * Abstract domain of the {@link SMGCPA} that delegates to {@link SMGState}, re-uses the join results
+ * of one CPA instance, and records statistics of its coverage checks.
+ */
+class SMGAbstractDomain implements AbstractDomain {
+
+  private final SMGStatistics stats;
+  private final SMGJoinCache joinCache;
+
+  SMGAbstractDomain(SMGStatistics pStats, SMGJoinCache pJoinCache) {
+    stats = pStats;
+    joinCache = pJoinCache;
+  }
+
+  @Override
+  public AbstractState join(AbstractState pState1, AbstractState pState2) throws CPAException {
+    return ((SMGState) pState1).join((SMGState) pState2, joinCache);
+  }
+
+  @Override
+  public boolean isLessOrEqual(AbstractState pState1, AbstractState pState2) throws CPAException {
+    return ((SMGState) pState1)
+        .isLessOrEqual((SMGState) pState2, stats.identicalHeapsCounter, joinCache);
+  }
+}
@@ -32,6 +32,7 @@ import java.util.Set;
 import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -46,7 +47,6 @@ import org.sosy_lab.cpachecker.core.counterexample.CFAEdgeWithAdditionalInfo;
 import org.sosy_lab.cpachecker.core.counterexample.CFAPathWithAdditionalInfo;
 import org.sosy_lab.cpachecker.core.counterexample.ConcreteStatePath;
 import org.sosy_lab.cpachecker.core.defaults.AutomaticCPAFactory;
-import org.sosy_lab.cpachecker.core.defaults.DelegateAbstractDomain;
 import org.sosy_lab.cpachecker.core.defaults.MergeJoinOperator;
 import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.defaults.StopNeverOperator;
@@ -91,6 +91,14 @@ public class SMGCPA
       description="which merge operator to use for the SMGCPA")
   private String mergeType = "SEP";
 
+  @Option(
+      secure = true,
+      description =
+          "Maximum number of results of SMG joins that are cached for re-use in later"
+              + " coverage checks and merges of states with the same heaps (0 disables the cache).")
+  @IntegerOption(min = 0)
+  private int joinCacheSize = 10000;
+
   private final SMGTransferRelation transferRelation;
 
   private final SMGPredicateManager smgPredicateManager;
@@ -105,7 +113,8 @@ public class SMGCPA
   private final AssumptionToEdgeAllocator assumptionToEdgeAllocator;
   private final SMGOptions options;
   private final SMGExportDotOption exportOptions;
-  private final SMGStatistics stats = new SMGStatistics();
+  private final SMGStatistics stats;
+  private final SMGAbstractDomain domain;
 
   private SMGPrecision precision;
 
@@ -120,6 +129,9 @@ public class SMGCPA
     shutdownNotifier = pShutdownNotifier;
 
     options = new SMGOptions(config);
+    SMGJoinCache joinCache = new SMGJoinCache(joinCacheSize);
+    stats = new SMGStatistics(joinCache);
+    domain = new SMGAbstractDomain(stats, joinCache);
     exportOptions = new SMGExportDotOption(options.getExportSMGFilePattern(), options.getExportSMGLevel());
 
     assumptionToEdgeAllocator = AssumptionToEdgeAllocator.create(config, logger, machineModel);
@@ -157,7 +169,7 @@ public class SMGCPA
 
   @Override
   public AbstractDomain getAbstractDomain() {
-    return DelegateAbstractDomain.<SMGState>getInstance();
+    return domain;
   }
 
   @Override
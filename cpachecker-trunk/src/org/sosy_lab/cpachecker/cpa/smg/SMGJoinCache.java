@@ -0,0 +1,215 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymValue;
+import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoin;
+import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoinStatus;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+
+/**
+ * Memoizes the outcome (whether the join is defined, and its status) of joining two SMGs. The stop
+ * and merge operators compare every new state against all reached states at the same location,
+ * and new states often have the same heaps as states compared before, so the expensive {@link
+ * SMGJoin} can be skipped for them.
+ *
+ * <p>Entries are looked up by the fingerprints of both SMGs and verified by comparing the SMGs and
+ * the explicit values of both states, so a hit always returns the result the join would compute.
+ *
+ * <p>Each instance belongs to one CPA. Besides the bound on the number of entries, the entries are
+ * softly referenced, so the cached SMGs are released before the analysis runs out of memory.
+ */
+public final class SMGJoinCache {
+
+  private final @Nullable Cache<Key, Entry> cache;
+
+  final StatCounter hits = new StatCounter("Number of cached SMG joins");
+  final StatCounter misses = new StatCounter("Number of computed SMG joins");
+  private final LongAdder savedJoinTime = new LongAdder();
+
+  SMGJoinCache(int pMaxSize) {
+    cache =
+        pMaxSize > 0
+            ? CacheBuilder.newBuilder().maximumSize(pMaxSize).softValues().build()
+            : null;
+  }
+
+  /**
+   * Joins the heaps of the given states, or returns the result of an earlier join of identical
+   * heaps and explicit values. The returned join is only guaranteed to provide {@link
+   * SMGJoin#isDefined()} and {@link SMGJoin#getStatus()}, the joint SMG is only available if the
+   * join was actually computed.
+   */
+  JoinOutcome join(
+      CLangSMG pHeap1,
+      CLangSMG pHeap2,
+      SMGState pState1,
+      SMGState pState2,
+      Map<SMGKnownSymValue, SMGKnownExpValue> pExplicitValues1,
+      Map<SMGKnownSymValue, SMGKnownExpValue> pExplicitValues2)
+      throws SMGInconsistentException {
+
+    Key key = null;
+    if (cache != null) {
+      key = new Key(pHeap1.getFingerprint(), pHeap2.getFingerprint());
+      Entry entry = cache.getIfPresent(key);
+      if (entry != null
+          && pHeap1.isIdenticalTo(entry.heap1)
+          && pHeap2.isIdenticalTo(entry.heap2)
+          && pExplicitValues1.equals(entry.explicitValues1)
+          && pExplicitValues2.equals(entry.explicitValues2)) {
+        hits.inc();
+        savedJoinTime.add(entry.joinTime);
+        return new JoinOutcome(entry.defined, entry.status, null);
+      }
+    }
+
+    misses.inc();
+    long start = System.nanoTime();
+    SMGJoin join = new SMGJoin(pHeap1, pHeap2, pState1, pState2);
+    long joinTime = System.nanoTime() - start;
+
+    if (cache != null) {
+      // copies are cheap because the SMGs are persistent, and protect against later modifications
+      cache.put(
+          key,
+          new Entry(
+              new CLangSMG(pHeap1),
+              new CLangSMG(pHeap2),
+              ImmutableMap.copyOf(pExplicitValues1),
+              ImmutableMap.copyOf(pExplicitValues2),
+              join.isDefined(),
+              join.getStatus(),
+              joinTime));
+    }
+    return JoinOutcome.of(join);
+  }
+
+  boolean isEnabled() {
+    return cache != null;
+  }
+
+  /** Returns the sum of the times of all joins that were answered by the cache. */
+  TimeSpan getSavedJoinTime() {
+    return TimeSpan.ofNanos(savedJoinTime.sum());
+  }
+
+  /** The result of {@link #join}. */
+  static final class JoinOutcome {
+
+    private final boolean defined;
+    private final SMGJoinStatus status;
+    private final @Nullable SMGJoin join;
+
+    private JoinOutcome(boolean pDefined, SMGJoinStatus pStatus, @Nullable SMGJoin pJoin) {
+      defined = pDefined;
+      status = pStatus;
+      join = pJoin;
+    }
+
+    /** Wraps a computed join. */
+    static JoinOutcome of(SMGJoin pJoin) {
+      return new JoinOutcome(pJoin.isDefined(), pJoin.getStatus(), pJoin);
+    }
+
+    boolean isDefined() {
+      return defined;
+    }
+
+    SMGJoinStatus getStatus() {
+      return status;
+    }
+
+    /** Returns the computed join, or null if the outcome was taken from the cache. */
+    @Nullable SMGJoin getJoin() {
+      return join;
+    }
+  }
+
+  private static final class Key {
+
+    private final long fingerprint1;
+    private final long fingerprint2;
+
+    private Key(long pFingerprint1, long pFingerprint2) {
+      fingerprint1 = pFingerprint1;
+      fingerprint2 = pFingerprint2;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) pObj;
+      return fingerprint1 == other.fingerprint1 && fingerprint2 == other.fingerprint2;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fingerprint1, fingerprint2);
+    }
+  }
+
+  private static final class Entry {
+
+    private final CLangSMG heap1;
+    private final CLangSMG heap2;
+    private final ImmutableMap<SMGKnownSymValue, SMGKnownExpValue> explicitValues1;
+    private final ImmutableMap<SMGKnownSymValue, SMGKnownExpValue> explicitValues2;
+    private final boolean defined;
+    private final SMGJoinStatus status;
+    private final long joinTime;
+
+    private Entry(
+        CLangSMG pHeap1,
+        CLangSMG pHeap2,
+        ImmutableMap<SMGKnownSymValue, SMGKnownExpValue> pExplicitValues1,
+        ImmutableMap<SMGKnownSymValue, SMGKnownExpValue> pExplicitValues2,
+        boolean pDefined,
+        SMGJoinStatus pStatus,
+        long pJoinTime) {
+      heap1 = pHeap1;
+      heap2 = pHeap2;
+      explicitValues1 = pExplicitValues1;
+      explicitValues2 = pExplicitValues2;
+      defined = pDefined;
+      status = pStatus;
+      joinTime = pJoinTime;
+    }
+  }
+}
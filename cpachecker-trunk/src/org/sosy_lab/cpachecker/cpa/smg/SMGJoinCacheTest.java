@@ -0,0 +1,93 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+
+public class SMGJoinCacheTest {
+
+  private static final LogManager logger = LogManager.createTestLogManager();
+
+  private SMGOptions options;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    options = new SMGOptions(Configuration.defaultConfiguration());
+  }
+
+  private SMGState stateWithGlobals(String... pNames) throws SMGInconsistentException {
+    SMGState state = new SMGState(logger, MachineModel.LINUX32, options);
+    for (String name : pNames) {
+      state.addGlobalVariable(32, name);
+    }
+    return state;
+  }
+
+  @Test
+  public void testRepeatedJoinIsCached() throws SMGInconsistentException {
+    SMGJoinCache cache = new SMGJoinCache(10);
+    SMGState state = stateWithGlobals("a");
+    SMGState reached = new SMGState(state);
+
+    assertThat(state.join(reached, cache)).isSameAs(reached);
+    assertThat(cache.hits.getValue()).isEqualTo(0L);
+    assertThat(cache.misses.getValue()).isEqualTo(1L);
+
+    assertThat(new SMGState(state).join(reached, cache)).isSameAs(reached);
+    assertThat(cache.hits.getValue()).isEqualTo(1L);
+    assertThat(cache.misses.getValue()).isEqualTo(1L);
+  }
+
+  @Test
+  public void testDifferentHeapsAreNotCached() throws SMGInconsistentException {
+    SMGJoinCache cache = new SMGJoinCache(10);
+    SMGState reached = stateWithGlobals("a");
+
+    stateWithGlobals("a").join(reached, cache);
+    stateWithGlobals("a", "b").join(reached, cache);
+
+    assertThat(cache.hits.getValue()).isEqualTo(0L);
+    assertThat(cache.misses.getValue()).isEqualTo(2L);
+  }
+
+  @Test
+  public void testDisabledCache() throws SMGInconsistentException {
+    SMGJoinCache cache = new SMGJoinCache(0);
+    SMGState state = stateWithGlobals("a");
+    SMGState reached = new SMGState(state);
+
+    state.join(reached, cache);
+    state.join(reached, cache);
+
+    assertThat(cache.isEnabled()).isFalse();
+    assertThat(cache.hits.getValue()).isEqualTo(0L);
+  }
+}
@@ -53,6 +53,7 @@ import org.sosy_lab.cpachecker.core.counterexample.IDExpression;
 import org.sosy_lab.cpachecker.core.defaults.LatticeAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
 import org.sosy_lab.cpachecker.cpa.smg.SMGIntersectStates.SMGIntersectionResult;
+import org.sosy_lab.cpachecker.cpa.smg.SMGJoinCache.JoinOutcome;
 import org.sosy_lab.cpachecker.cpa.smg.evaluator.SMGAbstractObjectAndState.SMGAddressValueAndState;
 import org.sosy_lab.cpachecker.cpa.smg.evaluator.SMGAbstractObjectAndState.SMGAddressValueAndStateList;
 import org.sosy_lab.cpachecker.cpa.smg.evaluator.SMGAbstractObjectAndState.SMGValueAndState;
@@ -85,6 +86,7 @@ import org.sosy_lab.cpachecker.cpa.smg.refiner.SMGInterpolant;
 import org.sosy_lab.cpachecker.cpa.smg.refiner.SMGMemoryPath;
 import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 
 public class SMGState implements AbstractQueryableState, LatticeAbstractState<SMGState> {
 
@@ -99,6 +101,7 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
   // use 'id' and 'precessorId' only for debugging or logging, never for important stuff!
   // TODO remove to avoid problems?
   private static final AtomicInteger ID_COUNTER = new AtomicInteger(0);
+
   private final int predecessorId;
   private final int id;
 
@@ -1462,18 +1465,33 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
    */
   @Override
   public SMGState join(SMGState reachedState) throws SMGInconsistentException {
+    return join(reachedState, null);
+  }
+
+  /**
+   * Like {@link #join(SMGState)}, but re-uses the outcome of earlier joins of the same heaps.
+   *
+   * @param pJoinCache Cache of join outcomes, may be null.
+   */
+  SMGState join(SMGState reachedState, @Nullable SMGJoinCache pJoinCache)
+      throws SMGInconsistentException {
     // Not necessary if merge_SEP and stop_SEP is used.
 
-    SMGJoin join = new SMGJoin(this.heap, reachedState.heap, this, reachedState);
+    JoinOutcome outcome = joinWith(reachedState, pJoinCache);
 
-    if(join.getStatus() != SMGJoinStatus.INCOMPARABLE) {
+    if (outcome.getStatus() != SMGJoinStatus.INCOMPARABLE) {
       return reachedState;
     }
 
-    if (!join.isDefined()) {
+    if (!outcome.isDefined()) {
       return reachedState;
     }
 
+    SMGJoin join = outcome.getJoin();
+    if (join == null) {
+      // cached outcome, compute the joint SMG
+      join = new SMGJoin(this.heap, reachedState.heap, this, reachedState);
+    }
     CLangSMG destHeap = join.getJointSMG();
 
     // join explicit values
@@ -1502,13 +1520,36 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
    */
   @Override
   public boolean isLessOrEqual(SMGState reachedState) throws SMGInconsistentException {
+    return isLessOrEqual(reachedState, null, null);
+  }
+
+  /**
+   * Like {@link #isLessOrEqual(SMGState)}, but counts the checks where both SMGs are identical and
+   * re-uses the outcome of earlier joins of the same heaps.
+   *
+   * @param pIdenticalHeapsCounter Counter for checks with identical SMGs, may be null.
+   * @param pJoinCache Cache of join outcomes, may be null.
+   */
+  boolean isLessOrEqual(
+      SMGState reachedState,
+      @Nullable StatCounter pIdenticalHeapsCounter,
+      @Nullable SMGJoinCache pJoinCache)
+      throws SMGInconsistentException {
 
     if(!getErrorPredicateRelation().isEmpty() || !reachedState.getErrorPredicateRelation().isEmpty()) {
       return false;
     }
 
+    if (heap.isIdenticalTo(reachedState.heap)) {
+      // no need for the expensive join, it would return EQUAL
+      if (pIdenticalHeapsCounter != null) {
+        pIdenticalHeapsCounter.inc();
+      }
+      return true;
+    }
+
     if (options.isHeapAbstractionEnabled()) {
-      SMGJoin join = new SMGJoin(heap, reachedState.heap, this, reachedState);
+      JoinOutcome join = joinWith(reachedState, pJoinCache);
 
       if (!join.isDefined()) {
         return false;
@@ -1533,6 +1574,15 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
     }
   }
 
+  private JoinOutcome joinWith(SMGState pReachedState, @Nullable SMGJoinCache pJoinCache)
+      throws SMGInconsistentException {
+    if (pJoinCache == null) {
+      return JoinOutcome.of(new SMGJoin(heap, pReachedState.heap, this, pReachedState));
+    }
+    return pJoinCache.join(
+        heap, pReachedState.heap, this, pReachedState, explicitValues, pReachedState.explicitValues);
+  }
+
   @Override
   public String getCPAName() {
     return "SMGCPA";
@@ -23,17 +23,35 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import java.io.PrintStream;
 import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatistics;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 
 public class SMGStatistics extends AbstractStatistics {
 
+  private final SMGJoinCache joinCache;
+
+  final StatCounter identicalHeapsCounter =
+      new StatCounter("Number of coverage checks with identical SMGs");
+
+  SMGStatistics(SMGJoinCache pJoinCache) {
+    joinCache = pJoinCache;
+  }
+
   @Override
   public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    put(pOut, 0, identicalHeapsCounter);
+    if (joinCache.isEnabled()) {
+      put(pOut, 0, joinCache.hits);
+      put(pOut, 0, joinCache.misses);
+      put(pOut, 1, "Time saved by cached joins", joinCache.getSavedJoinTime().formatAs(SECONDS));
+    }
     put(pOut, 0, SMGIsLessOrEqual.isLEQTimer);
     put(pOut, 1, SMGIsLessOrEqual.globalsTimer);
     put(pOut, 1, SMGIsLessOrEqual.stackTimer);
@@ -26,6 +26,8 @@ package org.sosy_lab.cpachecker.cpa.smg.graphs;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.TreeMultimap;
 import java.util.Iterator;
 import java.util.Map.Entry;
@@ -62,9 +64,29 @@ public class SMG {
   private PredRelation pathPredicate = new PredRelation();
   private PredRelation errorPredicate = new PredRelation();
 
+  /**
+   * Structural fingerprint of objects, values, edges, and invalid objects, maintained incrementally
+   * by all modifying methods. Equal SMGs have equal fingerprints, so SMGs with different
+   * fingerprints can be recognized as different in constant time.
+   */
+  private long fingerprint = 0;
 
   private final MachineModel machine_model;
 
+  /**
+   * Edges are immutable and often re-created with the same content by different transfers, so we
+   * share equal instances between all SMGs.
+   */
+  private static final Interner<SMGEdgeHasValue> HV_EDGE_INTERNER = Interners.newWeakInterner();
+
+  private static final Interner<SMGEdgePointsTo> PT_EDGE_INTERNER = Interners.newWeakInterner();
+
+  private static final int FP_OBJECT = 1;
+  private static final int FP_INVALID_OBJECT = 2;
+  private static final int FP_VALUE = 3;
+  private static final int FP_HV_EDGE = 4;
+  private static final int FP_PT_EDGE = 5;
+
   /**
    * An address of the special object representing null
    */
@@ -110,6 +132,7 @@ public class SMG {
     objectAllocationIdentity = pHeap.objectAllocationIdentity;
     objects = pHeap.objects;
     values = pHeap.values;
+    fingerprint = pHeap.fingerprint;
   }
 
   @Override
@@ -167,6 +190,9 @@ public class SMG {
    */
   final public void removeValue(final Integer pValue) {
     Preconditions.checkArgument(pValue != 0, "Can not remove NULL from SMG");
+    if (values.contains(pValue)) {
+      fingerprint -= fingerprintOf(FP_VALUE, pValue);
+    }
     values = values.removeAndCopy(pValue);
     neq = neq.removeValueAndCopy(pValue);
     pathPredicate.removeValue(pValue);
@@ -182,7 +208,11 @@ public class SMG {
    */
   @VisibleForTesting
   final public void removeObject(final SMGObject pObj) {
+    if (objects.contains(pObj)) {
+      fingerprint -= fingerprintOf(FP_OBJECT, pObj.hashCode());
+    }
     objects = objects.removeAndCopy(pObj);
+    updateValidityFingerprint(pObj, null);
     object_validity = object_validity.removeAndCopy(pObj);
     objectAllocationIdentity = objectAllocationIdentity.removeAndCopy(pObj);
   }
@@ -197,6 +227,15 @@ public class SMG {
   final public void removeObjectAndEdges(final SMGObject pObj) {
     Preconditions.checkArgument(pObj != SMGNullObject.INSTANCE, "Can not remove NULL from SMG");
     removeObject(pObj);
+    Set<SMGEdgeHasValue> hvEdgesOfObject = hv_edges.getEdgesForObject(pObj);
+    if (hvEdgesOfObject != null) {
+      for (SMGEdgeHasValue edge : hvEdgesOfObject) {
+        fingerprint -= fingerprintOf(FP_HV_EDGE, edge.hashCode());
+      }
+    }
+    for (SMGEdgePointsTo edge : SMGEdgePointsToFilter.targetObjectFilter(pObj).filter(pt_edges)) {
+      fingerprint -= fingerprintOf(FP_PT_EDGE, edge.hashCode());
+    }
     hv_edges = hv_edges.removeAllEdgesOfObjectAndCopy(pObj);
     pt_edges = pt_edges.removeAllEdgesOfObjectAndCopy(pObj);
   }
@@ -211,7 +250,11 @@ public class SMG {
    *
    */
   final public void addObject(final SMGObject pObj, final boolean pValidity, final boolean pExternal) {
+    if (!objects.contains(pObj)) {
+      fingerprint += fingerprintOf(FP_OBJECT, pObj.hashCode());
+    }
     objects = objects.addAndCopy(pObj);
+    updateValidityFingerprint(pObj, pValidity);
     object_validity = object_validity.putAndCopy(pObj, pValidity);
     objectAllocationIdentity = objectAllocationIdentity.putAndCopy(pObj, new ExternalObjectFlag(pExternal));
   }
@@ -224,6 +267,9 @@ public class SMG {
    * @param pValue  Value to add.
    */
   final public void addValue(Integer pValue) {
+    if (!values.contains(pValue)) {
+      fingerprint += fingerprintOf(FP_VALUE, pValue);
+    }
     values = values.addAndCopy(pValue);
   }
 
@@ -235,7 +281,13 @@ public class SMG {
    * @param pEdge Points-To edge to add.
    */
   final public void addPointsToEdge(SMGEdgePointsTo pEdge) {
-    pt_edges = pt_edges.addAndCopy(pEdge);
+    SMGEdgePointsTo edge = PT_EDGE_INTERNER.intern(pEdge);
+    if (pt_edges.containsEdgeWithValue(edge.getValue())) {
+      fingerprint -=
+          fingerprintOf(FP_PT_EDGE, pt_edges.getEdgeWithValue(edge.getValue()).hashCode());
+    }
+    fingerprint += fingerprintOf(FP_PT_EDGE, edge.hashCode());
+    pt_edges = pt_edges.addAndCopy(edge);
   }
 
   /**
@@ -246,7 +298,16 @@ public class SMG {
    * @param pEdge Has-Value edge to add
    */
   final public void addHasValueEdge(SMGEdgeHasValue pEdge) {
-    hv_edges = hv_edges.addEdgeAndCopy(pEdge);
+    SMGEdgeHasValue edge = HV_EDGE_INTERNER.intern(pEdge);
+    if (edge.getType() != pEdge.getType()) {
+      // equal edges may have different (but canonically equal) types, keep the given one
+      edge = pEdge;
+    }
+    Set<SMGEdgeHasValue> edgesOfObject = hv_edges.getEdgesForObject(edge.getObject());
+    if (edgesOfObject == null || !edgesOfObject.contains(edge)) {
+      fingerprint += fingerprintOf(FP_HV_EDGE, edge.hashCode());
+    }
+    hv_edges = hv_edges.addEdgeAndCopy(edge);
   }
 
   /**
@@ -257,6 +318,10 @@ public class SMG {
    * @param pEdge Has-Value edge to remove
    */
   final public void removeHasValueEdge(SMGEdgeHasValue pEdge) {
+    Set<SMGEdgeHasValue> edgesOfObject = hv_edges.getEdgesForObject(pEdge.getObject());
+    if (edgesOfObject != null && edgesOfObject.contains(pEdge)) {
+      fingerprint -= fingerprintOf(FP_HV_EDGE, pEdge.hashCode());
+    }
     hv_edges = hv_edges.removeEdgeAndCopy(pEdge);
   }
 
@@ -269,6 +334,9 @@ public class SMG {
    */
   final public void removePointsToEdge(int pValue) {
     Preconditions.checkArgument(pValue != 0, "Can not remove NULL from SMG");
+    if (pt_edges.containsEdgeWithValue(pValue)) {
+      fingerprint -= fingerprintOf(FP_PT_EDGE, pt_edges.getEdgeWithValue(pValue).hashCode());
+    }
     pt_edges = pt_edges.removeEdgeWithValueAndCopy(pValue);
   }
 
@@ -284,6 +352,7 @@ public class SMG {
    */
   public void setValidity(SMGObject pObject, boolean pValidity) {
     Preconditions.checkArgument(objects.contains(pObject), "Object [" + pObject + "] not in SMG");
+    updateValidityFingerprint(pObject, pValidity);
     object_validity = object_validity.putAndCopy(pObject, pValidity);
   }
 
@@ -309,11 +378,13 @@ public class SMG {
    * Keeps consistency: no
    */
   public void replaceHVSet(Set<SMGEdgeHasValue> pNewHV) {
-    SMGHasValueEdges tmp = new SMGHasValueEdgeSet();
+    for (SMGEdgeHasValue edge : hv_edges.getHvEdges()) {
+      fingerprint -= fingerprintOf(FP_HV_EDGE, edge.hashCode());
+    }
+    hv_edges = new SMGHasValueEdgeSet();
     for (SMGEdgeHasValue edge : pNewHV) {
-      tmp = tmp.addEdgeAndCopy(edge);
+      addHasValueEdge(edge);
     }
-    hv_edges = tmp;
   }
 
   /**
@@ -573,8 +644,8 @@ public class SMG {
     for (SMGEdgeHasValue old_hve : getHVEdges(SMGEdgeHasValueFilter.valueFilter(pV2))) {
       SMGEdgeHasValue newHvEdge =
           new SMGEdgeHasValue(old_hve.getType(), old_hve.getOffset(), old_hve.getObject(), pV1);
-      hv_edges = hv_edges.removeEdgeAndCopy(old_hve);
-      hv_edges = hv_edges.addEdgeAndCopy(newHvEdge);
+      removeHasValueEdge(old_hve);
+      addHasValueEdge(newHvEdge);
     }
 
     // TODO: Handle PT Edges: I'm not entirely sure how they should be handled
@@ -611,6 +682,7 @@ public class SMG {
     pt_edges = new SMGPointsToMap();
     neq = new NeqRelation();
     pathPredicate.clear();
+    fingerprint = computeFingerprint();
     initializeNullAddress();
   }
 
@@ -622,11 +694,68 @@ public class SMG {
   public void clearObjects() {
     objects = PersistentSet.of();
     object_validity = PathCopyingPersistentTreeMap.of();
+    fingerprint = computeFingerprint();
     initializeNullObject();
   }
 
   private void initializeNullObject() {
     addObject(SMGNullObject.INSTANCE);
+    updateValidityFingerprint(SMGNullObject.INSTANCE, false);
     object_validity = object_validity.putAndCopy(SMGNullObject.INSTANCE, false);
   }
-}
\ No newline at end of file
+
+  /**
+   * Returns the structural fingerprint of this SMG. Equal SMGs have equal fingerprints, the
+   * converse holds only with high probability. Constant.
+   */
+  public final long getFingerprint() {
+    return fingerprint;
+  }
+
+  /** Compute the fingerprint from scratch, the result always equals {@link #getFingerprint()}. */
+  @VisibleForTesting
+  long computeFingerprint() {
+    long result = 0;
+    for (SMGObject object : objects) {
+      result += fingerprintOf(FP_OBJECT, object.hashCode());
+      if (Boolean.FALSE.equals(object_validity.get(object))) {
+        result += fingerprintOf(FP_INVALID_OBJECT, object.hashCode());
+      }
+    }
+    for (Integer value : values) {
+      result += fingerprintOf(FP_VALUE, value);
+    }
+    for (SMGEdgeHasValue edge : hv_edges.getHvEdges()) {
+      result += fingerprintOf(FP_HV_EDGE, edge.hashCode());
+    }
+    for (SMGEdgePointsTo edge : pt_edges) {
+      result += fingerprintOf(FP_PT_EDGE, edge.hashCode());
+    }
+    return result;
+  }
+
+  /** Update the fingerprint before the validity of an object is changed (or removed if null). */
+  private void updateValidityFingerprint(SMGObject pObject, @Nullable Boolean pNewValidity) {
+    if (Boolean.FALSE.equals(object_validity.get(pObject))) {
+      fingerprint -= fingerprintOf(FP_INVALID_OBJECT, pObject.hashCode());
+    }
+    if (Boolean.FALSE.equals(pNewValidity)) {
+      fingerprint += fingerprintOf(FP_INVALID_OBJECT, pObject.hashCode());
+    }
+  }
+
+  /**
+   * The fingerprint of an SMG is the sum of the fingerprints of its elements, such that it can be
+   * updated in constant time for each added or removed element. The element hash is spread over
+   * all bits (with the finalization step of MurmurHash3) to make collisions of sums unlikely.
+   */
+  private static long fingerprintOf(int pKind, int pHash) {
+    long h = ((long) pKind << 32) | (pHash & 0xFFFFFFFFL);
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb53fe1a85ec3L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -110,6 +110,27 @@ public class SMGTest {
     assertThat(newHVSet).isEqualTo(hvSet);
   }
 
+  @Test
+  public void fingerprintTest() {
+    assertThat(smg.getFingerprint()).isEqualTo(smg.computeFingerprint());
+
+    SMG copy = new SMG(smg);
+    assertThat(copy.getFingerprint()).isEqualTo(smg.getFingerprint());
+
+    copy.removeHasValueEdge(hv2has1at4);
+    copy.setValidity(obj1, false);
+    assertThat(copy.getFingerprint()).isEqualTo(copy.computeFingerprint());
+    assertThat(copy.getFingerprint()).isNotEqualTo(smg.getFingerprint());
+
+    copy.setValidity(obj1, true);
+    copy.addHasValueEdge(new SMGEdgeHasValue(mockType, 32, obj2, val1));
+    assertThat(copy.getFingerprint()).isEqualTo(smg.getFingerprint());
+
+    copy.removeObjectAndEdges(obj2);
+    copy.mergeValues(val1, val2);
+    assertThat(copy.getFingerprint()).isEqualTo(copy.computeFingerprint());
+  }
+
   @Test
   public void SMGConstructorTest() {
     SMG smg1 = getNewSMG64();
@@ -124,7 +124,8 @@ public class SMGEdgeHasValue extends SMGEdge {
 
   @Override
   public int hashCode() {
-    return 31 * super.hashCode() + type.hashCode();
+    // consistent with equals, which compares the canonical types
+    return 31 * super.hashCode() + type.getCanonicalType().hashCode();
   }
 
   @Override
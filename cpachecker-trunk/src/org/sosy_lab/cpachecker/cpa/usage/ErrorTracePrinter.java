@@ -196,6 +196,8 @@ public abstract class ErrorTracePrinter {
       }
     }
     finish();
+    // the analysis is finished, further queries of the statistics are cheap
+    container.close();
   }
 
   public void printStatistics(StatisticsWriter out) {
@@ -26,16 +26,34 @@ package org.sosy_lab.cpachecker.cpa.usage.storage;
 import static com.google.common.collect.FluentIterable.from;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import java.util.HashSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntBiFunction;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -51,8 +69,24 @@ import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
+/**
+ * Stores the usages of all identifiers. The container may be modified concurrently for different
+ * identifiers, and the bookkeeping that is independent for different identifiers (copying usages,
+ * detecting unsafes, removing the usages of a state) is split into shards of identifiers which are
+ * processed in parallel.
+ *
+ * <p>The refinement of the unsafes is not parallelized: {@link
+ * org.sosy_lab.cpachecker.cpa.usage.refinement.IdentifierIterator} refines one identifier after
+ * the other with a single chain of refinement blocks, which shares the solver of the predicate
+ * analysis, the BAM caches, and the reached set. Refining identifiers in parallel would need one
+ * such chain with its own solver and formula managers per worker.
+ *
+ * <p>The worker threads of the container exit when they are idle, {@link #close()} stops them
+ * immediately. Afterwards, the container is still usable, but processes all shards in the calling
+ * thread.
+ */
 @Options(prefix="cpa.usage")
-public class UsageContainer {
+public class UsageContainer implements AutoCloseable {
   private final SortedMap<SingleIdentifier, UnrefinedUsagePointSet> unrefinedIds;
   private final SortedMap<SingleIdentifier, RefinedUsagePointSet> refinedIds;
   private final SortedMap<SingleIdentifier, RefinedUsagePointSet> failedIds;
@@ -61,7 +95,7 @@ public class UsageContainer {
 
   private final Set<SingleIdentifier> falseUnsafes;
 
-  private final Set<SingleIdentifier> processedUnsafes = new HashSet<>();
+  private final Set<SingleIdentifier> processedUnsafes = ConcurrentHashMap.newKeySet();
   //Only for statistics
   private Set<SingleIdentifier> initialSet = null;
   private int initialUsages;
@@ -69,6 +103,7 @@ public class UsageContainer {
   private final LogManager logger;
 
   private final StatTimer resetTimer = new StatTimer("Time for reseting unsafes");
+  private final StatTimer unsafeDetectionTimer = new StatTimer("Time for detecting unsafes");
 
   int unsafeUsages = -1;
   int totalIds = 0;
@@ -77,12 +112,42 @@ public class UsageContainer {
       secure = true)
   private boolean printOnlyTrueUnsafes = false;
 
+  @Option(
+    secure = true,
+    name = "containerThreads",
+    description =
+        "number of threads for processing the usages of independent identifiers,"
+            + " e.g., when detecting unsafes (0 for the number of available processors)."
+            + " The refinement of the unsafes is not parallelized."
+  )
+  @IntegerOption(min = 0)
+  private int threads = 1;
+
+  /** Thread pool for processing shards of identifiers, null if only one thread is used. */
+  private @Nullable ExecutorService pool = null;
+
   public UsageContainer(Configuration config, LogManager l) throws InvalidConfigurationException {
-    this(new TreeMap<SingleIdentifier, UnrefinedUsagePointSet>(),
-        new TreeMap<SingleIdentifier, RefinedUsagePointSet>(),
-        new TreeMap<SingleIdentifier, RefinedUsagePointSet>(),
-        new TreeSet<SingleIdentifier>(), l, new UnsafeDetector(config));
+    this(new ConcurrentSkipListMap<SingleIdentifier, UnrefinedUsagePointSet>(),
+        new ConcurrentSkipListMap<SingleIdentifier, RefinedUsagePointSet>(),
+        new ConcurrentSkipListMap<SingleIdentifier, RefinedUsagePointSet>(),
+        new ConcurrentSkipListSet<SingleIdentifier>(), l, new UnsafeDetector(config));
     config.inject(this);
+    if (threads == 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+    if (threads > 1) {
+      // the container is used until the statistics are printed, so idle workers should not stay
+      ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              threads,
+              threads,
+              1,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              new ThreadFactoryBuilder().setNameFormat("usages-%d").setDaemon(true).build());
+      executor.allowCoreThreadTimeOut(true);
+      pool = executor;
+    }
   }
 
   private UsageContainer(SortedMap<SingleIdentifier, UnrefinedUsagePointSet> pUnrefinedStat,
@@ -112,48 +177,87 @@ public class UsageContainer {
   }
 
   private void copyUsages(AbstractUsageStorage storage) {
-    storage.forEach((id, list) ->
-      from(list)
-        .filter(info -> info.getKeyState() != null)
-        .forEach(info -> this.add(id, info))
-        );
+    // all usages of one identifier are added by the same task
+    sumOverShards(
+        storage,
+        (id, list) -> {
+          from(list).filter(info -> info.getKeyState() != null).forEach(info -> add(id, info));
+          return 0;
+        });
   }
 
   public void add(final SingleIdentifier id, final UsageInfo usage) {
-    UnrefinedUsagePointSet uset;
-
     if (falseUnsafes.contains(id)
         || refinedIds.containsKey(id)) {
       return;
     }
-    if (!unrefinedIds.containsKey(id)) {
-      uset = new UnrefinedUsagePointSet();
-      unrefinedIds.put(id, uset);
-    } else {
-      uset = unrefinedIds.get(id);
-    }
+    UnrefinedUsagePointSet uset =
+        unrefinedIds.computeIfAbsent(id, k -> new UnrefinedUsagePointSet());
     uset.add(usage);
   }
 
+  /**
+   * Applies the function to all entries of the map and sums up the results. The entries are split
+   * into shards of neighboring identifiers, which are processed in parallel if more than one
+   * thread is configured. The function has to be thread-safe for different identifiers.
+   */
+  private <T> int sumOverShards(
+      Map<SingleIdentifier, T> map, ToIntBiFunction<SingleIdentifier, ? super T> function) {
+    List<Entry<SingleIdentifier, T>> entries = new ArrayList<>(map.entrySet());
+    if (pool == null || entries.size() < 2) {
+      int sum = 0;
+      for (Entry<SingleIdentifier, T> entry : entries) {
+        sum += function.applyAsInt(entry.getKey(), entry.getValue());
+      }
+      return sum;
+    }
+
+    // more shards than threads to balance shards with expensive identifiers
+    int shardSize = Math.max(1, entries.size() / (4 * threads));
+    List<Future<Integer>> results = new ArrayList<>();
+    for (List<Entry<SingleIdentifier, T>> shard : Lists.partition(entries, shardSize)) {
+      Callable<Integer> task =
+          () -> {
+            int sum = 0;
+            for (Entry<SingleIdentifier, T> entry : shard) {
+              sum += function.applyAsInt(entry.getKey(), entry.getValue());
+            }
+            return sum;
+          };
+      results.add(pool.submit(task));
+    }
+
+    int sum = 0;
+    for (Future<Integer> result : results) {
+      try {
+        sum += Uninterruptibles.getUninterruptibly(result);
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new AssertionError(e.getCause());
+      }
+    }
+    return sum;
+  }
+
   private void calculateUnsafesIfNecessary() {
     if (unsafeUsages == -1) {
+      unsafeDetectionTimer.start();
       processedUnsafes.clear();
-      unsafeUsages = 0;
-      Set<SingleIdentifier> toDelete = new HashSet<>();
-
-      for (Entry<SingleIdentifier, UnrefinedUsagePointSet> entry : unrefinedIds.entrySet()) {
-        UnrefinedUsagePointSet tmpList = entry.getValue();
-        if (detector.isUnsafe(tmpList)) {
-          unsafeUsages += tmpList.size();
-        } else {
-          SingleIdentifier id = entry.getKey();
-          toDelete.add(id);
-          falseUnsafes.add(id);
-        }
-      }
-      toDelete.forEach(this::removeIdFromCaches);
+      // the map allows concurrent removal of the false unsafes
+      unsafeUsages =
+          sumOverShards(
+              unrefinedIds,
+              (id, tmpList) -> {
+                if (detector.isUnsafe(tmpList)) {
+                  return tmpList.size();
+                }
+                falseUnsafes.add(id);
+                removeIdFromCaches(id);
+                return 0;
+              });
 
       refinedIds.forEach((id, list) -> unsafeUsages += list.size());
+      unsafeDetectionTimer.stop();
 
       if (initialSet == null) {
         assert refinedIds.isEmpty();
@@ -235,7 +339,12 @@ public class UsageContainer {
   }
 
   public void removeState(final UsageState pUstate) {
-    unrefinedIds.forEach((id, uset) -> uset.remove(pUstate));
+    sumOverShards(
+        unrefinedIds,
+        (id, uset) -> {
+          uset.remove(pUstate);
+          return 0;
+        });
     logger.log(Level.ALL, "All unsafes related to key state " + pUstate + " were removed from reached set");
   }
 
@@ -311,10 +420,20 @@ public class UsageContainer {
        .put(refinedUsages)
        .put("Total amount of failed unsafes", generalFailedSize)
        .put(failedUsages)
+       .put(unsafeDetectionTimer)
        .put(resetTimer);
   }
 
   public Set<SingleIdentifier> getProcessedUnsafes() {
     return processedUnsafes;
   }
+
+  /** Stops the worker threads, all further work of the container is done sequentially. */
+  @Override
+  public void close() {
+    if (pool != null) {
+      pool.shutdownNow();
+      pool = null;
+    }
+  }
 }
@@ -0,0 +1,170 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.usage.storage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.cpa.usage.UsageInfo;
+import org.sosy_lab.cpachecker.cpa.usage.UsageInfo.Access;
+import org.sosy_lab.cpachecker.cpa.usage.UsageState;
+import org.sosy_lab.cpachecker.util.identifiers.GlobalVariableIdentifier;
+import org.sosy_lab.cpachecker.util.identifiers.SingleIdentifier;
+
+public class UsageContainerTest {
+
+  private static final int IDENTIFIERS = 200;
+
+  private static class DummyLocationState implements AbstractStateWithLocation {
+
+    private final CFANode node = new CFANode("test");
+
+    @Override
+    public CFANode getLocationNode() {
+      return node;
+    }
+
+    @Override
+    public Iterable<CFANode> getLocationNodes() {
+      return ImmutableList.of(node);
+    }
+
+    @Override
+    public Iterable<CFAEdge> getOutgoingEdges() {
+      return ImmutableList.of();
+    }
+
+    @Override
+    public Iterable<CFAEdge> getIngoingEdges() {
+      return ImmutableList.of();
+    }
+  }
+
+  private final List<UsageState> keyStates = new ArrayList<>();
+  private final List<SingleIdentifier> ids = new ArrayList<>();
+  private FunctionContainer storage;
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 5; i++) {
+      keyStates.add(UsageState.createInitialState(new DummyLocationState()));
+    }
+    storage = FunctionContainer.createInitialContainer();
+
+    // every third identifier is written and thus unsafe, the others are only read
+    for (int i = 0; i < IDENTIFIERS; i++) {
+      SingleIdentifier id = new GlobalVariableIdentifier("g" + i, CNumericTypes.INT, 0);
+      ids.add(id);
+      addUsage(id, Access.READ, i, keyStates.get(i % keyStates.size()));
+      addUsage(id, Access.READ, i + IDENTIFIERS, keyStates.get((i + 1) % keyStates.size()));
+      if (i % 3 == 0) {
+        addUsage(id, Access.WRITE, i + 2 * IDENTIFIERS, keyStates.get(i % keyStates.size()));
+      }
+    }
+  }
+
+  private void addUsage(SingleIdentifier id, Access access, int line, UsageState keyState) {
+    UsageInfo usage = UsageInfo.createUsageInfo(access, line, keyState, id);
+    usage.setKeyState(keyState);
+    storage.add(id, usage);
+  }
+
+  private UsageContainer createContainer(int threads) throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("cpa.usage.containerThreads", Integer.toString(threads))
+            .build();
+    UsageContainer container = new UsageContainer(config, LogManager.createTestLogManager());
+    container.initContainerIfNecessary(storage);
+    return container;
+  }
+
+  private ImmutableSet<SingleIdentifier> unsafes(UsageContainer container) {
+    return ImmutableSet.copyOf(container.getUnsafeIterator());
+  }
+
+  private void assertSameUsages(UsageContainer container, UsageContainer expected) {
+    assertThat(unsafes(container)).containsExactlyElementsIn(unsafes(expected)).inOrder();
+    for (SingleIdentifier id : unsafes(expected)) {
+      assertThat(container.getUsages(id).size()).isEqualTo(expected.getUsages(id).size());
+    }
+  }
+
+  @Test
+  public void testSequentialUnsafes() throws InvalidConfigurationException {
+    try (UsageContainer container = createContainer(1)) {
+      assertThat(container.getUnsafeSize()).isEqualTo((IDENTIFIERS + 2) / 3);
+      assertThat(Iterators.all(container.getUnsafeIterator(), id -> ids.indexOf(id) % 3 == 0))
+          .isTrue();
+      assertThat(container.getFalseUnsafes()).isEmpty();
+    }
+  }
+
+  @Test
+  public void testParallelUnsafesEqualSequential() throws InvalidConfigurationException {
+    try (UsageContainer sequential = createContainer(1);
+        UsageContainer parallel = createContainer(4)) {
+      assertThat(parallel.getUnsafeSize()).isEqualTo(sequential.getUnsafeSize());
+      assertSameUsages(parallel, sequential);
+    }
+  }
+
+  @Test
+  public void testParallelRemoveStateEqualsSequential() throws InvalidConfigurationException {
+    try (UsageContainer sequential = createContainer(1);
+        UsageContainer parallel = createContainer(4)) {
+      sequential.removeState(keyStates.get(0));
+      parallel.removeState(keyStates.get(0));
+
+      // the read and the write of g0 belong to the removed state
+      assertThat(parallel.getUsages(ids.get(0)).size()).isEqualTo(1);
+      assertSameUsages(parallel, sequential);
+    }
+  }
+
+  @Test
+  public void testClosedContainerWorksSequentially() throws InvalidConfigurationException {
+    try (UsageContainer sequential = createContainer(1);
+        UsageContainer parallel = createContainer(4)) {
+      parallel.close();
+      parallel.removeState(keyStates.get(1));
+      sequential.removeState(keyStates.get(1));
+
+      assertSameUsages(parallel, sequential);
+    }
+  }
+}
@@ -52,7 +52,6 @@ import org.sosy_lab.cpachecker.core.defaults.MergeJoinOperator;
 import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.defaults.StopJoinOperator;
 import org.sosy_lab.cpachecker.core.defaults.StopNeverOperator;
-import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
 import org.sosy_lab.cpachecker.core.defaults.precision.VariableTrackingPrecision;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -67,6 +66,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker.ProofCheckerCPA;
 import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisPrecisionAdjustment.PrecAdjustmentOptions;
@@ -82,7 +82,7 @@ import org.sosy_lab.cpachecker.util.states.MemoryLocationValueHandler;
 @Options(prefix = "cpa.value")
 public class ValueAnalysisCPA
     implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider, ProofCheckerCPA,
-        ConfigurableProgramAnalysisWithConcreteCex {
+        ConfigurableProgramAnalysisWithConcreteCex, ThreadSafeConfigurableProgramAnalysis {
 
   @Option(secure=true, name="merge", toUppercase=true, values={"SEP", "JOIN"},
       description="which merge operator to use for ValueAnalysisCPA")
@@ -235,7 +235,7 @@ public class ValueAnalysisCPA
   public StopOperator getStopOperator() {
     switch (stopType) {
       case "SEP":
-        return new StopSepOperator(getAbstractDomain());
+        return new ValueAnalysisStopOperator(getAbstractDomain());
 
       case "JOIN":
         return new StopJoinOperator(getAbstractDomain());
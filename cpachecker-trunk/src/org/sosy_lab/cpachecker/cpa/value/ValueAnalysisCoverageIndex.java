@@ -0,0 +1,208 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.common.collect.PersistentSortedMap;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndex;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Subsumption index for {@link ValueAnalysisState}s.
+ *
+ * <p>A value-analysis state r covers a state s if all assignments of r are also assignments of s.
+ * This index stores the states in a trie over their assignments, sorted by memory location (a
+ * so-called set-trie). A query for s only visits those nodes of the trie whose path consists of
+ * assignments of s, thus states that share an assignment with the query that does not hold in s
+ * are never looked at.
+ *
+ * <p>The index keeps a reference to the persistent assignment map of each state at the time it was
+ * added, which shares its structure with the state and is not copied.
+ */
+class ValueAnalysisCoverageIndex implements CoverageIndex {
+
+  private static final class Node {
+    /** Children by memory location and value of the next assignment in sorted order. */
+    private final Map<MemoryLocation, Map<Value, Node>> children = new TreeMap<>();
+
+    /** States whose assignments correspond exactly to the path to this node. */
+    private final List<ValueAnalysisState> states = new ArrayList<>(1);
+
+    /** Number of states stored in this node or below. */
+    private int size = 0;
+  }
+
+  private final Node root = new Node();
+
+  /** The assignments of each state at the time it was added, used for removal. */
+  private final Map<ValueAnalysisState, PersistentMap<MemoryLocation, Value>> indexed =
+      new IdentityHashMap<>();
+
+  /** Iterate over the assignments in the order of their memory locations. */
+  private static Iterable<Map.Entry<MemoryLocation, Value>> sorted(
+      PersistentMap<MemoryLocation, Value> pAssignments) {
+    if (pAssignments instanceof PersistentSortedMap) {
+      return pAssignments.entrySet();
+    }
+    return ImmutableSortedMap.copyOf(pAssignments).entrySet();
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    ValueAnalysisState state = (ValueAnalysisState) pState;
+    PersistentMap<MemoryLocation, Value> assignments = state.getConstantsMap();
+    if (indexed.put(state, assignments) != null) {
+      return;
+    }
+    Node node = root;
+    node.size++;
+    for (Map.Entry<MemoryLocation, Value> assignment : sorted(assignments)) {
+      node =
+          node.children
+              .computeIfAbsent(assignment.getKey(), k -> new HashMap<>(2))
+              .computeIfAbsent(assignment.getValue(), k -> new Node());
+      node.size++;
+    }
+    node.states.add(state);
+  }
+
+  @Override
+  public void remove(AbstractState pState) {
+    PersistentMap<MemoryLocation, Value> assignments = indexed.remove(pState);
+    if (assignments == null) {
+      return;
+    }
+
+    // find path to the state
+    List<Node> path = new ArrayList<>(assignments.size() + 1);
+    Node node = root;
+    path.add(node);
+    for (Map.Entry<MemoryLocation, Value> assignment : sorted(assignments)) {
+      node = node.children.get(assignment.getKey()).get(assignment.getValue());
+      path.add(node);
+    }
+    node.states.removeIf(s -> s == pState);
+
+    // update sizes and remove empty nodes
+    int i = 0;
+    for (Map.Entry<MemoryLocation, Value> assignment : sorted(assignments)) {
+      Node parent = path.get(i);
+      parent.size--;
+      Node child = path.get(++i);
+      if (child.size == 1) {
+        // child and everything below only contained the removed state
+        Map<Value, Node> values = parent.children.get(assignment.getKey());
+        values.remove(assignment.getValue());
+        if (values.isEmpty()) {
+          parent.children.remove(assignment.getKey());
+        }
+        return;
+      }
+    }
+    node.size--;
+  }
+
+  @Override
+  public Collection<AbstractState> getCoverageCandidates(AbstractState pState) {
+    PersistentMap<MemoryLocation, Value> assignments =
+        ((ValueAnalysisState) pState).getConstantsMap();
+    List<Map.Entry<MemoryLocation, Value>> sortedAssignments = new ArrayList<>(assignments.size());
+    sorted(assignments).forEach(sortedAssignments::add);
+
+    List<AbstractState> candidates = new ArrayList<>();
+    collect(root, assignments, sortedAssignments, 0, candidates);
+    return candidates;
+  }
+
+  /**
+   * Collect all states below the given node whose remaining assignments are contained in the
+   * assignments of the query starting at the given position.
+   */
+  private static void collect(
+      Node pNode,
+      Map<MemoryLocation, Value> pAssignments,
+      List<Map.Entry<MemoryLocation, Value>> pSortedAssignments,
+      int pFrom,
+      List<AbstractState> pOut) {
+    pOut.addAll(pNode.states);
+    int remaining = pSortedAssignments.size() - pFrom;
+    if (pNode.children.isEmpty() || remaining == 0) {
+      return;
+    }
+
+    if (pNode.children.size() <= remaining) {
+      // iterate over the children and look up their assignments in the query,
+      // children are always located after the assignment that leads to this node
+      for (Map.Entry<MemoryLocation, Map<Value, Node>> entry : pNode.children.entrySet()) {
+        Value value = pAssignments.get(entry.getKey());
+        Node child = value == null ? null : entry.getValue().get(value);
+        if (child != null) {
+          collect(
+              child,
+              pAssignments,
+              pSortedAssignments,
+              indexAfter(pSortedAssignments, pFrom, entry.getKey()),
+              pOut);
+        }
+      }
+
+    } else {
+      // iterate over the remaining assignments of the query and look up matching children
+      for (int i = pFrom; i < pSortedAssignments.size(); i++) {
+        Map.Entry<MemoryLocation, Value> assignment = pSortedAssignments.get(i);
+        Map<Value, Node> values = pNode.children.get(assignment.getKey());
+        Node child = values == null ? null : values.get(assignment.getValue());
+        if (child != null) {
+          collect(child, pAssignments, pSortedAssignments, i + 1, pOut);
+        }
+      }
+    }
+  }
+
+  /** Binary search for the position after the given memory location in the sorted assignments. */
+  private static int indexAfter(
+      List<Map.Entry<MemoryLocation, Value>> pSortedAssignments, int pFrom, MemoryLocation pKey) {
+    int low = pFrom;
+    int high = pSortedAssignments.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (pSortedAssignments.get(mid).getKey().compareTo(pKey) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.sosy_lab.cpachecker.util.test.TestDataTools.makeRandomValueAnalysisState;
+import static org.sosy_lab.cpachecker.util.test.TestDataTools.makeValueAnalysisState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+public class ValueAnalysisCoverageIndexTest {
+
+  private ValueAnalysisCoverageIndex index;
+
+  @Before
+  public void setUp() {
+    index = new ValueAnalysisCoverageIndex();
+  }
+
+  @Test
+  public void testCandidatesAreCoveringStates() {
+    ValueAnalysisState empty = makeValueAnalysisState();
+    ValueAnalysisState x0 = makeValueAnalysisState(1);
+    ValueAnalysisState x0x1 = makeValueAnalysisState(1, 2);
+    ValueAnalysisState x1 = makeValueAnalysisState(-1, 2);
+    ValueAnalysisState other = makeValueAnalysisState(3, 2);
+    for (ValueAnalysisState s : new ValueAnalysisState[] {empty, x0, x0x1, x1, other}) {
+      index.add(s);
+    }
+
+    assertThat(index.getCoverageCandidates(makeValueAnalysisState(1, 2, 5)))
+        .containsExactly(empty, x0, x0x1, x1);
+    assertThat(index.getCoverageCandidates(makeValueAnalysisState(1))).containsExactly(empty, x0);
+    assertThat(index.getCoverageCandidates(makeValueAnalysisState(-1, -1, 5)))
+        .containsExactly(empty);
+  }
+
+  @Test
+  public void testRemove() {
+    ValueAnalysisState x0 = makeValueAnalysisState(1);
+    ValueAnalysisState x0x1 = makeValueAnalysisState(1, 2);
+    ValueAnalysisState equalToX0 = makeValueAnalysisState(1);
+    index.add(x0);
+    index.add(x0x1);
+    index.add(equalToX0);
+
+    index.remove(x0);
+    assertThat(index.getCoverageCandidates(makeValueAnalysisState(1, 2)))
+        .containsExactly(x0x1, equalToX0);
+
+    index.remove(x0x1);
+    index.remove(x0x1);
+    assertThat(index.getCoverageCandidates(makeValueAnalysisState(1, 2)))
+        .containsExactly(equalToX0);
+
+    index.remove(equalToX0);
+    assertThat(index.getCoverageCandidates(makeValueAnalysisState(1, 2))).isEmpty();
+  }
+
+  @Test
+  public void testAgainstPairwiseChecks() {
+    Random random = new Random(0);
+    List<ValueAnalysisState> states = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      ValueAnalysisState s = makeRandomValueAnalysisState(random);
+      states.add(s);
+      index.add(s);
+    }
+    for (int i = 0; i < 100; i++) {
+      index.remove(states.remove(random.nextInt(states.size())));
+    }
+
+    for (int i = 0; i < 200; i++) {
+      ValueAnalysisState query = makeRandomValueAnalysisState(random);
+      List<AbstractState> expected = new ArrayList<>();
+      for (ValueAnalysisState s : states) {
+        if (query.isLessOrEqual(s)) {
+          expected.add(s);
+        }
+      }
+      assertThat(index.getCoverageCandidates(query)).containsExactlyElementsIn(expected);
+    }
+  }
+}
@@ -51,6 +51,7 @@ import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
 import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
 import org.sosy_lab.cpachecker.core.defaults.LatticeAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageSummarizable;
 import org.sosy_lab.cpachecker.core.interfaces.FormulaReportingState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
@@ -76,7 +77,7 @@ import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
 public class ValueAnalysisState
     implements AbstractQueryableState, FormulaReportingState,
         ForgetfulState<ValueAnalysisInformation>, Serializable, Graphable,
-        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable {
+        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable, CoverageSummarizable {
 
   private static final long serialVersionUID = -3152134511524554357L;
 
@@ -682,6 +683,11 @@ public class ValueAnalysisState
     return Collections.unmodifiableMap(constantsMap);
   }
 
+  /** Returns the (immutable) map of assignments of this state without copying it. */
+  PersistentMap<MemoryLocation, Value> getConstantsMap() {
+    return constantsMap;
+  }
+
   /**
    * This method acts as factory to create a value-analysis interpolant from this value-analysis state.
    *
@@ -792,4 +798,18 @@ public class ValueAnalysisState
   public Object getPseudoHashCode() {
     return this;
   }
+
+  /**
+   * The summary contains one bit for each assignment of this state. If this state is less or
+   * equal than another state, it contains all assignments of the other state and thus all bits of
+   * its summary.
+   */
+  @Override
+  public long getCoverageSummary() {
+    long summary = 0;
+    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.entrySet()) {
+      summary |= 1L << (31 * entry.getKey().hashCode() + entry.getValue().hashCode());
+    }
+    return summary;
+  }
 }
@@ -0,0 +1,45 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import org.sosy_lab.cpachecker.core.defaults.StopSepOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractDomain;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndex;
+import org.sosy_lab.cpachecker.core.interfaces.IndexedStopOperator;
+
+/**
+ * Stop-sep operator of the value analysis that can index the reached states by their assignments
+ * (cf. {@link ValueAnalysisCoverageIndex}).
+ */
+class ValueAnalysisStopOperator extends StopSepOperator implements IndexedStopOperator {
+
+  ValueAnalysisStopOperator(AbstractDomain pDomain) {
+    super(pDomain);
+  }
+
+  @Override
+  public CoverageIndex createCoverageIndex() {
+    return new ValueAnalysisCoverageIndex();
+  }
+}
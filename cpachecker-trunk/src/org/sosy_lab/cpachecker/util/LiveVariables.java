@@ -38,21 +38,21 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSortedSet;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
-import com.google.common.collect.SortedSetMultimap;
-import com.google.common.collect.TreeMultimap;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -86,8 +86,10 @@ import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.livevar.LiveVariablesCPA;
+import org.sosy_lab.cpachecker.cpa.livevar.LiveVariablesTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+import org.sosy_lab.cpachecker.util.dataflow.NodeBitSets;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimit;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
 import org.sosy_lab.cpachecker.util.resources.WalltimeLimit;
@@ -154,6 +156,10 @@ public class LiveVariables {
                     min=0)
     private TimeSpan partwiseLivenessCheckTime = TimeSpan.ofSeconds(20);
 
+    @Option(secure=true, description="Compute the function-wise live variables with a dedicated"
+        + " backward bit-vector analysis on the CFA instead of a CPA analysis.")
+    private boolean useBitVectorAnalysis = true;
+
     public LiveVariablesConfiguration(Configuration config) throws InvalidConfigurationException {
       config.inject(this);
     }
@@ -223,7 +229,9 @@ public class LiveVariables {
    */
   private LiveVariables() {
     variableClassification = null;
-    liveVariablesStrings = null;
+    declarations = null;
+    declarationPositions = null;
+    declarationNamePositions = null;
     globalVariables = null;
     evaluationStrategy = null;
     language = null;
@@ -232,7 +240,9 @@ public class LiveVariables {
   }
 
   // For ensuring deterministic behavior, all collections should be sorted!
-  private final ImmutableSetMultimap<CFANode, Equivalence.Wrapper<ASimpleDeclaration>> liveVariables; // sorted by construction
+  private final ImmutableList<Equivalence.Wrapper<ASimpleDeclaration>> declarations; // sorted by name
+  private final ImmutableMap<Equivalence.Wrapper<ASimpleDeclaration>, Integer> declarationPositions;
+  private final NodeBitSets liveVariables; // bits are positions in declarations
   private final ImmutableSortedSet<Equivalence.Wrapper<ASimpleDeclaration>> globalVariables;
   private final VariableClassification variableClassification;
   private final EvaluationStrategy evaluationStrategy;
@@ -241,24 +251,36 @@ public class LiveVariables {
   /** For efficient access to the string representation of the declarations
    * we use these maps additionally.
    */
-  private final ImmutableSetMultimap<CFANode, String> liveVariablesStrings; // sorted by construction
+  private final ImmutableMap<String, Integer> declarationNamePositions;
   private final ImmutableSortedSet<String> globalVariablesStrings;
 
-  private LiveVariables(Multimap<CFANode, Equivalence.Wrapper<ASimpleDeclaration>> pLiveVariables,
+  /**
+   * @param pDeclarations all declarations, sorted by their qualified names
+   * @param pLiveVariables the live variables of each node as positions in pDeclarations
+   */
+  private LiveVariables(ImmutableList<Equivalence.Wrapper<ASimpleDeclaration>> pDeclarations,
+                        NodeBitSets pLiveVariables,
                         VariableClassification pVariableClassification,
                         Set<Equivalence.Wrapper<ASimpleDeclaration>> pGlobalVariables,
                         EvaluationStrategy pEvaluationStrategy,
                         Language pLanguage) {
 
     Ordering<Equivalence.Wrapper<ASimpleDeclaration>> declarationOrdering = Ordering.natural().onResultOf(FROM_EQUIV_WRAPPER_TO_STRING);
-
-    // ImmutableSortedSetMultimap does not exist, in order to create a sorted immutable Multimap
-    // we sort it and create an immutable copy (Guava's Immutable* classes guarantee to keep the order).
-    SortedSetMultimap<CFANode, Equivalence.Wrapper<ASimpleDeclaration>> sortedLiveVariables =
-        TreeMultimap.create(Ordering.natural(), declarationOrdering);
-    sortedLiveVariables.putAll(pLiveVariables);
-    liveVariables = ImmutableSetMultimap.copyOf(sortedLiveVariables);
-    assert pLiveVariables.size() == liveVariables.size() : "ASimpleDeclarations with identical qualified names";
+    assert declarationOrdering.isOrdered(pDeclarations) : "declarations are not sorted";
+
+    declarations = pDeclarations;
+    liveVariables = pLiveVariables;
+    ImmutableMap.Builder<Equivalence.Wrapper<ASimpleDeclaration>, Integer> positions =
+        ImmutableMap.builder();
+    Map<String, Integer> namePositions = new HashMap<>();
+    for (int i = 0; i < declarations.size(); i++) {
+      positions.put(declarations.get(i), i);
+      Integer previous =
+          namePositions.putIfAbsent(FROM_EQUIV_WRAPPER_TO_STRING.apply(declarations.get(i)), i);
+      assert previous == null : "ASimpleDeclarations with identical qualified names";
+    }
+    declarationPositions = positions.build();
+    declarationNamePositions = ImmutableMap.copyOf(namePositions);
 
     globalVariables = ImmutableSortedSet.copyOf(declarationOrdering, pGlobalVariables);
     assert pGlobalVariables.size() == globalVariables.size() : "Global ASimpleDeclarations with identical qualified names";
@@ -268,8 +290,6 @@ public class LiveVariables {
     language = pLanguage;
 
     globalVariablesStrings = ImmutableSortedSet.copyOf(Collections2.transform(globalVariables, FROM_EQUIV_WRAPPER_TO_STRING));
-
-    liveVariablesStrings = ImmutableSetMultimap.copyOf(Multimaps.transformValues(liveVariables, FROM_EQUIV_WRAPPER_TO_STRING));
   }
 
   public boolean isVariableLive(ASimpleDeclaration variable, CFANode location) {
@@ -285,7 +305,8 @@ public class LiveVariables {
     }
 
     // check if a variable is live at a given point
-    return liveVariables.containsEntry(location, wrappedDecl);
+    Integer position = declarationPositions.get(wrappedDecl);
+    return position != null && liveVariables.get(location, position);
   }
 
   public boolean isVariableLive(final String varName, CFANode location) {
@@ -298,7 +319,8 @@ public class LiveVariables {
     }
 
     // check if a variable is live at a given point
-    return liveVariablesStrings.containsEntry(location, varName);
+    Integer position = declarationNamePositions.get(varName);
+    return position != null && liveVariables.get(location, position);
   }
 
   /**
@@ -306,18 +328,23 @@ public class LiveVariables {
    * deterministic iteration order.
    */
   public Set<ASimpleDeclaration> getLiveVariablesForNode(CFANode pNode) {
-    return from(liveVariables.get(pNode))
-        .append(globalVariables)
-        .transform(FROM_EQUIV_WRAPPER)
-        .toSet();
+    ImmutableSet.Builder<ASimpleDeclaration> result = ImmutableSet.builder();
+    for (int i = liveVariables.nextSetBit(pNode, 0);
+        i >= 0;
+        i = liveVariables.nextSetBit(pNode, i + 1)) {
+      result.add(declarations.get(i).get());
+    }
+    return result.addAll(Collections2.transform(globalVariables, FROM_EQUIV_WRAPPER)).build();
   }
 
   /** @return iterable of all variables which are alive at at least one node. */
   public Set<ASimpleDeclaration> getAllLiveVariables() {
-    return from(liveVariables.values())
-        .append(globalVariables)
-        .transform(FROM_EQUIV_WRAPPER)
-        .toSet();
+    ImmutableSet.Builder<ASimpleDeclaration> result = ImmutableSet.builder();
+    BitSet allLiveVariables = liveVariables.union();
+    for (int i = allLiveVariables.nextSetBit(0); i >= 0; i = allLiveVariables.nextSetBit(i + 1)) {
+      result.add(declarations.get(i).get());
+    }
+    return result.addAll(Collections2.transform(globalVariables, FROM_EQUIV_WRAPPER)).build();
   }
 
   public static Optional<LiveVariables> createWithAllVariablesAsLive(
@@ -428,13 +455,20 @@ public class LiveVariables {
       limitChecker = null;
     }
 
-    Optional<AnalysisParts> parts =
-        getNecessaryAnalysisComponents(cfa, logger, shutdownNotifier, config.evaluationStrategy);
-    Multimap<CFANode, Wrapper<ASimpleDeclaration>> liveVariables = null;
+    Pair<ImmutableList<Wrapper<ASimpleDeclaration>>, NodeBitSets> liveVariables = null;
 
     // create live variables
-    if (parts.isPresent()) {
-      liveVariables = addLiveVariablesFromCFA(cfa, logger, parts.get(), config.evaluationStrategy);
+    if (config.useBitVectorAnalysis
+        && config.evaluationStrategy == EvaluationStrategy.FUNCTION_WISE) {
+      liveVariables = computeFunctionWiseLiveVariables(cfa, logger, shutdownNotifier);
+
+    } else {
+      Optional<AnalysisParts> parts =
+          getNecessaryAnalysisComponents(cfa, logger, shutdownNotifier, config.evaluationStrategy);
+      if (parts.isPresent()) {
+        liveVariables =
+            addLiveVariablesFromCFA(cfa, logger, parts.get(), config.evaluationStrategy);
+      }
     }
 
     if (limitChecker != null) {
@@ -459,7 +493,8 @@ public class LiveVariables {
     }
 
     return new LiveVariables(
-        liveVariables,
+        liveVariables.getFirst(),
+        liveVariables.getSecond(),
         variableClassification,
         globalVariables,
         config.evaluationStrategy,
@@ -476,7 +511,35 @@ public class LiveVariables {
       FROM_EQUIV_WRAPPER_TO_STRING =
           Functions.compose(ASimpleDeclaration::getQualifiedName, FROM_EQUIV_WRAPPER);
 
-  private static Multimap<CFANode, Wrapper<ASimpleDeclaration>> addLiveVariablesFromCFA(
+  /**
+   * Compute the function-wise live variables with a backward bit-vector analysis directly on the
+   * CFA, which avoids the overhead of the CPA algorithm and the reached set.
+   */
+  private static @Nullable Pair<ImmutableList<Wrapper<ASimpleDeclaration>>, NodeBitSets>
+      computeFunctionWiseLiveVariables(
+          final CFA pCfa, final LogManager logger, final ShutdownNotifier shutdownNotifier) {
+
+    logger.log(Level.INFO, "Starting live variables collection ...");
+    try {
+      Configuration config =
+          Configuration.builder()
+              .loadFromResource(LiveVariables.class, "liveVariables-intraprocedural.properties")
+              .build();
+      LiveVariablesTransferRelation transfer =
+          new LiveVariablesTransferRelation(
+              pCfa.getVarClassification(), config, pCfa.getLanguage(), pCfa, logger);
+      NodeBitSets liveVariables = transfer.computeFunctionWiseLiveVariables(shutdownNotifier);
+      logger.log(Level.INFO, "Stopping live variables collection ...");
+      return Pair.of(transfer.getDeclarations(), liveVariables);
+
+    } catch (InvalidConfigurationException | CPAException | InterruptedException e) {
+      logger.logUserException(Level.WARNING, e, "Could not compute live variables.");
+      return null;
+    }
+  }
+
+  private static @Nullable Pair<ImmutableList<Wrapper<ASimpleDeclaration>>, NodeBitSets>
+      addLiveVariablesFromCFA(
       final CFA pCfa,
       final LogManager logger,
       AnalysisParts analysisParts,
@@ -548,7 +611,7 @@ public class LiveVariables {
 
     LiveVariablesCPA liveVarCPA = ((WrapperCPA) analysisParts.cpa).retrieveWrappedCpa(LiveVariablesCPA.class);
 
-    return liveVarCPA.getLiveVariables();
+    return Pair.of(liveVarCPA.getDeclarations(), liveVarCPA.getLiveVariableBits());
   }
 
   private static Optional<AnalysisParts> getNecessaryAnalysisComponents(final CFA cfa,
@@ -0,0 +1,166 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Ordering;
+import java.util.List;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.ASimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Tests that the function-wise live variables computed by the bit-vector analysis are the same as
+ * the ones computed by the CPA analysis.
+ */
+public class LiveVariablesTest {
+
+  private static final String[] LOOPS = {
+    "int g;",
+    "int main() {",
+    "  int a = 0;",
+    "  int b = 1;",
+    "  int c;",
+    "  while (a < 10) {",
+    "    if (b > 5) {",
+    "      c = a + b;",
+    "      b = c;",
+    "    } else {",
+    "      b = b + 2;",
+    "    }",
+    "    a++;",
+    "  }",
+    "  g = b;",
+    "  return a;",
+    "}"
+  };
+
+  private static final String[] FUNCTIONS = {
+    "int inc(int x) {",
+    "  int y = x + 1;",
+    "  return y;",
+    "}",
+    "void set(int *p, int v) {",
+    "  *p = v;",
+    "}",
+    "int main() {",
+    "  int a = 1;",
+    "  int b;",
+    "  int unused = 5;",
+    "  set(&b, a);",
+    "  a = inc(b);",
+    "  for (int i = 0; i < a; i++) {",
+    "    unused = inc(i);",
+    "  }",
+    "  if (a == 3) {",
+    "  ERROR:",
+    "    return 1;",
+    "  }",
+    "  return 0;",
+    "}"
+  };
+
+  private static final String[] STRUCTS = {
+    "struct s { int f; int g; };",
+    "int main() {",
+    "  struct s v;",
+    "  int arr[3];",
+    "  int x = 0;",
+    "  v.f = x;",
+    "  arr[x] = v.f;",
+    "  x = arr[0] ? v.g : x;",
+    "  switch (x) {",
+    "    case 1: return v.f;",
+    "    default: break;",
+    "  }",
+    "  return x;",
+    "}"
+  };
+
+  @Test
+  public void testLoops() throws Exception {
+    assertBitVectorAnalysisAgrees(LOOPS);
+  }
+
+  @Test
+  public void testFunctions() throws Exception {
+    assertBitVectorAnalysisAgrees(FUNCTIONS);
+  }
+
+  @Test
+  public void testStructsAndArrays() throws Exception {
+    assertBitVectorAnalysisAgrees(STRUCTS);
+  }
+
+  @Test
+  public void testLocalVariableIsNotLiveAfterLastUse() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(createConfig(true), LOOPS);
+    LiveVariables liveVariables = cfa.getLiveVariables().get();
+
+    CFANode exit = cfa.getMainFunction().getExitNode();
+    assertThat(liveVariables.isVariableLive("main::c", exit)).isFalse();
+    assertThat(liveVariables.isVariableLive("main::a", cfa.getMainFunction())).isFalse();
+    assertThat(liveVariables.getAllLiveVariables()).isNotEmpty();
+  }
+
+  private void assertBitVectorAnalysisAgrees(String... pProgram) throws Exception {
+    List<ImmutableSortedSet<String>> expected = getLiveVariableNames(false, pProgram);
+    List<ImmutableSortedSet<String>> actual = getLiveVariableNames(true, pProgram);
+    assertThat(actual).containsExactlyElementsIn(expected).inOrder();
+  }
+
+  /**
+   * Returns the names of the live variables of all nodes, ordered by node number. The CFAs of the
+   * same program are numbered in the same order, so the lists of two CFAs can be compared.
+   */
+  private static List<ImmutableSortedSet<String>> getLiveVariableNames(
+      boolean pUseBitVectorAnalysis, String... pProgram) throws Exception {
+    CFA cfa = TestDataTools.makeCFA(createConfig(pUseBitVectorAnalysis), pProgram);
+    LiveVariables liveVariables = cfa.getLiveVariables().get();
+
+    ImmutableList.Builder<ImmutableSortedSet<String>> result = ImmutableList.builder();
+    for (CFANode node : Ordering.natural().sortedCopy(cfa.getAllNodes())) {
+      ImmutableSortedSet.Builder<String> names = ImmutableSortedSet.naturalOrder();
+      for (ASimpleDeclaration decl : liveVariables.getLiveVariablesForNode(node)) {
+        names.add(decl.getQualifiedName());
+      }
+      result.add(names.build());
+    }
+    return result.build();
+  }
+
+  private static Configuration createConfig(boolean pUseBitVectorAnalysis) throws Exception {
+    return TestDataTools.configurationForTest()
+        .setOption("cfa.findLiveVariables", "true")
+        .setOption("liveVar.evaluationStrategy", "FUNCTION_WISE")
+        .setOption("liveVar.useBitVectorAnalysis", Boolean.toString(pUseBitVectorAnalysis))
+        .build();
+  }
+}
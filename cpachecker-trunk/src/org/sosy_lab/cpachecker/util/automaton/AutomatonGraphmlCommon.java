@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.util.automaton;
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -52,6 +53,9 @@ import javax.annotation.Nullable;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -105,6 +109,7 @@ import org.sosy_lab.cpachecker.util.CFATraversal;
 import org.sosy_lab.cpachecker.util.CFATraversal.CFAVisitor;
 import org.sosy_lab.cpachecker.util.CFATraversal.TraversalProcess;
 import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.SpecificationProperty;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
@@ -339,6 +344,53 @@ public class AutomatonGraphmlCommon {
     return BaseEncoding.base16().lowerCase().encode(hash.asBytes());
   }
 
+  private static final String XML_DECLARATION =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n";
+
+  /** Returns the data of the witness graph itself, in the order in which it is written. */
+  private static List<Pair<KeyDef, String>> getGraphData(
+      WitnessType pGraphType, CFA pCfa, VerificationTaskMetaData pVerificationTaskMetaData)
+      throws IOException {
+    ImmutableList.Builder<Pair<KeyDef, String>> result = ImmutableList.builder();
+    result.add(Pair.of(KeyDef.WITNESS_TYPE, pGraphType.toString()));
+    result.add(Pair.of(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
+    result.add(Pair.of(KeyDef.PRODUCER, "CPAchecker " + CPAchecker.getCPAcheckerVersion()));
+
+    int nSpecs = 0;
+    for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
+      result.add(Pair.of(KeyDef.SPECIFICATION, property.toString()));
+      ++nSpecs;
+    }
+
+    for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
+      result.add(
+          Pair.of(
+              KeyDef.SPECIFICATION,
+              MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
+      ++nSpecs;
+    }
+
+    if (nSpecs == 0) {
+      result.add(Pair.of(KeyDef.SPECIFICATION, "TRUE"));
+    }
+
+    for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
+      result.add(Pair.of(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
+    }
+
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Pair.of(KeyDef.PROGRAMFILE, programFile.toString()));
+    }
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Pair.of(KeyDef.PROGRAMHASH, computeHash(programFile)));
+    }
+
+    result.add(Pair.of(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
+    ZonedDateTime now = ZonedDateTime.now().withNano(0);
+    result.add(Pair.of(KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+    return result.build();
+  }
+
   public static class GraphMlBuilder {
 
     private final Document doc;
@@ -371,47 +423,10 @@ public class AutomatonGraphmlCommon {
       graph = doc.createElement("graph");
       root.appendChild(graph);
       graph.setAttribute("edgedefault", "directed");
-      graph.appendChild(createDataElement(KeyDef.WITNESS_TYPE, pGraphType.toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.PRODUCER, "CPAchecker " + CPAchecker.getCPAcheckerVersion()));
-
-      int nSpecs = 0;
-      for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, property.toString()));
-        ++nSpecs;
-      }
-
-      for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
-        graph.appendChild(
-            createDataElement(
-                KeyDef.SPECIFICATION,
-                MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
-        ++nSpecs;
-      }
-
-      if (nSpecs == 0) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, "TRUE"));
+      for (Pair<KeyDef, String> data :
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData)) {
+        graph.appendChild(createDataElement(data.getFirst(), data.getSecond()));
       }
-
-      for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
-        graph.appendChild(createDataElement(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
-      }
-
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMFILE, programFile.toString()));
-      }
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMHASH, computeHash(programFile)));
-      }
-
-      graph.appendChild(
-          createDataElement(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
-      ZonedDateTime now = ZonedDateTime.now().withNano(0);
-      graph.appendChild(
-          createDataElement(
-              KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
     }
 
     private void defineKey(KeyDef pKeyDef) {
@@ -495,7 +510,7 @@ public class AutomatonGraphmlCommon {
       }
 
       try {
-        pTarget.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+        pTarget.append(XML_DECLARATION);
 
         TransformerFactory tf = TransformerFactory.newInstance();
         Transformer transformer = tf.newTransformer();
@@ -516,6 +531,147 @@ public class AutomatonGraphmlCommon {
 
   }
 
+  /**
+   * Writes a witness in GraphML format directly to its target instead of building a DOM tree
+   * first. This avoids the DOM copy of the witness, but the caller still needs the nodes and edges
+   * it writes, so the memory needed does grow with the size of the witness. In contrast to {@link
+   * GraphMlBuilder}, all keys are declared upfront, and each node or edge including all of its data
+   * has to be written completely before the next one is started.
+   */
+  public static class GraphMlStreamWriter {
+
+    private final XMLStreamWriter writer;
+
+    private int depth = 0;
+
+    public GraphMlStreamWriter(
+        Appendable pTarget,
+        WitnessType pGraphType,
+        @Nullable String pDefaultSourceFileName,
+        CFA pCfa,
+        VerificationTaskMetaData pVerificationTaskMetaData)
+        throws IOException {
+      pTarget.append(XML_DECLARATION);
+      try {
+        writer = XMLOutputFactory.newInstance().createXMLStreamWriter(CharStreams.asWriter(pTarget));
+        writer.writeStartElement("graphml");
+        writer.writeNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+        writer.writeDefaultNamespace("http://graphml.graphdrawing.org/xmlns");
+        depth++;
+
+        for (KeyDef keyDef : KeyDef.values()) {
+          writeKeyDef(
+              keyDef,
+              keyDef == KeyDef.ORIGINFILE
+                  ? Optional.of(pDefaultSourceFileName)
+                  : Optional.ofNullable(keyDef.defaultValue));
+        }
+
+        startElement("graph");
+        writer.writeAttribute("edgedefault", "directed");
+        for (Pair<KeyDef, String> data :
+            getGraphData(pGraphType, pCfa, pVerificationTaskMetaData)) {
+          addData(data.getFirst(), data.getSecond());
+        }
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+
+    private void writeKeyDef(KeyDef pKeyDef, Optional<String> pDefaultValue)
+        throws XMLStreamException {
+      startElement(GraphMLTag.KEY.toString());
+      writer.writeAttribute("id", pKeyDef.id);
+      writer.writeAttribute("for", pKeyDef.keyFor.toString());
+      writer.writeAttribute("attr.name", pKeyDef.attrName);
+      writer.writeAttribute("attr.type", pKeyDef.attrType);
+      if (pDefaultValue.isPresent()) {
+        startElement(GraphMLTag.DEFAULT.toString());
+        writer.writeCharacters(pDefaultValue.get());
+        depth--;
+        writer.writeEndElement();
+      }
+      endElement0();
+    }
+
+    private void startElement(String pTag) throws XMLStreamException {
+      newLine();
+      writer.writeStartElement(pTag);
+      depth++;
+    }
+
+    private void endElement0() throws XMLStreamException {
+      depth--;
+      newLine();
+      writer.writeEndElement();
+    }
+
+    private void newLine() throws XMLStreamException {
+      writer.writeCharacters("\n");
+      for (int i = 0; i < depth; i++) {
+        writer.writeCharacters(" ");
+      }
+    }
+
+    public void startNode(String pNodeId, NodeType pNodeType) throws IOException {
+      try {
+        startElement(GraphMLTag.NODE.toString());
+        writer.writeAttribute("id", pNodeId);
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+      if (pNodeType != defaultNodeType) {
+        addData(KeyDef.NODETYPE, pNodeType.toString());
+      }
+    }
+
+    public void startEdge(String pFrom, String pTo) throws IOException {
+      try {
+        startElement(GraphMLTag.EDGE.toString());
+        writer.writeAttribute("source", pFrom);
+        writer.writeAttribute("target", pTo);
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+
+    /** Adds a data element to the node or edge that is currently written. */
+    public void addData(KeyDef pKey, String pValue) throws IOException {
+      try {
+        newLine();
+        writer.writeStartElement(GraphMLTag.DATA.toString());
+        writer.writeAttribute("key", pKey.id);
+        writer.writeCharacters(pValue);
+        writer.writeEndElement();
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+
+    /** Finishes the node or edge that is currently written. */
+    public void endElement() throws IOException {
+      try {
+        endElement0();
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+
+    /** Finishes the graph and flushes the output, without closing the underlying target. */
+    public void finish() throws IOException {
+      try {
+        endElement0();
+        endElement0();
+        writer.writeCharacters("\n");
+        writer.writeEndDocument();
+        writer.flush();
+        writer.close();
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
   public static boolean handleAsEpsilonEdge(CFAEdge pEdge, CFAEdgeWithAdditionalInfo
       pAdditionalInfo) {
     if (pAdditionalInfo != null && !pAdditionalInfo.getInfos().isEmpty()) {
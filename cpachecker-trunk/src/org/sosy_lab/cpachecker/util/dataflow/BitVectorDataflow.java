@@ -0,0 +1,191 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dataflow;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Ordering;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.cfa.CFAReversePostorder;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+
+/**
+ * A worklist solver for dataflow problems on a set of CFA nodes whose values are bit vectors that
+ * are joined by union, e.g., live variables or reaching definitions. The value of each node is the
+ * union of its initial bits and the results of the transfer function for all edges that flow into
+ * the node, and the solver computes the least fixpoint of these equations.
+ *
+ * <p>The nodes are ordered by their reverse-postorder ids (cf. {@link CFAReversePostorder}) in the
+ * direction of the analysis. The worklist is initially filled with all nodes in this order, such
+ * that most nodes are handled only after their predecessors, and a node whose value changes is
+ * appended to the worklist unless it is already waiting. Without loops, each node is handled once.
+ */
+public final class BitVectorDataflow {
+
+  public enum Direction {
+    /** Values flow from the predecessor of an edge to its successor. */
+    FORWARD,
+    /** Values flow from the successor of an edge to its predecessor. */
+    BACKWARD
+  }
+
+  /** The transfer function of the analysis. */
+  @FunctionalInterface
+  public interface EdgeTransfer {
+
+    /**
+     * Compute the bits that flow over an edge.
+     *
+     * @param pEdge the edge
+     * @param pIn the bits at the source of the edge (in the direction of the analysis), must not
+     *     be modified
+     * @return the bits at the target of the edge (the array may be longer or shorter than the
+     *     input), or {@code null} if nothing flows over the edge
+     */
+    @Nullable
+    long[] apply(CFAEdge pEdge, long[] pIn) throws CPATransferException, InterruptedException;
+  }
+
+  private static final long[] EMPTY = new long[0];
+
+  private final Direction direction;
+  private final ImmutableList<CFANode> nodes;
+  private final ImmutableMap<CFANode, Integer> nodeIndex;
+  private final long[][] values;
+
+  public BitVectorDataflow(Collection<CFANode> pNodes, Direction pDirection) {
+    direction = checkNotNull(pDirection);
+
+    Comparator<CFANode> byReversePostorder =
+        Comparator.comparingInt(CFANode::getReversePostorderId);
+    if (direction == Direction.FORWARD) {
+      // the entry node has the highest reverse-postorder id
+      byReversePostorder = byReversePostorder.reversed();
+    }
+    nodes =
+        Ordering.from(Comparator.comparing(CFANode::getFunctionName))
+            .compound(byReversePostorder)
+            .compound(Comparator.comparingInt(CFANode::getNodeNumber))
+            .immutableSortedCopy(pNodes);
+
+    ImmutableMap.Builder<CFANode, Integer> indexBuilder = ImmutableMap.builder();
+    for (int i = 0; i < nodes.size(); i++) {
+      indexBuilder.put(nodes.get(i), i);
+    }
+    nodeIndex = indexBuilder.build();
+    values = new long[nodes.size()][];
+  }
+
+  /** Add bits that hold at the given node independently of any edge, e.g., at an entry node. */
+  public void addInitialBits(CFANode pNode, BitSet pBits) {
+    Integer index = nodeIndex.get(pNode);
+    checkArgument(index != null, "Node %s is not part of the analysis", pNode);
+    addBits(index, pBits.toLongArray());
+  }
+
+  /**
+   * Compute the least fixpoint. This method may only be called once.
+   *
+   * @param pFlowEdges the edges over which the value of a node flows to other nodes, i.e., the
+   *     leaving edges for a forward analysis and the entering edges for a backward analysis. Edges
+   *     to nodes that are not part of the analysis are ignored.
+   * @param pTransfer the transfer function for the edges
+   * @return the value of each node
+   */
+  public NodeBitSets solve(
+      Function<CFANode, ? extends Iterable<? extends CFAEdge>> pFlowEdges,
+      EdgeTransfer pTransfer,
+      ShutdownNotifier pShutdownNotifier)
+      throws CPATransferException, InterruptedException {
+
+    // FIFO queue of node indices, each node is in the queue at most once
+    int[] worklist = new int[nodes.size()];
+    BitSet waiting = new BitSet(nodes.size());
+    for (int i = 0; i < worklist.length; i++) {
+      worklist[i] = i;
+    }
+    waiting.set(0, nodes.size());
+    int head = 0;
+    int pending = nodes.size();
+
+    while (pending > 0) {
+      pShutdownNotifier.shutdownIfNecessary();
+
+      int current = worklist[head];
+      head = (head + 1) % worklist.length;
+      pending--;
+      waiting.clear(current);
+
+      long[] in = values[current] == null ? EMPTY : values[current];
+      for (CFAEdge edge : pFlowEdges.apply(nodes.get(current))) {
+        CFANode target =
+            direction == Direction.FORWARD ? edge.getSuccessor() : edge.getPredecessor();
+        Integer targetIndex = nodeIndex.get(target);
+        if (targetIndex == null) {
+          continue;
+        }
+        long[] out = pTransfer.apply(edge, in);
+        if (out != null && addBits(targetIndex, out) && !waiting.get(targetIndex)) {
+          worklist[(head + pending) % worklist.length] = targetIndex;
+          waiting.set(targetIndex);
+          pending++;
+        }
+      }
+    }
+
+    return NodeBitSets.of(nodes, values);
+  }
+
+  /** Add the bits to the value of the node and return whether the value changed. */
+  private boolean addBits(int pIndex, long[] pBits) {
+    long[] value = values[pIndex];
+    if (value == null || value.length < pBits.length) {
+      long[] grown = new long[pBits.length];
+      if (value != null) {
+        System.arraycopy(value, 0, grown, 0, value.length);
+      }
+      value = grown;
+      values[pIndex] = value;
+    }
+    boolean changed = false;
+    for (int i = 0; i < pBits.length; i++) {
+      long updated = value[i] | pBits[i];
+      if (updated != value[i]) {
+        value[i] = updated;
+        changed = true;
+      }
+    }
+    return changed;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dataflow;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.cfa.CFAReversePostorder;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflow.Direction;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflow.EdgeTransfer;
+
+public class BitVectorDataflowTest {
+
+  private static final int FAR_BIT = 130;
+
+  /** The edge description is either "" or "set i" or "clear i". */
+  private static final EdgeTransfer TRANSFER =
+      (edge, in) -> {
+        BitSet out = BitSet.valueOf(in);
+        String description = edge.getDescription();
+        if (description.startsWith("set ")) {
+          out.set(Integer.parseInt(description.substring(4)));
+        } else if (description.startsWith("clear ")) {
+          out.clear(Integer.parseInt(description.substring(6)));
+        }
+        return out.toLongArray();
+      };
+
+  private CFANode entry;
+  private CFANode loopHead;
+  private CFANode thenBranch;
+  private CFANode elseBranch;
+  private CFANode join;
+  private CFANode exit;
+  private List<CFANode> nodes;
+
+  @Before
+  public void setup() {
+    // entry -> loopHead -> (thenBranch | elseBranch) -> join -> loopHead, loopHead -> exit
+    entry = new CFANode("test");
+    loopHead = new CFANode("test");
+    thenBranch = new CFANode("test");
+    elseBranch = new CFANode("test");
+    join = new CFANode("test");
+    exit = new CFANode("test");
+    nodes = ImmutableList.of(entry, loopHead, thenBranch, elseBranch, join, exit);
+
+    addEdge(entry, loopHead, "");
+    addEdge(loopHead, thenBranch, "set 1");
+    addEdge(loopHead, elseBranch, "");
+    addEdge(thenBranch, join, "");
+    addEdge(elseBranch, join, "clear 1");
+    addEdge(join, loopHead, "set " + FAR_BIT);
+    addEdge(loopHead, exit, "clear " + FAR_BIT);
+
+    new CFAReversePostorder().assignSorting(entry);
+  }
+
+  private static void addEdge(CFANode pPredecessor, CFANode pSuccessor, String pDescription) {
+    CFAEdge edge = new BlankEdge("", FileLocation.DUMMY, pPredecessor, pSuccessor, pDescription);
+    pPredecessor.addLeavingEdge(edge);
+    pSuccessor.addEnteringEdge(edge);
+  }
+
+  private static BitSet bits(int... pBits) {
+    BitSet result = new BitSet();
+    for (int bit : pBits) {
+      result.set(bit);
+    }
+    return result;
+  }
+
+  @Test
+  public void testForward() throws Exception {
+    BitVectorDataflow dataflow = new BitVectorDataflow(nodes, Direction.FORWARD);
+    dataflow.addInitialBits(entry, bits(0));
+    NodeBitSets result =
+        dataflow.solve(CFAUtils::leavingEdges, TRANSFER, ShutdownNotifier.createDummy());
+
+    assertThat(result.getBits(entry)).isEqualTo(bits(0));
+    assertThat(result.getBits(loopHead)).isEqualTo(bits(0, 1, FAR_BIT));
+    assertThat(result.getBits(thenBranch)).isEqualTo(bits(0, 1, FAR_BIT));
+    assertThat(result.getBits(join)).isEqualTo(bits(0, 1, FAR_BIT));
+    assertThat(result.getBits(exit)).isEqualTo(bits(0, 1));
+  }
+
+  @Test
+  public void testBackward() throws Exception {
+    BitVectorDataflow dataflow = new BitVectorDataflow(nodes, Direction.BACKWARD);
+    dataflow.addInitialBits(exit, bits(FAR_BIT));
+    NodeBitSets result =
+        dataflow.solve(CFAUtils::enteringEdges, TRANSFER, ShutdownNotifier.createDummy());
+
+    assertThat(result.getBits(exit)).isEqualTo(bits(FAR_BIT));
+    assertThat(result.getBits(loopHead)).isEqualTo(bits(1, FAR_BIT));
+    assertThat(result.getBits(elseBranch)).isEqualTo(bits(FAR_BIT));
+    assertThat(result.getBits(entry)).isEqualTo(bits(1, FAR_BIT));
+  }
+
+  @Test
+  public void testAcyclicNodesAreHandledOnce() throws Exception {
+    // entry -> (thenBranch | elseBranch) -> join, without the loop of the other tests
+    CFANode start = new CFANode("acyclic");
+    CFANode left = new CFANode("acyclic");
+    CFANode right = new CFANode("acyclic");
+    CFANode end = new CFANode("acyclic");
+    addEdge(start, left, "set 1");
+    addEdge(start, right, "set 2");
+    addEdge(left, end, "");
+    addEdge(right, end, "set 3");
+    new CFAReversePostorder().assignSorting(start);
+
+    List<CFAEdge> handledEdges = new ArrayList<>();
+    BitVectorDataflow dataflow =
+        new BitVectorDataflow(ImmutableList.of(end, right, left, start), Direction.FORWARD);
+    dataflow.addInitialBits(start, bits(0));
+    NodeBitSets result =
+        dataflow.solve(
+            CFAUtils::leavingEdges,
+            (edge, in) -> {
+              handledEdges.add(edge);
+              return TRANSFER.apply(edge, in);
+            },
+            ShutdownNotifier.createDummy());
+
+    assertThat(result.getBits(end)).isEqualTo(bits(0, 1, 2, 3));
+    assertThat(handledEdges).hasSize(4);
+    assertThat(handledEdges).containsNoDuplicates();
+  }
+
+  @Test
+  public void testIgnoresOtherNodes() throws Exception {
+    BitVectorDataflow dataflow =
+        new BitVectorDataflow(ImmutableList.of(loopHead, elseBranch), Direction.FORWARD);
+    dataflow.addInitialBits(loopHead, bits(1));
+    NodeBitSets result =
+        dataflow.solve(CFAUtils::leavingEdges, TRANSFER, ShutdownNotifier.createDummy());
+
+    assertThat(result.getBits(elseBranch)).isEqualTo(bits(1));
+    assertThat(result.isEmpty(join)).isTrue();
+    assertThat(result.getNodes()).containsExactly(loopHead, elseBranch);
+  }
+
+  @Test
+  public void testNodeBitSets() {
+    NodeBitSets bitSets =
+        NodeBitSets.copyOf(
+            ImmutableMap.of(
+                entry, bits(3, FAR_BIT, FAR_BIT + 2), exit, bits(), join, bits(FAR_BIT)));
+
+    assertThat(bitSets.get(entry, 3)).isTrue();
+    assertThat(bitSets.get(entry, 4)).isFalse();
+    assertThat(bitSets.get(join, FAR_BIT)).isTrue();
+    assertThat(bitSets.get(join, 3)).isFalse();
+    assertThat(bitSets.get(join, 1000)).isFalse();
+    assertThat(bitSets.nextSetBit(entry, 0)).isEqualTo(3);
+    assertThat(bitSets.nextSetBit(entry, 4)).isEqualTo(FAR_BIT);
+    assertThat(bitSets.nextSetBit(entry, FAR_BIT + 1)).isEqualTo(FAR_BIT + 2);
+    assertThat(bitSets.nextSetBit(entry, FAR_BIT + 3)).isEqualTo(-1);
+    assertThat(bitSets.nextSetBit(join, 0)).isEqualTo(FAR_BIT);
+    assertThat(bitSets.nextSetBit(exit, 0)).isEqualTo(-1);
+    assertThat(bitSets.nextSetBit(loopHead, 0)).isEqualTo(-1);
+    assertThat(bitSets.cardinality(entry)).isEqualTo(3);
+    assertThat(bitSets.isEmpty(exit)).isTrue();
+    assertThat(bitSets.union()).isEqualTo(bits(3, FAR_BIT, FAR_BIT + 2));
+  }
+}
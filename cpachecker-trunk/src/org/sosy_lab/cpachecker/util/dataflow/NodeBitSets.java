@@ -0,0 +1,214 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dataflow;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+/**
+ * An immutable mapping from CFA nodes to bit sets, e.g., the result of a {@link
+ * BitVectorDataflow} analysis.
+ *
+ * <p>The bit set of each node is stored without its leading and trailing zero words, and equal bit
+ * sets of different nodes share the same storage. Nodes that are not contained in the mapping are
+ * treated as having an empty bit set.
+ */
+public final class NodeBitSets {
+
+  private static final Row EMPTY_ROW = new Row(0, new long[0]);
+
+  private final ImmutableMap<CFANode, Row> rows;
+
+  private NodeBitSets(ImmutableMap<CFANode, Row> pRows) {
+    rows = pRows;
+  }
+
+  /** Create a copy of the given bit sets. */
+  public static NodeBitSets copyOf(Map<CFANode, BitSet> pBits) {
+    Map<Row, Row> sharedRows = new HashMap<>();
+    ImmutableMap.Builder<CFANode, Row> builder = ImmutableMap.builder();
+    for (Map.Entry<CFANode, BitSet> entry : pBits.entrySet()) {
+      builder.put(entry.getKey(), Row.of(entry.getValue().toLongArray(), sharedRows));
+    }
+    return new NodeBitSets(builder.build());
+  }
+
+  /** Create the bit sets from the word arrays of the nodes at the same position. */
+  static NodeBitSets of(List<CFANode> pNodes, long[][] pWords) {
+    Map<Row, Row> sharedRows = new HashMap<>();
+    ImmutableMap.Builder<CFANode, Row> builder = ImmutableMap.builder();
+    for (int i = 0; i < pNodes.size(); i++) {
+      builder.put(pNodes.get(i), Row.of(pWords[i], sharedRows));
+    }
+    return new NodeBitSets(builder.build());
+  }
+
+  private Row getRow(CFANode pNode) {
+    Row row = rows.get(pNode);
+    return row == null ? EMPTY_ROW : row;
+  }
+
+  /** Return whether the given bit is set for the given node. */
+  public boolean get(CFANode pNode, int pBit) {
+    Row row = getRow(pNode);
+    int word = (pBit >>> 6) - row.offset;
+    return word >= 0 && word < row.words.length && (row.words[word] & (1L << pBit)) != 0;
+  }
+
+  /**
+   * Return the index of the first bit of the given node that is set and not smaller than the given
+   * index, or -1 if there is no such bit. Can be used for iterating like {@link
+   * BitSet#nextSetBit(int)}.
+   */
+  public int nextSetBit(CFANode pNode, int pFromBit) {
+    Row row = getRow(pNode);
+    int word = Math.max((pFromBit >>> 6) - row.offset, 0);
+    if (word >= row.words.length) {
+      return -1;
+    }
+    long bits = row.words[word];
+    if (word + row.offset == pFromBit >>> 6) {
+      bits &= -1L << pFromBit;
+    }
+    while (true) {
+      if (bits != 0) {
+        return ((word + row.offset) << 6) + Long.numberOfTrailingZeros(bits);
+      }
+      if (++word == row.words.length) {
+        return -1;
+      }
+      bits = row.words[word];
+    }
+  }
+
+  /** Return whether no bit is set for the given node. */
+  public boolean isEmpty(CFANode pNode) {
+    return getRow(pNode).words.length == 0;
+  }
+
+  /** Return the number of bits that are set for the given node. */
+  public int cardinality(CFANode pNode) {
+    int result = 0;
+    for (long word : getRow(pNode).words) {
+      result += Long.bitCount(word);
+    }
+    return result;
+  }
+
+  /** Return a (modifiable) copy of the bit set of the given node. */
+  public BitSet getBits(CFANode pNode) {
+    Row row = getRow(pNode);
+    long[] words = new long[row.offset + row.words.length];
+    System.arraycopy(row.words, 0, words, row.offset, row.words.length);
+    return BitSet.valueOf(words);
+  }
+
+  /** Return the union of the bit sets of all nodes. */
+  public BitSet union() {
+    BitSet result = new BitSet();
+    for (Row row : rows.values()) {
+      for (int i = 0; i < row.words.length; i++) {
+        long word = row.words[i];
+        while (word != 0) {
+          result.set(((row.offset + i) << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Return all nodes of this mapping. */
+  public Set<CFANode> getNodes() {
+    return rows.keySet();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (CFANode node : rows.keySet()) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(node).append('=').append(getBits(node));
+    }
+    return sb.append('}').toString();
+  }
+
+  /** The non-zero part of a bit set, starting at the word with index {@link #offset}. */
+  private static final class Row {
+
+    private final int offset;
+    private final long[] words;
+
+    private Row(int pOffset, long[] pWords) {
+      offset = pOffset;
+      words = pWords;
+    }
+
+    private static Row of(@Nullable long[] pWords, Map<Row, Row> pSharedRows) {
+      if (pWords == null) {
+        return EMPTY_ROW;
+      }
+      int start = 0;
+      int end = pWords.length;
+      while (end > 0 && pWords[end - 1] == 0) {
+        end--;
+      }
+      while (start < end && pWords[start] == 0) {
+        start++;
+      }
+      if (start == end) {
+        return EMPTY_ROW;
+      }
+      Row row = new Row(start, Arrays.copyOfRange(pWords, start, end));
+      Row shared = pSharedRows.putIfAbsent(row, row);
+      return shared == null ? row : shared;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof Row)) {
+        return false;
+      }
+      Row other = (Row) pObj;
+      return offset == other.offset && Arrays.equals(words, other.words);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * offset + Arrays.hashCode(words);
+    }
+  }
+}
@@ -26,13 +26,16 @@ package org.sosy_lab.cpachecker.util.dependencegraph;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ForwardingTable;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
 import com.google.common.collect.Table.Cell;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Writer;
@@ -50,11 +53,18 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -84,12 +94,14 @@ import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.dominator.DominatorState;
 import org.sosy_lab.cpachecker.cpa.flowdep.FlowDependenceState;
 import org.sosy_lab.cpachecker.cpa.reachdef.ReachingDefState;
+import org.sosy_lab.cpachecker.cpa.reachdef.ReachingDefState.DefinitionPoint;
 import org.sosy_lab.cpachecker.cpa.reachdef.ReachingDefState.ProgramDefinitionPoint;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CFATraversal;
 import org.sosy_lab.cpachecker.util.CFATraversal.EdgeCollectingCFAVisitor;
 import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.DependenceType;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatistics;
@@ -109,6 +121,8 @@ public class DGBuilder {
   private Table<DGNode, DGNode, DependenceType> adjacencyMatrix;
 
   private StatInt flowDependenceNumber = new StatInt(StatKind.SUM, "Number of flow dependences");
+  private StatCounter flowDependenceFunctions =
+      new StatCounter("Number of functions with computed flow dependences");
   private StatInt controlDependenceNumber =
       new StatInt(StatKind.SUM, "Number of control dependences");
   private StatCounter isolatedNodes = new StatCounter("Number of isolated nodes");
@@ -117,10 +131,20 @@ public class DGBuilder {
     secure = true,
     description =
         "File to export dependence graph to. If `null`, dependence"
-            + " graph will not be exported as dot."
+            + " graph will not be exported as dot. The export needs the flow dependences of"
+            + " all functions, which are otherwise only computed when they are needed."
   )
   @FileOption(FileOption.Type.OUTPUT_FILE)
-  private Path exportDot = Paths.get("DependenceGraph.dot");
+  private Path exportDot = null;
+
+  @Option(
+    secure = true,
+    description =
+        "number of threads for computing the control dependences of different functions"
+            + " in parallel (0 for the number of available processors)"
+  )
+  @IntegerOption(min = 0)
+  private int threads = 1;
 
   public DGBuilder(
       final CFA pCfa,
@@ -129,29 +153,46 @@ public class DGBuilder {
       final ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
     pConfig.inject(this);
+    if (threads == 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
     config = pConfig;
     cfa = pCfa;
     logger = pLogger;
     shutdownNotifier = pShutdownNotifier;
   }
 
+  /**
+   * Builds the dependence graph. Only the control dependences are computed here, the flow
+   * dependences of each function are computed by the graph once they are needed.
+   */
   public DependenceGraph build()
       throws InvalidConfigurationException, InterruptedException, CPAException {
     nodes = HashBasedTable.create();
     adjacencyMatrix = HashBasedTable.create();
-    addFlowDependences();
     addControlDependences();
     addMissingNodes();
 
-    DependenceGraph dg = new DependenceGraph(nodes, adjacencyMatrix, shutdownNotifier);
-    export(dg);
+    Set<String> functions =
+        nodes.rowKeySet().stream().map(DependenceGraph::getFunctionOf).collect(Collectors.toSet());
+    DependenceGraph dg =
+        new DependenceGraph(
+            nodes,
+            adjacencyMatrix,
+            functions,
+            new FunctionFlowDependences(new FlowDependenceConfig(config), functions),
+            shutdownNotifier);
     logger.log(
         Level.FINE,
         "Create dependence graph with ",
         nodes.size(),
         " nodes and ",
         adjacencyMatrix.size(),
-        " edges.");
+        " control dependences.");
+    if (exportDot != null) {
+      dg.addAllFlowDependences();
+      export(dg);
+    }
     return dg;
   }
 
@@ -170,27 +211,93 @@ public class DGBuilder {
 
   /**
    * Adds control dependencies to dependence graph.
+   *
+   * <p>The control dependences inside each function are computed independently of the other
+   * functions, possibly in parallel, and then added to the graph. The control dependences of a
+   * function on its calls are summarized at the function call edges.
    */
   private void addControlDependences()
       throws InterruptedException, InvalidConfigurationException, CPAException {
     PostDominators postDoms = PostDominators.create(cfa, logger, shutdownNotifier);
     Set<CFANode> reachableNodes = postDoms.getNodes();
-    List<CFANode> branchingNodes =
+    Map<String, List<CFANode>> branchingNodesByFunction =
         reachableNodes
             .stream()
             .filter(n -> n.getNumLeavingEdges() > 1)
             .filter(n -> n.getLeavingEdge(0) instanceof CAssumeEdge)
-            .collect(Collectors.toList());
+            .collect(
+                Collectors.groupingBy(
+                    CFANode::getFunctionName, TreeMap::new, Collectors.toList()));
+
+    List<List<Pair<CFAEdge, List<CFAEdge>>>> controlDependences =
+        computePerFunction(
+            branchingNodesByFunction.values(),
+            branches -> getControlDependences(branches, postDoms, reachableNodes));
+    for (List<Pair<CFAEdge, List<CFAEdge>>> functionDependences : controlDependences) {
+      for (Pair<CFAEdge, List<CFAEdge>> dependence : functionDependences) {
+        CFAEdge g = dependence.getFirst();
+        DGNode nodeDependentOn = getDGNode(g, Optional.empty());
+        assert getDGNodes(g).size() == 1
+            : "Only using one DG node, but multiple would exist: " + nodeDependentOn;
+        int controlDepCount = 0;
+        for (CFAEdge current : dependence.getSecond()) {
+          for (DGNode nodeDepending : getDGNodes(current)) {
+            addDependence(nodeDependentOn, nodeDepending, DependenceType.CONTROL);
+            controlDepCount++;
+          }
+        }
+        controlDependenceNumber.setNextValue(controlDepCount);
+      }
+    }
+
+    Set<DGNode> controlDependentNodes = new HashSet<>();
+    for (Cell<DGNode, DGNode, DependenceType> edge : adjacencyMatrix.cellSet()) {
+      if (edge.getValue() == DependenceType.CONTROL) {
+        controlDependentNodes.add(edge.getColumnKey());
+      }
+    }
 
-    for (CFANode branch : branchingNodes) {
-      Set<CFANode> postDominatorsOfBranchingNode = postDoms.getPostDominators(branch);
+    CFATraversal traversalInsideFunction = CFATraversal.dfs().ignoreFunctionCalls();
+    for (FunctionEntryNode fctEntry : cfa.getAllFunctionHeads()) {
+      Collection<DGNode> functionCalls =
+          CFAUtils.enteringEdges(fctEntry).transform(x -> getDGNode(x, Optional.empty())).toList();
+      assert CFAUtils.enteringEdges(fctEntry).allMatch(x -> x instanceof CFunctionCallEdge);
+      int depCount = 0;
+      Set<CFANode> functionNodes = traversalInsideFunction.collectNodesReachableFrom(fctEntry);
+      for (CFANode n : functionNodes) {
+        for (CFAEdge e : CFAUtils.leavingEdges(n)) {
+          Collection<DGNode> candidates = getDGNodes(e);
+          for (DGNode dgN : candidates) {
+            if (controlDependentNodes.contains(dgN)) {
+              for (DGNode nodeDependentOn : functionCalls) {
+                addDependence(nodeDependentOn, dgN, DependenceType.CONTROL);
+                depCount++;
+              }
+            }
+          }
+        }
+      }
+      controlDependenceNumber.setNextValue(depCount);
+    }
+  }
+
+  /**
+   * Returns the control dependences of the edges of one function on the leaving edges of the given
+   * branching nodes of this function, as pairs of an assume edge and the edges depending on it.
+   * Only reads the given post-dominators, so this method may be called for different functions in
+   * parallel.
+   */
+  private static List<Pair<CFAEdge, List<CFAEdge>>> getControlDependences(
+      final List<CFANode> pBranchingNodes,
+      final PostDominators pPostDoms,
+      final Set<CFANode> pReachableNodes) {
+    List<Pair<CFAEdge, List<CFAEdge>>> dependences = new ArrayList<>();
+    for (CFANode branch : pBranchingNodes) {
+      Set<CFANode> postDominatorsOfBranchingNode = pPostDoms.getPostDominators(branch);
       FluentIterable<CFAEdge> assumeEdges = CFAUtils.leavingEdges(branch);
       assert assumeEdges.size() == 2;
       for (CFAEdge g : assumeEdges) {
-        DGNode nodeDependentOn = getDGNode(g, Optional.empty());
-        int controlDepCount = 0;
-        assert getDGNodes(g).size() == 1
-            : "Only using one DG node, but multiple would exist: " + nodeDependentOn;
+        List<CFAEdge> edgesDepending = new ArrayList<>();
         List<CFANode> nodesOnPath = new ArrayList<>();
         Queue<CFAEdge> waitlist = new ArrayDeque<>(8);
         Set<CFAEdge> reached = new HashSet<>();
@@ -198,7 +305,7 @@ public class DGBuilder {
         while (!waitlist.isEmpty()) {
           CFAEdge current = waitlist.poll();
           CFANode succ = current.getSuccessor();
-          if (!reachableNodes.contains(succ)) {
+          if (!pReachableNodes.contains(succ)) {
             continue;
           }
           if (!reached.contains(current)) {
@@ -212,48 +319,61 @@ public class DGBuilder {
             if (!postDominatorsOfBranchingNode.contains(precessorNode)) {
               // all nodes on path from branch to current are post-dominated by current
               // (condition 1 of control dependence)
-              if (isPostDomOfAll(precessorNode, nodesOnPath, postDoms)) {
-                Collection<DGNode> nodesDepending = getDGNodes(current);
-                for (DGNode nodeDepending : nodesDepending) {
-                  addDependence(nodeDependentOn, nodeDepending, DependenceType.CONTROL);
-                  controlDepCount++;
-                }
+              if (isPostDomOfAll(precessorNode, nodesOnPath, pPostDoms)) {
+                edgesDepending.add(current);
                 nodesOnPath.add(precessorNode);
               }
               CFAUtils.leavingEdges(current.getSuccessor()).forEach(waitlist::offer);
             }
           }
         }
-        controlDependenceNumber.setNextValue(controlDepCount);
+        dependences.add(Pair.of(g, edgesDepending));
       }
     }
+    return dependences;
+  }
 
-    Collection<FunctionEntryNode> functionEntries = cfa.getAllFunctionHeads();
-    CFATraversal traversalInsideFunction = CFATraversal.dfs().ignoreFunctionCalls();
-    for (FunctionEntryNode fctEntry : functionEntries) {
-      Collection<DGNode> functionCalls =
-          CFAUtils.enteringEdges(fctEntry).transform(x -> getDGNode(x, Optional.empty())).toList();
-      assert CFAUtils.enteringEdges(fctEntry).allMatch(x -> x instanceof CFunctionCallEdge);
-      int depCount = 0;
-      Set<CFANode> functionNodes = traversalInsideFunction.collectNodesReachableFrom(fctEntry);
-      for (CFANode n : functionNodes) {
-        for (CFAEdge e : CFAUtils.leavingEdges(n)) {
-          Collection<DGNode> candidates = getDGNodes(e);
-          for (DGNode dgN : candidates) {
-            if (adjacencyMatrix.column(dgN).values().contains(DependenceType.CONTROL)) {
-              for (DGNode nodeDependentOn : functionCalls) {
-                addDependence(nodeDependentOn, dgN, DependenceType.CONTROL);
-                depCount++;
-              }
-            }
-          }
+  /**
+   * Applies the given function to each of the given inputs and returns the results in the same
+   * order. Uses a thread pool if more than one thread is configured.
+   */
+  private <I, R> List<R> computePerFunction(
+      final Collection<I> pInputs, final Function<I, R> pFunction)
+      throws InterruptedException {
+    List<R> results = new ArrayList<>(pInputs.size());
+    if (threads == 1 || pInputs.size() < 2) {
+      for (I input : pInputs) {
+        shutdownNotifier.shutdownIfNecessary();
+        results.add(pFunction.apply(input));
+      }
+      return results;
+    }
+
+    ExecutorService pool =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder().setNameFormat("dependencegraph-%d").setDaemon(true).build());
+    try {
+      List<Future<R>> futures = new ArrayList<>(pInputs.size());
+      for (I input : pInputs) {
+        futures.add(pool.submit(() -> pFunction.apply(input)));
+      }
+      for (Future<R> future : futures) {
+        shutdownNotifier.shutdownIfNecessary();
+        try {
+          results.add(future.get());
+        } catch (ExecutionException e) {
+          Throwables.throwIfUnchecked(e.getCause());
+          throw new AssertionError(e.getCause());
         }
       }
-      controlDependenceNumber.setNextValue(depCount);
+      return results;
+    } finally {
+      pool.shutdownNow();
     }
   }
 
-  private boolean isPostDomOfAll(
+  private static boolean isPostDomOfAll(
       final CFANode pNode,
       final Collection<CFANode> pNodeSet,
       final PostDominators pPostDominators) {
@@ -266,28 +386,129 @@ public class DGBuilder {
     return true;
   }
 
-  private void addFlowDependences()
-      throws InvalidConfigurationException, InterruptedException, CPAException {
-    FlowDependences flowDependences = FlowDependences.create(cfa, config, logger, shutdownNotifier);
+  @Options(prefix = "dependencegraph.flowdep")
+  private static class FlowDependenceConfig {
+    @Option(secure = true, description = "Run flow dependence analysis with constant propagation")
+    boolean constantPropagation = false;
 
-    for (Cell<CFAEdge, Optional<MemoryLocation>, Multimap<MemoryLocation, CFAEdge>> c :
-        flowDependences.cellSet()) {
+    FlowDependenceConfig(final Configuration pConfig) throws InvalidConfigurationException {
+      pConfig.inject(this);
+    }
+  }
 
-      CFAEdge edgeDepending = checkNotNull(c.getRowKey());
-      Optional<MemoryLocation> defOfEdge = checkNotNull(c.getColumnKey());
-      Multimap<MemoryLocation, CFAEdge> uses = checkNotNull(c.getValue());
-      DGNode nodeDepending;
-      if (defOfEdge.isPresent()) {
-        nodeDepending = getDGNode(edgeDepending, defOfEdge);
-      } else {
-        nodeDepending = getDGNode(edgeDepending, Optional.empty());
+  /**
+   * Computes the flow dependences of single functions when the dependence graph needs them.
+   *
+   * <p>The analysis of a function starts at its entry and includes the functions it calls. The
+   * parameters and global variables are defined by the first edge of the function at its start.
+   * This definition depends on the definitions of the variable that reach the calls of the
+   * function, which are taken from the analyses of the calling functions. The results of the
+   * analyses are cached, because they are also needed for the functions called.
+   */
+  private class FunctionFlowDependences implements DependenceGraph.FlowDependenceSupplier {
+
+    private final FlowDependenceConfig options;
+    private final Set<String> functions;
+    private final Map<String, FlowDependences> analyses = new HashMap<>();
+
+    private FunctionFlowDependences(
+        final FlowDependenceConfig pOptions, final Set<String> pFunctions) {
+      options = pOptions;
+      functions = pFunctions;
+    }
+
+    private FlowDependences getAnalysis(final String pFunction)
+        throws InterruptedException, CPAException {
+      FlowDependences analysis = analyses.get(pFunction);
+      if (analysis == null) {
+        try {
+          analysis =
+              FlowDependences.create(
+                  cfa, cfa.getFunctionHead(pFunction), options, logger, shutdownNotifier);
+        } catch (InvalidConfigurationException e) {
+          throw new CPAException(
+              "Invalid configuration of flow dependence analysis: " + e.getMessage(), e);
+        }
+        analyses.put(pFunction, analysis);
+        flowDependenceFunctions.inc();
+      }
+      return analysis;
+    }
+
+    @Override
+    public Table<DGNode, DGNode, DependenceType> getFlowDependences(final String pFunction)
+        throws InterruptedException, CPAException {
+      Table<DGNode, DGNode, DependenceType> dependences = HashBasedTable.create();
+      FlowDependences flowDependences = getAnalysis(pFunction);
+      CFAEdge startEdge = cfa.getFunctionHead(pFunction).getLeavingEdge(0);
+      Set<MemoryLocation> definedAtStart = new HashSet<>();
+
+      for (Cell<CFAEdge, Optional<MemoryLocation>, Multimap<MemoryLocation, CFAEdge>> c :
+          flowDependences.cellSet()) {
+        CFAEdge edgeDepending = checkNotNull(c.getRowKey());
+        if (!DependenceGraph.getFunctionOf(edgeDepending).equals(pFunction)) {
+          // only valid in the context of this function, the owning function has its own analysis
+          continue;
+        }
+        DGNode nodeDepending = createNode(edgeDepending, checkNotNull(c.getColumnKey()));
+        int flowDepCount = 0;
+        for (Entry<MemoryLocation, CFAEdge> useAndDef : checkNotNull(c.getValue()).entries()) {
+          DGNode dependency = createNode(useAndDef.getValue(), Optional.of(useAndDef.getKey()));
+          dependences.put(dependency, nodeDepending, DependenceType.FLOW);
+          flowDepCount++;
+          if (useAndDef.getValue().equals(startEdge)) {
+            definedAtStart.add(useAndDef.getKey());
+          }
+        }
+        flowDependenceNumber.setNextValue(flowDepCount);
       }
+
+      addStartDependences(pFunction, definedAtStart, dependences);
+      return dependences;
+    }
+
+    /**
+     * Adds the dependences of the definitions at the start of the given function on the
+     * definitions that reach the calls of the function.
+     */
+    private void addStartDependences(
+        final String pFunction,
+        final Set<MemoryLocation> pDefinedAtStart,
+        final Table<DGNode, DGNode, DependenceType> pDependences)
+        throws InterruptedException, CPAException {
+      FunctionEntryNode entry = cfa.getFunctionHead(pFunction);
+      CFAEdge startEdge = entry.getLeavingEdge(0);
+      Set<MemoryLocation> parameters =
+          entry
+              .getFunctionParameters()
+              .stream()
+              .map(p -> MemoryLocation.valueOf(p.getQualifiedName()))
+              .collect(Collectors.toSet());
+
       int flowDepCount = 0;
-      for (Entry<MemoryLocation, CFAEdge> useAndDef : uses.entries()) {
-        MemoryLocation use = checkNotNull(useAndDef.getKey());
-        DGNode dependency = getDGNode(useAndDef.getValue(), Optional.of(use));
-        addDependence(dependency, nodeDepending, DependenceType.FLOW);
-        flowDepCount++;
+      for (CFAEdge call : CFAUtils.enteringEdges(entry)) {
+        String caller = DependenceGraph.getFunctionOf(call);
+        if (pDefinedAtStart.isEmpty() || !functions.contains(caller)) {
+          continue;
+        }
+        Multimap<MemoryLocation, CFAEdge> definitionsAtCall =
+            getAnalysis(caller).getGlobalDefinitionsAtCall(call);
+        for (MemoryLocation variable : pDefinedAtStart) {
+          DGNode startDefinition = createNode(startEdge, Optional.of(variable));
+          if (parameters.contains(variable)) {
+            pDependences.put(
+                createNode(call, Optional.of(variable)), startDefinition, DependenceType.FLOW);
+            flowDepCount++;
+          } else {
+            for (CFAEdge definition : definitionsAtCall.get(variable)) {
+              pDependences.put(
+                  createNode(definition, Optional.of(variable)),
+                  startDefinition,
+                  DependenceType.FLOW);
+              flowDepCount++;
+            }
+          }
+        }
       }
       flowDependenceNumber.setNextValue(flowDepCount);
     }
@@ -354,6 +575,7 @@ public class DGBuilder {
         nodeNumber.setNextValue(nodes.size());
         put(pOut, 4, nodeNumber);
         put(pOut, 4, flowDependenceNumber);
+        put(pOut, 4, flowDependenceFunctions);
         put(pOut, 4, controlDependenceNumber);
         put(pOut, 4, isolatedNodes);
       }
@@ -376,23 +598,26 @@ public class DGBuilder {
       extends ForwardingTable<
           CFAEdge, Optional<MemoryLocation>, Multimap<MemoryLocation, CFAEdge>> {
 
-    @Options(prefix = "dependencegraph.flowdep")
-    private static class FlowDependenceConfig {
-      @Option(secure = true, description = "Run flow dependence analysis with constant propagation")
-      boolean constantPropagation = false;
-
-      FlowDependenceConfig(final Configuration pConfig) throws InvalidConfigurationException {
-        pConfig.inject(this);
-      }
-    }
-
     // CFAEdge + defined memory location -> Edge defining the uses
     private Table<CFAEdge, Optional<MemoryLocation>, Multimap<MemoryLocation, CFAEdge>> dependences;
 
+    // function call edge -> global variable -> edges defining the variable before the call
+    private final Map<CFAEdge, Multimap<MemoryLocation, CFAEdge>> globalDefinitionsAtCalls;
+
     private FlowDependences(
         final Table<CFAEdge, Optional<MemoryLocation>, Multimap<MemoryLocation, CFAEdge>>
-            pDependences) {
+            pDependences,
+        final Map<CFAEdge, Multimap<MemoryLocation, CFAEdge>> pGlobalDefinitionsAtCalls) {
       dependences = pDependences;
+      globalDefinitionsAtCalls = pGlobalDefinitionsAtCalls;
+    }
+
+    /**
+     * Returns the definitions of global variables that reach the given function call edge of the
+     * analyzed function.
+     */
+    Multimap<MemoryLocation, CFAEdge> getGlobalDefinitionsAtCall(final CFAEdge pCall) {
+      return globalDefinitionsAtCalls.getOrDefault(pCall, ImmutableSetMultimap.of());
     }
 
     @Override
@@ -401,15 +626,19 @@ public class DGBuilder {
       return dependences;
     }
 
+    /**
+     * Computes the flow dependences of the given function and the functions it calls, starting at
+     * the given function entry.
+     */
     public static FlowDependences create(
         final CFA pCfa,
-        final Configuration pConfig,
+        final FunctionEntryNode pFunction,
+        final FlowDependenceConfig pOptions,
         final LogManager pLogger,
         final ShutdownNotifier pShutdownNotifier)
         throws InvalidConfigurationException, CPAException, InterruptedException {
-      FlowDependenceConfig options = new FlowDependenceConfig(pConfig);
       String configFile;
-      if (options.constantPropagation) {
+      if (pOptions.constantPropagation) {
         configFile = "flowDependences-constantProp.properties";
       } else {
         configFile = "flowDependences.properties";
@@ -425,10 +654,9 @@ public class DGBuilder {
       ReachedSet reached = reachedFactory.create();
 
       AbstractState initialState =
-          cpa.getInitialState(pCfa.getMainFunction(), StateSpacePartition.getDefaultPartition());
+          cpa.getInitialState(pFunction, StateSpacePartition.getDefaultPartition());
       Precision initialPrecision =
-          cpa.getInitialPrecision(
-              pCfa.getMainFunction(), StateSpacePartition.getDefaultPartition());
+          cpa.getInitialPrecision(pFunction, StateSpacePartition.getDefaultPartition());
       reached.add(initialState, initialPrecision);
 
       // populate reached set
@@ -438,11 +666,21 @@ public class DGBuilder {
 
       Table<CFAEdge, Optional<MemoryLocation>, Multimap<MemoryLocation, CFAEdge>> dependencyMap =
           HashBasedTable.create();
+      Map<CFAEdge, Multimap<MemoryLocation, CFAEdge>> globalDefinitionsAtCalls = new HashMap<>();
       for (AbstractState s : reached) {
         assert s instanceof ARGState;
         ARGState wrappingState = (ARGState) s;
         FlowDependenceState flowDepState = getState(wrappingState, FlowDependenceState.class);
 
+        for (CFAEdge call : CFAUtils.leavingEdges(AbstractStates.extractLocation(s))) {
+          if (call instanceof CFunctionCallEdge
+              && DependenceGraph.getFunctionOf(call).equals(pFunction.getFunctionName())) {
+            addGlobalDefinitions(
+                getState(wrappingState, ReachingDefState.class),
+                globalDefinitionsAtCalls.computeIfAbsent(call, k -> HashMultimap.create()));
+          }
+        }
+
         for (CFAEdge g : flowDepState.getDependees()) {
           Set<Optional<MemoryLocation>> defs = flowDepState.getDefinitions(g);
           for (Optional<MemoryLocation> d : defs) {
@@ -457,7 +695,30 @@ public class DGBuilder {
         }
       }
 
-      return new FlowDependences(dependencyMap);
+      return new FlowDependences(dependencyMap, globalDefinitionsAtCalls);
+    }
+
+    private static void addGlobalDefinitions(
+        final ReachingDefState pReachDefState, final Multimap<MemoryLocation, CFAEdge> pAddTo) {
+      for (Entry<MemoryLocation, Set<DefinitionPoint>> definitions :
+          pReachDefState.getGlobalReachingDefinitions().entrySet()) {
+        for (DefinitionPoint definition : definitions.getValue()) {
+          if (definition instanceof ProgramDefinitionPoint) {
+            pAddTo.putAll(
+                definitions.getKey(), getDefiningEdges((ProgramDefinitionPoint) definition));
+          }
+        }
+      }
+    }
+
+    /** Returns the edges that belong to the given definition point. */
+    private static List<CFAEdge> getDefiningEdges(final ProgramDefinitionPoint pDefPoint) {
+      CFANode start = pDefPoint.getDefinitionEntryLocation();
+      CFANode stop = pDefPoint.getDefinitionExitLocation();
+      List<CFAEdge> edges =
+          CFAUtils.leavingEdges(start).filter(g -> g.getSuccessor().equals(stop)).toList();
+      assert !edges.isEmpty() : "No edge for nodes " + start + " to " + stop;
+      return edges;
     }
 
     @SuppressWarnings("unchecked")
@@ -483,18 +744,7 @@ public class DGBuilder {
           pFlowDepState.getDependentDefs(pEdge, pDef);
 
       for (Entry<MemoryLocation, ProgramDefinitionPoint> e : dependentDefs.entries()) {
-        ProgramDefinitionPoint defPoint = e.getValue();
-        CFANode start = defPoint.getDefinitionEntryLocation();
-        CFANode stop = defPoint.getDefinitionExitLocation();
-
-        boolean added = false;
-        for (CFAEdge g : CFAUtils.leavingEdges(start)) {
-          if (g.getSuccessor().equals(stop)) {
-            dependencies.put(e.getKey(), g);
-            added = true;
-          }
-        }
-        assert added : "No edge added for nodes " + start + " to " + stop;
+        dependencies.putAll(e.getKey(), getDefiningEdges(e.getValue()));
       }
 
       return dependencies;
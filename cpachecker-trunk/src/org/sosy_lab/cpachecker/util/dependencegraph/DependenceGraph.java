@@ -23,24 +23,38 @@
  */
 package org.sosy_lab.cpachecker.util.dependencegraph;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Table;
+import com.google.common.collect.Table.Cell;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
 /**
@@ -49,10 +63,19 @@ import org.sosy_lab.cpachecker.util.states.MemoryLocation;
  *
  * <p>A dependence graph G = (V, E) is a directed graph. His nodes V are CFA edges of the program.
  * Given two nodes i and j, if j is a dependence of i, a directed edge (j, i) from j to i is in E.
+ *
+ * <p>The nodes are numbered, and the edges of each node are stored in primitive adjacency arrays
+ * for both directions.
+ *
+ * <p>The control dependences are added when the graph is created. The flow dependences are
+ * computed separately for each function, when a traversal reaches a node of the function for the
+ * first time. A function owns all flow dependences that lead to its nodes, so all dependences of a
+ * node are known as soon as the flow dependences of its function are added. A forward traversal
+ * needs the flow dependences of all functions.
  */
 public class DependenceGraph implements Serializable {
 
-  private static final long serialVersionUID = -6721168496945584302L;
+  private static final long serialVersionUID = -6721168496945584304L;
 
   public enum TraversalDirection {
     FORWARD,
@@ -65,18 +88,68 @@ public class DependenceGraph implements Serializable {
     FLOW
   }
 
-  private final ImmutableTable<CFAEdge, Optional<MemoryLocation>, DGNode> nodes;
-  private ImmutableTable<DGNode, DGNode, DependenceType> adjacencyMatrix;
+  /** Computes the flow dependences of single functions. */
+  interface FlowDependenceSupplier {
+
+    /**
+     * Returns all flow dependences whose depending node belongs to the given function (as defined
+     * by {@link DependenceGraph#getFunctionOf(CFAEdge)}), as table from the node depended on to
+     * the depending node.
+     */
+    Table<DGNode, DGNode, DependenceType> getFlowDependences(String pFunction)
+        throws InterruptedException, CPAException;
+  }
+
+  private static final DependenceType[] DEPENDENCE_TYPES = DependenceType.values();
+
+  private static final Object TIE_LOCK = new Object();
+
+  private static final int[] NO_EDGES = new int[0];
+  private static final byte[] NO_TYPES = new byte[0];
+
+  private final List<DGNode> nodes = new ArrayList<>();
+  private final Map<DGNode, Integer> nodeIndex = new HashMap<>();
+  private final ListMultimap<CFAEdge, Integer> nodesOfEdge = ArrayListMultimap.create();
+
+  // the edges of node i are the first successorCounts[i] entries of successors[i] (with their
+  // types in successorTypes[i]) and the first predecessorCounts[i] entries of predecessors[i]
+  private int[][] successors = new int[0][];
+  private byte[][] successorTypes = new byte[0][];
+  private int[] successorCounts = NO_EDGES;
+  private int[][] predecessors = new int[0][];
+  private int[] predecessorCounts = NO_EDGES;
 
-  private final transient ShutdownNotifier shutdownNotifier;
+  /** The functions whose flow dependences were not added yet. */
+  private final Set<String> functionsWithoutFlowDependences;
 
+  private final transient @Nullable FlowDependenceSupplier flowDependences;
+  private final transient @Nullable ShutdownNotifier shutdownNotifier;
+
+  DependenceGraph(
+      final Table<CFAEdge, Optional<MemoryLocation>, DGNode> pNodes,
+      final Table<DGNode, DGNode, DependenceType> pEdges,
+      final ShutdownNotifier pShutdownNotifier) {
+    this(pNodes, pEdges, ImmutableSet.of(), null, pShutdownNotifier);
+  }
+
+  /**
+   * Creates a dependence graph with the given nodes and dependences. The flow dependences of the
+   * given functions are added by the given supplier once they are needed.
+   */
   DependenceGraph(
       final Table<CFAEdge, Optional<MemoryLocation>, DGNode> pNodes,
       final Table<DGNode, DGNode, DependenceType> pEdges,
+      final Set<String> pFunctionsWithoutFlowDependences,
+      final @Nullable FlowDependenceSupplier pFlowDependences,
       final ShutdownNotifier pShutdownNotifier) {
 
-    nodes = ImmutableTable.copyOf(pNodes);
-    adjacencyMatrix = ImmutableTable.copyOf(pEdges);
+    for (DGNode node : pNodes.values()) {
+      getOrAddNode(node);
+    }
+    addDependences(pEdges);
+
+    functionsWithoutFlowDependences = new HashSet<>(pFunctionsWithoutFlowDependences);
+    flowDependences = pFlowDependences;
     shutdownNotifier = pShutdownNotifier;
   }
 
@@ -89,78 +162,247 @@ public class DependenceGraph implements Serializable {
     return new DGBuilder(pCfa, pConfig, pLogger, pShutdownNotifier);
   }
 
-  public boolean contains(final CFAEdge pNode, final Optional<MemoryLocation> pCause) {
-    return nodes.contains(pNode, pCause);
+  /**
+   * Returns the function that owns the flow dependences of the nodes of the given edge. This is
+   * the function of the predecessor of the edge, except for function return edges, which belong to
+   * the function that is returned to.
+   */
+  static String getFunctionOf(final CFAEdge pEdge) {
+    if (pEdge instanceof FunctionReturnEdge) {
+      return pEdge.getSuccessor().getFunctionName();
+    }
+    return pEdge.getPredecessor().getFunctionName();
   }
 
-  Table<DGNode, DGNode, DependenceType> getMatrix() {
-    return adjacencyMatrix;
+  private int getOrAddNode(final DGNode pNode) {
+    Integer index = nodeIndex.get(pNode);
+    if (index != null) {
+      return index;
+    }
+    int newIndex = nodes.size();
+    nodes.add(pNode);
+    nodeIndex.put(pNode, newIndex);
+    nodesOfEdge.put(pNode.getCfaEdge(), newIndex);
+
+    if (newIndex == successors.length) {
+      int capacity = Math.max(16, newIndex * 2);
+      successors = Arrays.copyOf(successors, capacity);
+      successorTypes = Arrays.copyOf(successorTypes, capacity);
+      successorCounts = Arrays.copyOf(successorCounts, capacity);
+      predecessors = Arrays.copyOf(predecessors, capacity);
+      predecessorCounts = Arrays.copyOf(predecessorCounts, capacity);
+    }
+    successors[newIndex] = NO_EDGES;
+    successorTypes[newIndex] = NO_TYPES;
+    predecessors[newIndex] = NO_EDGES;
+    return newIndex;
   }
 
-  public Collection<DGNode> getNodes() {
-    return nodes.values();
+  private void addDependences(final Table<DGNode, DGNode, DependenceType> pEdges) {
+    for (Cell<DGNode, DGNode, DependenceType> edge : pEdges.cellSet()) {
+      addDependence(
+          getOrAddNode(edge.getRowKey()), getOrAddNode(edge.getColumnKey()), edge.getValue());
+    }
   }
 
-  public Collection<CFAEdge> getReachable(CFAEdge pStart, TraversalDirection pDirection)
-      throws InterruptedException {
-    Collection<CFAEdge> reachable = new HashSet<>();
-    Collection<DGNode> visited = new HashSet<>();
-    Queue<DGNode> waitlist = new ArrayDeque<>();
-    nodes.row(pStart).values().forEach(waitlist::offer);
+  /**
+   * Adds the dependence of the second node on the first node. If the nodes are already connected,
+   * a control dependence takes precedence over a flow dependence.
+   */
+  private void addDependence(final int pFrom, final int pTo, final DependenceType pType) {
+    int[] fromSuccessors = successors[pFrom];
+    for (int i = 0; i < successorCounts[pFrom]; i++) {
+      if (fromSuccessors[i] == pTo) {
+        if (pType == DependenceType.CONTROL) {
+          successorTypes[pFrom][i] = (byte) pType.ordinal();
+        }
+        return;
+      }
+    }
 
-    while (!waitlist.isEmpty()) {
-      if (shutdownNotifier.shouldShutdown()) {
-        throw new InterruptedException();
+    int count = successorCounts[pFrom]++;
+    if (count == fromSuccessors.length) {
+      successors[pFrom] = Arrays.copyOf(fromSuccessors, Math.max(4, count * 2));
+      successorTypes[pFrom] = Arrays.copyOf(successorTypes[pFrom], Math.max(4, count * 2));
+    }
+    successors[pFrom][count] = pTo;
+    successorTypes[pFrom][count] = (byte) pType.ordinal();
+
+    count = predecessorCounts[pTo]++;
+    if (count == predecessors[pTo].length) {
+      predecessors[pTo] = Arrays.copyOf(predecessors[pTo], Math.max(4, count * 2));
+    }
+    predecessors[pTo][count] = pFrom;
+  }
+
+  /** Adds the flow dependences of the given function, if this was not done before. */
+  private void addFlowDependences(final String pFunction)
+      throws InterruptedException, CPAException {
+    if (functionsWithoutFlowDependences.contains(pFunction)) {
+      for (Cell<DGNode, DGNode, DependenceType> edge :
+          checkNotNull(flowDependences).getFlowDependences(pFunction).cellSet()) {
+        addDependence(
+            getOrAddFlowNode(edge.getRowKey()),
+            getOrAddFlowNode(edge.getColumnKey()),
+            edge.getValue());
       }
-      DGNode current = waitlist.poll();
+      functionsWithoutFlowDependences.remove(pFunction);
+    }
+  }
 
-      if (!visited.contains(current)) {
-        visited.add(current);
-        reachable.add(current.getCfaEdge());
-        Collection<DGNode> adjacent = getAdjacentNeighbors(current, pDirection);
-        waitlist.addAll(adjacent);
+  /**
+   * Returns the index of the given node of a flow dependence. A new node gets the control
+   * dependences of the node without cause of its edge, because control dependences hold for all
+   * nodes of an edge.
+   */
+  private int getOrAddFlowNode(final DGNode pNode) {
+    Integer index = nodeIndex.get(pNode);
+    if (index != null) {
+      return index;
+    }
+    int newIndex = getOrAddNode(pNode);
+    Integer plainIndex = nodeIndex.get(new DGNode(pNode.getCfaEdge()));
+    if (plainIndex != null) {
+      for (int i = 0; i < predecessorCounts[plainIndex]; i++) {
+        int predecessor = predecessors[plainIndex][i];
+        if (getDependenceType(predecessor, plainIndex) == DependenceType.CONTROL) {
+          addDependence(predecessor, newIndex, DependenceType.CONTROL);
+        }
       }
     }
-    return reachable;
+    return newIndex;
   }
 
-  private Collection<DGNode> getAdjacentNeighbors(
-      final DGNode pNode, final TraversalDirection pDirection) {
-    return getAdjacentNeighbors(
-        pNode, pDirection, dgEdge -> true);
+  private @Nullable DependenceType getDependenceType(final int pFrom, final int pTo) {
+    for (int i = 0; i < successorCounts[pFrom]; i++) {
+      if (successors[pFrom][i] == pTo) {
+        return DEPENDENCE_TYPES[successorTypes[pFrom][i]];
+      }
+    }
+    return null;
   }
 
-  private Collection<DGNode> getAdjacentNeighbors(
-      DGNode pNode, TraversalDirection pDirection, Predicate<DependenceType> pIsEdgeOfInterest) {
+  /** Adds the flow dependences of all functions that were not added before. */
+  synchronized void addAllFlowDependences() throws InterruptedException, CPAException {
+    for (String function : new ArrayList<>(functionsWithoutFlowDependences)) {
+      addFlowDependences(function);
+    }
+  }
+
+  /**
+   * Returns whether the graph contains a node for the given edge and cause. Computes the flow
+   * dependences of the function of the edge, if necessary.
+   */
+  public synchronized boolean contains(final CFAEdge pNode, final Optional<MemoryLocation> pCause)
+      throws InterruptedException, CPAException {
+    addFlowDependences(getFunctionOf(pNode));
+    return nodeIndex.containsKey(
+        pCause.isPresent() ? new DGNode(pNode, pCause.get()) : new DGNode(pNode));
+  }
+
+  /**
+   * Returns the edges of this graph that were computed so far as a table. Creates a new table, only
+   * use for export.
+   */
+  synchronized Table<DGNode, DGNode, DependenceType> getMatrix() {
+    ImmutableTable.Builder<DGNode, DGNode, DependenceType> matrix = ImmutableTable.builder();
+    for (int from = 0; from < nodes.size(); from++) {
+      for (int i = 0; i < successorCounts[from]; i++) {
+        matrix.put(
+            nodes.get(from),
+            nodes.get(successors[from][i]),
+            DEPENDENCE_TYPES[successorTypes[from][i]]);
+      }
+    }
+    return matrix.build();
+  }
 
-    return getAdjacentNodes(pNode, pDirection)
-        .entrySet()
-        .stream()
-        .filter(e -> pIsEdgeOfInterest.test(e.getValue()))
-        .map(e -> e.getKey())
-        .collect(Collectors.toSet());
+  /**
+   * Returns the nodes of this graph that were created so far. Nodes that represent a definition of
+   * a single memory location are created with the flow dependences of their function.
+   */
+  public synchronized Collection<DGNode> getNodes() {
+    return Collections.unmodifiableList(new ArrayList<>(nodes));
+  }
+
+  public synchronized Collection<CFAEdge> getReachable(
+      CFAEdge pStart, TraversalDirection pDirection) throws InterruptedException, CPAException {
+    boolean forward = pDirection != TraversalDirection.BACKWARD;
+    boolean backward = pDirection != TraversalDirection.FORWARD;
+    if (forward) {
+      // the nodes that depend on a node may belong to any function
+      addAllFlowDependences();
+    } else {
+      addFlowDependences(getFunctionOf(pStart));
+    }
+
+    Collection<CFAEdge> reachable = new HashSet<>();
+    BitSet visited = new BitSet(nodes.size());
+    int[] waitlist = new int[Math.max(16, nodes.size())];
+    int waiting = 0;
+
+    for (int start : nodesOfEdge.get(pStart)) {
+      visited.set(start);
+      waitlist[waiting++] = start;
+    }
+
+    while (waiting > 0) {
+      if (shutdownNotifier != null) {
+        shutdownNotifier.shutdownIfNecessary();
+      }
+      int current = waitlist[--waiting];
+      CFAEdge currentEdge = nodes.get(current).getCfaEdge();
+      reachable.add(currentEdge);
+      if (!forward) {
+        // the dependences of the current node are only complete with the ones of its function
+        addFlowDependences(getFunctionOf(currentEdge));
+      }
+
+      // nodes may have been added, but each node is added to the waitlist at most once
+      if (waitlist.length < nodes.size()) {
+        waitlist = Arrays.copyOf(waitlist, nodes.size() * 2);
+      }
+      if (forward) {
+        for (int i = 0; i < successorCounts[current]; i++) {
+          int successor = successors[current][i];
+          if (!visited.get(successor)) {
+            visited.set(successor);
+            waitlist[waiting++] = successor;
+          }
+        }
+      }
+      if (backward) {
+        for (int i = 0; i < predecessorCounts[current]; i++) {
+          int predecessor = predecessors[current][i];
+          if (!visited.get(predecessor)) {
+            visited.set(predecessor);
+            waitlist[waiting++] = predecessor;
+          }
+        }
+      }
+    }
+    return reachable;
   }
 
-  private Map<DGNode, DependenceType> getAdjacentNodes(
-      DGNode pNode, TraversalDirection pDirection) {
-    Map<DGNode, DependenceType> adjacentEdges;
-    switch (pDirection) {
-      case FORWARD:
-        adjacentEdges = adjacencyMatrix.row(pNode);
-        break;
-      case BACKWARD:
-        adjacentEdges = adjacencyMatrix.column(pNode);
-        break;
-      case BOTH:
-        adjacentEdges = adjacencyMatrix.row(pNode);
-        adjacentEdges.putAll(adjacencyMatrix.column(pNode));
-        break;
-      default:
-        throw new AssertionError("Unhandled direction " + pDirection);
+  /** The flow dependences can only be computed before serialization, so compute all of them. */
+  private void writeObject(ObjectOutputStream pOut) throws IOException {
+    try {
+      addAllFlowDependences();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while computing flow dependences");
+    } catch (CPAException e) {
+      throw new IOException("Cannot compute flow dependences: " + e.getMessage(), e);
+    }
+    synchronized (this) {
+      pOut.defaultWriteObject();
     }
-    return adjacentEdges;
   }
 
+  /**
+   * Compares the nodes and dependences that were computed so far. The numbering of the nodes may
+   * differ.
+   */
   @Override
   public boolean equals(Object pO) {
     if (this == pO) {
@@ -170,13 +412,63 @@ public class DependenceGraph implements Serializable {
       return false;
     }
     DependenceGraph that = (DependenceGraph) pO;
-    // If these equal, the root nodes have to equal, too.
-    return Objects.equals(nodes, that.nodes)
-        && Objects.equals(adjacencyMatrix, that.adjacencyMatrix);
+    // lock both graphs in a fixed order, such that two concurrent comparisons cannot deadlock
+    int thisHash = System.identityHashCode(this);
+    int thatHash = System.identityHashCode(that);
+    Object firstLock = thisHash < thatHash ? this : that;
+    Object secondLock = thisHash < thatHash ? that : this;
+    synchronized (thisHash == thatHash ? TIE_LOCK : firstLock) {
+      synchronized (firstLock) {
+        synchronized (secondLock) {
+          return equalsLocked(that);
+        }
+      }
+    }
+  }
+
+  private boolean equalsLocked(final DependenceGraph pOther) {
+    if (nodes.size() != pOther.nodes.size()
+        || !nodeIndex.keySet().equals(pOther.nodeIndex.keySet())) {
+      return false;
+    }
+    // the type of each dependence of the current node in the other graph, by index in this graph
+    byte[] otherTypes = new byte[nodes.size()];
+    for (int from = 0; from < nodes.size(); from++) {
+      int otherFrom = pOther.nodeIndex.get(nodes.get(from));
+      if (successorCounts[from] != pOther.successorCounts[otherFrom]) {
+        return false;
+      }
+      for (int i = 0; i < pOther.successorCounts[otherFrom]; i++) {
+        int to = nodeIndex.get(pOther.nodes.get(pOther.successors[otherFrom][i]));
+        otherTypes[to] = (byte) (pOther.successorTypes[otherFrom][i] + 1);
+      }
+      boolean equal = true;
+      for (int i = 0; i < successorCounts[from]; i++) {
+        equal &= otherTypes[successors[from][i]] == successorTypes[from][i] + 1;
+      }
+      for (int i = 0; i < pOther.successorCounts[otherFrom]; i++) {
+        otherTypes[nodeIndex.get(pOther.nodes.get(pOther.successors[otherFrom][i]))] = 0;
+      }
+      if (!equal) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
-  public int hashCode() {
-    return Objects.hash(nodes, adjacencyMatrix);
+  public synchronized int hashCode() {
+    // independent of the numbering of the nodes
+    int hash = 0;
+    for (int from = 0; from < nodes.size(); from++) {
+      int fromHash = nodes.get(from).hashCode();
+      hash += fromHash;
+      for (int i = 0; i < successorCounts[from]; i++) {
+        hash +=
+            31 * (31 * fromHash + nodes.get(successors[from][i]).hashCode())
+                + successorTypes[from][i];
+      }
+    }
+    return hash;
   }
 }
@@ -0,0 +1,209 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dependencegraph;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Table;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.util.CFATraversal;
+import org.sosy_lab.cpachecker.util.CFATraversal.EdgeCollectingCFAVisitor;
+import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.DependenceType;
+import org.sosy_lab.cpachecker.util.dependencegraph.DependenceGraph.TraversalDirection;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class DependenceGraphTest {
+
+  private static final String[] PROGRAM = {
+    "int g;",
+    "int abs(int x) {",
+    "  if (x < 0) {",
+    "    return -x;",
+    "  }",
+    "  return x;",
+    "}",
+    "void inc(int n) {",
+    "  while (n > 0) {",
+    "    g++;",
+    "    n--;",
+    "  }",
+    "}",
+    "int main() {",
+    "  int a = 5;",
+    "  int b = abs(a - 10);",
+    "  int c = 0;",
+    "  if (b > a) {",
+    "    inc(b);",
+    "    c = g;",
+    "  } else {",
+    "    c = abs(b);",
+    "  }",
+    "  if (c == 3) {",
+    "  ERROR:",
+    "    return 1;",
+    "  }",
+    "  return 0;",
+    "}"
+  };
+
+  @Test
+  public void testParallelConstructionEqualsSequential() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    DependenceGraph sequential = buildDependenceGraph(cfa, 1);
+    DependenceGraph parallel = buildDependenceGraph(cfa, 4);
+    sequential.addAllFlowDependences();
+    parallel.addAllFlowDependences();
+
+    assertThat(parallel.getNodes()).containsExactlyElementsIn(sequential.getNodes());
+    assertThat(parallel.getMatrix()).isEqualTo(sequential.getMatrix());
+    assertThat(parallel).isEqualTo(sequential);
+  }
+
+  @Test
+  public void testReachableEqualsTableTraversal() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    DependenceGraph dg = buildDependenceGraph(cfa, 1);
+    dg.addAllFlowDependences();
+    Table<DGNode, DGNode, DependenceType> matrix = dg.getMatrix();
+    assertThat(matrix.values()).contains(DependenceType.CONTROL);
+    assertThat(matrix.values()).contains(DependenceType.FLOW);
+
+    for (CFAEdge edge : getAllEdges(cfa)) {
+      for (TraversalDirection direction : TraversalDirection.values()) {
+        assertThat(dg.getReachable(edge, direction))
+            .containsExactlyElementsIn(getReachable(dg.getNodes(), matrix, edge, direction));
+      }
+    }
+  }
+
+  @Test
+  public void testLazyBackwardSliceEqualsComplete() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    DependenceGraph complete = buildDependenceGraph(cfa, 1);
+    complete.addAllFlowDependences();
+
+    for (CFAEdge edge : getAllEdges(cfa)) {
+      DependenceGraph lazy = buildDependenceGraph(cfa, 1);
+      assertThat(lazy.getMatrix().values()).doesNotContain(DependenceType.FLOW);
+      assertThat(lazy.getReachable(edge, TraversalDirection.BACKWARD))
+          .containsExactlyElementsIn(complete.getReachable(edge, TraversalDirection.BACKWARD));
+    }
+  }
+
+  @Test
+  public void testAdjacencyArraysEqualTable() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(PROGRAM);
+    List<CFAEdge> edges = getAllEdges(cfa);
+
+    // arbitrary dependences, including nodes with a cause and isolated nodes
+    Table<CFAEdge, Optional<MemoryLocation>, DGNode> nodes = HashBasedTable.create();
+    Table<DGNode, DGNode, DependenceType> matrix = HashBasedTable.create();
+    for (int i = 0; i < edges.size(); i++) {
+      CFAEdge edge = edges.get(i);
+      nodes.put(edge, Optional.empty(), new DGNode(edge));
+      if (i % 4 == 0) {
+        MemoryLocation cause = MemoryLocation.valueOf("main::x" + i);
+        nodes.put(edge, Optional.of(cause), new DGNode(edge, cause));
+      }
+    }
+    List<DGNode> dgNodes = ImmutableList.copyOf(nodes.values());
+    for (int i = 0; i < dgNodes.size(); i++) {
+      if (i % 5 != 0) {
+        matrix.put(dgNodes.get(i), dgNodes.get((i * 7) % dgNodes.size()), DependenceType.FLOW);
+        matrix.put(dgNodes.get((i * 3) % dgNodes.size()), dgNodes.get(i), DependenceType.CONTROL);
+      }
+    }
+
+    DependenceGraph dg = new DependenceGraph(nodes, matrix, ShutdownNotifier.createDummy());
+    assertThat(dg.getNodes()).containsExactlyElementsIn(nodes.values());
+    assertThat(dg.getMatrix()).isEqualTo(matrix);
+    for (CFAEdge edge : edges) {
+      for (TraversalDirection direction : TraversalDirection.values()) {
+        assertThat(dg.getReachable(edge, direction))
+            .containsExactlyElementsIn(getReachable(nodes.values(), matrix, edge, direction));
+      }
+    }
+  }
+
+  private static DependenceGraph buildDependenceGraph(CFA pCfa, int pThreads) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("dependenceGraph.threads", Integer.toString(pThreads))
+            .build();
+    return DependenceGraph.builder(
+            pCfa, config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy())
+        .build();
+  }
+
+  private static List<CFAEdge> getAllEdges(CFA pCfa) {
+    EdgeCollectingCFAVisitor edgeCollector = new EdgeCollectingCFAVisitor();
+    CFATraversal.dfs().traverse(pCfa.getMainFunction(), edgeCollector);
+    return edgeCollector.getVisitedEdges();
+  }
+
+  /** Traverses the dependences directly on the table, like the graph did before numbering. */
+  private static Set<CFAEdge> getReachable(
+      Collection<DGNode> pNodes,
+      Table<DGNode, DGNode, DependenceType> pMatrix,
+      CFAEdge pStart,
+      TraversalDirection pDirection) {
+    Set<CFAEdge> reachable = new HashSet<>();
+    Set<DGNode> visited = new HashSet<>();
+    Queue<DGNode> waitlist = new ArrayDeque<>();
+    for (DGNode node : pNodes) {
+      if (node.getCfaEdge().equals(pStart)) {
+        waitlist.offer(node);
+      }
+    }
+
+    while (!waitlist.isEmpty()) {
+      DGNode current = waitlist.poll();
+      if (visited.add(current)) {
+        reachable.add(current.getCfaEdge());
+        if (pDirection != TraversalDirection.BACKWARD) {
+          waitlist.addAll(pMatrix.row(current).keySet());
+        }
+        if (pDirection != TraversalDirection.FORWARD) {
+          waitlist.addAll(pMatrix.column(current).keySet());
+        }
+      }
+    }
+    return reachable;
+  }
+}
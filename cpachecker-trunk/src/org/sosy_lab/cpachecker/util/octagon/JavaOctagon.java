@@ -0,0 +1,235 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * Octagon of the {@link JavaOctagonManager}.
+ *
+ * <p>The constraints are stored as the lower half of the coherent difference bound matrix over the
+ * 2n nodes v'_{2k} = v_k and v'_{2k+1} = -v_k (cf. Miné, "The octagon abstract domain"). The entry
+ * m[i][j] bounds v'_j - v'_i, and m[i][j] = m[j^1][i^1] holds, so only the entries with j <= (i|1)
+ * are stored, row by row in one flat array. The rows of the first k variables are a prefix of the
+ * array, which makes adding and removing trailing dimensions cheap.
+ *
+ * <p>Octagons are immutable for their users; the only in-place modification is the computation of
+ * the strong closure, which does not change the represented set. Therefore matrices may be shared
+ * between octagons.
+ */
+final class JavaOctagon extends Octagon {
+
+  static final double INF = Double.POSITIVE_INFINITY;
+
+  private final int dimension;
+
+  /** The half-matrix, or null if the octagon is known to be empty. */
+  private @Nullable double[] matrix;
+
+  private boolean closed;
+
+  JavaOctagon(
+      JavaOctagonManager pManager, int pDimension, @Nullable double[] pMatrix, boolean pClosed) {
+    super(pManager);
+    assert pMatrix == null || pMatrix.length == matrixSize(pDimension);
+    dimension = pDimension;
+    matrix = pMatrix;
+    closed = pClosed || pMatrix == null;
+  }
+
+  int getDimension() {
+    return dimension;
+  }
+
+  /** Returns the matrix as it is, without closing it, or null if the octagon is empty. */
+  @Nullable
+  double[] getMatrix() {
+    return matrix;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Returns the strongly closed matrix, or null if the octagon is empty. The returned array must
+   * not be modified.
+   */
+  @Nullable
+  double[] getClosedMatrix(boolean pIntegers) {
+    if (!closed) {
+      for (int v = 0; v < dimension; v++) {
+        closeVariable(matrix, 2 * dimension, v);
+      }
+      if (!strengthen(matrix, 2 * dimension, pIntegers)) {
+        matrix = null;
+      }
+      closed = true;
+    }
+    return matrix;
+  }
+
+  static int matrixSize(int pDimension) {
+    return 2 * pDimension * (pDimension + 1);
+  }
+
+  /** Position of m[i][j] in the flat array, requires j <= (i|1). */
+  static int matPos(int i, int j) {
+    return j + ((i + 1) * (i + 1)) / 2;
+  }
+
+  /** Position of m[i][j] in the flat array for arbitrary i and j. */
+  static int pos(int i, int j) {
+    return j <= (i | 1) ? matPos(i, j) : matPos(j ^ 1, i ^ 1);
+  }
+
+  /** Creates the matrix of the octagon without constraints. */
+  static double[] universeMatrix(int pDimension) {
+    double[] m = new double[matrixSize(pDimension)];
+    Arrays.fill(m, INF);
+    for (int i = 0; i < 2 * pDimension; i++) {
+      m[matPos(i, i)] = 0;
+    }
+    return m;
+  }
+
+  /**
+   * Re-establishes the strong closure of a matrix that was strongly closed before some entries
+   * were tightened. Every shortest path alternates between old entries and tightened ones, so it is
+   * sufficient to use the nodes of the variables on both ends of the tightened entries as pivots.
+   * This costs O(k*n^2) instead of O(n^3) for k such variables.
+   *
+   * @return false if the matrix turned out to be empty
+   */
+  static boolean closeIncrementally(
+      double[] m, int pDimension, boolean[] pChangedVariables, boolean pIntegers) {
+    for (int v = 0; v < pDimension; v++) {
+      if (pChangedVariables[v]) {
+        closeVariable(m, 2 * pDimension, v);
+      }
+    }
+    return strengthen(m, 2 * pDimension, pIntegers);
+  }
+
+  /**
+   * Like {@link #closeIncrementally(double[], int, boolean[], boolean)} if only unary entries of
+   * one variable were tightened.
+   */
+  static boolean closeIncrementally(double[] m, int pDimension, int pVariable, boolean pIntegers) {
+    closeVariable(m, 2 * pDimension, pVariable);
+    return strengthen(m, 2 * pDimension, pIntegers);
+  }
+
+  /**
+   * Shortest-path step with the two nodes of variable v as pivots. First the paths between the two
+   * nodes are taken into account for all entries of their rows and columns, afterwards all entries
+   * are updated with the paths that lead over one of the nodes.
+   */
+  private static void closeVariable(double[] m, int n2, int v) {
+    final int k = 2 * v;
+    final int k1 = k + 1;
+    final double kk1 = m[matPos(k, k1)];
+    final double k1k = m[matPos(k1, k)];
+
+    for (int i = 0; i < n2; i++) {
+      int ik = pos(i, k);
+      int ik1 = pos(i, k1);
+      double viak1 = m[ik1] + k1k;
+      if (viak1 < m[ik]) {
+        m[ik] = viak1;
+      }
+      double viak = m[ik] + kk1;
+      if (viak < m[ik1]) {
+        m[ik1] = viak;
+      }
+    }
+
+    for (int i = 0; i < n2; i++) {
+      double ik = m[pos(i, k)];
+      double ik1 = m[pos(i, k1)];
+      if (ik == INF && ik1 == INF) {
+        continue;
+      }
+      int row = matPos(i, 0);
+      int last = i | 1;
+      for (int j = 0; j <= last; j++) {
+        double viaK = ik + m[pos(k, j)];
+        double viaK1 = ik1 + m[pos(k1, j)];
+        double min = viaK < viaK1 ? viaK : viaK1;
+        if (min < m[row + j]) {
+          m[row + j] = min;
+        }
+      }
+    }
+  }
+
+  /**
+   * Strengthening step of the closure: m[i][j] <= (m[i][i^1] + m[j^1][j]) / 2. For integers, the
+   * unary constraints are tightened before, which yields the tight closure of a shortest-path
+   * closed matrix.
+   *
+   * @return false if a negative cycle shows that the matrix is empty
+   */
+  private static boolean strengthen(double[] m, int n2, boolean pIntegers) {
+    if (pIntegers) {
+      for (int i = 0; i < n2; i++) {
+        int p = matPos(i, i ^ 1);
+        m[p] = 2 * Math.floor(m[p] / 2);
+      }
+    }
+    for (int i = 0; i < n2; i++) {
+      double ii1 = m[matPos(i, i ^ 1)];
+      if (ii1 == INF) {
+        continue;
+      }
+      int row = matPos(i, 0);
+      int last = i | 1;
+      for (int j = 0; j <= last; j++) {
+        double s = (ii1 + m[matPos(j ^ 1, j)]) / 2;
+        if (s < m[row + j]) {
+          m[row + j] = s;
+        }
+      }
+    }
+    for (int i = 0; i < n2; i++) {
+      int p = matPos(i, i);
+      if (m[p] < 0) {
+        return false;
+      }
+      m[p] = 0;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return ((JavaOctagonManager) getManager()).hashCode(this);
+  }
+
+  @Override
+  public String toString() {
+    return "octagon with dimension: " + dimension;
+  }
+}
@@ -0,0 +1,1206 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static org.sosy_lab.cpachecker.util.octagon.JavaOctagon.INF;
+import static org.sosy_lab.cpachecker.util.octagon.JavaOctagon.matPos;
+import static org.sosy_lab.cpachecker.util.octagon.JavaOctagon.matrixSize;
+import static org.sosy_lab.cpachecker.util.octagon.JavaOctagon.pos;
+
+import com.google.common.collect.BiMap;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonDoubleValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Octagon manager implemented in Java, which needs no native library. Octagons are stored as flat
+ * half-matrices of doubles (see {@link JavaOctagon}), closures are computed in place and
+ * incrementally where possible. In integer mode, bounds are rounded towards the inside and the
+ * tight closure is computed.
+ *
+ * <p>Apart from closing it in place, a matrix is never modified after it was handed to an octagon,
+ * because copies share it. Operations whose result equals one of their operands return an octagon
+ * that shares the operand's matrix instead of allocating a new one. This is the common case for
+ * constraints and joins that add no information.
+ */
+public class JavaOctagonManager extends OctagonManager {
+
+  private static final int PX = 0;
+  private static final int MX = 1;
+  private static final int PXPY = 2;
+  private static final int PXMY = 3;
+  private static final int MXPY = 4;
+  private static final int MXMY = 5;
+
+  private final boolean integers;
+
+  public JavaOctagonManager(boolean pIntegers) {
+    integers = pIntegers;
+  }
+
+  private static double[] values(NumArray n) {
+    return ((JavaNumArray) n).values;
+  }
+
+  private static JavaOctagon cast(Octagon oct) {
+    return (JavaOctagon) oct;
+  }
+
+  private JavaOctagon create(int dimension, @Nullable double[] matrix, boolean closed) {
+    return new JavaOctagon(this, dimension, matrix, closed);
+  }
+
+  private @Nullable double[] close(Octagon oct) {
+    return cast(oct).getClosedMatrix(integers);
+  }
+
+  /** Returns a modifiable copy of the closed matrix, or null if the octagon is empty. */
+  private @Nullable double[] closedCopy(Octagon oct) {
+    double[] m = close(oct);
+    return m == null ? null : m.clone();
+  }
+
+  /** Creates the octagon for a matrix after the bounds of the given variable were tightened. */
+  private JavaOctagon closeIncrementally(double[] m, int dimension, int variable) {
+    if (!JavaOctagon.closeIncrementally(m, dimension, variable, integers)) {
+      return create(dimension, null, true);
+    }
+    return create(dimension, m, true);
+  }
+
+  private JavaOctagon closeIncrementally(double[] m, int dimension, boolean[] variables) {
+    if (!JavaOctagon.closeIncrementally(m, dimension, variables, integers)) {
+      return create(dimension, null, true);
+    }
+    return create(dimension, m, true);
+  }
+
+  int hashCode(JavaOctagon oct) {
+    double[] m = close(oct);
+    return 31 * oct.getDimension() + (m == null ? 0 : Arrays.hashCode(m));
+  }
+
+  private double roundUpper(double bound) {
+    return integers ? Math.floor(bound) : bound;
+  }
+
+  private double roundLower(double bound) {
+    return integers ? Math.ceil(bound) : bound;
+  }
+
+  private static double upperBound(double[] m, int v) {
+    return m[matPos(2 * v + 1, 2 * v)] / 2;
+  }
+
+  private static double lowerBound(double[] m, int v) {
+    return -m[matPos(2 * v, 2 * v + 1)] / 2;
+  }
+
+  private static void tighten(double[] m, int p, double bound) {
+    if (bound < m[p]) {
+      m[p] = bound;
+    }
+  }
+
+  /** Tightens the upper bound of v to the given value. */
+  private void tightenUpper(double[] m, int v, double bound) {
+    tighten(m, matPos(2 * v + 1, 2 * v), 2 * roundUpper(bound));
+  }
+
+  /** Tightens the lower bound of v to the given value. */
+  private void tightenLower(double[] m, int v, double bound) {
+    tighten(m, matPos(2 * v, 2 * v + 1), -2 * roundLower(bound));
+  }
+
+  /** Removes all constraints of variable v from the (closed) matrix. */
+  private static void forgetInPlace(double[] m, int dimension, int v) {
+    int k = 2 * v;
+    for (int i = 0; i < 2 * dimension; i++) {
+      m[pos(i, k)] = INF;
+      m[pos(i, k + 1)] = INF;
+    }
+    m[matPos(k, k)] = 0;
+    m[matPos(k + 1, k + 1)] = 0;
+  }
+
+  /** Multiplication for interval arithmetic, where 0 * infinity is 0. */
+  private static double mul(double a, double b) {
+    return (a == 0 || b == 0) ? 0 : a * b;
+  }
+
+  private static double mulLower(double a, double b, double c, double d) {
+    return Math.min(Math.min(mul(a, c), mul(a, d)), Math.min(mul(b, c), mul(b, d)));
+  }
+
+  private static double mulUpper(double a, double b, double c, double d) {
+    return Math.max(Math.max(mul(a, c), mul(a, d)), Math.max(mul(b, c), mul(b, d)));
+  }
+
+  /* num handling function*/
+
+  @Override
+  public NumArray init_num_t(int n) {
+    return new JavaNumArray(n);
+  }
+
+  @Override
+  public void num_set(NumArray n1, NumArray n2) {
+    double[] target = values(n1);
+    double[] source = values(n2);
+    System.arraycopy(source, 0, target, 0, Math.min(source.length, target.length));
+  }
+
+  @Override
+  public void num_set_int(NumArray n, int pos, long i) {
+    values(n)[pos] = i;
+  }
+
+  @Override
+  public void num_set_float(NumArray n, int pos, double d) {
+    values(n)[pos] = d;
+  }
+
+  @Override
+  public void num_set_inf(NumArray n, int pos) {
+    values(n)[pos] = INF;
+  }
+
+  @Override
+  public long num_get_int(NumArray n, int pos) {
+    return (long) values(n)[pos];
+  }
+
+  @Override
+  public double num_get_float(NumArray n, int pos) {
+    return values(n)[pos];
+  }
+
+  @Override
+  public boolean num_infty(NumArray n, int pos) {
+    return Double.isInfinite(values(n)[pos]);
+  }
+
+  @Override
+  public void num_clear_n(NumArray n, int size) {
+    // nothing to free, the array is garbage collected
+  }
+
+  /* Octagon Creation */
+
+  @Override
+  public Octagon empty(int n) {
+    return create(n, null, true);
+  }
+
+  @Override
+  public Octagon universe(int n) {
+    return create(n, JavaOctagon.universeMatrix(n), true);
+  }
+
+  @Override
+  public Octagon copy(Octagon oct) {
+    JavaOctagon o = cast(oct);
+    return create(o.getDimension(), o.getMatrix(), o.isClosed());
+  }
+
+  @Override
+  public Octagon full_copy(Octagon oct) {
+    JavaOctagon o = cast(oct);
+    double[] m = o.getMatrix();
+    return create(o.getDimension(), m == null ? null : m.clone(), o.isClosed());
+  }
+
+  /* Query Functions */
+
+  @Override
+  public int dimension(Octagon oct) {
+    return cast(oct).getDimension();
+  }
+
+  @Override
+  public int nbconstraints(Octagon oct) {
+    JavaOctagon o = cast(oct);
+    double[] m = o.getMatrix();
+    if (m == null) {
+      return 0;
+    }
+    int count = 0;
+    for (int i = 0; i < 2 * o.getDimension(); i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && m[matPos(i, j)] != INF) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /* Test Functions */
+
+  @Override
+  public boolean isEmpty(Octagon oct) {
+    return close(oct) == null;
+  }
+
+  @Override
+  public int isEmptyLazy(Octagon oct) {
+    JavaOctagon o = cast(oct);
+    if (o.getMatrix() == null) {
+      return 1;
+    }
+    return o.isClosed() ? 2 : 3;
+  }
+
+  @Override
+  public boolean isUniverse(Octagon oct) {
+    JavaOctagon o = cast(oct);
+    double[] m = close(o);
+    if (m == null) {
+      return false;
+    }
+    for (int i = 0; i < 2 * o.getDimension(); i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && m[matPos(i, j)] != INF) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isIncludedIn(Octagon oct1, Octagon oct2) {
+    double[] m1 = close(oct1);
+    if (m1 == null) {
+      return true;
+    }
+    return isPointwiseLessOrEqual(m1, cast(oct2).getMatrix());
+  }
+
+  @Override
+  public int isIncludedInLazy(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    double[] m1 = o1.getMatrix();
+    if (m1 == null) {
+      return 1;
+    }
+    if (isPointwiseLessOrEqual(m1, cast(oct2).getMatrix())) {
+      return 1;
+    }
+    return o1.isClosed() ? 2 : 3;
+  }
+
+  private static boolean isPointwiseLessOrEqual(double[] m1, @Nullable double[] m2) {
+    if (m2 == null) {
+      return false;
+    }
+    for (int i = 0; i < m1.length; i++) {
+      if (m1[i] > m2[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isEqual(Octagon oct1, Octagon oct2) {
+    return Arrays.equals(close(oct1), close(oct2));
+  }
+
+  @Override
+  public int isEqualLazy(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    JavaOctagon o2 = cast(oct2);
+    if (o1.isClosed() && o2.isClosed()) {
+      return Arrays.equals(o1.getMatrix(), o2.getMatrix()) ? 1 : 2;
+    }
+    return 3;
+  }
+
+  @Override
+  public boolean isIn(Octagon oct1, NumArray array) {
+    JavaOctagon o = cast(oct1);
+    double[] m = close(o);
+    if (m == null) {
+      return false;
+    }
+    double[] point = values(array);
+    for (int i = 0; i < 2 * o.getDimension(); i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (node(point, j) - node(point, i) > m[matPos(i, j)]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static double node(double[] point, int i) {
+    return (i & 1) == 0 ? point[i / 2] : -point[i / 2];
+  }
+
+  /* Operators */
+
+  @Override
+  public Octagon intersection(Octagon oct1, Octagon oct2) {
+    JavaOctagon o1 = cast(oct1);
+    double[] m1 = o1.getMatrix();
+    JavaOctagon o2 = cast(oct2);
+    double[] m2 = o2.getMatrix();
+    if (m1 == null || m2 == null) {
+      return empty(o1.getDimension());
+    }
+    if (isPointwiseLessOrEqual(m1, m2)) {
+      return copy(o1);
+    } else if (isPointwiseLessOrEqual(m2, m1)) {
+      return copy(o2);
+    }
+    double[] result = new double[m1.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = Math.min(m1[i], m2[i]);
+    }
+    return create(o1.getDimension(), result, false);
+  }
+
+  /** Convex hull, the point-wise maximum of two closed matrices is closed again. */
+  @Override
+  public Octagon union(Octagon oct1, Octagon oct2) {
+    double[] m1 = close(oct1);
+    double[] m2 = close(oct2);
+    if (m1 == null) {
+      return copy(oct2);
+    } else if (m2 == null || isPointwiseLessOrEqual(m2, m1)) {
+      return copy(oct1);
+    } else if (isPointwiseLessOrEqual(m1, m2)) {
+      return copy(oct2);
+    }
+    double[] result = new double[m1.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = Math.max(m1[i], m2[i]);
+    }
+    return create(dimension(oct1), result, true);
+  }
+
+  /**
+   * Widening with the thresholds 0 and infinity (OCT_WIDENING_ZERO of the native library). The
+   * left operand is not closed, otherwise the widening would not be guaranteed to terminate.
+   */
+  @Override
+  public Octagon widening(Octagon oct1, Octagon oct2) {
+    double[] m1 = cast(oct1).getMatrix();
+    if (m1 == null) {
+      return copy(oct2);
+    }
+    double[] m2 = close(oct2);
+    if (m2 == null || isPointwiseLessOrEqual(m2, m1)) {
+      return copy(oct1);
+    }
+    double[] result = new double[m1.length];
+    for (int i = 0; i < result.length; i++) {
+      if (m2[i] <= m1[i]) {
+        result[i] = m1[i];
+      } else {
+        result[i] = m2[i] <= 0 ? 0 : INF;
+      }
+    }
+    return create(dimension(oct1), result, false);
+  }
+
+  @Override
+  public Octagon narrowing(Octagon oct1, Octagon oct2) {
+    double[] m1 = close(oct1);
+    double[] m2 = close(oct2);
+    if (m1 == null || m2 == null) {
+      return empty(dimension(oct1));
+    }
+    int first = firstRefinedEntry(m1, m2);
+    if (first < 0) {
+      return copy(oct1);
+    }
+    double[] result = m1.clone();
+    for (int i = first; i < result.length; i++) {
+      if (result[i] == INF) {
+        result[i] = m2[i];
+      }
+    }
+    return create(dimension(oct1), result, false);
+  }
+
+  /** Returns the first infinite entry of m1 that is finite in m2, or -1 if there is none. */
+  private static int firstRefinedEntry(double[] m1, double[] m2) {
+    for (int i = 0; i < m1.length; i++) {
+      if (m1[i] == INF && m2[i] != INF) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /* Transfer Functions */
+
+  @Override
+  public Octagon forget(Octagon oct, int k) {
+    int dimension = dimension(oct);
+    double[] m = close(oct);
+    if (m == null) {
+      return empty(dimension);
+    }
+    if (isUnconstrained(m, dimension, k)) {
+      return create(dimension, m, true);
+    }
+    m = m.clone();
+    forgetInPlace(m, dimension, k);
+    return create(dimension, m, true);
+  }
+
+  private static boolean isUnconstrained(double[] m, int dimension, int v) {
+    for (int i = 0; i < 2 * dimension; i++) {
+      if ((i != 2 * v && m[pos(i, 2 * v)] != INF)
+          || (i != 2 * v + 1 && m[pos(i, 2 * v + 1)] != INF)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Replaces all constraints of a variable by the given bounds. Like in the native library, the
+   * first array contains the upper bound and the second one the negated lower bound at their first
+   * position.
+   */
+  @Override
+  public Octagon set_bounds(Octagon oct, int pos, NumArray upper, NumArray negatedLower) {
+    int dimension = dimension(oct);
+    double[] m = closedCopy(oct);
+    if (m == null) {
+      return empty(dimension);
+    }
+    forgetInPlace(m, dimension, pos);
+    tightenUpper(m, pos, values(upper)[0]);
+    tightenLower(m, pos, -values(negatedLower)[0]);
+    return closeIncrementally(m, dimension, pos);
+  }
+
+  /**
+   * Assigns a linear expression to variable k. The array contains the coefficients of all
+   * variables and the constant at the last position.
+   */
+  @Override
+  public Octagon assingVar(Octagon oct, int k, NumArray array) {
+    return assign(oct, k, values(array), false);
+  }
+
+  /**
+   * Assigns a linear expression with interval coefficients to variable k, the array contains the
+   * upper bound and the negated lower bound of each coefficient and of the constant.
+   */
+  @Override
+  public Octagon intervAssingVar(Octagon oct, int k, NumArray array) {
+    return assign(oct, k, values(array), true);
+  }
+
+  private Octagon assign(Octagon oct, int k, double[] coeffs, boolean interval) {
+    int dimension = dimension(oct);
+    double[] m = close(oct);
+    if (m == null) {
+      return empty(dimension);
+    }
+
+    // check whether the expression has the octagonal form +/-v + c or c
+    int variable = -1;
+    boolean octagonal = true;
+    for (int i = 0; i < dimension && octagonal; i++) {
+      double cl = coeffLower(coeffs, i, interval);
+      if (cl != coeffUpper(coeffs, i, interval)) {
+        octagonal = false;
+      } else if (cl != 0) {
+        if (variable >= 0 || (cl != 1 && cl != -1)) {
+          octagonal = false;
+        } else {
+          variable = i;
+        }
+      }
+    }
+    double lower = coeffLower(coeffs, dimension, interval);
+    double upper = coeffUpper(coeffs, dimension, interval);
+
+    if (octagonal && variable == k) {
+      double[] result = translate(m, dimension, k, coeffs[interval ? 2 * k : k] < 0, lower);
+      if (upper > lower) {
+        widenUpwards(result, dimension, k, upper - lower);
+      }
+      return create(dimension, result, true);
+    }
+
+    m = m.clone();
+    if (!octagonal) {
+      boolean[] changed = new boolean[dimension];
+      assignInterval(m, dimension, k, coeffs, interval, changed);
+      return closeIncrementally(m, dimension, changed);
+    }
+
+    forgetInPlace(m, dimension, k);
+    if (variable < 0) {
+      tightenUpper(m, k, upper);
+      tightenLower(m, k, lower);
+      return closeIncrementally(m, dimension, k);
+    }
+
+    boolean[] changed = new boolean[dimension];
+    changed[k] = true;
+    changed[variable] = true;
+    if (coeffUpper(coeffs, variable, interval) > 0) {
+      // lower <= k - variable <= upper
+      tighten(m, pos(2 * variable, 2 * k), roundUpper(upper));
+      tighten(m, pos(2 * k, 2 * variable), -roundLower(lower));
+    } else {
+      // lower <= k + variable <= upper
+      tighten(m, pos(2 * variable + 1, 2 * k), roundUpper(upper));
+      tighten(m, pos(2 * variable, 2 * k + 1), -roundLower(lower));
+    }
+    return closeIncrementally(m, dimension, changed);
+  }
+
+  /**
+   * Computes the matrix after the invertible assignment k := k + c or k := -k + c, which keeps the
+   * matrix closed.
+   */
+  private static double[] translate(
+      double[] m, int dimension, int k, boolean negate, double constant) {
+    double[] result = new double[m.length];
+    for (int i = 0; i < 2 * dimension; i++) {
+      int si = negate && i / 2 == k ? i ^ 1 : i;
+      double di = shift(i, k, constant);
+      for (int j = 0; j <= (i | 1); j++) {
+        int sj = negate && j / 2 == k ? j ^ 1 : j;
+        result[matPos(i, j)] = m[pos(si, sj)] + shift(j, k, constant) - di;
+      }
+    }
+    return result;
+  }
+
+  private static double shift(int node, int k, double constant) {
+    if (node == 2 * k) {
+      return constant;
+    } else if (node == 2 * k + 1) {
+      return -constant;
+    }
+    return 0;
+  }
+
+  /**
+   * Adds an arbitrary value between 0 and w to variable k in a closed matrix. Each entry is the
+   * largest value of its octagonal expression, so the entries that grow with k are increased by w,
+   * which keeps the matrix closed.
+   */
+  private void widenUpwards(double[] m, int dimension, int k, double w) {
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        int growth = (j == 2 * k ? 1 : 0) + (i == 2 * k + 1 ? 1 : 0);
+        int shrink = (j == 2 * k + 1 ? 1 : 0) + (i == 2 * k ? 1 : 0);
+        if (growth > shrink) {
+          m[matPos(i, j)] = roundUpper(m[matPos(i, j)] + (growth - shrink) * w);
+        }
+      }
+    }
+  }
+
+  private static double coeffLower(double[] coeffs, int i, boolean interval) {
+    return interval ? -coeffs[2 * i + 1] : coeffs[i];
+  }
+
+  private static double coeffUpper(double[] coeffs, int i, boolean interval) {
+    return interval ? coeffs[2 * i] : coeffs[i];
+  }
+
+  /**
+   * Approximates the assignment of a linear expression e to variable k in a closed matrix. Besides
+   * the bounds of e, bounds of e - v and e + v are derived for all variables v occurring in e.
+   * Infinite summands are counted separately so that a single summand can be removed from the sums
+   * again, which keeps this linear in the number of variables. All variables whose constraints
+   * were changed are marked in the given array.
+   */
+  private void assignInterval(
+      double[] m, int dimension, int k, double[] coeffs, boolean interval, boolean[] changed) {
+    double lowerSum = 0;
+    double upperSum = 0;
+    int lowerInfinite = 0;
+    int upperInfinite = 0;
+    for (int i = 0; i <= dimension; i++) {
+      double lower;
+      double upper;
+      if (i == dimension) {
+        lower = coeffLower(coeffs, i, interval);
+        upper = coeffUpper(coeffs, i, interval);
+      } else {
+        double cl = coeffLower(coeffs, i, interval);
+        double cu = coeffUpper(coeffs, i, interval);
+        lower = mulLower(cl, cu, lowerBound(m, i), upperBound(m, i));
+        upper = mulUpper(cl, cu, lowerBound(m, i), upperBound(m, i));
+      }
+      if (lower == -INF) {
+        lowerInfinite++;
+      } else {
+        lowerSum += lower;
+      }
+      if (upper == INF) {
+        upperInfinite++;
+      } else {
+        upperSum += upper;
+      }
+    }
+
+    // the matrix bounds expressions with two variables more precisely than their intervals
+    double upperK = upperInfinite > 0 ? INF : upperSum;
+    double lowerK = lowerInfinite > 0 ? -INF : lowerSum;
+    int first = -1;
+    int second = -1;
+    boolean unitPair = true;
+    for (int i = 0; i < dimension && unitPair; i++) {
+      double cl = coeffLower(coeffs, i, interval);
+      double cu = coeffUpper(coeffs, i, interval);
+      if (cl != 0 || cu != 0) {
+        if (second >= 0 || cl != cu || (cl != 1 && cl != -1)) {
+          unitPair = false;
+        } else if (first >= 0) {
+          second = i;
+        } else {
+          first = i;
+        }
+      }
+    }
+    if (unitPair && second >= 0) {
+      // node p stands for -a * v_first and node q for b * v_second
+      int p = coeffUpper(coeffs, first, interval) > 0 ? 2 * first + 1 : 2 * first;
+      int q = coeffUpper(coeffs, second, interval) > 0 ? 2 * second : 2 * second + 1;
+      upperK = Math.min(upperK, m[pos(p, q)] + coeffUpper(coeffs, dimension, interval));
+      lowerK = Math.max(lowerK, -m[pos(q, p)] + coeffLower(coeffs, dimension, interval));
+    }
+
+    forgetInPlace(m, dimension, k);
+    tightenUpper(m, k, upperK);
+    tightenLower(m, k, lowerK);
+    changed[k] = true;
+
+    for (int j = 0; j < dimension; j++) {
+      double cl = coeffLower(coeffs, j, interval);
+      double cu = coeffUpper(coeffs, j, interval);
+      if (j == k || (cl == 0 && cu == 0)) {
+        continue;
+      }
+      // forgetting k did not change the bounds of v_j
+      double lowerJ = lowerBound(m, j);
+      double upperJ = upperBound(m, j);
+      double termLower = mulLower(cl, cu, lowerJ, upperJ);
+      double termUpper = mulUpper(cl, cu, lowerJ, upperJ);
+      double restLower;
+      if (termLower == -INF) {
+        restLower = lowerInfinite > 1 ? -INF : lowerSum;
+      } else {
+        restLower = lowerInfinite > 0 ? -INF : lowerSum - termLower;
+      }
+      double restUpper;
+      if (termUpper == INF) {
+        restUpper = upperInfinite > 1 ? INF : upperSum;
+      } else {
+        restUpper = upperInfinite > 0 ? INF : upperSum - termUpper;
+      }
+
+      // bounds of e - v_j
+      double lower = restLower + mulLower(cl - 1, cu - 1, lowerJ, upperJ);
+      double upper = restUpper + mulUpper(cl - 1, cu - 1, lowerJ, upperJ);
+      tighten(m, pos(2 * j, 2 * k), roundUpper(upper));
+      tighten(m, pos(2 * k, 2 * j), -roundLower(lower));
+
+      // bounds of e + v_j
+      lower = restLower + mulLower(cl + 1, cu + 1, lowerJ, upperJ);
+      upper = restUpper + mulUpper(cl + 1, cu + 1, lowerJ, upperJ);
+      tighten(m, pos(2 * j + 1, 2 * k), roundUpper(upper));
+      tighten(m, pos(2 * j, 2 * k + 1), -roundLower(lower));
+      changed[j] = true;
+    }
+  }
+
+  /**
+   * Adds binary constraints, the array contains four entries (kind, first variable, second
+   * variable, constant) per constraint.
+   */
+  @Override
+  public Octagon addBinConstraint(Octagon oct, int noOfConstraints, NumArray array) {
+    int dimension = dimension(oct);
+    double[] m = close(oct);
+    if (m == null) {
+      return empty(dimension);
+    }
+    double[] constraints = values(array);
+    double[] result = m;
+    boolean[] changed = null;
+    for (int c = 0; c < noOfConstraints; c++) {
+      int kind = (int) constraints[4 * c];
+      int i = (int) constraints[4 * c + 1];
+      int j = (int) constraints[4 * c + 2];
+      int p = binConstraintPos(kind, i, j);
+      double bound = binConstraintBound(kind, constraints[4 * c + 3]);
+      if (bound < result[p]) {
+        if (result == m) {
+          result = m.clone();
+          changed = new boolean[dimension];
+        }
+        result[p] = bound;
+        changed[i] = true;
+        if (kind >= PXPY) {
+          changed[j] = true;
+        }
+      }
+    }
+    if (changed == null) {
+      // the constraints are already implied
+      return create(dimension, m, true);
+    }
+    return closeIncrementally(result, dimension, changed);
+  }
+
+  /** Returns the matrix entry that bounds the given kind of binary constraint. */
+  private static int binConstraintPos(int kind, int i, int j) {
+    switch (kind) {
+      case PX:
+        return matPos(2 * i + 1, 2 * i);
+      case MX:
+        return matPos(2 * i, 2 * i + 1);
+      case PXPY:
+        return pos(2 * i + 1, 2 * j);
+      case PXMY:
+        return pos(2 * j, 2 * i);
+      case MXPY:
+        return pos(2 * i, 2 * j);
+      case MXMY:
+        return pos(2 * i, 2 * j + 1);
+      default:
+        throw new AssertionError("unknown kind of binary constraint " + kind);
+    }
+  }
+
+  /** Returns the value of the matrix entry for a binary constraint with the given constant. */
+  private double binConstraintBound(int kind, double constant) {
+    double bound = roundUpper(constant);
+    return kind == PX || kind == MX ? 2 * bound : bound;
+  }
+
+  /**
+   * Adds the constraint sum(a_i * v_i) + c >= 0, the array contains the coefficients and the
+   * constant at the last position. Constraints that are not octagonal are approximated by bounds
+   * of the variables.
+   */
+  @Override
+  public Octagon addConstraint(Octagon oct, NumArray array) {
+    return addConstraint(oct, values(array), false);
+  }
+
+  /**
+   * Adds the constraint sum(a_i * v_i) + c >= 0 with interval coefficients, the array contains the
+   * upper bound and the negated lower bound of each coefficient and of the constant. Like in the
+   * native library, the constraint holds if it holds for some value of each interval.
+   */
+  @Override
+  public Octagon intervAddConstraint(Octagon oct, NumArray array) {
+    return addConstraint(oct, values(array), true);
+  }
+
+  private Octagon addConstraint(Octagon oct, double[] coeffs, boolean interval) {
+    int dimension = dimension(oct);
+    double[] m = close(oct);
+    if (m == null) {
+      return empty(dimension);
+    }
+    boolean[] changed = new boolean[dimension];
+    double[] result = addConstraint(m, false, dimension, coeffs, interval, changed);
+    if (result == null) {
+      return empty(dimension);
+    } else if (result == m) {
+      // the constraint is already implied
+      return create(dimension, m, true);
+    }
+    return closeIncrementally(result, dimension, changed);
+  }
+
+  /**
+   * Adds the constraint sum(a_i * v_i) + c >= 0 to a matrix whose bounds are valid, which is
+   * copied before the first change unless it is writable. Octagonal constraints are added exactly,
+   * others tighten the bounds of the variables with a single coefficient. Every variable whose
+   * constraints were tightened is marked in the given array.
+   *
+   * @return the given matrix if the constraint is implied, a tightened matrix, or null if the
+   *     constraint cannot be satisfied
+   */
+  private @Nullable double[] addConstraint(
+      double[] m,
+      boolean writable,
+      int dimension,
+      double[] coeffs,
+      boolean interval,
+      boolean[] changed) {
+    double constant = coeffUpper(coeffs, dimension, interval);
+
+    // octagonal constraints may be scaled by a positive factor
+    int first = -1;
+    int second = -1;
+    double scale = 1;
+    boolean octagonal = true;
+    for (int i = 0; i < dimension && octagonal; i++) {
+      double cl = coeffLower(coeffs, i, interval);
+      if (cl != coeffUpper(coeffs, i, interval)) {
+        octagonal = false;
+      } else if (cl != 0) {
+        if (second >= 0 || (first >= 0 && Math.abs(cl) != scale)) {
+          octagonal = false;
+        } else if (first >= 0) {
+          second = i;
+        } else {
+          first = i;
+          scale = Math.abs(cl);
+        }
+      }
+    }
+
+    if (octagonal) {
+      if (first < 0) {
+        return constant >= 0 ? m : null;
+      }
+      constant /= scale;
+      // -(a_i * v_i + a_j * v_j) <= c
+      boolean minusFirst = coeffUpper(coeffs, first, interval) > 0;
+      int kind;
+      if (second < 0) {
+        kind = minusFirst ? MX : PX;
+        second = first;
+      } else {
+        boolean minusSecond = coeffUpper(coeffs, second, interval) > 0;
+        if (minusFirst) {
+          kind = minusSecond ? MXMY : MXPY;
+        } else {
+          kind = minusSecond ? PXMY : PXPY;
+        }
+      }
+      int p = binConstraintPos(kind, first, second);
+      double bound = binConstraintBound(kind, constant);
+      if (bound >= m[p]) {
+        return m;
+      }
+      double[] result = writable ? m : m.clone();
+      result[p] = bound;
+      changed[first] = true;
+      changed[second] = true;
+      return result;
+    }
+
+    // a_i * v_i >= -(sum_{j != i} a_j * v_j + c) >= -upper(rest)
+    double upperSum = constant;
+    int upperInfinite = 0;
+    for (int i = 0; i < dimension; i++) {
+      double termUpper = termUpper(m, coeffs, i, interval);
+      if (termUpper == INF) {
+        upperInfinite++;
+      } else {
+        upperSum += termUpper;
+      }
+    }
+    if (upperInfinite == 0 && upperSum < 0) {
+      return null;
+    }
+
+    double[] result = m;
+    for (int i = 0; i < dimension; i++) {
+      double coeff = coeffUpper(coeffs, i, interval);
+      if (coeff == 0 || coeff != coeffLower(coeffs, i, interval)) {
+        // interval coefficients do not allow to bound the variable
+        continue;
+      }
+      // the bounds of the result are only tightened for the current variable
+      double termUpper = termUpper(m, coeffs, i, interval);
+      double restUpper;
+      if (termUpper == INF) {
+        restUpper = upperInfinite > 1 ? INF : upperSum;
+      } else {
+        restUpper = upperInfinite > 0 ? INF : upperSum - termUpper;
+      }
+      if (restUpper == INF) {
+        continue;
+      }
+      int p;
+      double bound;
+      if (coeff > 0) {
+        p = matPos(2 * i, 2 * i + 1);
+        bound = -2 * roundLower(-restUpper / coeff);
+      } else {
+        p = matPos(2 * i + 1, 2 * i);
+        bound = 2 * roundUpper(-restUpper / coeff);
+      }
+      if (bound < result[p]) {
+        if (result == m && !writable) {
+          result = m.clone();
+        }
+        result[p] = bound;
+        changed[i] = true;
+      }
+    }
+
+    // -(a_i * v_i + a_j * v_j) <= upper(rest) for coefficients of the same magnitude
+    for (int i = 0; i < dimension; i++) {
+      double coeffI = coeffUpper(coeffs, i, interval);
+      if (coeffI == 0 || coeffI != coeffLower(coeffs, i, interval)) {
+        continue;
+      }
+      double termUpperI = termUpper(m, coeffs, i, interval);
+      for (int j = i + 1; j < dimension; j++) {
+        double coeffJ = coeffUpper(coeffs, j, interval);
+        if (Math.abs(coeffJ) != Math.abs(coeffI) || coeffJ != coeffLower(coeffs, j, interval)) {
+          continue;
+        }
+        double termUpperJ = termUpper(m, coeffs, j, interval);
+        int infinite = (termUpperI == INF ? 1 : 0) + (termUpperJ == INF ? 1 : 0);
+        if (upperInfinite > infinite) {
+          continue;
+        }
+        double restUpper = upperSum;
+        if (termUpperI != INF) {
+          restUpper -= termUpperI;
+        }
+        if (termUpperJ != INF) {
+          restUpper -= termUpperJ;
+        }
+        int kind;
+        if (coeffI > 0) {
+          kind = coeffJ > 0 ? MXMY : MXPY;
+        } else {
+          kind = coeffJ > 0 ? PXMY : PXPY;
+        }
+        int p = binConstraintPos(kind, i, j);
+        double bound = binConstraintBound(kind, restUpper / Math.abs(coeffI));
+        if (bound < result[p]) {
+          if (result == m && !writable) {
+            result = m.clone();
+          }
+          result[p] = bound;
+          changed[i] = true;
+          changed[j] = true;
+        }
+      }
+    }
+    return result;
+  }
+
+  private static double termUpper(double[] m, double[] coeffs, int i, boolean interval) {
+    return mulUpper(
+        coeffLower(coeffs, i, interval),
+        coeffUpper(coeffs, i, interval),
+        lowerBound(m, i),
+        upperBound(m, i));
+  }
+
+  /**
+   * Substitutes a linear expression for variable x, i.e., computes the states before the
+   * assignment x := e from the states after it. The array contains the coefficients of all
+   * variables and the constant at the last position.
+   */
+  @Override
+  public Octagon substituteVar(Octagon oct, int x, NumArray array) {
+    return substitute(oct, x, values(array), false);
+  }
+
+  /**
+   * Substitutes a linear expression with interval coefficients for variable x, the array contains
+   * the upper bound and the negated lower bound of each coefficient and of the constant.
+   */
+  @Override
+  public Octagon intervSubstituteVar(Octagon oct, int x, NumArray array) {
+    return substitute(oct, x, values(array), true);
+  }
+
+  /**
+   * The pre-image of a closed matrix is the conjunction of the pre-images of its constraints. Each
+   * constraint of x is turned into the constraint that e satisfies instead, which is added to the
+   * matrix without the constraints of x. This is exact if the resulting constraints are octagonal,
+   * in particular for octagonal expressions.
+   */
+  private Octagon substitute(Octagon oct, int x, double[] coeffs, boolean interval) {
+    int dimension = dimension(oct);
+    double[] m = close(oct);
+    if (m == null) {
+      return empty(dimension);
+    }
+    double[] result = m.clone();
+    forgetInPlace(result, dimension, x);
+    boolean[] changed = new boolean[dimension];
+    double[] constraint = new double[2 * (dimension + 1)];
+
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 2 * x; j <= 2 * x + 1; j++) {
+        double bound = m[pos(i, j)];
+        if (i == j || bound == INF) {
+          continue;
+        }
+        // node_j - node_i <= bound as node_i - node_j + bound >= 0 with e instead of x,
+        // bounds of x are stored twice in the matrix
+        double scale = i == (j ^ 1) ? 0.5 : 1;
+        Arrays.fill(constraint, 0);
+        addNode(constraint, i, scale);
+        addNode(constraint, j, -scale);
+        bound *= scale;
+        double factor = constraint[2 * x];
+        constraint[2 * x] = 0;
+        constraint[2 * x + 1] = 0;
+        for (int v = 0; v <= dimension; v++) {
+          double lower = factor * coeffLower(coeffs, v, interval);
+          double upper = factor * coeffUpper(coeffs, v, interval);
+          constraint[2 * v] += Math.max(lower, upper);
+          constraint[2 * v + 1] -= Math.min(lower, upper);
+        }
+        constraint[2 * dimension] += bound;
+        constraint[2 * dimension + 1] -= bound;
+
+        result = addConstraint(result, true, dimension, constraint, true, changed);
+        if (result == null) {
+          return empty(dimension);
+        }
+      }
+    }
+    return closeIncrementally(result, dimension, changed);
+  }
+
+  /** Adds factor times the value of the given node to a constraint with interval coefficients. */
+  private static void addNode(double[] constraint, int node, double factor) {
+    double coeff = (node & 1) == 0 ? factor : -factor;
+    constraint[node & ~1] += coeff;
+    constraint[node | 1] -= coeff;
+  }
+
+  /* change of dimensions */
+
+  @Override
+  public Octagon addDimensionAndEmbed(Octagon oct, int k) {
+    JavaOctagon o = cast(oct);
+    double[] m = o.getMatrix();
+    int dimension = o.getDimension() + k;
+    if (m == null) {
+      return empty(dimension);
+    }
+    return create(dimension, embed(m, o.getDimension(), k), o.isClosed());
+  }
+
+  /** Adds k unconstrained variables, which keeps closed matrices closed. */
+  private static double[] embed(double[] m, int oldDimension, int k) {
+    int dimension = oldDimension + k;
+    double[] result = Arrays.copyOf(m, matrixSize(dimension));
+    Arrays.fill(result, m.length, result.length, INF);
+    for (int i = 2 * oldDimension; i < 2 * dimension; i++) {
+      result[matPos(i, i)] = 0;
+    }
+    return result;
+  }
+
+  @Override
+  public Octagon addDimensionAndProject(Octagon oct, int k) {
+    int oldDimension = dimension(oct);
+    int dimension = oldDimension + k;
+    double[] m = close(oct);
+    if (m == null) {
+      return empty(dimension);
+    }
+    m = embed(m, oldDimension, k);
+    boolean[] changed = new boolean[dimension];
+    for (int v = oldDimension; v < dimension; v++) {
+      tightenUpper(m, v, 0);
+      tightenLower(m, v, 0);
+      changed[v] = true;
+    }
+    return closeIncrementally(m, dimension, changed);
+  }
+
+  /** Removes the last k dimensions. */
+  @Override
+  public Octagon removeDimension(Octagon oct, int k) {
+    int dimension = dimension(oct) - k;
+    double[] m = close(oct);
+    if (m == null) {
+      return empty(dimension);
+    }
+    return create(dimension, Arrays.copyOf(m, matrixSize(dimension)), true);
+  }
+
+  @Override
+  public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
+    StringBuilder str = new StringBuilder();
+    str.append("Octagon (dimension: " + dimension(oct) + ")\n");
+    double[] m = close(oct);
+    if (m == null) {
+      str.append("[Empty]\n");
+      return str.toString();
+    }
+
+    for (int i = 0; i < map.size(); i++) {
+      str.append(" ").append(map.get(i)).append(" -> [");
+      double lower = lowerBound(m, i);
+      if (lower == -INF) {
+        str.append("-INFINITY, ");
+      } else if (integers) {
+        str.append((long) lower).append(", ");
+      } else {
+        str.append(lower).append(", ");
+      }
+      double upper = upperBound(m, i);
+      if (upper == INF) {
+        str.append("INFINITY]\n");
+      } else if (integers) {
+        str.append((long) upper).append("]\n");
+      } else {
+        str.append(upper).append("]\n");
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public OctagonInterval getVariableBounds(Octagon oct, int id) {
+    assert id < dimension(oct);
+    double[] m = close(oct);
+    if (m == null) {
+      return OctagonInterval.EMPTY;
+    }
+    double lower = lowerBound(m, id);
+    double upper = upperBound(m, id);
+    if (!integers || (lower == -INF && upper == INF)) {
+      return new OctagonInterval(lower, upper);
+    } else if (lower == -INF) {
+      return new OctagonInterval(
+          new OctagonDoubleValue(Double.NEGATIVE_INFINITY), OctagonIntValue.of((long) upper));
+    } else if (upper == INF) {
+      return new OctagonInterval(
+          OctagonIntValue.of((long) lower), new OctagonDoubleValue(Double.POSITIVE_INFINITY));
+    }
+    return new OctagonInterval((long) lower, (long) upper);
+  }
+}
@@ -0,0 +1,478 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares {@link JavaOctagonManager} with the native octagon library on random octagons. The
+ * results of the Java implementation have to be at least as precise as the ones of the native
+ * library. Exact operations are additionally compared with the concrete semantics on a grid of
+ * points, approximations are checked to be sound on the grid.
+ */
+public class JavaOctagonManagerComparisonTest {
+
+  private static final int PX = 0;
+  private static final int MX = 1;
+  private static final int PXPY = 2;
+  private static final int PXMY = 3;
+  private static final int MXPY = 4;
+  private static final int MXMY = 5;
+
+  /** The kind of the constraint that contradicts the constraint of the kind at the index. */
+  private static final int[] NEGATION = {MX, PX, MXMY, MXPY, PXMY, PXPY};
+
+  private static final int DIMENSION = 3;
+  private static final int CONSTRAINTS = 3;
+  private static final int ITERATIONS = 200;
+  private static final int GRID = 4;
+  private static final double LIMIT = 40;
+
+  private static OctagonManager nativeManager;
+  private final OctagonManager javaManager = new JavaOctagonManager(false);
+  private final Random random = new Random(0);
+
+  @BeforeClass
+  public static void setUpBeforeClass() {
+    nativeManager = new OctagonFloatManager();
+  }
+
+  /** The same random octagon for both managers, together with its constraints. */
+  private class RandomOctagon {
+    private final double[][] constraints = new double[CONSTRAINTS][];
+    private Octagon nativeOct = nativeManager.universe(DIMENSION);
+    private Octagon javaOct = javaManager.universe(DIMENSION);
+
+    RandomOctagon() {
+      for (int c = 0; c < CONSTRAINTS; c++) {
+        int kind = random.nextInt(6);
+        int i = random.nextInt(DIMENSION);
+        int j = kind >= PXPY ? (i + 1 + random.nextInt(DIMENSION - 1)) % DIMENSION : i;
+        constraints[c] = new double[] {kind, i, j, random.nextInt(11) - 3};
+        nativeOct =
+            nativeManager.addBinConstraint(nativeOct, 1, numbers(nativeManager, constraints[c]));
+        javaOct = javaManager.addBinConstraint(javaOct, 1, numbers(javaManager, constraints[c]));
+      }
+    }
+
+    boolean contains(double[] point) {
+      for (double[] constraint : constraints) {
+        int kind = (int) constraint[0];
+        if (!holds(point, kind, (int) constraint[1], (int) constraint[2], constraint[3])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.deepToString(constraints);
+    }
+  }
+
+  private static NumArray numbers(OctagonManager manager, double... values) {
+    NumArray array = manager.init_num_t(values.length);
+    for (int i = 0; i < values.length; i++) {
+      manager.num_set_float(array, i, values[i]);
+    }
+    return array;
+  }
+
+  private static boolean holds(double[] point, int kind, int i, int j, double bound) {
+    switch (kind) {
+      case PX:
+        return point[i] <= bound;
+      case MX:
+        return -point[i] <= bound;
+      case PXPY:
+        return point[i] + point[j] <= bound;
+      case PXMY:
+        return point[i] - point[j] <= bound;
+      case MXPY:
+        return -point[i] + point[j] <= bound;
+      case MXMY:
+        return -point[i] - point[j] <= bound;
+      default:
+        throw new AssertionError(kind);
+    }
+  }
+
+  private static double evaluate(double[] expression, double[] point) {
+    double value = expression[DIMENSION];
+    for (int i = 0; i < DIMENSION; i++) {
+      value += expression[i] * point[i];
+    }
+    return value;
+  }
+
+  private static double[] withValue(double[] point, int variable, double value) {
+    double[] result = point.clone();
+    result[variable] = value;
+    return result;
+  }
+
+  /** Returns an expression of the form +/-v + c or c. */
+  private double[] randomOctagonalExpression() {
+    double[] expression = new double[DIMENSION + 1];
+    int variable = random.nextInt(DIMENSION + 1);
+    if (variable < DIMENSION) {
+      expression[variable] = random.nextBoolean() ? 1 : -1;
+    }
+    expression[DIMENSION] = random.nextInt(7) - 3;
+    return expression;
+  }
+
+  private double[] randomExpression() {
+    double[] expression = new double[DIMENSION + 1];
+    for (int i = 0; i <= DIMENSION; i++) {
+      expression[i] = random.nextInt(5) - 2;
+    }
+    return expression;
+  }
+
+  /** Converts an expression to interval coefficients, lowering the constant by the width. */
+  private static double[] toInterval(double[] expression, double width) {
+    double[] result = new double[2 * expression.length];
+    for (int i = 0; i < expression.length; i++) {
+      result[2 * i] = expression[i];
+      result[2 * i + 1] = -expression[i];
+    }
+    result[2 * DIMENSION + 1] += width;
+    return result;
+  }
+
+  /**
+   * Returns the upper bounds of all octagonal expressions that are implied by the octagon, rounded
+   * up to half integers, or null if the octagon is empty.
+   */
+  private static @Nullable double[] bounds(OctagonManager manager, Octagon oct) {
+    if (manager.isEmpty(oct)) {
+      return null;
+    }
+    double[] result = new double[2 * DIMENSION + 4 * DIMENSION * (DIMENSION - 1) / 2];
+    int index = 0;
+    for (int i = 0; i < DIMENSION; i++) {
+      result[index++] = upperBound(manager, oct, PX, i, i);
+      result[index++] = upperBound(manager, oct, MX, i, i);
+      for (int j = i + 1; j < DIMENSION; j++) {
+        for (int kind = PXPY; kind <= MXMY; kind++) {
+          result[index++] = upperBound(manager, oct, kind, i, j);
+        }
+      }
+    }
+    return result;
+  }
+
+  private static double upperBound(OctagonManager manager, Octagon oct, int kind, int i, int j) {
+    double low = -LIMIT;
+    double high = LIMIT;
+    if (!implies(manager, oct, kind, i, j, high)) {
+      return Double.POSITIVE_INFINITY;
+    } else if (implies(manager, oct, kind, i, j, low)) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    while (high - low > 0.5) {
+      double middle = Math.floor(low + high) / 2;
+      if (implies(manager, oct, kind, i, j, middle)) {
+        high = middle;
+      } else {
+        low = middle;
+      }
+    }
+    return high;
+  }
+
+  /** Checks whether no point of the octagon violates the constraint by a quarter. */
+  private static boolean implies(
+      OctagonManager manager, Octagon oct, int kind, int i, int j, double bound) {
+    NumArray negation = numbers(manager, NEGATION[kind], i, j, -bound - 0.25);
+    return manager.isEmpty(manager.addBinConstraint(oct, 1, negation));
+  }
+
+  private void assertAtLeastAsPrecise(String operation, Octagon nativeResult, Octagon javaResult) {
+    double[] expected = bounds(nativeManager, nativeResult);
+    double[] actual = bounds(javaManager, javaResult);
+    if (expected == null) {
+      assertWithMessage(operation).that(actual).isNull();
+      return;
+    } else if (actual == null) {
+      return;
+    }
+    for (int i = 0; i < expected.length; i++) {
+      assertWithMessage(operation + ": bounds %s", Arrays.toString(actual))
+          .that(actual[i])
+          .isAtMost(expected[i]);
+    }
+  }
+
+  /** Checks that the grid points in the octagon are exactly the ones given by the predicate. */
+  private void assertExact(String operation, Octagon javaResult, Predicate<double[]> concrete) {
+    checkGrid(operation, javaResult, concrete, true);
+  }
+
+  /** Checks that the octagon contains all grid points given by the predicate. */
+  private void assertSound(String operation, Octagon javaResult, Predicate<double[]> concrete) {
+    checkGrid(operation, javaResult, concrete, false);
+  }
+
+  private void checkGrid(
+      String operation, Octagon javaResult, Predicate<double[]> concrete, boolean exact) {
+    int size = 2 * GRID + 1;
+    double[] point = new double[DIMENSION];
+    for (int n = 0; n < Math.pow(size, DIMENSION); n++) {
+      int rest = n;
+      for (int i = 0; i < DIMENSION; i++) {
+        point[i] = rest % size - GRID;
+        rest /= size;
+      }
+      boolean expected = concrete.test(point);
+      boolean actual = javaManager.isIn(javaResult, numbers(javaManager, point));
+      if (exact ? expected != actual : expected && !actual) {
+        assertWithMessage(operation + " at " + Arrays.toString(point))
+            .that(actual)
+            .isEqualTo(expected);
+      }
+    }
+  }
+
+  /** Checks that the octagon contains the images of all grid points of the given octagon. */
+  private void assertContainsImages(
+      String operation, Octagon javaResult, RandomOctagon oct, int x, double[] expression) {
+    int size = 2 * GRID + 1;
+    double[] point = new double[DIMENSION];
+    for (int n = 0; n < Math.pow(size, DIMENSION); n++) {
+      int rest = n;
+      for (int i = 0; i < DIMENSION; i++) {
+        point[i] = rest % size - GRID;
+        rest /= size;
+      }
+      if (oct.contains(point)) {
+        double[] image = withValue(point, x, evaluate(expression, point));
+        assertWithMessage(operation + " at " + Arrays.toString(image))
+            .that(javaManager.isIn(javaResult, numbers(javaManager, image)))
+            .isTrue();
+      }
+    }
+  }
+
+  @Test
+  public void testConstraints() {
+    for (int n = 0; n < ITERATIONS; n++) {
+      RandomOctagon oct = new RandomOctagon();
+      assertAtLeastAsPrecise("creation of " + oct, oct.nativeOct, oct.javaOct);
+      assertExact("creation of " + oct, oct.javaOct, oct::contains);
+
+      double[] constraint = new double[DIMENSION + 1];
+      int first = random.nextInt(DIMENSION);
+      int second = random.nextInt(DIMENSION);
+      constraint[first] = random.nextBoolean() ? 1 : -1;
+      if (second != first && random.nextBoolean()) {
+        constraint[second] = random.nextBoolean() ? 1 : -1;
+      }
+      constraint[DIMENSION] = random.nextInt(9) - 4;
+      String operation = "constraint " + Arrays.toString(constraint) + " on " + oct;
+      Predicate<double[]> concrete = p -> oct.contains(p) && evaluate(constraint, p) >= 0;
+
+      Octagon javaResult = javaManager.addConstraint(oct.javaOct, numbers(javaManager, constraint));
+      assertAtLeastAsPrecise(
+          operation,
+          nativeManager.addConstraint(oct.nativeOct, numbers(nativeManager, constraint)),
+          javaResult);
+      assertExact(operation, javaResult, concrete);
+
+      // a constraint holds if it holds for the upper bound of the constant
+      double[] interval = toInterval(constraint, random.nextInt(3));
+      javaResult = javaManager.intervAddConstraint(oct.javaOct, numbers(javaManager, interval));
+      assertAtLeastAsPrecise(
+          "interval " + operation,
+          nativeManager.intervAddConstraint(oct.nativeOct, numbers(nativeManager, interval)),
+          javaResult);
+      assertExact("interval " + operation, javaResult, concrete);
+    }
+  }
+
+  @Test
+  public void testAssignment() {
+    for (int n = 0; n < ITERATIONS; n++) {
+      RandomOctagon oct = new RandomOctagon();
+      int x = random.nextInt(DIMENSION);
+      double[] expression = randomOctagonalExpression();
+      String operation =
+          "assignment to " + x + " of " + Arrays.toString(expression) + " on " + oct;
+
+      Octagon javaResult = javaManager.assingVar(oct.javaOct, x, numbers(javaManager, expression));
+      assertAtLeastAsPrecise(
+          operation,
+          nativeManager.assingVar(oct.nativeOct, x, numbers(nativeManager, expression)),
+          javaResult);
+      assertContainsImages(operation, javaResult, oct, x, expression);
+
+      double[] interval = toInterval(expression, random.nextInt(3));
+      assertAtLeastAsPrecise(
+          "interval " + operation,
+          nativeManager.intervAssingVar(oct.nativeOct, x, numbers(nativeManager, interval)),
+          javaManager.intervAssingVar(oct.javaOct, x, numbers(javaManager, interval)));
+    }
+  }
+
+  @Test
+  public void testSubstitution() {
+    for (int n = 0; n < ITERATIONS; n++) {
+      RandomOctagon oct = new RandomOctagon();
+      int x = random.nextInt(DIMENSION);
+      double[] expression = randomOctagonalExpression();
+      String operation =
+          "substitution of " + x + " by " + Arrays.toString(expression) + " on " + oct;
+
+      Octagon javaResult =
+          javaManager.substituteVar(oct.javaOct, x, numbers(javaManager, expression));
+      assertAtLeastAsPrecise(
+          operation,
+          nativeManager.substituteVar(oct.nativeOct, x, numbers(nativeManager, expression)),
+          javaResult);
+      assertExact(
+          operation, javaResult, p -> oct.contains(withValue(p, x, evaluate(expression, p))));
+
+      int width = random.nextInt(3);
+      double[] interval = toInterval(expression, width);
+      javaResult = javaManager.intervSubstituteVar(oct.javaOct, x, numbers(javaManager, interval));
+      assertAtLeastAsPrecise(
+          "interval " + operation,
+          nativeManager.intervSubstituteVar(oct.nativeOct, x, numbers(nativeManager, interval)),
+          javaResult);
+      assertSound(
+          "interval " + operation,
+          javaResult,
+          p -> {
+            for (int w = 0; w <= width; w++) {
+              if (oct.contains(withValue(p, x, evaluate(expression, p) - w))) {
+                return true;
+              }
+            }
+            return false;
+          });
+    }
+  }
+
+  @Test
+  public void testNonOctagonalExpressions() {
+    for (int n = 0; n < ITERATIONS; n++) {
+      RandomOctagon oct = new RandomOctagon();
+      int x = random.nextInt(DIMENSION);
+      double[] expression = randomExpression();
+      String suffix = Arrays.toString(expression) + " on " + oct;
+
+      Octagon javaResult =
+          javaManager.substituteVar(oct.javaOct, x, numbers(javaManager, expression));
+      assertSound(
+          "substitution of " + x + " by " + suffix,
+          javaResult,
+          p -> oct.contains(withValue(p, x, evaluate(expression, p))));
+
+      javaResult = javaManager.addConstraint(oct.javaOct, numbers(javaManager, expression));
+      assertAtLeastAsPrecise(
+          "constraint " + suffix,
+          nativeManager.addConstraint(oct.nativeOct, numbers(nativeManager, expression)),
+          javaResult);
+      assertSound(
+          "constraint " + suffix,
+          javaResult,
+          p -> oct.contains(p) && evaluate(expression, p) >= 0);
+
+      javaResult = javaManager.assingVar(oct.javaOct, x, numbers(javaManager, expression));
+      assertAtLeastAsPrecise(
+          "assignment to " + x + " of " + suffix,
+          nativeManager.assingVar(oct.nativeOct, x, numbers(nativeManager, expression)),
+          javaResult);
+      assertContainsImages("assignment to " + x + " of " + suffix, javaResult, oct, x, expression);
+    }
+  }
+
+  @Test
+  public void testLatticeOperations() {
+    for (int n = 0; n < ITERATIONS; n++) {
+      RandomOctagon oct1 = new RandomOctagon();
+      RandomOctagon oct2 = new RandomOctagon();
+      String operands = oct1 + " and " + oct2;
+
+      Octagon javaResult = javaManager.intersection(oct1.javaOct, oct2.javaOct);
+      assertAtLeastAsPrecise(
+          "intersection of " + operands,
+          nativeManager.intersection(oct1.nativeOct, oct2.nativeOct),
+          javaResult);
+      assertExact(
+          "intersection of " + operands, javaResult, p -> oct1.contains(p) && oct2.contains(p));
+
+      javaResult = javaManager.union(oct1.javaOct, oct2.javaOct);
+      assertAtLeastAsPrecise(
+          "union of " + operands, nativeManager.union(oct1.nativeOct, oct2.nativeOct), javaResult);
+      assertSound("union of " + operands, javaResult, p -> oct1.contains(p) || oct2.contains(p));
+
+      javaResult = javaManager.widening(oct1.javaOct, oct2.javaOct);
+      assertSound("widening of " + operands, javaResult, p -> oct1.contains(p) || oct2.contains(p));
+
+      int x = random.nextInt(DIMENSION);
+      assertAtLeastAsPrecise(
+          "forgetting " + x + " in " + oct1,
+          nativeManager.forget(oct1.nativeOct, x),
+          javaManager.forget(oct1.javaOct, x));
+
+      // the bounds are given as upper bound and negated lower bound
+      double upper = random.nextInt(5);
+      double lower = random.nextInt(5) - 4;
+      assertAtLeastAsPrecise(
+          "bounds of " + x + " in " + oct1,
+          nativeManager.set_bounds(
+              oct1.nativeOct, x, numbers(nativeManager, upper), numbers(nativeManager, -lower)),
+          javaManager.set_bounds(
+              oct1.javaOct, x, numbers(javaManager, upper), numbers(javaManager, -lower)));
+    }
+  }
+
+  @Test
+  public void testUnchangedResultsShareMatrix() {
+    RandomOctagon oct = new RandomOctagon();
+    while (javaManager.isEmpty(oct.javaOct)) {
+      oct = new RandomOctagon();
+    }
+    double[] matrix = ((JavaOctagon) oct.javaOct).getMatrix();
+    double[] constraint = oct.constraints[0];
+    Octagon constrained =
+        javaManager.addBinConstraint(oct.javaOct, 1, numbers(javaManager, constraint));
+    assertThat(((JavaOctagon) constrained).getMatrix()).isSameAs(matrix);
+    assertThat(((JavaOctagon) javaManager.union(oct.javaOct, constrained)).getMatrix())
+        .isSameAs(matrix);
+    assertThat(((JavaOctagon) javaManager.intersection(oct.javaOct, oct.javaOct)).getMatrix())
+        .isSameAs(matrix);
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+
+public class JavaOctagonManagerTest {
+
+  private static final int PX = 0;
+  private static final int MX = 1;
+  private static final int PXPY = 2;
+  private static final int MXPY = 4;
+
+  private OctagonManager manager;
+
+  @Before
+  public void setUp() {
+    manager = new JavaOctagonManager(true);
+  }
+
+  private NumArray numbers(long... values) {
+    NumArray array = manager.init_num_t(values.length);
+    for (int i = 0; i < values.length; i++) {
+      manager.num_set_int(array, i, values[i]);
+    }
+    return array;
+  }
+
+  private Octagon constrain(Octagon oct, long... constraints) {
+    return manager.addBinConstraint(oct, constraints.length / 4, numbers(constraints));
+  }
+
+  private void assertBounds(Octagon oct, int var, long lower, long upper) {
+    OctagonInterval bounds = manager.getVariableBounds(oct, var);
+    assertThat(bounds.getLow().getValue().longValue()).isEqualTo(lower);
+    assertThat(bounds.getHigh().getValue().longValue()).isEqualTo(upper);
+  }
+
+  @Test
+  public void testNum() {
+    NumArray num = manager.init_num_t(2);
+    manager.num_set_float(num, 0, 3.3);
+    manager.num_set_inf(num, 1);
+    assertThat(manager.num_infty(num, 0)).isFalse();
+    assertThat(manager.num_get_int(num, 0)).isEqualTo(3L);
+    assertThat(manager.num_get_float(num, 0)).isEqualTo(3.3);
+    assertThat(manager.num_infty(num, 1)).isTrue();
+  }
+
+  @Test
+  public void testClosure() {
+    // 0 <= x <= 5, y - x <= 1, x + y is not constrained
+    Octagon oct = constrain(manager.universe(2), PX, 0, 0, 5, MX, 0, 0, 0, MXPY, 0, 1, 1);
+    assertBounds(oct, 0, 0, 5);
+    assertThat(manager.getVariableBounds(oct, 1).getHigh().getValue().longValue()).isEqualTo(6L);
+
+    // the result of the incremental closure equals the one of the full closure
+    Octagon unclosed =
+        manager.intersection(
+            constrain(manager.universe(2), PX, 0, 0, 5, MX, 0, 0, 0),
+            constrain(manager.universe(2), MXPY, 0, 1, 1));
+    assertThat(manager.isEqual(oct, unclosed)).isTrue();
+    assertThat(manager.isIncludedIn(unclosed, oct)).isTrue();
+  }
+
+  @Test
+  public void testTightClosure() {
+    // x + x <= 1 implies x <= 0 for integers
+    Octagon oct = constrain(manager.universe(1), PXPY, 0, 0, 1);
+    assertThat(manager.getVariableBounds(oct, 0).getHigh().getValue().longValue()).isEqualTo(0L);
+  }
+
+  @Test
+  public void testEmpty() {
+    Octagon oct = constrain(manager.universe(1), PX, 0, 0, 1, MX, 0, 0, -2);
+    assertThat(manager.isEmpty(oct)).isTrue();
+    assertThat(manager.isIncludedIn(oct, manager.universe(1))).isTrue();
+    assertThat(manager.isIncludedIn(manager.universe(1), oct)).isFalse();
+  }
+
+  @Test
+  public void testAssignment() {
+    Octagon oct = constrain(manager.universe(2), PX, 0, 0, 5, MX, 0, 0, 0);
+
+    // y := x + 2
+    Octagon assigned = manager.assingVar(oct, 1, numbers(1, 0, 2));
+    assertBounds(assigned, 1, 2, 7);
+    assertThat(manager.isIn(assigned, numbers(3, 5))).isTrue();
+    assertThat(manager.isIn(assigned, numbers(3, 4))).isFalse();
+
+    // x := -x + 1 keeps the relation to y
+    Octagon negated = manager.assingVar(assigned, 0, numbers(-1, 0, 1));
+    assertBounds(negated, 0, -4, 1);
+    assertThat(manager.isIn(negated, numbers(-2, 5))).isTrue();
+    assertThat(manager.isIn(negated, numbers(-2, 4))).isFalse();
+
+    // y := 2 * x is approximated by bounds
+    Octagon doubled = manager.assingVar(oct, 1, numbers(2, 0, 0));
+    assertBounds(doubled, 1, 0, 10);
+  }
+
+  @Test
+  public void testJoinAndWidening() {
+    Octagon oct1 = constrain(manager.universe(1), PX, 0, 0, 1, MX, 0, 0, 0);
+    Octagon oct2 = constrain(manager.universe(1), PX, 0, 0, 2, MX, 0, 0, 0);
+
+    Octagon union = manager.union(oct1, oct2);
+    assertBounds(union, 0, 0, 2);
+    assertThat(manager.isIncludedIn(oct1, union)).isTrue();
+
+    Octagon widened = manager.widening(oct1, oct2);
+    assertThat(manager.isIncludedIn(oct2, widened)).isTrue();
+    assertThat(manager.getVariableBounds(widened, 0).getHigh().isInfinite()).isTrue();
+    assertThat(manager.getVariableBounds(widened, 0).getLow().getValue().longValue()).isEqualTo(0L);
+  }
+
+  @Test
+  public void testDimensions() {
+    Octagon oct = constrain(manager.universe(1), PX, 0, 0, 3, MX, 0, 0, -1);
+    Octagon projected = manager.addDimensionAndProject(oct, 2);
+    assertThat(manager.dimension(projected)).isEqualTo(3);
+    assertBounds(projected, 2, 0, 0);
+    assertThat(manager.isEqual(manager.removeDimension(projected, 2), oct)).isTrue();
+
+    Octagon embedded = manager.addDimensionAndEmbed(oct, 1);
+    assertThat(manager.getVariableBounds(embedded, 1).getHigh().isInfinite()).isTrue();
+    assertThat(manager.isUniverse(manager.forget(oct, 0))).isTrue();
+  }
+}
@@ -36,12 +36,18 @@ public class Octagon {
   private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
   private static ReferenceQueue<Octagon> referenceQueue = new ReferenceQueue<>();
 
-  Octagon(long l, OctagonManager manager) {
+  Octagon(long l, NativeOctagonManager manager) {
     octId = l;
     this.manager = manager;
     registerPhantomReference(this);
   }
 
+  /** Constructor for octagons that live on the Java heap and need not be freed explicitly. */
+  Octagon(OctagonManager manager) {
+    octId = 0;
+    this.manager = manager;
+  }
+
   private static void registerPhantomReference(Octagon oct) {
     phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
   }
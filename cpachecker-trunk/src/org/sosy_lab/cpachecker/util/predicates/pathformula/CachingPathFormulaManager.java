@@ -25,11 +25,18 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import java.io.PrintStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
@@ -47,37 +54,62 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ * The size of the caches is bounded, if they are full
+ * the least-recently used entries are evicted.
  */
+@Options(prefix = "cpa.predicate.pathFormulaCache")
 public class CachingPathFormulaManager implements PathFormulaManager {
 
+  @Option(
+    secure = true,
+    description =
+        "maximum number of entries in each of the caches for path formulas (0 for no limit), "
+            + "if a cache is full, the least-recently used entries are evicted"
+  )
+  @IntegerOption(min = 0)
+  private long maxSize = 100000;
+
   public final Timer pathFormulaComputationTimer = new Timer();
   public int pathFormulaCacheHits = 0;
 
   public final PathFormulaManager delegate;
 
-  private final Map<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>> andFormulaWithConditionsCache
-            = new HashMap<>();
-  private final Map<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache
-            = new HashMap<>();
+  private final Cache<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>>
+      andFormulaWithConditionsCache;
+  private final Cache<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache;
 
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
+  private final Cache<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache;
 
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+  private final Cache<PathFormula, PathFormula> emptyFormulaCache;
 
   private final PathFormula emptyFormula;
 
-  public CachingPathFormulaManager(PathFormulaManager pDelegate) {
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this, CachingPathFormulaManager.class);
     delegate = pDelegate;
     emptyFormula = delegate.makeEmptyPathFormula();
+
+    andFormulaWithConditionsCache = createCache();
+    andFormulaCache = createCache();
+    orFormulaCache = createCache();
+    emptyFormulaCache = createCache();
+  }
+
+  private <K, V> Cache<K, V> createCache() {
+    // this class is not thread-safe anyway, and a single segment gives exact LRU eviction
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().concurrencyLevel(1);
+    if (maxSize > 0) {
+      builder.maximumSize(maxSize);
+    }
+    return builder.recordStats().build();
   }
 
   @Override
   public Pair<PathFormula, ErrorConditions> makeAndWithErrorConditions(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
 
     final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(formulaCacheKey);
+    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
@@ -94,7 +126,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   @Override
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
     final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    PathFormula result = andFormulaCache.get(formulaCacheKey);
+    PathFormula result = andFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       try {
       pathFormulaComputationTimer.start();
@@ -115,10 +147,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   public PathFormula makeOr(PathFormula pF1, PathFormula pF2) throws InterruptedException {
     final Pair<PathFormula, PathFormula> formulaCacheKey = Pair.of(pF1, pF2);
 
-    PathFormula result = orFormulaCache.get(formulaCacheKey);
+    PathFormula result = orFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       // try again with other order
-      result = orFormulaCache.get(Pair.of(pF2, pF1));
+      result = orFormulaCache.getIfPresent(Pair.of(pF2, pF1));
     }
 
     if (result == null) {
@@ -137,7 +169,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormula(PathFormula pOldFormula) {
-    PathFormula result = emptyFormulaCache.get(pOldFormula);
+    PathFormula result = emptyFormulaCache.getIfPresent(pOldFormula);
     if (result == null) {
       result = delegate.makeEmptyPathFormula(pOldFormula);
       emptyFormulaCache.put(pOldFormula, result);
@@ -195,10 +227,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public void clearCaches() {
-    andFormulaWithConditionsCache.clear();
-    andFormulaCache.clear();
-    orFormulaCache.clear();
-    emptyFormulaCache.clear();
+    andFormulaWithConditionsCache.invalidateAll();
+    andFormulaCache.invalidateAll();
+    orFormulaCache.invalidateAll();
+    emptyFormulaCache.invalidateAll();
     delegate.clearCaches();
   }
 
@@ -218,6 +250,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     int pathFormulaCacheHits = this.pathFormulaCacheHits;
     int totalPathFormulaComputations = this.pathFormulaComputationTimer.getNumberOfIntervals() + pathFormulaCacheHits;
     out.println("Number of path formula cache hits:   " + pathFormulaCacheHits + " (" + toPercent(pathFormulaCacheHits, totalPathFormulaComputations) + ")");
+    printCacheStatistics(out, "  Cache for conjunctions:            ", andFormulaCache);
+    printCacheStatistics(out, "  Cache for conj. with error conds.: ", andFormulaWithConditionsCache);
+    printCacheStatistics(out, "  Cache for disjunctions:            ", orFormulaCache);
+    printCacheStatistics(out, "  Cache for empty path formulas:     ", emptyFormulaCache);
     out.println();
 
     out.println("Inside post operator:                  ");
@@ -228,6 +264,22 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     delegate.printStatistics(out);
   }
 
+  private static void printCacheStatistics(PrintStream out, String name, Cache<?, ?> cache) {
+    CacheStats stats = cache.stats();
+    if (stats.requestCount() > 0) {
+      out.println(
+          name
+              + stats.hitCount()
+              + " hits, "
+              + stats.missCount()
+              + " misses, "
+              + stats.evictionCount()
+              + " evictions, "
+              + cache.size()
+              + " entries");
+    }
+  }
+
   @Override
   public BooleanFormula addBitwiseAxiomsIfNeeded(final BooleanFormula pMainFormula, final BooleanFormula pExtractionFormula) {
     return delegate.addBitwiseAxiomsIfNeeded(pMainFormula, pExtractionFormula);
@@ -114,6 +114,9 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
 
+  // variable ids of all SSAMaps created by this instance
+  private final SSAMap.VariableIds variableIds = new SSAMap.VariableIds();
+
   @Option(
     secure = true,
     description = "add special information to formulas about non-deterministic functions"
@@ -268,7 +271,7 @@ public class PathFormulaManagerImpl implements PathFormulaManager {
   @Override
   public PathFormula makeEmptyPathFormula() {
     return new PathFormula(bfmgr.makeTrue(),
-                           SSAMap.emptySSAMap(),
+                           SSAMap.emptySSAMap(variableIds),
                            PointerTargetSet.emptyPointerTargetSet(),
                            0);
   }
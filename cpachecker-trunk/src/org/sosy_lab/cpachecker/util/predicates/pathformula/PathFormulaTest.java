@@ -32,6 +32,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sosy_lab.common.collect.MapsDifference;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentLinkedList;
 import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
@@ -173,4 +174,41 @@ public class PathFormulaTest {
     thrown.expect(IllegalArgumentException.class);
     builder.setIndex("a", CNumericTypes.INT, 1);
   }
+
+  @Test
+  public void testDifferentVariableIds() {
+    // both maps assign ids in a different order
+    SSAMap ssa1 =
+        SSAMap.emptySSAMap(new SSAMap.VariableIds())
+            .builder()
+            .setIndex("a", CNumericTypes.INT, 1)
+            .setIndex("b", CNumericTypes.INT, 2)
+            .build();
+    SSAMap ssa2 =
+        SSAMap.emptySSAMap(new SSAMap.VariableIds())
+            .builder()
+            .setIndex("c", CNumericTypes.INT, 4)
+            .setIndex("b", CNumericTypes.INT, 2)
+            .setIndex("a", CNumericTypes.INT, 3)
+            .build();
+
+    assertThat(ssa1).isNotEqualTo(ssa2);
+    assertThat(ssa2.builder().deleteVariable("c").build().withDefault(-1))
+        .isNotEqualTo(ssa1);
+    assertThat(
+            SSAMap.emptySSAMap()
+                .builder()
+                .setIndex("b", CNumericTypes.INT, 2)
+                .setIndex("a", CNumericTypes.INT, 1)
+                .build())
+        .isEqualTo(ssa1);
+
+    SSAMap merged = SSAMap.merge(ssa1, ssa2, MapsDifference.ignoreMapsDifference());
+    assertThat(merged.getIndex("a")).isEqualTo(3);
+    assertThat(merged.getIndex("b")).isEqualTo(2);
+    assertThat(merged.getIndex("c")).isEqualTo(4);
+    assertThat(merged).isEqualTo(SSAMap.merge(ssa2, ssa1, MapsDifference.ignoreMapsDifference()));
+    assertThat(merged.hashCode())
+        .isEqualTo(SSAMap.merge(ssa2, ssa1, MapsDifference.ignoreMapsDifference()).hashCode());
+  }
 }
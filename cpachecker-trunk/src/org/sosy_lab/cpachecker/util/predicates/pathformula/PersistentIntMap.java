@@ -0,0 +1,329 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+/**
+ * Immutable map from non-negative int keys to positive int values without boxing. Keys are
+ * expected to be dense (e.g., ids from an interner). The map is stored as a trie with 32-way
+ * branching, whose leaves are int arrays and where 0 marks an absent value. Updates copy only the
+ * path to the changed leaf, so maps derived from each other share most of their nodes, which is
+ * exploited by {@link #equals(Object)} and {@link #merge(PersistentIntMap, PersistentIntMap,
+ * DifferenceVisitor)}.
+ */
+final class PersistentIntMap {
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private static final PersistentIntMap EMPTY = new PersistentIntMap(null, 0, 0);
+
+  /** Callback for the keys whose values differ in two maps (0 if key is absent). */
+  interface DifferenceVisitor {
+    void visit(int key, int leftValue, int rightValue);
+  }
+
+  /** Callback for iterating over the entries of a map. */
+  interface EntryVisitor {
+    void visit(int key, int value);
+  }
+
+  // int[] if shift == 0, Object[] otherwise, or null if no key is present in this subtree
+  private final Object root;
+  // number of key bits below the root node
+  private final int shift;
+  private final int size;
+
+  private PersistentIntMap(Object pRoot, int pShift, int pSize) {
+    root = pRoot;
+    shift = pShift;
+    size = pSize;
+  }
+
+  static PersistentIntMap of() {
+    return EMPTY;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Returns the value for the given key, or 0 if there is none. */
+  int get(int pKey) {
+    if (pKey >>> shift >= WIDTH) {
+      return 0;
+    }
+    Object node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      if (node == null) {
+        return 0;
+      }
+      node = ((Object[]) node)[(pKey >>> level) & MASK];
+    }
+    return node == null ? 0 : ((int[]) node)[pKey & MASK];
+  }
+
+  boolean containsKey(int pKey) {
+    return get(pKey) != 0;
+  }
+
+  /** Returns a map with the given value (positive) for the given key (non-negative). */
+  PersistentIntMap putAndCopy(int pKey, int pValue) {
+    checkArgument(pKey >= 0 && pValue > 0);
+    return update(pKey, pValue);
+  }
+
+  PersistentIntMap removeAndCopy(int pKey) {
+    if (pKey < 0 || !containsKey(pKey)) {
+      return this;
+    }
+    return update(pKey, 0);
+  }
+
+  private PersistentIntMap update(int pKey, int pValue) {
+    Object newRoot = root;
+    int newShift = shift;
+    while (pKey >>> newShift >= WIDTH) {
+      // grow the trie by one level
+      if (newRoot != null) {
+        Object[] parent = new Object[WIDTH];
+        parent[0] = newRoot;
+        newRoot = parent;
+      }
+      newShift += BITS;
+    }
+
+    int oldValue = get(pKey);
+    if (oldValue == pValue) {
+      return this;
+    }
+    newRoot = update(newRoot, newShift, pKey, pValue);
+    int newSize = size + (oldValue == 0 ? 1 : 0) - (pValue == 0 ? 1 : 0);
+    return newSize == 0 ? EMPTY : new PersistentIntMap(newRoot, newShift, newSize);
+  }
+
+  private static Object update(Object pNode, int pLevel, int pKey, int pValue) {
+    int index = (pKey >>> pLevel) & MASK;
+    if (pLevel == 0) {
+      int[] leaf = pNode == null ? new int[WIDTH] : ((int[]) pNode).clone();
+      leaf[index] = pValue;
+      return isEmpty(leaf) ? null : leaf;
+    } else {
+      Object[] node = pNode == null ? new Object[WIDTH] : ((Object[]) pNode).clone();
+      node[index] = update(node[index], pLevel - BITS, pKey, pValue);
+      return isEmpty(node) ? null : node;
+    }
+  }
+
+  private static boolean isEmpty(int[] pLeaf) {
+    for (int value : pLeaf) {
+      if (value != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isEmpty(Object[] pNode) {
+    for (Object child : pNode) {
+      if (child != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Visit all entries in ascending order of keys. */
+  void forEach(EntryVisitor pVisitor) {
+    forEach(root, shift, 0, pVisitor);
+  }
+
+  private static void forEach(Object pNode, int pLevel, int pPrefix, EntryVisitor pVisitor) {
+    if (pNode == null) {
+      return;
+    }
+    if (pLevel == 0) {
+      int[] leaf = (int[]) pNode;
+      for (int i = 0; i < WIDTH; i++) {
+        if (leaf[i] != 0) {
+          pVisitor.visit(pPrefix | i, leaf[i]);
+        }
+      }
+    } else {
+      Object[] node = (Object[]) pNode;
+      for (int i = 0; i < WIDTH; i++) {
+        forEach(node[i], pLevel - BITS, pPrefix | (i << pLevel), pVisitor);
+      }
+    }
+  }
+
+  /** Returns the root node of this map after growing it to the given number of levels. */
+  private Object getRootWithShift(int pShift) {
+    Object node = root;
+    if (node != null) {
+      for (int level = shift; level < pShift; level += BITS) {
+        Object[] parent = new Object[WIDTH];
+        parent[0] = node;
+        node = parent;
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Merge two maps by taking the maximum value for each key. All keys with different values are
+   * passed to the visitor in ascending order. Subtrees that are shared by both maps are not
+   * traversed.
+   */
+  static PersistentIntMap merge(
+      PersistentIntMap pMap1, PersistentIntMap pMap2, DifferenceVisitor pDifferences) {
+    if (pMap1 == pMap2) {
+      return pMap1;
+    }
+    int newShift = Math.max(pMap1.shift, pMap2.shift);
+    Object root1 = pMap1.getRootWithShift(newShift);
+    Object root2 = pMap2.getRootWithShift(newShift);
+    int[] newKeys = new int[1];
+    Object newRoot =
+        merge(
+            root1,
+            root2,
+            newShift,
+            0,
+            (key, value1, value2) -> {
+              if (value1 == 0) {
+                newKeys[0]++;
+              }
+              pDifferences.visit(key, value1, value2);
+            });
+
+    if (newRoot == root1 && pMap1.shift == newShift) {
+      return pMap1;
+    } else if (newRoot == root2 && pMap2.shift == newShift) {
+      return pMap2;
+    }
+    return new PersistentIntMap(newRoot, newShift, pMap1.size + newKeys[0]);
+  }
+
+  /** Merge two nodes and return the merged node, re-using one of the given nodes if possible. */
+  private static Object merge(
+      Object pNode1, Object pNode2, int pLevel, int pPrefix, DifferenceVisitor pDifferences) {
+    if (pNode1 == pNode2) {
+      return pNode1;
+    }
+
+    if (pLevel == 0) {
+      int[] leaf1 = pNode1 == null ? new int[WIDTH] : (int[]) pNode1;
+      int[] leaf2 = pNode2 == null ? new int[WIDTH] : (int[]) pNode2;
+      boolean equalTo1 = true;
+      boolean equalTo2 = true;
+      int[] merged = new int[WIDTH];
+      for (int i = 0; i < WIDTH; i++) {
+        int value1 = leaf1[i];
+        int value2 = leaf2[i];
+        if (value1 != value2) {
+          pDifferences.visit(pPrefix | i, value1, value2);
+        }
+        merged[i] = Math.max(value1, value2);
+        equalTo1 &= merged[i] == value1;
+        equalTo2 &= merged[i] == value2;
+      }
+      if (equalTo1) {
+        return pNode1;
+      } else if (equalTo2) {
+        return pNode2;
+      }
+      return merged;
+    }
+
+    Object[] node1 = pNode1 == null ? new Object[WIDTH] : (Object[]) pNode1;
+    Object[] node2 = pNode2 == null ? new Object[WIDTH] : (Object[]) pNode2;
+    boolean equalTo1 = true;
+    boolean equalTo2 = true;
+    Object[] merged = new Object[WIDTH];
+    for (int i = 0; i < WIDTH; i++) {
+      merged[i] = merge(node1[i], node2[i], pLevel - BITS, pPrefix | (i << pLevel), pDifferences);
+      equalTo1 &= merged[i] == node1[i];
+      equalTo2 &= merged[i] == node2[i];
+    }
+    if (equalTo1) {
+      return pNode1;
+    } else if (equalTo2) {
+      return pNode2;
+    }
+    return merged;
+  }
+
+  @Override
+  public boolean equals(Object pOther) {
+    if (this == pOther) {
+      return true;
+    }
+    if (!(pOther instanceof PersistentIntMap)) {
+      return false;
+    }
+    PersistentIntMap other = (PersistentIntMap) pOther;
+    if (size != other.size) {
+      return false;
+    }
+    int newShift = Math.max(shift, other.shift);
+    return nodeEquals(getRootWithShift(newShift), other.getRootWithShift(newShift), newShift);
+  }
+
+  private static boolean nodeEquals(Object pNode1, Object pNode2, int pLevel) {
+    if (pNode1 == pNode2) {
+      return true;
+    }
+    if (pNode1 == null || pNode2 == null) {
+      // nodes are never empty
+      return false;
+    }
+    if (pLevel == 0) {
+      return Arrays.equals((int[]) pNode1, (int[]) pNode2);
+    }
+    Object[] node1 = (Object[]) pNode1;
+    Object[] node2 = (Object[]) pNode2;
+    for (int i = 0; i < WIDTH; i++) {
+      if (!nodeEquals(node1[i], node2[i], pLevel - BITS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int[] hash = new int[1];
+    forEach((key, value) -> hash[0] += key ^ value);
+    return hash[0];
+  }
+}
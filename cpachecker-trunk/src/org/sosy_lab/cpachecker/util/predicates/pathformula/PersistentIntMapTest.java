@@ -0,0 +1,125 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Test;
+
+public class PersistentIntMapTest {
+
+  private static Map<Integer, Integer> toMap(PersistentIntMap pMap) {
+    Map<Integer, Integer> result = new TreeMap<>();
+    pMap.forEach((key, value) -> assertThat(result.put(key, value)).isNull());
+    return result;
+  }
+
+  private static PersistentIntMap randomMap(Random pRandom, PersistentIntMap pStart) {
+    PersistentIntMap map = pStart;
+    for (int i = 0; i < 200; i++) {
+      int key = pRandom.nextInt(5000);
+      if (pRandom.nextInt(4) == 0) {
+        map = map.removeAndCopy(key);
+      } else {
+        map = map.putAndCopy(key, 1 + pRandom.nextInt(10));
+      }
+    }
+    return map;
+  }
+
+  @Test
+  public void testPutGetRemove() {
+    Random random = new Random(0);
+    Map<Integer, Integer> expected = new TreeMap<>();
+    PersistentIntMap map = PersistentIntMap.of();
+
+    for (int i = 0; i < 10000; i++) {
+      int key = random.nextInt(i < 5000 ? 100 : 100000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.removeAndCopy(key);
+      } else {
+        int value = 1 + random.nextInt(100);
+        expected.put(key, value);
+        map = map.putAndCopy(key, value);
+      }
+      assertThat(map.size()).isEqualTo(expected.size());
+      assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+    }
+    assertThat(toMap(map)).isEqualTo(expected);
+  }
+
+  @Test
+  public void testEquals() {
+    PersistentIntMap map1 = PersistentIntMap.of().putAndCopy(3, 1).putAndCopy(100000, 2);
+    PersistentIntMap map2 = PersistentIntMap.of().putAndCopy(100000, 2).putAndCopy(3, 1);
+    assertThat(map1).isEqualTo(map2);
+    assertThat(map1.hashCode()).isEqualTo(map2.hashCode());
+
+    // map with fewer levels
+    PersistentIntMap map3 = map1.removeAndCopy(100000);
+    assertThat(map3).isEqualTo(PersistentIntMap.of().putAndCopy(3, 1));
+    assertThat(map3).isNotEqualTo(map1);
+    assertThat(map3.removeAndCopy(3)).isEqualTo(PersistentIntMap.of());
+  }
+
+  @Test
+  public void testMerge() {
+    Random random = new Random(0);
+    for (int i = 0; i < 100; i++) {
+      PersistentIntMap base = randomMap(random, PersistentIntMap.of());
+      PersistentIntMap map1 = randomMap(random, base);
+      PersistentIntMap map2 = random.nextBoolean() ? randomMap(random, base) : map1;
+
+      Map<Integer, Integer> expected = new TreeMap<>(toMap(map1));
+      toMap(map2).forEach((key, value) -> expected.merge(key, value, Math::max));
+      List<Integer> expectedDifferences = new ArrayList<>();
+      for (int key : expected.keySet()) {
+        if (map1.get(key) != map2.get(key)) {
+          expectedDifferences.add(key);
+        }
+      }
+
+      List<Integer> differences = new ArrayList<>();
+      PersistentIntMap merged =
+          PersistentIntMap.merge(
+              map1,
+              map2,
+              (key, value1, value2) -> {
+                assertThat(value1).isEqualTo(map1.get(key));
+                assertThat(value2).isEqualTo(map2.get(key));
+                differences.add(key);
+              });
+
+      assertThat(toMap(merged)).isEqualTo(expected);
+      assertThat(merged.size()).isEqualTo(expected.size());
+      assertThat(differences).containsExactlyElementsIn(expectedDifferences).inOrder();
+    }
+  }
+}
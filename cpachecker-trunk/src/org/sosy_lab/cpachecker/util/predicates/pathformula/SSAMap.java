@@ -25,9 +25,10 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
-import com.google.common.base.Equivalence;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
 
 import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.common.collect.MapsDifference;
@@ -43,15 +44,28 @@ import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cfa.types.c.CTypes;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Maps a variable name to its latest "SSA index", that should be used when
  * referring to that variable.
+ *
+ * Internally, variable names are interned to dense int ids
+ * and the indices are stored in a {@link PersistentIntMap} without boxing.
+ * The table of ids is shared by all SSAMaps that are derived from the same empty SSAMap,
+ * e.g., by all SSAMaps of one {@link PathFormulaManagerImpl}.
  */
 public class SSAMap implements Serializable {
 
@@ -91,6 +105,51 @@ public class SSAMap implements Serializable {
         }
       };
 
+  /**
+   * Interner that assigns dense int ids to variable names.
+   * The ids are only used inside SSAMaps (they are not serialized).
+   * One instance is shared by all SSAMaps derived from the same empty SSAMap,
+   * and the table is garbage collected together with these SSAMaps.
+   */
+  static final class VariableIds {
+
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // names[id] is written before the id is published in the map
+    private volatile String[] names = new String[16];
+    private int nextId = 0;
+
+    /** Returns the id of the given variable, or -1 if it has none yet. */
+    int getId(String variable) {
+      Integer id = ids.get(variable);
+      return id == null ? -1 : id;
+    }
+
+    int getOrCreateId(String variable) {
+      int id = getId(variable);
+      return id >= 0 ? id : createId(variable);
+    }
+
+    private synchronized int createId(String variable) {
+      Integer id = ids.get(variable);
+      if (id != null) {
+        return id;
+      }
+      String[] currentNames = names;
+      if (nextId == currentNames.length) {
+        currentNames = Arrays.copyOf(currentNames, 2 * currentNames.length);
+        names = currentNames;
+      }
+      currentNames[nextId] = variable;
+      ids.put(variable, nextId);
+      return nextId++;
+    }
+
+    String getName(int id) {
+      return names[id];
+    }
+  }
+
   /**
    * Builder for SSAMaps. Its state starts with an existing SSAMap, but may be
    * changed later. It supports read access, but it is not recommended to use
@@ -102,7 +161,7 @@ public class SSAMap implements Serializable {
   public static class SSAMapBuilder {
 
     private SSAMap ssa;
-    private PersistentSortedMap<String, Integer> vars; // Do not update without updating varsHashCode!
+    private PersistentIntMap vars; // Do not update without updating varsHashCode!
     private FreshValueProvider freshValueProvider;
     private PersistentSortedMap<String, CType> varTypes;
 
@@ -121,12 +180,12 @@ public class SSAMap implements Serializable {
     }
 
     public int getIndex(String variable) {
-      return SSAMap.getIndex(variable, vars, ssa.defaultValue);
+      return SSAMap.getIndex(variable, vars, ssa.ids, ssa.defaultValue);
     }
 
     public int getFreshIndex(String variable) {
       return freshValueProvider.getFreshValue(variable,
-          SSAMap.getIndex(variable, vars, ssa.defaultValue));
+          SSAMap.getIndex(variable, vars, ssa.ids, ssa.defaultValue));
     }
 
     public CType getType(String name) {
@@ -148,7 +207,7 @@ public class SSAMap implements Serializable {
       }
 
       if (idx > oldIdx || idx == ssa.defaultValue) {
-        vars = vars.putAndCopy(name, idx);
+        vars = vars.putAndCopy(ssa.ids.getOrCreateId(name), idx);
         if (oldIdx != ssa.defaultValue) {
           varsHashCode -= mapEntryHashCode(name, oldIdx);
         }
@@ -165,7 +224,7 @@ public class SSAMap implements Serializable {
     public SSAMapBuilder deleteVariable(String variable) {
       int index = getIndex(variable);
       if (index != ssa.defaultValue) {
-        vars = vars.removeAndCopy(variable);
+        vars = vars.removeAndCopy(ssa.ids.getId(variable));
         varsHashCode -= mapEntryHashCode(variable, index);
 
         varTypes = varTypes.removeAndCopy(variable);
@@ -190,7 +249,8 @@ public class SSAMap implements Serializable {
         return ssa;
       }
 
-      ssa = new SSAMap(vars, freshValueProvider, varsHashCode, varTypes, ssa.defaultValue);
+      ssa =
+          new SSAMap(vars, ssa.ids, freshValueProvider, varsHashCode, varTypes, ssa.defaultValue);
       return ssa;
     }
 
@@ -203,21 +263,41 @@ public class SSAMap implements Serializable {
     }
   }
 
-  private static final SSAMap EMPTY_SSA_MAP = new SSAMap(
-      PathCopyingPersistentTreeMap.of(),
-      new FreshValueProvider(),
-      0,
-      PathCopyingPersistentTreeMap.of());
-
   /**
-   * Returns an empty immutable SSAMap.
+   * Returns an empty immutable SSAMap with its own table of variable ids.
    */
   public static SSAMap emptySSAMap() {
-    return EMPTY_SSA_MAP;
+    return emptySSAMap(new VariableIds());
+  }
+
+  /**
+   * Returns an empty immutable SSAMap that uses the given table of variable ids.
+   * SSAMaps with the same table can be merged and compared efficiently.
+   */
+  static SSAMap emptySSAMap(VariableIds pIds) {
+    return new SSAMap(
+        PersistentIntMap.of(),
+        pIds,
+        new FreshValueProvider(),
+        0,
+        PathCopyingPersistentTreeMap.of(),
+        DEFAULT_DEFAULT_IDX);
   }
 
   public SSAMap withDefault(final int pDefaultValue) {
-    return new SSAMap(this.vars, this.freshValueProvider, this.varsHashCode, this.varTypes, pDefaultValue);
+    return new SSAMap(
+        this.vars, this.ids, this.freshValueProvider, this.varsHashCode, this.varTypes, pDefaultValue);
+  }
+
+  /** Returns the indices of this map with ids from the given table. */
+  private PersistentIntMap getVarsWithIds(VariableIds pIds) {
+    if (pIds == ids) {
+      return vars;
+    }
+    PersistentIntMap[] result = {PersistentIntMap.of()};
+    vars.forEach(
+        (id, idx) -> result[0] = result[0].putAndCopy(pIds.getOrCreateId(ids.getName(id)), idx));
+    return result[0];
   }
 
   /**
@@ -236,23 +316,45 @@ public class SSAMap implements Serializable {
     // probably never be the case on a merge.
 
     checkArgument(s1.defaultValue == s2.defaultValue);
-    PersistentSortedMap<String, Integer> vars;
+    VariableIds ids = s1.ids;
+    PersistentIntMap vars2 = s2.getVarsWithIds(ids);
+    PersistentIntMap vars;
     FreshValueProvider freshValueProvider;
     int defaultIndex;
-    if (s1.vars == s2.vars && s1.freshValueProvider == s2.freshValueProvider) {
+    int varsHashCode = s1.varsHashCode;
+    if (s1.vars == vars2 && s1.freshValueProvider == s2.freshValueProvider) {
       // both are absolutely identical
       return s1;
 
     } else {
+      List<DifferingIndex> differences = new ArrayList<>();
       vars =
-          PersistentSortedMaps.merge(
+          PersistentIntMap.merge(
               s1.vars,
-              s2.vars,
-              Equivalence.equals(),
-              PersistentSortedMaps.getMaximumMergeConflictHandler(),
-              collectDifferences);
+              vars2,
+              (id, idx1, idx2) ->
+                  differences.add(new DifferingIndex(ids.getName(id), idx1, idx2)));
       freshValueProvider = s1.freshValueProvider.merge(s2.freshValueProvider);
       defaultIndex = s1.defaultValue;
+
+      // report differences in the order of variable names as with sorted maps
+      differences.sort((d1, d2) -> d1.name.compareTo(d2.name));
+      for (DifferingIndex difference : differences) {
+        if (difference.idx1 != 0) {
+          varsHashCode -= SSAMapBuilder.mapEntryHashCode(difference.name, difference.idx1);
+        }
+        varsHashCode +=
+            SSAMapBuilder.mapEntryHashCode(
+                difference.name, Math.max(difference.idx1, difference.idx2));
+
+        if (difference.idx1 == 0) {
+          collectDifferences.rightValueOnly(difference.name, difference.idx2);
+        } else if (difference.idx2 == 0) {
+          collectDifferences.leftValueOnly(difference.name, difference.idx1);
+        } else {
+          collectDifferences.differingValues(difference.name, difference.idx1, difference.idx2);
+        }
+      }
     }
 
     PersistentSortedMap<String, CType> varTypes =
@@ -263,42 +365,52 @@ public class SSAMap implements Serializable {
             TYPE_CONFLICT_CHECKER,
             MapsDifference.ignoreMapsDifference());
 
-    return new SSAMap(vars, freshValueProvider, 0, varTypes, defaultIndex);
+    return new SSAMap(vars, ids, freshValueProvider, varsHashCode, varTypes, defaultIndex);
+  }
+
+  /** Triple of a variable name and its indices in two SSAMaps (0 if not present). */
+  private static final class DifferingIndex {
+    private final String name;
+    private final int idx1;
+    private final int idx2;
+
+    private DifferingIndex(String pName, int pIdx1, int pIdx2) {
+      name = pName;
+      idx1 = pIdx1;
+      idx2 = pIdx2;
+    }
   }
 
-  private final PersistentSortedMap<String, Integer> vars;
+  // keys are ids from the table ids, values are positive indices
+  private final transient PersistentIntMap vars;
+  private final transient VariableIds ids;
   private final FreshValueProvider freshValueProvider;
   private final PersistentSortedMap<String, CType> varTypes;
 
   // Cache hashCode of potentially big map
   private final int varsHashCode;
 
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
+  private SSAMap(PersistentIntMap vars,
+                 VariableIds ids,
                  FreshValueProvider freshValueProvider,
                  int varsHashCode,
                  PersistentSortedMap<String, CType> varTypes,
                  int defaultSSAIdx) {
     this.vars = vars;
+    this.ids = ids;
     this.freshValueProvider = freshValueProvider;
     this.varTypes = varTypes;
 
     if (varsHashCode == 0) {
-      this.varsHashCode = vars.hashCode();
+      this.varsHashCode = computeHashCode(vars, ids);
     } else {
       this.varsHashCode = varsHashCode;
-      assert varsHashCode == vars.hashCode();
+      assert varsHashCode == computeHashCode(vars, ids);
     }
 
     defaultValue = defaultSSAIdx;
   }
 
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
-                 FreshValueProvider freshValueProvider,
-                 int varsHashCode,
-                 PersistentSortedMap<String, CType> varTypes) {
-    this(vars, freshValueProvider, varsHashCode, varTypes, DEFAULT_DEFAULT_IDX);
-  }
-
   /**
    * Returns a SSAMapBuilder that is initialized with the current SSAMap.
    */
@@ -306,9 +418,22 @@ public class SSAMap implements Serializable {
     return new SSAMapBuilder(this);
   }
 
-  private static int getIndex(String variable, Map<String, Integer> vars, int defaultValue) {
-    Integer value = vars.get(variable);
-    if (value == null) {
+  /**
+   * Computes the hash code of the map from variable names to indices
+   * that is represented by the given map.
+   */
+  private static int computeHashCode(PersistentIntMap vars, VariableIds ids) {
+    int[] hashCode = new int[1];
+    vars.forEach(
+        (id, idx) -> hashCode[0] += SSAMapBuilder.mapEntryHashCode(ids.getName(id), idx));
+    return hashCode[0];
+  }
+
+  private static int getIndex(
+      String variable, PersistentIntMap vars, VariableIds ids, int defaultValue) {
+    int id = ids.getId(variable);
+    int value = id < 0 ? 0 : vars.get(id);
+    if (value == 0) {
       return defaultValue;
     }
     return value;
@@ -319,11 +444,12 @@ public class SSAMap implements Serializable {
    * or the [defaultValue].
    */
   public int getIndex(String variable) {
-    return getIndex(variable, vars, defaultValue);
+    return getIndex(variable, vars, ids, defaultValue);
   }
 
   public boolean containsVariable(String variable) {
-    return vars.containsKey(variable);
+    int id = ids.getId(variable);
+    return id >= 0 && vars.containsKey(id);
   }
 
   public CType getType(String name) {
@@ -331,14 +457,15 @@ public class SSAMap implements Serializable {
   }
 
   public SortedSet<String> allVariables() {
-    return vars.keySet();
+    // a variable has a type iff it has an index
+    return varTypes.keySet();
   }
 
   private static final Joiner joiner = Joiner.on(" ");
 
   @Override
   public String toString() {
-    return joiner.join(vars.entrySet());
+    return joiner.join(Maps.asMap(allVariables(), this::getIndex).entrySet());
   }
 
   @Override
@@ -356,8 +483,61 @@ public class SSAMap implements Serializable {
       SSAMap other = (SSAMap)obj;
       // Do a few cheap checks before the expensive ones.
       return varsHashCode == other.varsHashCode
-          && vars.equals(other.vars)
+          && (ids == other.ids ? vars.equals(other.vars) : hasSameIndices(other))
           && freshValueProvider.equals(other.freshValueProvider);
     }
   }
+
+  /** Compare the indices of two maps with different tables of variable ids. */
+  private boolean hasSameIndices(SSAMap other) {
+    if (vars.size() != other.vars.size()) {
+      return false;
+    }
+    boolean[] same = {true};
+    vars.forEach(
+        (id, idx) -> {
+          int otherId = other.ids.getId(ids.getName(id));
+          same[0] &= otherId >= 0 && other.vars.get(otherId) == idx;
+        });
+    return same[0];
+  }
+
+  private Object writeReplace() {
+    return new SerializationProxy(this);
+  }
+
+  /**
+   * javadoc to remove unused parameter warning
+   * @param in the input stream
+   */
+  private void readObject(ObjectInputStream in) throws IOException {
+    throw new InvalidObjectException("Proxy required");
+  }
+
+  /** Stores the indices by variable name because the ids are not stable across runs. */
+  private static class SerializationProxy implements Serializable {
+
+    private static final long serialVersionUID = -3741389471293042451L;
+
+    private final ImmutableSortedMap<String, Integer> vars;
+    private final FreshValueProvider freshValueProvider;
+    private final PersistentSortedMap<String, CType> varTypes;
+    private final int defaultValue;
+
+    private SerializationProxy(SSAMap pSsa) {
+      vars = ImmutableSortedMap.copyOf(Maps.asMap(pSsa.allVariables(), pSsa::getIndex));
+      freshValueProvider = pSsa.freshValueProvider;
+      varTypes = pSsa.varTypes;
+      defaultValue = pSsa.defaultValue;
+    }
+
+    private Object readResolve() {
+      VariableIds ids = new VariableIds();
+      PersistentIntMap indices = PersistentIntMap.of();
+      for (Map.Entry<String, Integer> entry : vars.entrySet()) {
+        indices = indices.putAndCopy(ids.getOrCreateId(entry.getKey()), entry.getValue());
+      }
+      return new SSAMap(indices, ids, freshValueProvider, 0, varTypes, defaultValue);
+    }
+  }
 }
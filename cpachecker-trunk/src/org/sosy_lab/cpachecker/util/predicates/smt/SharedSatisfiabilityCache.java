@@ -0,0 +1,121 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+
+/**
+ * Cache of results of satisfiability checks that can be shared by several {@link Solver}
+ * instances, e.g., by the analyses of a parallel portfolio. The cache is owned by whoever creates
+ * the solvers: a solver creates its own instance unless one is given to {@link Solver#create(
+ * Configuration, LogManager, ShutdownNotifier, SharedSatisfiabilityCache)}.
+ *
+ * <p>Formulas of different solver instances cannot be compared directly, thus the cache is keyed by
+ * a solver-independent textual representation of the formula (its SMT-LIB dump together with a
+ * description of the solver configuration). Only a 128-bit hash of this representation is stored,
+ * so each entry has a small constant size, and the number of entries can be bounded. A collision of
+ * two different formulas is so unlikely that it is ignored.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class SharedSatisfiabilityCache {
+
+  private final Cache<Key, Boolean> cache;
+
+  /** @param pMaxSize maximum number of entries, or 0 for an unbounded cache */
+  public SharedSatisfiabilityCache(long pMaxSize) {
+    checkArgument(pMaxSize >= 0);
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+    if (pMaxSize > 0) {
+      builder.maximumSize(pMaxSize);
+    }
+    cache = builder.build();
+  }
+
+  /**
+   * Create a key for the given formula.
+   *
+   * @param pContext a description of everything besides the formula that influences the result
+   *     of the satisfiability check (e.g., the solver)
+   * @param pFormulaDump the SMT-LIB representation of the formula
+   */
+  static Key createKey(String pContext, String pFormulaDump) {
+    return new Key(
+        Hashing.murmur3_128()
+            .newHasher()
+            .putString(pContext, StandardCharsets.UTF_8)
+            .putChar('\n')
+            .putString(pFormulaDump, StandardCharsets.UTF_8)
+            .hash());
+  }
+
+  /** Return whether the formula is unsatisfiable, or null if this is not known. */
+  @Nullable
+  Boolean isUnsat(Key pKey) {
+    return cache.getIfPresent(pKey);
+  }
+
+  void put(Key pKey, boolean pIsUnsat) {
+    cache.put(pKey, pIsUnsat);
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  static final class Key {
+
+    private final HashCode hash;
+
+    private Key(HashCode pHash) {
+      hash = pHash;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof Key)) {
+        return false;
+      }
+      return hash.equals(((Key) pObj).hash);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash.asInt();
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+public class SharedSatisfiabilityCacheTest {
+
+  private static final String CONTEXT = "SMTINTERPOL";
+  private static final String FORMULA = "(declare-fun x () Int)\n(assert (< x 0))";
+
+  @Test
+  public void testMiss() {
+    SharedSatisfiabilityCache cache = new SharedSatisfiabilityCache(10);
+    assertThat(cache.isUnsat(SharedSatisfiabilityCache.createKey(CONTEXT, FORMULA))).isNull();
+  }
+
+  @Test
+  public void testHit() {
+    SharedSatisfiabilityCache cache = new SharedSatisfiabilityCache(10);
+    cache.put(SharedSatisfiabilityCache.createKey(CONTEXT, FORMULA), true);
+    cache.put(SharedSatisfiabilityCache.createKey(CONTEXT, "(assert true)"), false);
+
+    // keys are created independently, e.g., by different solvers
+    assertThat(cache.isUnsat(SharedSatisfiabilityCache.createKey(CONTEXT, FORMULA))).isTrue();
+    assertThat(cache.isUnsat(SharedSatisfiabilityCache.createKey(CONTEXT, "(assert true)")))
+        .isFalse();
+  }
+
+  @Test
+  public void testContextIsPartOfKey() {
+    SharedSatisfiabilityCache cache = new SharedSatisfiabilityCache(10);
+    cache.put(SharedSatisfiabilityCache.createKey(CONTEXT, FORMULA), true);
+
+    assertThat(cache.isUnsat(SharedSatisfiabilityCache.createKey("MATHSAT5", FORMULA))).isNull();
+  }
+
+  @Test
+  public void testInstancesAreIndependent() {
+    SharedSatisfiabilityCache cache1 = new SharedSatisfiabilityCache(10);
+    SharedSatisfiabilityCache cache2 = new SharedSatisfiabilityCache(10);
+    cache1.put(SharedSatisfiabilityCache.createKey(CONTEXT, FORMULA), true);
+
+    assertThat(cache2.isUnsat(SharedSatisfiabilityCache.createKey(CONTEXT, FORMULA))).isNull();
+  }
+
+  @Test
+  public void testSizeIsBounded() {
+    SharedSatisfiabilityCache cache = new SharedSatisfiabilityCache(10);
+    for (int i = 0; i < 100; i++) {
+      cache.put(SharedSatisfiabilityCache.createKey(CONTEXT, "(assert (< x " + i + "))"), false);
+    }
+    assertThat(cache.size()).isAtMost(10L);
+  }
+}
@@ -40,6 +40,7 @@ import java.util.Set;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -94,6 +95,24 @@ public final class Solver implements AutoCloseable {
   description="Extract and cache unsat cores for satisfiability checking")
   private boolean cacheUnsatCores = true;
 
+  @Option(
+    secure = true,
+    description =
+        "Cache results of satisfiability checks by a hash of the SMT-LIB representation of the"
+            + " formula, which needs to be computed for each uncached query. Solver instances that"
+            + " are created with the same cache (for example for parallel analyses) share results."
+  )
+  private boolean sharedSatCache = false;
+
+  @Option(
+    secure = true,
+    description =
+        "Maximum number of entries in the shared cache for satisfiability checks (0 for no limit)."
+            + " Only used if the solver creates its own cache."
+  )
+  @IntegerOption(min = 0)
+  private long sharedSatCacheSize = 100000;
+
   private final @Nullable UFCheckingProverOptions ufCheckingProverOptions;
 
   private final FormulaManagerView fmgr;
@@ -104,6 +123,9 @@ public final class Solver implements AutoCloseable {
 
   private final Map<BooleanFormula, Boolean> unsatCache = Maps.newHashMap();
 
+  /** Cache that may be shared with other solver instances, null if disabled. */
+  private final @Nullable SharedSatisfiabilityCache sharedUnsatCache;
+
   /**
    * More complex unsat cache, grouped by an arbitrary key.
    *
@@ -124,8 +146,13 @@ public final class Solver implements AutoCloseable {
   public int satChecks = 0;
   public int trivialSatChecks = 0;
   public int cachedSatChecks = 0;
+  public int sharedCachedSatChecks = 0;
 
-  private Solver(SolverContextFactory pSolverFactory, Configuration config, LogManager pLogger)
+  private Solver(
+      SolverContextFactory pSolverFactory,
+      Configuration config,
+      LogManager pLogger,
+      @Nullable SharedSatisfiabilityCache pSharedCache)
       throws InvalidConfigurationException {
     config.inject(this);
 
@@ -157,6 +184,8 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+
+    sharedUnsatCache = getSharedCache(pSharedCache);
   }
 
   /**
@@ -202,6 +231,16 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+
+    sharedUnsatCache = getSharedCache(null);
+  }
+
+  private @Nullable SharedSatisfiabilityCache getSharedCache(
+      @Nullable SharedSatisfiabilityCache pSharedCache) {
+    if (!sharedSatCache) {
+      return null;
+    }
+    return pSharedCache != null ? pSharedCache : new SharedSatisfiabilityCache(sharedSatCacheSize);
   }
 
   /**
@@ -211,8 +250,26 @@ public final class Solver implements AutoCloseable {
    */
   public static Solver create(Configuration config, LogManager logger,
       ShutdownNotifier shutdownNotifier) throws InvalidConfigurationException {
+    return create(config, logger, shutdownNotifier, null);
+  }
+
+  /**
+   * Load and instantiate an SMT solver that uses the given cache for satisfiability checks if
+   * option <code>solver.sharedSatCache</code> is enabled. Passing the same cache to several
+   * solvers lets them re-use each other's results.
+   * The returned instance should be closed by calling {@link #close}
+   * when it is not used anymore.
+   *
+   * @param pSharedCache the cache to use, or null to create a new one
+   */
+  public static Solver create(
+      Configuration config,
+      LogManager logger,
+      ShutdownNotifier shutdownNotifier,
+      @Nullable SharedSatisfiabilityCache pSharedCache)
+      throws InvalidConfigurationException {
     SolverContextFactory factory = new SolverContextFactory(config, logger, shutdownNotifier);
-    return new Solver(factory, config, logger);
+    return new Solver(factory, config, logger, pSharedCache);
   }
 
   /**
@@ -316,11 +373,25 @@ public final class Solver implements AutoCloseable {
       return result;
     }
 
+    SharedSatisfiabilityCache.Key sharedKey = null;
+    if (sharedUnsatCache != null) {
+      sharedKey = getSharedCacheKey(f);
+      result = sharedUnsatCache.isUnsat(sharedKey);
+      if (result != null) {
+        sharedCachedSatChecks++;
+        unsatCache.put(f, result);
+        return result;
+      }
+    }
+
     solverTime.start();
     try {
       result = isUnsatUncached(f);
 
       unsatCache.put(f, result);
+      if (sharedUnsatCache != null) {
+        sharedUnsatCache.put(sharedKey, result);
+      }
       return result;
 
     } finally {
@@ -433,6 +504,15 @@ public final class Solver implements AutoCloseable {
     }
   }
 
+  /**
+   * Create the key for the shared cache, which needs to contain everything that influences the
+   * result of {@link #isUnsatUncached(BooleanFormula)}.
+   */
+  private SharedSatisfiabilityCache.Key getSharedCacheKey(BooleanFormula f) {
+    String context = solver + (checkUFs ? " with UF checks" : "");
+    return SharedSatisfiabilityCache.createKey(context, fmgr.dumpFormula(f).toString());
+  }
+
   private boolean isUnsatUncached(BooleanFormula f) throws SolverException, InterruptedException {
     try (ProverEnvironment prover = newProverEnvironment()) {
       prover.push(f);
@@ -520,5 +600,8 @@ public final class Solver implements AutoCloseable {
     }
 
     unsatCache.put(unsat, true);
+    if (sharedUnsatCache != null) {
+      sharedUnsatCache.put(getSharedCacheKey(unsat), true);
+    }
   }
 }
@@ -0,0 +1,221 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.reachingdef;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.exceptions.UnsupportedCCodeException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflow;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflow.Direction;
+import org.sosy_lab.cpachecker.util.dataflow.NodeBitSets;
+import org.sosy_lab.cpachecker.util.reachingdef.ReachingDefUtils.VariableExtractor;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * The reaching definitions of a C program, computed with a {@link BitVectorDataflow} analysis
+ * inside each function (function calls are handled by their summary edges).
+ *
+ * <p>A definition is an edge that declares or assigns a variable. Like in the ReachingDefCPA, an
+ * assignment to a field or an array element defines the whole variable, and an assignment to an
+ * array element does not replace the other definitions of the array. Assignments through pointers
+ * are not handled, because there is no information about aliasing.
+ */
+public final class ReachingDefinitions {
+
+  private final ImmutableList<Pair<MemoryLocation, CFAEdge>> definitions;
+  private final NodeBitSets reachingDefinitions;
+
+  private ReachingDefinitions(
+      ImmutableList<Pair<MemoryLocation, CFAEdge>> pDefinitions, NodeBitSets pReachingDefinitions) {
+    definitions = pDefinitions;
+    reachingDefinitions = pReachingDefinitions;
+  }
+
+  /**
+   * Compute the definitions that reach each of the given nodes. Edges from and to other nodes are
+   * ignored.
+   */
+  public static ReachingDefinitions compute(
+      Collection<CFANode> pNodes, ShutdownNotifier pShutdownNotifier)
+      throws CPATransferException, InterruptedException {
+
+    // number the definitions in a deterministic order
+    List<Pair<MemoryLocation, CFAEdge>> definitions = new ArrayList<>();
+    Map<CFAEdge, Integer> definitionOfEdge = new HashMap<>();
+    BitSet weakDefinitions = new BitSet();
+    Map<MemoryLocation, BitSet> definitionsOfVariable = new HashMap<>();
+    for (CFANode node : Ordering.natural().immutableSortedCopy(pNodes)) {
+      for (CFAEdge edge : getIntraproceduralLeavingEdges(node)) {
+        MemoryLocation variable = getDefinedVariable(edge);
+        if (variable != null) {
+          int definition = definitions.size();
+          definitions.add(Pair.of(variable, edge));
+          definitionOfEdge.put(edge, definition);
+          definitionsOfVariable.computeIfAbsent(variable, v -> new BitSet()).set(definition);
+          if (isWeakDefinition(edge)) {
+            weakDefinitions.set(definition);
+          }
+        }
+      }
+    }
+
+    // a definition replaces all other definitions of the same variable
+    long[][] killedDefinitions = new long[definitions.size()][];
+    for (BitSet definitionsOfOneVariable : definitionsOfVariable.values()) {
+      long[] killed = definitionsOfOneVariable.toLongArray();
+      for (int i = definitionsOfOneVariable.nextSetBit(0);
+          i >= 0;
+          i = definitionsOfOneVariable.nextSetBit(i + 1)) {
+        killedDefinitions[i] = weakDefinitions.get(i) ? null : killed;
+      }
+    }
+
+    BitVectorDataflow dataflow = new BitVectorDataflow(pNodes, Direction.FORWARD);
+    NodeBitSets reachingDefinitions =
+        dataflow.solve(
+            ReachingDefinitions::getIntraproceduralLeavingEdges,
+            (edge, in) -> {
+              Integer definition = definitionOfEdge.get(edge);
+              if (definition == null) {
+                return in;
+              }
+              long[] out = Arrays.copyOf(in, Math.max(in.length, (definition >>> 6) + 1));
+              long[] killed = killedDefinitions[definition];
+              if (killed != null) {
+                for (int i = 0; i < Math.min(out.length, killed.length); i++) {
+                  out[i] &= ~killed[i];
+                }
+              }
+              out[definition >>> 6] |= 1L << definition;
+              return out;
+            },
+            pShutdownNotifier);
+
+    return new ReachingDefinitions(ImmutableList.copyOf(definitions), reachingDefinitions);
+  }
+
+  private static Iterable<CFAEdge> getIntraproceduralLeavingEdges(CFANode pNode) {
+    return CFAUtils.allLeavingEdges(pNode)
+        .filter(edge -> !(edge instanceof FunctionCallEdge || edge instanceof FunctionReturnEdge));
+  }
+
+  private static @Nullable MemoryLocation getDefinedVariable(CFAEdge pEdge) {
+    if (pEdge instanceof CDeclarationEdge) {
+      CDeclaration declaration = ((CDeclarationEdge) pEdge).getDeclaration();
+      if (declaration instanceof CVariableDeclaration) {
+        // a declaration without initializer is a non-deterministic, first definition
+        return MemoryLocation.valueOf(declaration.getQualifiedName());
+      }
+      return null;
+    }
+
+    CExpression assigned = getAssignedExpression(pEdge);
+    if (assigned == null) {
+      return null;
+    }
+    try {
+      return assigned.accept(new VariableExtractor(pEdge));
+    } catch (UnsupportedCCodeException e) {
+      // assignment through a pointer
+      return null;
+    }
+  }
+
+  private static boolean isWeakDefinition(CFAEdge pEdge) {
+    return getAssignedExpression(pEdge) instanceof CArraySubscriptExpression;
+  }
+
+  private static @Nullable CExpression getAssignedExpression(CFAEdge pEdge) {
+    CStatement statement = null;
+    if (pEdge instanceof CStatementEdge) {
+      statement = ((CStatementEdge) pEdge).getStatement();
+    } else if (pEdge instanceof CReturnStatementEdge) {
+      statement = ((CReturnStatementEdge) pEdge).asAssignment().orNull();
+    } else if (pEdge instanceof CFunctionSummaryEdge) {
+      statement = ((CFunctionSummaryEdge) pEdge).getExpression();
+    }
+    if (statement instanceof CAssignment) {
+      return ((CAssignment) statement).getLeftHandSide();
+    }
+    return null;
+  }
+
+  /** Return all definitions, the bits of the reaching definitions are positions in this list. */
+  public ImmutableList<Pair<MemoryLocation, CFAEdge>> getDefinitions() {
+    return definitions;
+  }
+
+  /** Return the definitions that reach the given node. */
+  public ImmutableList<Pair<MemoryLocation, CFAEdge>> getReachingDefinitions(CFANode pNode) {
+    ImmutableList.Builder<Pair<MemoryLocation, CFAEdge>> result = ImmutableList.builder();
+    for (int i = reachingDefinitions.nextSetBit(pNode, 0);
+        i >= 0;
+        i = reachingDefinitions.nextSetBit(pNode, i + 1)) {
+      result.add(definitions.get(i));
+    }
+    return result.build();
+  }
+
+  /** Return the edges of the definitions of the given variable that reach the given node. */
+  public ImmutableList<CFAEdge> getReachingDefinitions(CFANode pNode, MemoryLocation pVariable) {
+    ImmutableList.Builder<CFAEdge> result = ImmutableList.builder();
+    for (Pair<MemoryLocation, CFAEdge> definition : getReachingDefinitions(pNode)) {
+      if (definition.getFirst().equals(pVariable)) {
+        result.add(definition.getSecond());
+      }
+    }
+    return result.build();
+  }
+
+  /** Return the reaching definitions of all nodes as bit sets over {@link #getDefinitions()}. */
+  public NodeBitSets getReachingDefinitionBits() {
+    return reachingDefinitions;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.reachingdef;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class ReachingDefinitionsTest {
+
+  private static final String[] BRANCHES = {
+    "int g;",
+    "int main() {",
+    "  int x = 1;",
+    "  int y;",
+    "  int a[2];",
+    "  if (g) {",
+    "    x = 2;",
+    "  } else {",
+    "    y = x;",
+    "  }",
+    "  a[0] = x;",
+    "  a[1] = y;",
+    "  return x;",
+    "}"
+  };
+
+  private static final String[] LOOP = {
+    "int main() {",
+    "  int i = 0;",
+    "  int s = 0;",
+    "  while (i < 10) {",
+    "    s = s + i;",
+    "    i = i + 1;",
+    "  }",
+    "  return s;",
+    "}"
+  };
+
+  private static final MemoryLocation X = MemoryLocation.valueOf("main::x");
+  private static final MemoryLocation Y = MemoryLocation.valueOf("main::y");
+  private static final MemoryLocation A = MemoryLocation.valueOf("main::a");
+  private static final MemoryLocation I = MemoryLocation.valueOf("main::i");
+  private static final MemoryLocation S = MemoryLocation.valueOf("main::s");
+
+  @Test
+  public void testDefinitionsOfBranchesAreJoined() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(BRANCHES);
+    ReachingDefinitions definitions = compute(cfa);
+
+    CFANode atReturn = getEdge(cfa, "return x;").getPredecessor();
+    assertThat(definitions.getReachingDefinitions(atReturn, X))
+        .containsExactly(getEdge(cfa, "int x = 1;"), getEdge(cfa, "x = 2;"));
+    assertThat(definitions.getReachingDefinitions(atReturn, Y))
+        .containsExactly(getEdge(cfa, "int y;"), getEdge(cfa, "y = x;"));
+  }
+
+  @Test
+  public void testDefinitionIsKilledOnlyOnItsPath() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(BRANCHES);
+    ReachingDefinitions definitions = compute(cfa);
+
+    CFANode afterThen = getEdge(cfa, "x = 2;").getSuccessor();
+    assertThat(definitions.getReachingDefinitions(afterThen, X))
+        .containsExactly(getEdge(cfa, "x = 2;"));
+    assertThat(definitions.getReachingDefinitions(afterThen, Y))
+        .containsExactly(getEdge(cfa, "int y;"));
+  }
+
+  @Test
+  public void testArrayElementDoesNotKillOtherDefinitions() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(BRANCHES);
+    ReachingDefinitions definitions = compute(cfa);
+
+    CFANode atReturn = getEdge(cfa, "return x;").getPredecessor();
+    assertThat(definitions.getReachingDefinitions(atReturn, A))
+        .containsExactly(
+            getEdge(cfa, "int a[2];"), getEdge(cfa, "a[0] = x;"), getEdge(cfa, "a[1] = y;"));
+  }
+
+  @Test
+  public void testDefinitionsFlowAroundLoop() throws Exception {
+    CFA cfa = TestDataTools.makeCFA(LOOP);
+    ReachingDefinitions definitions = compute(cfa);
+
+    CFANode inLoop = getEdge(cfa, "s = s + i;").getPredecessor();
+    assertThat(definitions.getReachingDefinitions(inLoop, I))
+        .containsExactly(getEdge(cfa, "int i = 0;"), getEdge(cfa, "i = i + 1;"));
+    assertThat(definitions.getReachingDefinitions(inLoop, S))
+        .containsExactly(getEdge(cfa, "int s = 0;"), getEdge(cfa, "s = s + i;"));
+
+    CFANode atReturn = getEdge(cfa, "return s;").getPredecessor();
+    assertThat(definitions.getReachingDefinitions(atReturn, S))
+        .containsExactly(getEdge(cfa, "int s = 0;"), getEdge(cfa, "s = s + i;"));
+  }
+
+  private static ReachingDefinitions compute(CFA pCfa) throws Exception {
+    return ReachingDefinitions.compute(pCfa.getAllNodes(), ShutdownNotifier.createDummy());
+  }
+
+  private static CFAEdge getEdge(CFA pCfa, String pCode) {
+    for (CFANode node : pCfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        if (edge.getCode().equals(pCode)) {
+          return edge;
+        }
+      }
+    }
+    throw new AssertionError("No edge with code " + pCode);
+  }
+}
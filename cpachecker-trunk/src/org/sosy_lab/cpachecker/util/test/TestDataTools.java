@@ -30,6 +30,7 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.ConfigurationBuilder;
@@ -45,8 +46,12 @@ import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
 import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
 import org.sosy_lab.cpachecker.cfa.types.c.CStorageClass;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
 import org.sosy_lab.cpachecker.exceptions.ParserException;
 import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
@@ -54,6 +59,7 @@ import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
 public class TestDataTools {
 
@@ -186,4 +192,33 @@ public class TestDataTools {
   private static String getProgram(String... parts) {
     return "int main() {" +  Joiner.on('\n').join(parts) + "}";
   }
+
+  /**
+   * Create a state of the value analysis that assigns the i-th given value to the variable
+   * <code>main::xi</code>. Variables with a negative value are not assigned.
+   */
+  public static ValueAnalysisState makeValueAnalysisState(int... pValues) {
+    ValueAnalysisState state = new ValueAnalysisState(MachineModel.LINUX32);
+    for (int i = 0; i < pValues.length; i++) {
+      if (pValues[i] >= 0) {
+        state.assignConstant(
+            MemoryLocation.valueOf("main", "x" + i),
+            new NumericValue(pValues[i]),
+            CNumericTypes.INT);
+      }
+    }
+    return state;
+  }
+
+  /**
+   * Create a random state like {@link #makeValueAnalysisState(int...)} with six variables, each
+   * either unassigned or assigned one of three values, such that many states cover each other.
+   */
+  public static ValueAnalysisState makeRandomValueAnalysisState(Random pRandom) {
+    int[] values = new int[6];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = pRandom.nextInt(4) - 1;
+    }
+    return makeValueAnalysisState(values);
+  }
 }